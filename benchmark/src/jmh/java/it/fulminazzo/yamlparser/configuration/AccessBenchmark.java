@@ -0,0 +1,141 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the typed getters and setters of {@link IConfiguration} on a loaded configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccessBenchmark {
+    private static final String SECTION = "section-3";
+    private static final ConfigPath ID = ConfigPath.of(SECTION + ".id");
+    private static final ConfigPath DEEP_VALUE = ConfigPath.of("deep.a.b.c.d.e.value");
+
+    @Param({"yaml", "json", "xml", "toml"})
+    private String format;
+
+    private ManagedFileConfiguration configuration;
+    private ManagedFileConfiguration cached;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurationFormat configurationFormat = DocumentGenerator.getFormat(this.format);
+        byte[] wide = DocumentGenerator.serialize(configurationFormat, DocumentGenerator.generate(DocumentGenerator.Shape.WIDE, 16 * 1024));
+        this.configuration = (ManagedFileConfiguration) configurationFormat.newConfiguration(new ByteArrayInputStream(wide));
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 64; i++) numbers.add(i * 7);
+        this.configuration.set("lists.numbers", numbers);
+        this.configuration.set("deep.a.b.c.d.e.value", 42);
+        NumericList.OfDouble curve = new NumericList.OfDouble();
+        for (int i = 0; i < 1024; i++) curve.addDouble(Math.sin(i / 100d));
+        this.configuration.set("lists.curve", curve);
+        this.configuration.set("lists.boxedCurve", new ArrayList<>(curve));
+        this.configuration.set("ids", Collections.nCopies(16, UUID.randomUUID()));
+        this.cached = (ManagedFileConfiguration) configurationFormat.newConfiguration(new ByteArrayInputStream(wide));
+        this.cached.set("lists.numbers", numbers);
+        this.cached.set("ids", this.configuration.getList("ids", UUID.class));
+        this.cached.enableValueCache();
+    }
+
+    @Benchmark
+    public String getString() {
+        return this.configuration.getString(SECTION + ".name");
+    }
+
+    @Benchmark
+    public Integer getInteger() {
+        return this.configuration.getInteger(SECTION + ".id");
+    }
+
+    @Benchmark
+    public Integer getIntegerWithConfigPath() {
+        return this.configuration.getInteger(ID);
+    }
+
+    @Benchmark
+    public Double getDouble() {
+        return this.configuration.getDouble(SECTION + ".weight");
+    }
+
+    @Benchmark
+    public Boolean getBoolean() {
+        return this.configuration.getBoolean(SECTION + ".enabled");
+    }
+
+    @Benchmark
+    public Integer getDeepInteger() {
+        return this.configuration.getInteger("deep.a.b.c.d.e.value");
+    }
+
+    @Benchmark
+    public Integer getDeepIntegerWithConfigPath() {
+        return this.configuration.getInteger(DEEP_VALUE);
+    }
+
+    @Benchmark
+    public List<Object> getList() {
+        return this.configuration.getList("lists.numbers", Object.class);
+    }
+
+    @Benchmark
+    public int[] getIntArray() {
+        return this.configuration.getIntArray("lists.numbers");
+    }
+
+    @Benchmark
+    public double[] getDoubleArray() {
+        return this.configuration.getDoubleArray("lists.curve");
+    }
+
+    @Benchmark
+    public double[] getDoubleArrayOfBoxedList() {
+        return this.configuration.getDoubleArray("lists.boxedCurve");
+    }
+
+    @Benchmark
+    public List<Double> getDoubleList() {
+        return this.configuration.getList("lists.curve", Double.class);
+    }
+
+    @Benchmark
+    public List<Object> getListCached() {
+        return this.cached.getList("lists.numbers", Object.class);
+    }
+
+    @Benchmark
+    public List<UUID> getUUIDList() {
+        return this.configuration.getList("ids", UUID.class);
+    }
+
+    @Benchmark
+    public List<UUID> getUUIDListCached() {
+        return this.cached.getList("ids", UUID.class);
+    }
+
+    @Benchmark
+    public ConfigurationSection getConfigurationSection() {
+        return this.configuration.getConfigurationSection(SECTION);
+    }
+
+    @Benchmark
+    public void set() {
+        this.configuration.set(SECTION + ".id", this.counter++);
+    }
+
+    @Benchmark
+    public void setWithConfigPath() {
+        this.configuration.set(ID, this.counter++);
+    }
+}
@@ -0,0 +1,62 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first loads of a configuration file in a new JVM, as it happens at startup,
+ * parsing the text of the file or reading the snapshot stored by {@link BinarySnapshotCache}.
+ * Every iteration loads the file once, without warmup,
+ * so the first iterations of each fork run the code of the format before it is compiled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 20)
+@Fork(5)
+public class ColdStartBenchmark {
+
+    @Param({"yaml", "json", "xml", "toml"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    @Param({"65536", "1048576"})
+    private int size;
+
+    private ConfigurationFormat configurationFormat;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.configurationFormat = DocumentGenerator.getFormat(this.format);
+        this.file = File.createTempFile("cold-start-benchmark", "." + this.configurationFormat.getExtensions().get(0));
+        Files.write(this.file.toPath(), DocumentGenerator.serialize(this.configurationFormat,
+                DocumentGenerator.generate(DocumentGenerator.Shape.WIDE, this.size)));
+        if (this.snapshot) {
+            // Take the snapshot before the measurements, as a previous start would have done
+            ConfigurationFormats.setCache(new BinarySnapshotCache());
+            this.configurationFormat.newConfiguration(this.file);
+            if (!BinarySnapshotCache.getSnapshot(this.file).isFile())
+                throw new IllegalStateException("Could not take the snapshot of " + this.file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ConfigurationFormats.setCache(null);
+        BinarySnapshotCache.getSnapshot(this.file).delete();
+        this.file.delete();
+    }
+
+    @Benchmark
+    public FileConfiguration load() {
+        return this.configurationFormat.newConfiguration(this.file);
+    }
+}
@@ -0,0 +1,94 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Measures the read throughput of many threads reading a configuration while another one updates it.
+ * The current mode guards a {@link FileConfiguration} with a {@link ReadWriteLock},
+ * while the copy-on-write modes read a {@link ConcurrentConfiguration} without any locking,
+ * either through its typed getters or its raw values.
+ * The writer pauses between updates, like an administration thread would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConcurrentAccessBenchmark {
+    private static final String PATH = "section-3.id";
+    private static final long WRITER_PAUSE = 100_000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileConfiguration configuration;
+    private ConcurrentConfiguration concurrent;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConfigurationFormat format = DocumentGenerator.getFormat("yaml");
+        this.configuration = format.newConfiguration(new ByteArrayInputStream(DocumentGenerator.serialize(format,
+                DocumentGenerator.generate(DocumentGenerator.Shape.WIDE, 16 * 1024))));
+        this.concurrent = ConcurrentConfiguration.of(this.configuration);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(7)
+    public Integer lockedRead() {
+        this.lock.readLock().lock();
+        try {
+            return this.configuration.getInteger(PATH);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite() {
+        Blackhole.consumeCPU(WRITER_PAUSE);
+        this.lock.writeLock().lock();
+        try {
+            this.configuration.set(PATH, this.counter++);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(7)
+    public Integer copyOnWriteRead() {
+        return this.concurrent.getInteger(PATH);
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(1)
+    public void copyOnWriteWrite() {
+        Blackhole.consumeCPU(WRITER_PAUSE);
+        this.concurrent.set(PATH, this.counter++);
+    }
+
+    @Benchmark
+    @Group("copyOnWriteRaw")
+    @GroupThreads(7)
+    public Object copyOnWriteRawRead() {
+        return this.concurrent.get(PATH);
+    }
+
+    @Benchmark
+    @Group("copyOnWriteRaw")
+    @GroupThreads(1)
+    public void copyOnWriteRawWrite() {
+        Blackhole.consumeCPU(WRITER_PAUSE);
+        this.concurrent.set(PATH, this.counter++);
+    }
+}
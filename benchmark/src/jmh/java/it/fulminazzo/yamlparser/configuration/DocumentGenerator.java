@@ -0,0 +1,173 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Generates deterministic configuration documents of approximately the requested size.
+ */
+final class DocumentGenerator {
+    private static final int DEPTH = 12;
+    private static final int LIST_SIZE = 64;
+
+    /**
+     * The shape of a generated document.
+     */
+    enum Shape {
+        /**
+         * Many top-level sections, each with a few scalar values.
+         */
+        WIDE,
+        /**
+         * Chains of sections nested {@link #DEPTH} levels deep.
+         */
+        DEEP,
+        /**
+         * Sections mostly made of lists of scalars and lists of sections.
+         */
+        LISTS
+    }
+
+    private DocumentGenerator() {}
+
+    /**
+     * Generates a document of the given shape, whose serialized form is roughly of the given size.
+     *
+     * @param shape the shape
+     * @param size  the approximate size in bytes
+     * @return the document
+     */
+    static @NotNull Map<String, Object> generate(final @NotNull Shape shape, final int size) {
+        final Random random = new Random(size * 31L + shape.ordinal());
+        final Map<String, Object> document = new LinkedHashMap<>();
+        long estimated = 0;
+        for (int i = 0; estimated < size; i++) {
+            final String key = "section-" + i;
+            final Map<String, Object> section;
+            switch (shape) {
+                case DEEP:
+                    section = deepSection(random);
+                    break;
+                case LISTS:
+                    section = listSection(random);
+                    break;
+                default:
+                    section = wideSection(random);
+            }
+            document.put(key, section);
+            estimated += key.length() + estimateSize(section);
+        }
+        return document;
+    }
+
+    /**
+     * Serializes the given document with the given format.
+     *
+     * @param format   the format
+     * @param document the document
+     * @return the serialized bytes
+     */
+    static byte @NotNull [] serialize(final @NotNull ConfigurationFormat format, final @NotNull Map<String, Object> document) {
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            emptyConfiguration(format).dump(document, writer);
+            writer.flush();
+            return output.toByteArray();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates an empty configuration of the given format.
+     *
+     * @param format the format
+     * @return the file configuration
+     */
+    static @NotNull FileConfiguration emptyConfiguration(final @NotNull ConfigurationFormat format) {
+        return format.newConfiguration(new ByteArrayInputStream(new byte[0]));
+    }
+
+    /**
+     * Gets the registered format with the given name.
+     *
+     * @param name the name
+     * @return the format
+     */
+    static @NotNull ConfigurationFormat getFormat(final @NotNull String name) {
+        final ConfigurationFormat format = ConfigurationFormats.getFormat(name);
+        if (format == null) throw new IllegalArgumentException("Format not available: " + name);
+        return format;
+    }
+
+    private static @NotNull Map<String, Object> wideSection(final @NotNull Random random) {
+        final Map<String, Object> section = new LinkedHashMap<>();
+        section.put("name", randomString(random));
+        section.put("id", random.nextInt(1_000_000));
+        section.put("weight", random.nextInt(10_000) / 100d);
+        section.put("enabled", random.nextBoolean());
+        section.put("description", randomString(random) + " " + randomString(random));
+        return section;
+    }
+
+    private static @NotNull Map<String, Object> deepSection(final @NotNull Random random) {
+        final Map<String, Object> root = new LinkedHashMap<>();
+        Map<String, Object> current = root;
+        for (int i = 0; i < DEPTH; i++) {
+            current.put("value", random.nextInt(1_000));
+            current.put("label", randomString(random));
+            final Map<String, Object> child = new LinkedHashMap<>();
+            current.put("child", child);
+            current = child;
+        }
+        current.put("leaf", randomString(random));
+        return root;
+    }
+
+    private static @NotNull Map<String, Object> listSection(final @NotNull Random random) {
+        final Map<String, Object> section = new LinkedHashMap<>();
+        final List<Object> numbers = new ArrayList<>();
+        final List<Object> names = new ArrayList<>();
+        final List<Object> entries = new ArrayList<>();
+        for (int i = 0; i < LIST_SIZE; i++) {
+            numbers.add(random.nextInt(100_000));
+            names.add(randomString(random));
+            if (i % 8 == 0) {
+                final Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", randomString(random));
+                entry.put("priority", random.nextInt(10));
+                entries.add(entry);
+            }
+        }
+        section.put("numbers", numbers);
+        section.put("names", names);
+        section.put("entries", entries);
+        return section;
+    }
+
+    private static long estimateSize(final Object object) {
+        if (object instanceof Map) {
+            long size = 2;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet())
+                size += entry.getKey().toString().length() + 4 + estimateSize(entry.getValue());
+            return size;
+        } else if (object instanceof Collection) {
+            long size = 2;
+            for (Object element : (Collection<?>) object) size += 2 + estimateSize(element);
+            return size;
+        } else return String.valueOf(object).length() + 2;
+    }
+
+    private static @NotNull String randomString(final @NotNull Random random) {
+        final char[] chars = new char[8 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) chars[i] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+}
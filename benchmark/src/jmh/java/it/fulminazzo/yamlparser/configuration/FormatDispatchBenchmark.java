@@ -0,0 +1,95 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import it.fulminazzo.fulmicollection.objects.Refl;
+import it.fulminazzo.fulmicollection.utils.ClassUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the startup cost of opening many configuration files through
+ * {@link FileConfiguration#newConfiguration(File)} against the previous implementation,
+ * which scanned the classpath and tried every {@link FileConfiguration} until one succeeded.
+ * It also measures {@link FileConfiguration#newConfiguration(InputStream)}, where the format is detected from the contents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SingleShotTime, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FormatDispatchBenchmark {
+    private static final String[][] CONTENTS = new String[][]{
+            new String[]{"yml", "name: %1$s\nvalues:\n  id: %2$d\n  enabled: true\n"},
+            new String[]{"json", "{\"name\": \"%1$s\", \"values\": {\"id\": %2$d, \"enabled\": true}}"},
+            new String[]{"xml", "<root><name>%1$s</name><values><id>%2$d</id><enabled>true</enabled></values></root>"},
+            new String[]{"toml", "name = \"%1$s\"\n[values]\nid = %2$d\nenabled = true\n"},
+    };
+
+    @Param({"100", "500"})
+    private int files;
+
+    private File directory;
+    private List<File> configurations;
+    private List<byte[]> contents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("configurations").toFile();
+        this.configurations = new ArrayList<>();
+        this.contents = new ArrayList<>();
+        for (int i = 0; i < this.files; i++) {
+            String[] content = CONTENTS[i % CONTENTS.length];
+            File file = new File(this.directory, "config-" + i + "." + content[0]);
+            byte[] data = String.format(content[1], "config-" + i, i).getBytes(StandardCharsets.UTF_8);
+            Files.write(file.toPath(), data);
+            this.configurations.add(file);
+            this.contents.add(data);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : this.configurations) file.delete();
+        this.directory.delete();
+    }
+
+    @Benchmark
+    public void registry(Blackhole blackhole) {
+        for (File file : this.configurations) blackhole.consume(FileConfiguration.newConfiguration(file));
+    }
+
+    @Benchmark
+    public void contentDetection(Blackhole blackhole) {
+        for (byte[] data : this.contents) blackhole.consume(FileConfiguration.newConfiguration(new ByteArrayInputStream(data)));
+    }
+
+    @Benchmark
+    public void classpathScan(Blackhole blackhole) {
+        for (File file : this.configurations) blackhole.consume(legacyNewConfiguration(file));
+    }
+
+    /**
+     * Replicates the previous implementation of {@link FileConfiguration#newConfiguration(File)},
+     * without printing the collected exceptions.
+     *
+     * @param file the file
+     * @return the file configuration
+     */
+    @SuppressWarnings("unchecked")
+    private static FileConfiguration legacyNewConfiguration(File file) {
+        for (Class<?> clazz : ClassUtils.findClassesInPackage(FileConfiguration.class.getPackage().getName()))
+            if (FileConfiguration.class.isAssignableFrom(clazz) && !Modifier.isAbstract(clazz.getModifiers()))
+                try {
+                    return new Refl<>((Class<? extends FileConfiguration>) clazz, file).getObject();
+                } catch (Exception ignored) {}
+        throw new RuntimeException("Could not create configuration from " + file);
+    }
+}
@@ -0,0 +1,51 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a large document and reading a single section of it,
+ * when every section is parsed immediately and when they are parsed lazily.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LazyLoadBenchmark {
+
+    @Param({"yaml", "json"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean lazy;
+
+    @Param({"1048576", "16777216"})
+    private int size;
+
+    private ConfigurationFormat configurationFormat;
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.configurationFormat = DocumentGenerator.getFormat(this.format);
+        this.document = DocumentGenerator.serialize(this.configurationFormat,
+                DocumentGenerator.generate(DocumentGenerator.Shape.DEEP, this.size));
+        JSONOptions.setLazyLoading(this.lazy);
+        YAMLOptions.setLazyLoading(this.lazy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JSONOptions.setLazyLoading(false);
+        YAMLOptions.setLazyLoading(false);
+    }
+
+    @Benchmark
+    public Object loadAndReadOneSection() {
+        FileConfiguration configuration = this.configurationFormat.newConfiguration(ByteBuffer.wrap(this.document));
+        return configuration.getConfigurationSection("section-3");
+    }
+}
@@ -0,0 +1,90 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FileConfiguration#load(java.io.InputStream)} and {@link FileConfiguration#dump(Map, Writer)}
+ * of every format, on generated documents of different shapes and sizes (from 1 KB to 100 MB).
+ * <p>
+ * Single combinations can be selected with the JMH <code>-p</code> option, for example
+ * <code>-p format=json -p size=1024</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoadDumpBenchmark {
+
+    @Param({"yaml", "json", "xml", "toml"})
+    private String format;
+
+    @Param({"WIDE", "DEEP", "LISTS"})
+    private DocumentGenerator.Shape shape;
+
+    @Param({"1024", "102400", "10485760", "104857600"})
+    private int size;
+
+    private ConfigurationFormat configurationFormat;
+    private FileConfiguration configuration;
+    private Map<?, ?> data;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.configurationFormat = DocumentGenerator.getFormat(this.format);
+        this.serialized = DocumentGenerator.serialize(this.configurationFormat, DocumentGenerator.generate(this.shape, this.size));
+        this.configuration = this.configurationFormat.newConfiguration(new ByteArrayInputStream(this.serialized));
+        this.data = this.configuration.toMap();
+    }
+
+    @Benchmark
+    public FileConfiguration load() {
+        return this.configurationFormat.newConfiguration(new ByteArrayInputStream(this.serialized));
+    }
+
+    @Benchmark
+    public void dump(Blackhole blackhole) {
+        this.configuration.dump(this.data, new BlackholeWriter(blackhole));
+    }
+
+    /**
+     * A {@link Writer} that hands every written character to a {@link Blackhole}.
+     */
+    static final class BlackholeWriter extends Writer {
+        private final Blackhole blackhole;
+
+        BlackholeWriter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int c) {
+            this.blackhole.consume(c);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            this.blackhole.consume(buffer);
+            this.blackhole.consume(length);
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            this.blackhole.consume(string);
+            this.blackhole.consume(length);
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,56 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a modification followed by {@link FileConfiguration#save()} on real files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SaveBenchmark {
+
+    @Param({"yaml", "json", "xml", "toml"})
+    private String format;
+
+    @Param({"1024", "1048576"})
+    private int size;
+
+    private File file;
+    private FileConfiguration configuration;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ConfigurationFormat configurationFormat = DocumentGenerator.getFormat(this.format);
+        this.file = File.createTempFile("save-benchmark", "." + configurationFormat.getExtensions().get(0));
+        Files.write(this.file.toPath(), DocumentGenerator.serialize(configurationFormat,
+                DocumentGenerator.generate(DocumentGenerator.Shape.WIDE, this.size)));
+        this.configuration = FileConfiguration.newConfiguration(this.file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    @Benchmark
+    public void setAndSave() throws IOException {
+        this.configuration.set("section-0.id", this.counter++);
+        this.configuration.save();
+    }
+
+    @Benchmark
+    public FileConfiguration saveAndReload() throws IOException {
+        this.configuration.set("section-0.id", this.counter++);
+        this.configuration.save();
+        return FileConfiguration.newConfiguration(this.file);
+    }
+}
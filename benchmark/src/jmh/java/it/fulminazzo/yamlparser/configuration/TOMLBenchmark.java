@@ -0,0 +1,58 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import com.moandjiezana.toml.Toml;
+import com.moandjiezana.toml.TomlWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link TOMLReader} and {@link TOMLWriter} against toml4j,
+ * which was previously used by {@link TOMLConfiguration}, on large generated documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TOMLBenchmark {
+
+    @Param({"WIDE", "DEEP", "LISTS"})
+    private DocumentGenerator.Shape shape;
+
+    @Param({"102400", "10485760", "104857600"})
+    private int size;
+
+    private Map<String, Object> data;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.data = DocumentGenerator.generate(this.shape, this.size);
+        this.serialized = DocumentGenerator.serialize(DocumentGenerator.getFormat("toml"), this.data);
+    }
+
+    @Benchmark
+    public Map<String, Object> streamingLoad() throws IOException {
+        return TOMLReader.read(new InputStreamReader(new ByteArrayInputStream(this.serialized), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Map<String, Object> toml4jLoad() {
+        return new Toml().read(new ByteArrayInputStream(this.serialized)).toMap();
+    }
+
+    @Benchmark
+    public void streamingDump(Blackhole blackhole) throws IOException {
+        new TOMLWriter(new LoadDumpBenchmark.BlackholeWriter(blackhole)).write(this.data);
+    }
+
+    @Benchmark
+    public void toml4jDump(Blackhole blackhole) throws IOException {
+        new TomlWriter().write(this.data, new LoadDumpBenchmark.BlackholeWriter(blackhole));
+    }
+}
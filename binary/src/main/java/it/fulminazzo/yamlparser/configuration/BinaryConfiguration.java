@@ -0,0 +1,144 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * An implementation of {@link FileConfiguration} to support the compact binary format described in {@link BinaryTags}.
+ * It is meant to be read by machines: it keeps the exact type of every number, and it is decoded without any parsing.
+ */
+class BinaryConfiguration extends ManagedFileConfiguration {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Instantiates a new Binary configuration.
+     *
+     * @param path the path
+     */
+    public BinaryConfiguration(final @NotNull String path) {
+        super(path);
+    }
+
+    /**
+     * Instantiates a new Binary configuration.
+     *
+     * @param file the file
+     */
+    public BinaryConfiguration(final @NotNull File file) {
+        super(file);
+    }
+
+    /**
+     * Instantiates a new Binary configuration.
+     *
+     * @param inputStream the input stream
+     */
+    public BinaryConfiguration(final @NotNull InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * Instantiates a new Binary configuration.
+     *
+     * @param file        the file
+     * @param inputStream the input stream
+     */
+    public BinaryConfiguration(final @Nullable File file, final @NotNull InputStream inputStream) {
+        super(file, inputStream);
+    }
+
+    /**
+     * Reads the whole stream and decodes it with {@link BinaryReader}.
+     * The data of a {@link PreloadedInputStream} is returned as it is.
+     *
+     * @param stream the stream
+     * @return the map
+     */
+    @Override
+    protected Map<?, ?> load(final @NotNull InputStream stream) {
+        return ConfigurationMetrics.load("binary", stream, this::parse);
+    }
+
+    private Map<?, ?> parse(final @NotNull InputStream stream) {
+        if (stream instanceof PreloadedInputStream) return ((PreloadedInputStream) stream).getData();
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(stream.available(), BUFFER_SIZE));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) output.write(buffer, 0, read);
+            return BinaryReader.read(ByteBuffer.wrap(output.toByteArray()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the data with {@link BinaryWriter}.
+     * Since the format is not text, every byte is written as the character with the same code:
+     * the writer must encode them back to the same bytes, as {@link StandardCharsets#ISO_8859_1} does.
+     *
+     * @param data   the data
+     * @param writer the writer
+     */
+    @Override
+    protected void dump(final @NotNull Map<?, ?> data, final @NotNull Writer writer) {
+        ConfigurationMetrics.dump("binary", data, writer, this::serialize);
+    }
+
+    private void serialize(final @NotNull Map<?, ?> data, final @NotNull Writer writer) {
+        try {
+            new BinaryWriter(new WriterOutputStream(writer), false).write(data);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets {@link StandardCharsets#ISO_8859_1}, which maps every character written by {@link #dump(Map, Writer)} to its byte.
+     *
+     * @return the charset
+     */
+    @Override
+    protected @NotNull Charset getCharset() {
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * An {@link OutputStream} that writes every byte to a {@link Writer} as the character with the same code.
+     */
+    private static final class WriterOutputStream extends OutputStream {
+        private final @NotNull Writer writer;
+        private final char @NotNull [] chars = new char[BUFFER_SIZE];
+
+        WriterOutputStream(final @NotNull Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.writer.write(b & 0xFF);
+        }
+
+        @Override
+        public void write(final byte @NotNull [] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final int length = Math.min(len, this.chars.length);
+                for (int i = 0; i < length; i++) this.chars[i] = (char) (b[off + i] & 0xFF);
+                this.writer.write(this.chars, 0, length);
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.writer.flush();
+        }
+    }
+}
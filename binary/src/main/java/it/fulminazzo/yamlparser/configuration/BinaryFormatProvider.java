@@ -0,0 +1,29 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link ConfigurationFormatProvider} of binary files, implemented by {@link BinaryConfiguration}.
+ */
+public final class BinaryFormatProvider implements ConfigurationFormatProvider {
+
+    @Override
+    public @NotNull String getName() {
+        return "binary";
+    }
+
+    @Override
+    public @NotNull Class<? extends FileConfiguration> getConfigurationClass() {
+        return BinaryConfiguration.class;
+    }
+
+    @Override
+    public String @NotNull [] getExtensions() {
+        return new String[]{"bin"};
+    }
+
+    @Override
+    public int getPriority() {
+        return 40;
+    }
+}
@@ -0,0 +1,189 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static it.fulminazzo.yamlparser.configuration.BinaryTags.*;
+
+/**
+ * A reader of the binary format described in {@link BinaryTags}, that decodes a document directly from a {@link ByteBuffer}.
+ * Numeric arrays are read as {@link NumericList}s.
+ */
+final class BinaryReader {
+    private final @NotNull ByteBuffer buffer;
+    private final @NotNull List<String> strings = new ArrayList<>();
+
+    private BinaryReader(final @NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads a binary document from the position of the given buffer, which will be moved to the end of the document.
+     *
+     * @param buffer the buffer
+     * @return the map, or null if the buffer is empty
+     * @throws IOException if the document is not valid
+     */
+    static @Nullable Map<?, ?> read(final @NotNull ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) return null;
+        try {
+            final BinaryReader reader = new BinaryReader(buffer);
+            reader.readHeader();
+            final Object value = reader.readValue();
+            if (value != null && !(value instanceof Map))
+                throw new IOException("Expected a map but was " + value.getClass().getSimpleName());
+            return (Map<?, ?>) value;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary document", e);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        for (final byte b : MAGIC)
+            if (this.buffer.get() != b) throw new IOException("Not a binary configuration document");
+        final byte version = this.buffer.get();
+        if (version != VERSION) throw new IOException("Unsupported binary configuration version: " + version);
+    }
+
+    private @Nullable Object readValue() throws IOException {
+        final byte tag = this.buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return false;
+            case TRUE:
+                return true;
+            case BYTE:
+                return this.buffer.get();
+            case SHORT:
+                return (short) readSigned();
+            case CHAR:
+                return (char) readVarLong();
+            case INT:
+                return (int) readSigned();
+            case LONG:
+                return readSigned();
+            case FLOAT:
+                return Float.intBitsToFloat(this.buffer.getInt());
+            case DOUBLE:
+                return Double.longBitsToDouble(this.buffer.getLong());
+            case STRING:
+                return readString();
+            case STRING_DEFINITION:
+            case STRING_REFERENCE:
+                return readStringReference(tag);
+            case BYTES: {
+                final byte[] bytes = new byte[readSize()];
+                this.buffer.get(bytes);
+                return bytes;
+            }
+            case MAP:
+                return readMap();
+            case LIST: {
+                final int size = readSize();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(readValue());
+                return list;
+            }
+            case SET: {
+                final int size = readSize();
+                final Set<Object> set = new LinkedHashSet<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) set.add(readValue());
+                return set;
+            }
+            case INT_ARRAY: {
+                final int[] array = new int[readSize()];
+                for (int i = 0; i < array.length; i++) array[i] = (int) readSigned();
+                return NumericList.ofInts(array);
+            }
+            case LONG_ARRAY: {
+                final long[] array = new long[readSize()];
+                for (int i = 0; i < array.length; i++) array[i] = readSigned();
+                return NumericList.ofLongs(array);
+            }
+            case DOUBLE_ARRAY: {
+                final double[] array = new double[readSize()];
+                for (int i = 0; i < array.length; i++) array[i] = Double.longBitsToDouble(this.buffer.getLong());
+                return NumericList.ofDoubles(array);
+            }
+            case CODEC: {
+                final String name = readStringReference(this.buffer.get());
+                final Object text = readValue();
+                if (!(text instanceof String)) throw invalid("Expected the text of codec " + name);
+                return ValueCodecs.decode(name, (String) text);
+            }
+            default:
+                throw invalid(String.format("Unknown tag 0x%02X", tag));
+        }
+    }
+
+    private @NotNull Map<Object, Object> readMap() throws IOException {
+        final int size = readSize();
+        final Map<Object, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            final Object key = readValue();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    private @NotNull String readStringReference(final byte tag) throws IOException {
+        if (tag == STRING_DEFINITION) {
+            final String string = readString();
+            this.strings.add(string);
+            return string;
+        } else if (tag == STRING_REFERENCE) {
+            final long index = readVarLong();
+            if (index < 0 || index >= this.strings.size()) throw invalid("Unknown string reference " + index);
+            return this.strings.get((int) index);
+        } else throw invalid(String.format("Expected a string reference but was tag 0x%02X", tag));
+    }
+
+    private @NotNull String readString() throws IOException {
+        final int length = readSize();
+        if (this.buffer.hasArray()) {
+            final int position = this.buffer.position();
+            final String string = new String(this.buffer.array(), this.buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            this.buffer.position(position + length);
+            return string;
+        }
+        final byte[] bytes = new byte[length];
+        this.buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a size, which cannot be bigger than the remaining bytes, since every element takes at least one.
+     */
+    private int readSize() throws IOException {
+        final long size = readVarLong();
+        if (size < 0 || size > this.buffer.remaining()) throw invalid("Invalid size " + size);
+        return (int) size;
+    }
+
+    private long readSigned() throws IOException {
+        final long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = this.buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw invalid("Malformed variable length integer");
+    }
+
+    private @NotNull IOException invalid(final @NotNull String message) {
+        return new IOException(message + " at position " + this.buffer.position());
+    }
+}
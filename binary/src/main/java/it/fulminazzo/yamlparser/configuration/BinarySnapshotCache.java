@@ -0,0 +1,120 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link ConfigurationCache} that stores the data of every file in a binary snapshot next to it,
+ * named as the file with a leading dot and the {@link #EXTENSION} suffix.
+ * It can be enabled with:
+ * <pre>{@code
+ * ConfigurationFormats.setCache(new BinarySnapshotCache());
+ * }</pre>
+ * A snapshot starts with the key of the file it was taken from: its format, absolute path,
+ * last modified time, size and CRC32 of its content. It is used only if the key still matches,
+ * and it is replaced the next time the file is parsed otherwise.
+ * <p>
+ * Only data made of values that the binary format reads back unchanged is stored:
+ * files containing other objects are always parsed.
+ */
+public final class BinarySnapshotCache implements ConfigurationCache {
+    /**
+     * The suffix of the snapshot files.
+     */
+    public static final String EXTENSION = ".snapshot";
+    private static final byte[] MAGIC = {'C', 'F', 'G', 'S'};
+    private static final byte VERSION = 1;
+
+    @Override
+    public @Nullable Map<?, ?> read(final @NotNull File file, final @NotNull ConfigurationFormat format,
+                                    final @NotNull ByteBuffer content) {
+        if (isBinary(format)) return null;
+        final File snapshot = getSnapshot(file);
+        if (!snapshot.isFile()) return null;
+        try {
+            final byte[] key = newKey(file, format, content);
+            final ByteBuffer buffer = ConfigurationBuffers.read(snapshot);
+            if (buffer.remaining() < key.length || !ByteBuffer.wrap(key).equals(slice(buffer, key.length))) return null;
+            buffer.position(buffer.position() + key.length);
+            return BinaryReader.read(buffer);
+        } catch (IOException | RuntimeException e) {
+            // The snapshot is not valid anymore, it will be replaced
+            return null;
+        }
+    }
+
+    @Override
+    public void write(final @NotNull File file, final @NotNull ConfigurationFormat format,
+                      final @NotNull ByteBuffer content, final @NotNull Map<?, ?> data) {
+        if (isBinary(format)) return;
+        final Path target = getSnapshot(file).toPath();
+        Path temp = null;
+        try {
+            final byte[] key = newKey(file, format, content);
+            temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try (OutputStream output = new FileOutputStream(temp.toFile())) {
+                output.write(key);
+                new BinaryWriter(output, true).write(data);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The data cannot be cached: the file will be parsed the next time as well
+            try {
+                if (temp != null) Files.deleteIfExists(temp);
+                Files.deleteIfExists(target);
+            } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * Gets the snapshot file of the given file.
+     *
+     * @param file the file
+     * @return the snapshot file
+     */
+    public static @NotNull File getSnapshot(final @NotNull File file) {
+        final File absolute = file.getAbsoluteFile();
+        return new File(absolute.getParentFile(), "." + absolute.getName() + EXTENSION);
+    }
+
+    private static byte @NotNull [] newKey(final @NotNull File file, final @NotNull ConfigurationFormat format,
+                                           final @NotNull ByteBuffer content) throws IOException {
+        final CRC32 checksum = new CRC32();
+        final int size = content.remaining();
+        checksum.update(content.duplicate());
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(output);
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeUTF(format.getName());
+        data.writeUTF(file.getAbsolutePath());
+        data.writeLong(file.lastModified());
+        data.writeLong(size);
+        data.writeLong(checksum.getValue());
+        data.flush();
+        return output.toByteArray();
+    }
+
+    private static @NotNull ByteBuffer slice(final @NotNull ByteBuffer buffer, final int length) {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + length);
+        return slice;
+    }
+
+    private static boolean isBinary(final @NotNull ConfigurationFormat format) {
+        return BinaryConfiguration.class.isAssignableFrom(format.getConfigurationClass());
+    }
+}
@@ -0,0 +1,46 @@
+package it.fulminazzo.yamlparser.configuration;
+
+/**
+ * The constants of the binary format.
+ * <p>
+ * A document starts with {@link #MAGIC} and {@link #VERSION}, followed by its root value.
+ * Every value starts with a one byte tag, followed by its content:
+ * <ul>
+ *     <li>integral numbers and chars are written as variable length integers, zigzag encoded if signed;</li>
+ *     <li>floating point numbers are written as their big-endian IEEE 754 bits;</li>
+ *     <li>strings and byte arrays are written as their length followed by their bytes, in UTF-8 for strings;</li>
+ *     <li>maps, lists and sets are written as their size followed by their elements (keys and values for maps);</li>
+ *     <li>numeric lists are written as their size followed by their primitive values;</li>
+ *     <li>values with a {@link ValueCodec} are written as the name of the codec followed by the encoded text.</li>
+ * </ul>
+ * Map keys and codec names are written only once: the first occurrence is {@link #STRING_DEFINITION},
+ * that assigns it the next index, while the following ones are {@link #STRING_REFERENCE}s to that index.
+ */
+final class BinaryTags {
+    static final byte[] MAGIC = {'C', 'F', 'G', 'B'};
+    static final byte VERSION = 1;
+
+    static final byte NULL = 0x00;
+    static final byte FALSE = 0x01;
+    static final byte TRUE = 0x02;
+    static final byte BYTE = 0x03;
+    static final byte SHORT = 0x04;
+    static final byte CHAR = 0x05;
+    static final byte INT = 0x06;
+    static final byte LONG = 0x07;
+    static final byte FLOAT = 0x08;
+    static final byte DOUBLE = 0x09;
+    static final byte STRING = 0x0A;
+    static final byte STRING_DEFINITION = 0x0B;
+    static final byte STRING_REFERENCE = 0x0C;
+    static final byte BYTES = 0x0D;
+    static final byte MAP = 0x0E;
+    static final byte LIST = 0x0F;
+    static final byte SET = 0x10;
+    static final byte INT_ARRAY = 0x11;
+    static final byte LONG_ARRAY = 0x12;
+    static final byte DOUBLE_ARRAY = 0x13;
+    static final byte CODEC = 0x14;
+
+    private BinaryTags() {}
+}
@@ -0,0 +1,236 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import it.fulminazzo.fulmicollection.utils.SerializeUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static it.fulminazzo.yamlparser.configuration.BinaryTags.*;
+
+/**
+ * A writer of the binary format described in {@link BinaryTags}, that buffers the encoded bytes
+ * before writing them to an {@link OutputStream}.
+ * <p>
+ * Values without a tag are written with their {@link ValueCodec} or, as a last resort, as strings serialized in Base64.
+ * In strict mode, those that could not be read back as the same value are rejected instead.
+ */
+final class BinaryWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final @NotNull OutputStream output;
+    private final boolean strict;
+    private final byte @NotNull [] buffer = new byte[BUFFER_SIZE];
+    private final @NotNull Map<String, Integer> strings = new HashMap<>();
+    private int position;
+
+    /**
+     * Instantiates a new Binary writer.
+     *
+     * @param output the output
+     * @param strict if true, values that would not be read back as the same value are rejected
+     */
+    BinaryWriter(final @NotNull OutputStream output, final boolean strict) {
+        this.output = output;
+        this.strict = strict;
+    }
+
+    /**
+     * Writes the given data as a binary document.
+     *
+     * @param data the data
+     * @throws IOException an exception thrown while writing
+     */
+    void write(final @Nullable Map<?, ?> data) throws IOException {
+        writeBytes(MAGIC, 0, MAGIC.length);
+        writeByte(VERSION);
+        writeValue(data);
+        flush();
+    }
+
+    private void writeValue(@Nullable Object value) throws IOException {
+        if (value instanceof IConfiguration) value = ((IConfiguration) value).toMap();
+        if (value == null) writeByte(NULL);
+        else if (value instanceof String) writeString(STRING, (String) value);
+        else if (value instanceof Boolean) writeByte((Boolean) value ? TRUE : FALSE);
+        else if (value instanceof Integer) writeSigned(INT, (Integer) value);
+        else if (value instanceof Long) writeSigned(LONG, (Long) value);
+        else if (value instanceof Double) {
+            writeByte(DOUBLE);
+            writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            writeByte(FLOAT);
+            writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Short) writeSigned(SHORT, (Short) value);
+        else if (value instanceof Byte) {
+            writeByte(BYTE);
+            writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            writeByte(CHAR);
+            writeVarLong((Character) value);
+        } else if (value instanceof Map) writeMap((Map<?, ?>) value);
+        else if (value instanceof NumericList) writeNumericList((NumericList<?>) value);
+        else if (value instanceof Collection) writeCollection(value instanceof Set ? SET : LIST, (Collection<?>) value);
+        else if (value instanceof byte[]) {
+            final byte[] bytes = (byte[]) value;
+            writeByte(BYTES);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        } else if (value.getClass().isArray() && !this.strict) writeArray(value);
+        else writeObject(value);
+    }
+
+    private void writeMap(final @NotNull Map<?, ?> map) throws IOException {
+        writeByte(MAP);
+        writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            final Object key = entry.getKey();
+            if (key instanceof String) writeStringReference((String) key);
+            else writeValue(key);
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeCollection(final byte tag, final @NotNull Collection<?> collection) throws IOException {
+        writeByte(tag);
+        writeVarLong(collection.size());
+        for (Object object : collection) writeValue(object);
+    }
+
+    private void writeArray(final @NotNull Object array) throws IOException {
+        final int length = Array.getLength(array);
+        writeByte(LIST);
+        writeVarLong(length);
+        for (int i = 0; i < length; i++) writeValue(Array.get(array, i));
+    }
+
+    private void writeNumericList(final @NotNull NumericList<?> list) throws IOException {
+        final int size = list.size();
+        if (list instanceof NumericList.OfDouble) {
+            writeByte(DOUBLE_ARRAY);
+            writeVarLong(size);
+            for (int i = 0; i < size; i++) writeLong(Double.doubleToRawLongBits(list.getDouble(i)));
+        } else {
+            writeByte(list instanceof NumericList.OfInt ? INT_ARRAY : LONG_ARRAY);
+            writeVarLong(size);
+            for (int i = 0; i < size; i++) writeVarLong(zigzag(list.getLong(i)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeObject(final @NotNull Object value) throws IOException {
+        final ValueCodec<Object> codec = (ValueCodec<Object>) ValueCodecs.getCodec(value.getClass());
+        if (codec != null && (!this.strict || codec.getType() == value.getClass())) {
+            writeByte(CODEC);
+            writeStringReference(codec.getName());
+            writeString(STRING, codec.encode(value));
+            return;
+        }
+        if (this.strict)
+            throw new IllegalArgumentException(String.format("Cannot write value of type %s", value.getClass().getCanonicalName()));
+        String text = null;
+        try {
+            text = SerializeUtils.serializeToBase64(value);
+        } catch (Exception ignored) {}
+        writeString(STRING, text == null ? value.toString() : text);
+    }
+
+    /**
+     * Writes the given string as a {@link BinaryTags#STRING_DEFINITION} the first time,
+     * and as a {@link BinaryTags#STRING_REFERENCE} the following ones.
+     */
+    private void writeStringReference(final @NotNull String string) throws IOException {
+        final Integer index = this.strings.get(string);
+        if (index == null) {
+            this.strings.put(string, this.strings.size());
+            writeString(STRING_DEFINITION, string);
+        } else {
+            writeByte(STRING_REFERENCE);
+            writeVarLong(index);
+        }
+    }
+
+    private void writeString(final byte tag, final @NotNull String string) throws IOException {
+        writeByte(tag);
+        final int length = string.length();
+        if (length <= BUFFER_SIZE && isAscii(string)) {
+            writeVarLong(length);
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) this.buffer[this.position++] = (byte) string.charAt(i);
+        } else {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    private void writeSigned(final byte tag, final long value) throws IOException {
+        writeByte(tag);
+        writeVarLong(zigzag(value));
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    private void writeLong(final long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void writeInt(final int value) throws IOException {
+        ensureCapacity(4);
+        this.buffer[this.position++] = (byte) (value >>> 24);
+        this.buffer[this.position++] = (byte) (value >>> 16);
+        this.buffer[this.position++] = (byte) (value >>> 8);
+        this.buffer[this.position++] = (byte) value;
+    }
+
+    private void writeByte(final byte value) throws IOException {
+        ensureCapacity(1);
+        this.buffer[this.position++] = value;
+    }
+
+    private void writeBytes(final byte @NotNull [] bytes, final int offset, final int length) throws IOException {
+        if (length > BUFFER_SIZE) {
+            drain();
+            this.output.write(bytes, offset, length);
+        } else {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, this.buffer, this.position, length);
+            this.position += length;
+        }
+    }
+
+    private void ensureCapacity(final int length) throws IOException {
+        if (this.position + length > this.buffer.length) drain();
+    }
+
+    private void drain() throws IOException {
+        this.output.write(this.buffer, 0, this.position);
+        this.position = 0;
+    }
+
+    private void flush() throws IOException {
+        drain();
+        this.output.flush();
+    }
+
+    private static boolean isAscii(final @NotNull String string) {
+        for (int i = 0; i < string.length(); i++) if (string.charAt(i) >= 0x80) return false;
+        return true;
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,152 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryConfigurationTest extends AFileConfigurationTest {
+    @TempDir
+    File directory;
+
+    public BinaryConfigurationTest() {
+        super("bin");
+    }
+
+    @Test
+    void testRoundTripKeepsTypes() throws IOException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("string", "héllo 世界");
+        data.put("int", -10);
+        data.put("long", Long.MIN_VALUE);
+        data.put("double", 10.5d);
+        data.put("float", 10.5f);
+        data.put("short", (short) -3);
+        data.put("byte", (byte) 2);
+        data.put("char", 'w');
+        data.put("boolean", true);
+        data.put("null", null);
+        data.put("bytes", new byte[]{1, 2, 3});
+        data.put("big", new BigInteger("123456789012345678901234567890"));
+        data.put("uuid", UUID.randomUUID());
+        data.put("set", new LinkedHashSet<>(Arrays.asList("a", "b")));
+        data.put("list", Arrays.asList(1, "two", Collections.singletonMap("three", 3L)));
+        data.put("ints", NumericList.ofInts(1, -2, 3));
+        data.put("longs", NumericList.ofLongs(Long.MAX_VALUE, 0));
+        data.put("doubles", NumericList.ofDoubles(0.5, Double.NaN));
+        data.put("section", Collections.singletonMap("inner", Collections.singletonMap("value", "deep")));
+
+        Map<?, ?> read = BinaryReader.read(ByteBuffer.wrap(write(data, true)));
+        assertNotNull(read);
+        assertArrayEquals((byte[]) data.remove("bytes"), (byte[]) read.remove("bytes"));
+        assertEquals(data, read);
+        for (String key : data.keySet()) {
+            Object expected = data.get(key);
+            if (expected instanceof NumericList || expected != null && !(expected instanceof Collection || expected instanceof Map))
+                assertEquals(expected.getClass(), read.get(key).getClass(), key);
+        }
+    }
+
+    @Test
+    void testKeysAreWrittenOnce() throws IOException {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) list.add(Collections.singletonMap("repeated-key", i));
+        String written = new String(write(Collections.singletonMap("list", list), true), StandardCharsets.ISO_8859_1);
+        assertEquals(written.indexOf("repeated-key"), written.lastIndexOf("repeated-key"));
+    }
+
+    @Test
+    void testStrictModeRejectsUnknownValues() {
+        Map<String, Object> data = Collections.singletonMap("value", new TextMessage("Hello"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> write(data, true));
+        assertDoesNotThrow(() -> write(data, false));
+    }
+
+    @Test
+    void testInvalidDocumentsAreRejected() throws IOException {
+        byte[] document = write(Collections.singletonMap("key", "value"), true);
+        assertThrowsExactly(IOException.class, () -> BinaryReader.read(ByteBuffer.wrap(document, 0, document.length - 1)));
+        assertThrowsExactly(IOException.class, () -> BinaryReader.read(ByteBuffer.wrap("key: value".getBytes(StandardCharsets.UTF_8))));
+        assertNull(BinaryReader.read(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void testSaveWritesBinaryDocument() throws IOException {
+        File file = new File(this.directory, "config.bin");
+        Files.write(file.toPath(), new byte[0]);
+        FileConfiguration configuration = FileConfiguration.newConfiguration(file);
+        configuration.set("text", "àèìòù");
+        configuration.set("value", 200);
+        configuration.save();
+        assertArrayEquals(write(configuration.toMap(), false), Files.readAllBytes(file.toPath()));
+        FileConfiguration read = FileConfiguration.newConfiguration(file);
+        assertEquals("àèìòù", read.getString("text"));
+        assertEquals(200, read.getInteger("value"));
+    }
+
+    @Test
+    void testSnapshotCacheSkipsParsingOfUnchangedFiles() throws IOException {
+        File file = new File(this.directory, "config.counting");
+        Files.write(file.toPath(), "section:\n  value: 1\nlist: [1, 2]\n".getBytes(StandardCharsets.UTF_8));
+        ConfigurationFormat format = ConfigurationFormats.register("counting", CountingConfiguration.class, "counting");
+        ConfigurationFormats.setCache(new BinarySnapshotCache());
+        try {
+            FileConfiguration parsed = format.newConfiguration(file);
+            assertEquals(1, CountingConfiguration.parses);
+            assertTrue(BinarySnapshotCache.getSnapshot(file).isFile());
+
+            FileConfiguration cached = format.newConfiguration(file);
+            assertEquals(1, CountingConfiguration.parses);
+            assertEquals(parsed.toMap(), cached.toMap());
+            assertEquals(1, cached.getInteger("section.value"));
+
+            Files.write(file.toPath(), "section:\n  value: 2\nlist: [1, 2]\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals(2, format.newConfiguration(file).getInteger("section.value"));
+            assertEquals(2, CountingConfiguration.parses);
+            assertEquals(2, format.newConfiguration(file).getInteger("section.value"));
+            assertEquals(2, CountingConfiguration.parses);
+        } finally {
+            ConfigurationFormats.setCache(null);
+            ConfigurationFormats.unregister(format.getName());
+        }
+    }
+
+    private static byte @NotNull [] write(final @NotNull Map<?, ?> data, final boolean strict) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryWriter(output, strict).write(data);
+        return output.toByteArray();
+    }
+
+    static class CountingConfiguration extends ManagedFileConfiguration {
+        private static int parses;
+
+        CountingConfiguration(@Nullable File file, InputStream inputStream) {
+            super(file, inputStream);
+        }
+
+        CountingConfiguration(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        protected Map<?, ?> load(@NotNull InputStream stream) {
+            if (stream instanceof PreloadedInputStream) return ((PreloadedInputStream) stream).getData();
+            parses++;
+            return newYaml().load(stream);
+        }
+
+        @Override
+        protected void dump(@NotNull Map<?, ?> data, @NotNull Writer writer) {
+            newYaml().dump(data, writer);
+        }
+    }
+}
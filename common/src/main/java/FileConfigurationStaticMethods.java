@@ -1,14 +1,13 @@
-import it.fulminazzo.fulmicollection.objects.Refl;
-import it.fulminazzo.fulmicollection.utils.ClassUtils;
+import it.fulminazzo.yamlparser.configuration.BufferInputStream;
+import it.fulminazzo.yamlparser.configuration.ConfigurationBuffers;
+import it.fulminazzo.yamlparser.configuration.ConfigurationFormat;
+import it.fulminazzo.yamlparser.configuration.ConfigurationFormats;
 import it.fulminazzo.yamlparser.configuration.FileConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
-import java.lang.reflect.Modifier;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -24,11 +23,13 @@ class FileConfigurationStaticMethods {
      * @return the file configuration
      */
     public static @NotNull FileConfiguration newConfiguration(final @NotNull String rawData) {
-        return newConfiguration(new ByteArrayInputStream(rawData.getBytes()));
+        return ConfigurationFormats.fromContent(rawData).newConfiguration(new ByteArrayInputStream(rawData.getBytes(StandardCharsets.UTF_8)));
     }
 
     /**
      * Creates the most appropriate configuration file from the given file.
+     * The format is chosen from the file extension using {@link ConfigurationFormats},
+     * or detected from its contents if the extension is unknown.
      *
      * @param file the file
      * @return the file configuration
@@ -39,6 +40,7 @@ class FileConfigurationStaticMethods {
 
     /**
      * Creates the most appropriate configuration file from the given stream.
+     * The format is detected from the first bytes of the stream, using {@link ConfigurationFormats#fromContent(InputStream)}.
      *
      * @param stream the stream
      * @return the file configuration
@@ -48,27 +50,31 @@ class FileConfigurationStaticMethods {
     }
 
     private static @NotNull FileConfiguration instantiateNewConfiguration(final Object @Nullable ... parameters) {
-        Set<Class<? extends FileConfiguration>> classes = getConfigurationClasses();
-        List<Exception> exceptions = new ArrayList<>();
-        for (final Class<? extends FileConfiguration> clazz : classes)
-            try {
-                Refl<? extends FileConfiguration> refl = new Refl<>(clazz, parameters);
-                return refl.getObject();
-            } catch (Exception e) {
-                if (e.getCause() instanceof FileNotFoundException)
-                    throw new RuntimeException(e.getCause());
-                exceptions.add(e);
-            }
-        exceptions.forEach(Throwable::printStackTrace);
+        if (parameters != null && parameters.length == 1) {
+            final Object parameter = parameters[0];
+            if (parameter instanceof File) {
+                final File file = (File) parameter;
+                if (!file.isFile()) throw new RuntimeException(new FileNotFoundException(file.getPath()));
+                final ConfigurationFormat format = ConfigurationFormats.fromFile(file);
+                if (format != null) return format.newConfiguration(file);
+                try {
+                    return newConfigurationFromContent(file, new BufferInputStream(ConfigurationBuffers.read(file)));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            } else if (parameter instanceof InputStream)
+                return newConfigurationFromContent(null, (InputStream) parameter);
+        }
         throw new RuntimeException(String.format("Could not create %s from %s", FileConfiguration.class.getSimpleName(), Arrays.toString(parameters)));
     }
 
-    @SuppressWarnings("unchecked")
-    private static @NotNull Set<Class<? extends FileConfiguration>> getConfigurationClasses() {
-        final Set<Class<? extends FileConfiguration>> classes = new LinkedHashSet<>();
-        for (final Class<?> clazz : ClassUtils.findClassesInPackage(FileConfiguration.class.getPackage().getName()))
-            if (FileConfiguration.class.isAssignableFrom(clazz) && !Modifier.isAbstract(clazz.getModifiers()))
-                classes.add((Class<? extends FileConfiguration>) clazz);
-        return classes;
+    private static @NotNull FileConfiguration newConfigurationFromContent(final @Nullable File file, final @NotNull InputStream stream) {
+        final InputStream data = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        try {
+            final ConfigurationFormat format = ConfigurationFormats.fromContent(data);
+            return file == null ? format.newConfiguration(data) : format.newConfiguration(file, data);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An {@link InputStream} that reads directly from a {@link ByteBuffer} or a {@link CharBuffer}, without copying it.
+ * It is used to pass memory mapped files and in-memory data to {@link FileConfiguration#load(InputStream)}:
+ * the formats that read characters should use {@link #newReader()} (or {@link ConfigurationBuffers#newReader(InputStream)}),
+ * which decodes the whole buffer at once, instead of going through the stream.
+ * Streaming readers should use {@link ConfigurationBuffers#newStreamingReader(InputStream)} instead,
+ * which decodes the bytes a chunk at a time.
+ * <p>
+ * Character buffers are encoded in UTF-8 only if their bytes are actually read.
+ */
+public final class BufferInputStream extends InputStream {
+    private @Nullable ByteBuffer bytes;
+    private @Nullable CharBuffer chars;
+    private int mark;
+
+    /**
+     * Instantiates a new Buffer input stream, reading from the current position to the limit of the given buffer.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the buffer
+     */
+    public BufferInputStream(final @NotNull ByteBuffer buffer) {
+        this.bytes = buffer.duplicate();
+        this.mark = this.bytes.position();
+    }
+
+    /**
+     * Instantiates a new Buffer input stream, reading from the current position to the limit of the given buffer.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the buffer
+     */
+    public BufferInputStream(final @NotNull CharBuffer buffer) {
+        this.chars = buffer.duplicate();
+    }
+
+    /**
+     * Creates a reader of the remaining data, and consumes this stream.
+     * A leading byte order mark is skipped.
+     *
+     * @return the reader
+     */
+    public @NotNull Reader newReader() {
+        CharBuffer chars = this.chars;
+        if (chars == null) {
+            ByteBuffer bytes = getBytes();
+            try {
+                chars = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(bytes);
+            } catch (CharacterCodingException e) {
+                // Cannot happen, since errors are replaced
+                throw new IllegalStateException(e);
+            }
+        } else {
+            this.chars = chars.duplicate();
+            this.chars.position(this.chars.limit());
+        }
+        if (chars.hasRemaining() && chars.get(chars.position()) == '\uFEFF') chars.position(chars.position() + 1);
+        return new CharBufferReader(chars);
+    }
+
+    @Override
+    public int read() {
+        final ByteBuffer bytes = getBytes();
+        return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte @NotNull [] b, final int off, final int len) {
+        final ByteBuffer bytes = getBytes();
+        if (len == 0) return 0;
+        if (!bytes.hasRemaining()) return -1;
+        final int read = Math.min(len, bytes.remaining());
+        bytes.get(b, off, read);
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) {
+        final ByteBuffer bytes = getBytes();
+        final int skipped = (int) Math.max(0, Math.min(n, bytes.remaining()));
+        bytes.position(bytes.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return getBytes().remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readLimit) {
+        this.mark = getBytes().position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        getBytes().position(this.mark);
+    }
+
+    /**
+     * Checks whether this stream reads from a {@link CharBuffer} whose characters were not encoded yet.
+     *
+     * @return true if it does
+     */
+    public boolean hasCharacters() {
+        return this.chars != null;
+    }
+
+    /**
+     * Gets the number of bytes left to read, without encoding character buffers.
+     *
+     * @return the number of bytes, or -1 if they are not encoded yet
+     */
+    long getRemainingBytes() {
+        return this.bytes == null ? -1 : this.bytes.remaining();
+    }
+
+    /**
+     * Gets the bytes of this stream, encoding the characters buffer if necessary.
+     * Once encoded, the characters buffer is discarded.
+     */
+    private @NotNull ByteBuffer getBytes() {
+        if (this.bytes == null) {
+            this.bytes = StandardCharsets.UTF_8.encode(this.chars);
+            this.mark = this.bytes.position();
+            this.chars = null;
+        }
+        return this.bytes;
+    }
+
+    /**
+     * A {@link Reader} that reads directly from a {@link CharBuffer}.
+     */
+    private static final class CharBufferReader extends Reader {
+        private final @NotNull CharBuffer buffer;
+
+        CharBufferReader(final @NotNull CharBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() : -1;
+        }
+
+        @Override
+        public int read(final char @NotNull [] cbuf, final int off, final int len) {
+            if (len == 0) return 0;
+            if (!this.buffer.hasRemaining()) return -1;
+            final int read = Math.min(len, this.buffer.remaining());
+            this.buffer.get(cbuf, off, read);
+            return read;
+        }
+
+        @Override
+        public boolean ready() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
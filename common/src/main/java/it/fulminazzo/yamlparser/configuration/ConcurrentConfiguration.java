@@ -0,0 +1,346 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * A configuration that can be read by many threads without any locking, while being updated by others.
+ * <p>
+ * The data is kept as a tree of immutable maps and lists.
+ * Every {@link #set(String, Object)} creates a new tree, which copies only the maps along the changed path
+ * and shares every other branch with the previous one, and publishes it atomically:
+ * readers always see either the old or the new tree, never a partial update.
+ * <p>
+ * Every getter of {@link IConfiguration} reads the current tree directly.
+ * Sections are returned as read-only {@link ConfigurationSection}s of the tree they were read from,
+ * and so is the whole configuration by {@link #view()}: they are never updated, and can be used
+ * to read many values of the same version. Values that are not already of the requested type
+ * are converted by the parsers of a {@link SimpleConfiguration}, to which only the value itself is copied.
+ * <p>
+ * When created from a {@link ManagedFileConfiguration}, {@link #save()} applies the changes to it and saves it,
+ * while {@link #reload()} reloads it and publishes its new data.
+ */
+public final class ConcurrentConfiguration extends SimpleConfiguration {
+    private static final String VALUE = "value";
+
+    private final @Nullable ManagedFileConfiguration source;
+    private final @NotNull AtomicReference<Snapshot> snapshot;
+    private final boolean readOnly;
+
+    /**
+     * Instantiates a new Concurrent configuration with a copy of the given data.
+     *
+     * @param data the data
+     */
+    public ConcurrentConfiguration(final @NotNull Map<?, ?> data) {
+        this(null, data);
+    }
+
+    private ConcurrentConfiguration(final @Nullable ManagedFileConfiguration source, final @NotNull Map<?, ?> data) {
+        this.source = source;
+        this.snapshot = new AtomicReference<>(new Snapshot(freezeMap(data), 0));
+        this.readOnly = false;
+    }
+
+    private ConcurrentConfiguration(final @NotNull Snapshot snapshot) {
+        this.source = null;
+        this.snapshot = new AtomicReference<>(snapshot);
+        this.readOnly = true;
+    }
+
+    /**
+     * Creates a new concurrent configuration with a copy of the data of the given configuration.
+     * If it is a {@link ManagedFileConfiguration}, it will be used by {@link #save()} and {@link #reload()}.
+     *
+     * @param configuration the configuration
+     * @return the concurrent configuration
+     */
+    public static @NotNull ConcurrentConfiguration of(final @NotNull IConfiguration configuration) {
+        final ManagedFileConfiguration source = configuration instanceof ManagedFileConfiguration ?
+                (ManagedFileConfiguration) configuration : null;
+        if (source == null) return new ConcurrentConfiguration(null, configuration.toMap());
+        synchronized (source) {
+            source.materialize();
+            return new ConcurrentConfiguration(source, source.toMap());
+        }
+    }
+
+    /**
+     * Gets the value at the given path.
+     * Sections are returned as read-only {@link ConfigurationSection}s, and lists as unmodifiable lists.
+     *
+     * @param path the path, where dots can be escaped with a backslash
+     * @return the value
+     */
+    @Override
+    public @Nullable Object get(final @NotNull String path) {
+        return get(ConfigPath.of(path));
+    }
+
+    /**
+     * Gets the value at the given path.
+     *
+     * @param path the path
+     * @return the value
+     * @see #get(String)
+     */
+    public @Nullable Object get(final @NotNull ConfigPath path) {
+        final Object value = getRaw(path);
+        return value instanceof Map ? newSection(path, value) : value;
+    }
+
+    @Override
+    public <T> @Nullable T get(final @NotNull String path, final @NotNull Class<T> clazz) {
+        final ConfigPath configPath = ConfigPath.of(path);
+        final Object value = getRaw(configPath);
+        if (value == null || clazz.isInstance(value)) return clazz.cast(value);
+        if (value instanceof Map && clazz.isAssignableFrom(Section.class)) return clazz.cast(newSection(configPath, value));
+        return convert(value, configuration -> configuration.get(VALUE, clazz));
+    }
+
+    @Override
+    public <T> @Nullable List<T> getList(final @NotNull String path, final @NotNull Class<T> clazz) {
+        final Object value = getRaw(ConfigPath.of(path));
+        if (value == null) return null;
+        if (value instanceof List && isListOf((List<?>) value, clazz)) {
+            @SuppressWarnings("unchecked")
+            final List<T> list = (List<T>) value;
+            return list;
+        }
+        return convert(value, configuration -> configuration.getList(VALUE, clazz));
+    }
+
+    /**
+     * Checks if the given path is present.
+     *
+     * @param path the path
+     * @return true if it is
+     */
+    @Override
+    public boolean contains(final @NotNull String path) {
+        return getRaw(ConfigPath.of(path)) != null;
+    }
+
+    @Override
+    public @Nullable ConfigurationSection getConfigurationSection(final @NotNull String path) {
+        final ConfigPath configPath = ConfigPath.of(path);
+        final Object value = getRaw(configPath);
+        return value instanceof Map ? newSection(configPath, value) : null;
+    }
+
+    /**
+     * Gets a read-only configuration of the current data.
+     * It reflects the data at the moment of the call, and it is never updated.
+     *
+     * @return the view
+     */
+    public @NotNull ConcurrentConfiguration view() {
+        return this.readOnly ? this : new ConcurrentConfiguration(this.snapshot.get());
+    }
+
+    /**
+     * Gets the current data, as an unmodifiable map.
+     *
+     * @return the map
+     */
+    @Override
+    public @NotNull Map<String, Object> toMap() {
+        return this.snapshot.get().root;
+    }
+
+    /**
+     * Gets the version of the current data, incremented on every change.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return this.snapshot.get().version;
+    }
+
+    /**
+     * Sets the given value at the given path, publishing a new version of the data.
+     * A null value removes the path.
+     *
+     * @param path  the path, where dots can be escaped with a backslash
+     * @param value the value
+     * @throws UnsupportedOperationException if this is a {@link #view()}
+     */
+    @Override
+    public void set(final @NotNull String path, final @Nullable Object value) {
+        set(ConfigPath.of(path), value);
+    }
+
+    /**
+     * Sets the given value at the given path, publishing a new version of the data.
+     *
+     * @param path  the path
+     * @param value the value
+     * @see #set(String, Object)
+     */
+    public synchronized void set(final @NotNull ConfigPath path, final @Nullable Object value) {
+        if (this.readOnly) throw new UnsupportedOperationException("View of concurrent configuration is read-only");
+        final Snapshot current = this.snapshot.get();
+        final Map<String, Object> root = setIn(current.root, path, 0, freeze(value));
+        this.snapshot.set(new Snapshot(root, current.version + 1));
+    }
+
+    /**
+     * Applies the current data to the source configuration and saves it.
+     */
+    public void save() {
+        final ManagedFileConfiguration source = getSource();
+        synchronized (source) {
+            ManagedFileConfiguration.applyChanges(source, "", source.toMap(), toMap(), new LinkedHashSet<>());
+            source.save();
+        }
+    }
+
+    /**
+     * Reloads the source configuration, and publishes its data as a new version.
+     */
+    public synchronized void reload() {
+        final ManagedFileConfiguration source = getSource();
+        synchronized (source) {
+            source.reload();
+            this.snapshot.set(new Snapshot(freezeMap(source.toMap()), this.snapshot.get().version + 1));
+        }
+    }
+
+    private @NotNull ManagedFileConfiguration getSource() {
+        if (this.source == null) throw new IllegalStateException("Configuration was not created from a file configuration");
+        return this.source;
+    }
+
+    private @Nullable Object getRaw(final @NotNull ConfigPath path) {
+        Object current = this.snapshot.get().root;
+        for (int i = 0; i < path.size(); i++) {
+            if (!(current instanceof Map)) return null;
+            current = ((Map<?, ?>) current).get(path.getKey(i));
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull Section newSection(final @NotNull ConfigPath path, final @NotNull Object value) {
+        final ConfigPath parentPath = path.getParent();
+        final IConfiguration parent = parentPath == null ? null : getConfigurationSection(parentPath.toString());
+        final Snapshot snapshot = new Snapshot((Map<String, Object>) value, this.snapshot.get().version);
+        return new Section(parent == null ? this : parent, path.getLastKey(), new ConcurrentConfiguration(snapshot));
+    }
+
+    private static boolean isListOf(final @NotNull List<?> list, final @NotNull Class<?> clazz) {
+        for (Object object : list)
+            if (object != null && !clazz.isInstance(object)) return false;
+        return true;
+    }
+
+    private static <T> @Nullable T convert(final @NotNull Object value,
+                                           final @NotNull Function<SimpleConfiguration, T> getter) {
+        final SimpleConfiguration configuration = new SimpleConfiguration();
+        configuration.set(VALUE, value);
+        return getter.apply(configuration);
+    }
+
+    private static @NotNull Map<String, Object> setIn(final @NotNull Map<String, Object> map, final @NotNull ConfigPath path,
+                                                      final int index, final @Nullable Object value) {
+        final String key = path.getKey(index);
+        final Map<String, Object> copy = new LinkedHashMap<>(map);
+        if (index == path.size() - 1) {
+            if (value == null) copy.remove(key);
+            else copy.put(key, value);
+        } else {
+            final Object child = map.get(key);
+            if (value == null && !(child instanceof Map)) return map;
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> childMap = child instanceof Map ? (Map<String, Object>) child : Collections.emptyMap();
+            copy.put(key, setIn(childMap, path, index + 1, value));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static @NotNull Map<String, Object> freezeMap(final @NotNull Map<?, ?> map) {
+        final Map<String, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            final Object value = freeze(entry.getValue());
+            if (value != null) copy.put(entry.getKey().toString(), value);
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static @Nullable Object freeze(@Nullable Object value) {
+        if (value instanceof IConfiguration) value = ((IConfiguration) value).toMap();
+        if (value instanceof Map) return freezeMap((Map<?, ?>) value);
+        else if (value instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) value;
+            final List<Object> copy = new ArrayList<>(collection.size());
+            for (Object object : collection) copy.add(freeze(object));
+            return Collections.unmodifiableList(copy);
+        } else return value;
+    }
+
+    /**
+     * An immutable version of the data.
+     */
+    private static final class Snapshot {
+        private final @NotNull Map<String, Object> root;
+        private final long version;
+
+        Snapshot(final @NotNull Map<String, Object> root, final long version) {
+            this.root = root;
+            this.version = version;
+        }
+    }
+
+    /**
+     * A read-only section returned by {@link #getConfigurationSection(String)},
+     * that reads its values from the {@link #view()} of its data.
+     */
+    private static final class Section extends ConfigurationSection {
+        private final @NotNull ConcurrentConfiguration view;
+
+        Section(final @NotNull IConfiguration parent, final @NotNull String name,
+                final @NotNull ConcurrentConfiguration view) {
+            super(parent, name);
+            this.view = view;
+        }
+
+        @Override
+        public @Nullable Object get(final @NotNull String path) {
+            return this.view.get(path);
+        }
+
+        @Override
+        public <T> @Nullable T get(final @NotNull String path, final @NotNull Class<T> clazz) {
+            return this.view.get(path, clazz);
+        }
+
+        @Override
+        public <T> @Nullable List<T> getList(final @NotNull String path, final @NotNull Class<T> clazz) {
+            return this.view.getList(path, clazz);
+        }
+
+        @Override
+        public boolean contains(final @NotNull String path) {
+            return this.view.contains(path);
+        }
+
+        @Override
+        public @Nullable ConfigurationSection getConfigurationSection(final @NotNull String path) {
+            return this.view.getConfigurationSection(path);
+        }
+
+        @Override
+        public void set(final @NotNull String path, final @Nullable Object object) {
+            this.view.set(path, object);
+        }
+
+        @Override
+        public @NotNull Map<String, Object> toMap() {
+            return this.view.toMap();
+        }
+    }
+}
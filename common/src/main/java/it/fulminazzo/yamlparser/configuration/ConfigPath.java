@@ -0,0 +1,164 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A precompiled configuration path.
+ * The path is split in its keys only once, when created, so it can be kept in a constant
+ * and used many times without parsing it again.
+ * <p>
+ * In the string form, dots inside keys are escaped with a backslash.
+ */
+public final class ConfigPath {
+    private final @NotNull String @NotNull [] keys;
+    private final @NotNull String path;
+    private final int hashCode;
+    private @Nullable ConfigPath parent;
+
+    private ConfigPath(final @NotNull String @NotNull [] keys, final @NotNull String path) {
+        this.keys = keys;
+        this.path = path;
+        this.hashCode = Arrays.hashCode(keys);
+    }
+
+    /**
+     * Compiles the given path, splitting it at every dot not escaped by a backslash.
+     *
+     * @param path the path
+     * @return the config path
+     */
+    public static @NotNull ConfigPath of(final @NotNull String path) {
+        final List<String> keys = new ArrayList<>();
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if (c == '\\' && i + 1 < path.length() && path.charAt(i + 1) == '.') {
+                key.append('.');
+                i++;
+            } else if (c == '.') {
+                keys.add(key.toString());
+                key.setLength(0);
+            } else key.append(c);
+        }
+        keys.add(key.toString());
+        return new ConfigPath(keys.toArray(new String[0]), path);
+    }
+
+    /**
+     * Creates a path from the given keys, which can contain dots.
+     *
+     * @param keys the keys
+     * @return the config path
+     */
+    public static @NotNull ConfigPath ofKeys(final @NotNull String @NotNull ... keys) {
+        if (keys.length == 0) throw new IllegalArgumentException("A path needs at least one key");
+        final StringBuilder path = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) path.append('.');
+            path.append(escape(keys[i]));
+        }
+        return new ConfigPath(keys.clone(), path.toString());
+    }
+
+    /**
+     * Creates the path of the given key inside this path.
+     *
+     * @param key the key, which can contain dots
+     * @return the config path
+     */
+    public @NotNull ConfigPath child(final @NotNull String key) {
+        final String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key;
+        return new ConfigPath(keys, this.path + "." + escape(key));
+    }
+
+    /**
+     * Gets the path of the section containing the last key.
+     *
+     * @return the parent, or null if this path has only one key
+     */
+    public @Nullable ConfigPath getParent() {
+        if (this.keys.length == 1) return null;
+        ConfigPath parent = this.parent;
+        if (parent == null) {
+            final String[] keys = Arrays.copyOf(this.keys, this.keys.length - 1);
+            this.parent = parent = new ConfigPath(keys, this.path.substring(0, this.path.length() - escape(getLastKey()).length() - 1));
+        }
+        return parent;
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.keys.length;
+    }
+
+    /**
+     * Gets the key at the given index.
+     *
+     * @param index the index
+     * @return the key
+     */
+    public @NotNull String getKey(final int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * Gets the last key.
+     *
+     * @return the key
+     */
+    public @NotNull String getLastKey() {
+        return this.keys[this.keys.length - 1];
+    }
+
+    /**
+     * Gets the keys of this path.
+     *
+     * @return a copy of the keys
+     */
+    public @NotNull List<String> getKeys() {
+        return Arrays.asList(this.keys.clone());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConfigPath)) return false;
+        final ConfigPath other = (ConfigPath) o;
+        return this.hashCode == other.hashCode && Arrays.equals(this.keys, other.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    /**
+     * Gets the path as a string, with dots inside keys escaped.
+     *
+     * @return the path
+     */
+    @Override
+    public @NotNull String toString() {
+        return this.path;
+    }
+
+    /**
+     * Escapes every dot of the given key with a backslash.
+     *
+     * @param key the key
+     * @return the escaped key
+     */
+    static @NotNull String escape(final @NotNull String key) {
+        return key.indexOf('.') < 0 ? key : key.replace(".", "\\.");
+    }
+}
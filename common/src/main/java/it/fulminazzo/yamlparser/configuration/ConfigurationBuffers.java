@@ -0,0 +1,85 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utilities to read configuration files through NIO buffers.
+ * Files are read with a single bulk {@link FileChannel} read or, if they are bigger than {@link #MAP_THRESHOLD},
+ * they are memory mapped, so that their content is never copied before being decoded.
+ */
+public final class ConfigurationBuffers {
+    /**
+     * The minimum size, in bytes, of the files that will be memory mapped.
+     * On some systems, a mapped file cannot be overwritten until the mapping is garbage collected,
+     * so smaller files are read in memory.
+     */
+    public static final long MAP_THRESHOLD = 16 * 1024 * 1024;
+
+    private ConfigurationBuffers() {}
+
+    /**
+     * Reads the whole content of the given file.
+     *
+     * @param file the file
+     * @return the buffer, ready to be read
+     * @throws IOException an exception thrown while reading
+     */
+    public static @NotNull ByteBuffer read(final @NotNull File file) throws IOException {
+        return read(file, MAP_THRESHOLD);
+    }
+
+    static @NotNull ByteBuffer read(final @NotNull File file, final long mapThreshold) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException(String.format("File %s is too big: %s bytes", file, size));
+            if (size >= mapThreshold) return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            int read = 0;
+            while (buffer.hasRemaining() && read != -1) read = channel.read(buffer);
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Creates a UTF-8 reader of the given stream.
+     * If the stream is a {@link BufferInputStream}, its buffer is decoded directly.
+     *
+     * @param stream the stream
+     * @return the reader
+     */
+    public static @NotNull Reader newReader(final @NotNull InputStream stream) {
+        if (stream instanceof BufferInputStream) return ((BufferInputStream) stream).newReader();
+        return new InputStreamReader(stream, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a UTF-8 reader of the given stream, which decodes it a chunk at a time.
+     * Unlike {@link #newReader(InputStream)}, byte buffers are never decoded at once,
+     * so it should be used when the document is not kept in memory, like by {@link ConfigurationEventStream}s.
+     * A leading byte order mark is skipped.
+     *
+     * @param stream the stream
+     * @return the reader
+     * @throws IOException an exception thrown while reading the byte order mark
+     */
+    public static @NotNull Reader newStreamingReader(final @NotNull InputStream stream) throws IOException {
+        if (stream instanceof BufferInputStream && ((BufferInputStream) stream).hasCharacters())
+            return ((BufferInputStream) stream).newReader();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') reader.reset();
+        return reader;
+    }
+}
@@ -0,0 +1,40 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * A cache of the parsed data of configuration files, used by {@link ConfigurationFormat#newConfiguration(File)}
+ * to skip parsing the files that did not change since they were last loaded.
+ * No cache is set by default: it can be enabled with {@link ConfigurationFormats#setCache(ConfigurationCache)}.
+ * <p>
+ * A cache is only an optimization, so implementations should never throw:
+ * missing, stale or unreadable entries are simply not returned, and entries that cannot be written are skipped.
+ */
+public interface ConfigurationCache {
+
+    /**
+     * Reads the cached data of the given file.
+     *
+     * @param file    the file
+     * @param format  the format of the file
+     * @param content the current content of the file
+     * @return the data, or null if it is not cached or the file changed
+     */
+    @Nullable Map<?, ?> read(final @NotNull File file, final @NotNull ConfigurationFormat format, final @NotNull ByteBuffer content);
+
+    /**
+     * Stores the data parsed from the given file.
+     *
+     * @param file    the file
+     * @param format  the format of the file
+     * @param content the content the data was parsed from
+     * @param data    the data
+     */
+    void write(final @NotNull File file, final @NotNull ConfigurationFormat format, final @NotNull ByteBuffer content,
+               final @NotNull Map<?, ?> data);
+}
@@ -0,0 +1,83 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Converts documents from a format to another by connecting the {@link ConfigurationEventStream}s of the two formats:
+ * the events read from the source are written to the target as soon as they are produced,
+ * so the tree of the document is never built.
+ */
+public final class ConfigurationConverter {
+
+    private ConfigurationConverter() {}
+
+    /**
+     * Converts the given file to the given target file.
+     * The formats are chosen from the extensions of the files.
+     * The target is first written to a temporary file, which then replaces it.
+     *
+     * @param source the source file
+     * @param target the target file
+     * @throws IOException an exception thrown while reading or writing
+     */
+    public static void convert(final @NotNull File source, final @NotNull File target) throws IOException {
+        final ConfigurationFormat sourceFormat = getFormat(source);
+        final ConfigurationFormat targetFormat = getFormat(target);
+        if (!source.isFile()) throw new FileNotFoundException(source.getPath());
+        final Path path = target.toPath().toAbsolutePath();
+        final Path directory = path.getParent();
+        if (directory != null) Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, "." + path.getFileName(), ".tmp");
+        try {
+            try (InputStream input = new FileInputStream(source);
+                 FileOutputStream output = new FileOutputStream(temp.toFile());
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                convert(input, sourceFormat, writer, targetFormat);
+                output.getFD().sync();
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Converts the document of the given stream from the source format to the target format.
+     *
+     * @param input        the input
+     * @param sourceFormat the format of the input
+     * @param output       the output
+     * @param targetFormat the format of the output
+     * @throws IOException an exception thrown while reading or writing
+     */
+    public static void convert(final @NotNull InputStream input, final @NotNull ConfigurationFormat sourceFormat,
+                               final @NotNull Writer output, final @NotNull ConfigurationFormat targetFormat) throws IOException {
+        final ConfigurationEventHandler writer = getEventStream(targetFormat).newWriter(output);
+        getEventStream(sourceFormat).read(input, writer);
+        output.flush();
+    }
+
+    private static @NotNull ConfigurationFormat getFormat(final @NotNull File file) {
+        final ConfigurationFormat format = ConfigurationFormats.fromFile(file);
+        if (format == null) throw new IllegalArgumentException("Could not find the format of file " + file);
+        return format;
+    }
+
+    private static @NotNull ConfigurationEventStream getEventStream(final @NotNull ConfigurationFormat format) {
+        final ConfigurationEventStream eventStream = format.getEventStream();
+        if (eventStream == null)
+            throw new IllegalArgumentException(String.format("Format %s does not support streaming", format.getName()));
+        return eventStream;
+    }
+}
@@ -0,0 +1,170 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads every configuration file of a directory and its sub-directories in parallel.
+ * The format of every file is chosen from its extension using {@link ConfigurationFormats}:
+ * files with unknown extensions, hidden files and the contents of hidden sub-directories are ignored.
+ * <p>
+ * The files are parsed on the given {@link Executor}, by default {@link ForkJoinPool#commonPool()}.
+ * On Java 21 and later, an executor of virtual threads can be used as well,
+ * for example <code>Executors.newVirtualThreadPerTaskExecutor()</code>.
+ * <p>
+ * Every configuration is identified by its namespace: the path of its file relative to the directory, without extension,
+ * with the directories separated by dots (for example, <code>plugins/economy.yml</code> becomes <code>plugins.economy</code>).
+ * Dots inside the names of the files and directories are escaped, like in {@link ConfigPath}.
+ */
+public final class ConfigurationDirectoryLoader {
+    private final @NotNull Executor executor;
+
+    /**
+     * Instantiates a new Configuration directory loader, that uses {@link ForkJoinPool#commonPool()}.
+     */
+    public ConfigurationDirectoryLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Instantiates a new Configuration directory loader.
+     *
+     * @param executor the executor used to parse the files
+     */
+    public ConfigurationDirectoryLoader(final @NotNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Loads every configuration file of the given directory and its sub-directories,
+     * waiting until all of them are loaded.
+     * A file that cannot be loaded is reported in {@link Result#getFailures()}, without stopping the others.
+     *
+     * @param directory the directory
+     * @return the result
+     * @throws IOException an exception thrown while listing the files of the directory
+     */
+    public @NotNull Result load(final @NotNull File directory) throws IOException {
+        if (!directory.isDirectory()) throw new FileNotFoundException(directory.getPath());
+        final Path root = directory.toPath();
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(p -> !isHidden(root.relativize(p)))
+                    .filter(Files::isRegularFile)
+                    .filter(p -> ConfigurationFormats.fromFile(p.toFile()) != null)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        final FileConfiguration[] configurations = new FileConfiguration[files.size()];
+        final Exception[] failures = new Exception[files.size()];
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[files.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            final int index = i;
+            final File file = files.get(i).toFile();
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    final ConfigurationFormat format = Objects.requireNonNull(ConfigurationFormats.fromFile(file));
+                    configurations[index] = format.newConfiguration(file);
+                } catch (Exception e) {
+                    failures[index] = e;
+                }
+            }, this.executor);
+        }
+        CompletableFuture.allOf(tasks).join();
+
+        final Result result = new Result();
+        for (int i = 0; i < tasks.length; i++) {
+            final File file = files.get(i).toFile();
+            if (failures[i] != null) result.failures.put(file, failures[i]);
+            else {
+                final String namespace = getNamespace(root.relativize(files.get(i)));
+                if (result.configurations.putIfAbsent(namespace, configurations[i]) != null)
+                    result.failures.put(file, new IllegalStateException("Another file has namespace " + namespace));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isHidden(final @NotNull Path path) {
+        for (Path name : path) if (name.toString().startsWith(".")) return true;
+        return false;
+    }
+
+    private static @NotNull String getNamespace(final @NotNull Path path) {
+        final String[] keys = new String[path.getNameCount()];
+        for (int i = 0; i < keys.length; i++) keys[i] = path.getName(i).toString();
+        final String name = keys[keys.length - 1];
+        keys[keys.length - 1] = name.substring(0, name.lastIndexOf('.'));
+        return ConfigPath.ofKeys(keys).toString();
+    }
+
+    /**
+     * The result of {@link #load(File)}.
+     */
+    public static final class Result {
+        private final @NotNull Map<String, FileConfiguration> configurations = new LinkedHashMap<>();
+        private final @NotNull Map<File, Exception> failures = new LinkedHashMap<>();
+
+        private Result() {}
+
+        /**
+         * Gets the configurations that were loaded, by namespace, sorted by the paths of their files.
+         *
+         * @return the configurations
+         */
+        public @NotNull Map<String, FileConfiguration> getConfigurations() {
+            return Collections.unmodifiableMap(this.configurations);
+        }
+
+        /**
+         * Gets the files that could not be loaded, with the exception thrown while loading them.
+         * Files with the same namespace of another one are reported here as well.
+         *
+         * @return the failures
+         */
+        public @NotNull Map<File, Exception> getFailures() {
+            return Collections.unmodifiableMap(this.failures);
+        }
+
+        /**
+         * Checks if every file was loaded.
+         *
+         * @return true if there are no failures
+         */
+        public boolean isSuccessful() {
+            return this.failures.isEmpty();
+        }
+
+        /**
+         * Creates a single configuration containing the data of every loaded configuration at its namespace.
+         * The data is copied: later changes to the loaded configurations are not reflected.
+         * The data of a file is placed before the one of the files in the directory with the same name,
+         * which can replace its values.
+         *
+         * @return the configuration
+         */
+        public @NotNull SimpleConfiguration toConfiguration() {
+            final SimpleConfiguration configuration = new SimpleConfiguration();
+            for (Map.Entry<String, FileConfiguration> entry : this.configurations.entrySet()) {
+                final FileConfiguration value = entry.getValue();
+                if (value instanceof ManagedFileConfiguration) ((ManagedFileConfiguration) value).materialize();
+                for (Map.Entry<?, ?> data : value.toMap().entrySet())
+                    configuration.set(entry.getKey() + "." + ConfigPath.escape(String.valueOf(data.getKey())),
+                            ManagedFileConfiguration.copy(data.getValue()));
+            }
+            return configuration;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * A receiver of the events that describe a configuration tree, in the order they appear in the document.
+ * A document is a section, and every value is a scalar, a section or a list:
+ * <ul>
+ *     <li>a section is {@link #startSection()}, followed by a {@link #key(String)} and a value for each entry,
+ *     and closed by {@link #end()};</li>
+ *     <li>a list is {@link #startList()}, followed by its values, and closed by {@link #end()};</li>
+ *     <li>a scalar is a single {@link #scalar(Object)}.</li>
+ * </ul>
+ * The events are produced and consumed by the {@link ConfigurationEventStream} of each format,
+ * so that a document can be converted to another format without loading it in memory.
+ */
+public interface ConfigurationEventHandler {
+
+    /**
+     * Starts a section.
+     *
+     * @throws IOException an exception thrown while handling the event
+     */
+    void startSection() throws IOException;
+
+    /**
+     * Sets the key of the next value of the current section.
+     *
+     * @param key the key
+     * @throws IOException an exception thrown while handling the event
+     */
+    void key(final @NotNull String key) throws IOException;
+
+    /**
+     * Receives a value that is neither a section nor a list.
+     *
+     * @param value the value
+     * @throws IOException an exception thrown while handling the event
+     */
+    void scalar(final @Nullable Object value) throws IOException;
+
+    /**
+     * Starts a list.
+     *
+     * @throws IOException an exception thrown while handling the event
+     */
+    void startList() throws IOException;
+
+    /**
+     * Ends the current section or list.
+     * Writers flush their output when the section of the document is ended.
+     *
+     * @throws IOException an exception thrown while handling the event
+     */
+    void end() throws IOException;
+}
@@ -0,0 +1,38 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+
+/**
+ * The streaming reader and writer of a format, based on the events of {@link ConfigurationEventHandler}.
+ * Formats provide their own implementation with {@link ConfigurationFormatProvider#getEventStream()}
+ * or {@link ConfigurationFormats#registerEventStream(String, ConfigurationEventStream)},
+ * and {@link ConfigurationConverter} uses it to convert documents without building their tree.
+ * <p>
+ * Implementations keep in memory only what the syntax of their format requires,
+ * so the memory used does not grow with the size of the document.
+ */
+public interface ConfigurationEventStream {
+
+    /**
+     * Reads the document of the given stream, passing its events to the given handler.
+     * An empty document is read as an empty section.
+     *
+     * @param input   the input
+     * @param handler the handler
+     * @throws IOException an exception thrown while reading or by the handler
+     */
+    void read(final @NotNull InputStream input, final @NotNull ConfigurationEventHandler handler) throws IOException;
+
+    /**
+     * Creates a handler that writes the events it receives as a document to the given writer.
+     *
+     * @param writer the writer
+     * @return the handler
+     * @throws IOException an exception thrown while starting the document
+     */
+    @NotNull ConfigurationEventHandler newWriter(final @NotNull Writer writer) throws IOException;
+}
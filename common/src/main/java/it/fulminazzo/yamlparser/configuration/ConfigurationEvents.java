@@ -0,0 +1,100 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Utilities to move between configuration trees and the events of {@link ConfigurationEventHandler}.
+ */
+public final class ConfigurationEvents {
+
+    private ConfigurationEvents() {}
+
+    /**
+     * Passes the events of the given value to the given handler.
+     * Maps and sections are sent as sections, collections and arrays as lists and anything else as a scalar.
+     *
+     * @param value   the value
+     * @param handler the handler
+     * @throws IOException an exception thrown by the handler
+     */
+    public static void emit(@Nullable Object value, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        if (value instanceof IConfiguration) value = ((IConfiguration) value).toMap();
+        if (value instanceof Map) {
+            handler.startSection();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                handler.key(String.valueOf(entry.getKey()));
+                emit(entry.getValue(), handler);
+            }
+            handler.end();
+        } else if (value instanceof Iterable) {
+            handler.startList();
+            for (Object element : (Iterable<?>) value) emit(element, handler);
+            handler.end();
+        } else if (value != null && value.getClass().isArray() && !(value instanceof byte[])) {
+            handler.startList();
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) emit(Array.get(value, i), handler);
+            handler.end();
+        } else handler.scalar(value);
+    }
+
+    /**
+     * A {@link ConfigurationEventHandler} that builds the tree of the events it receives,
+     * with sections as {@link LinkedHashMap}s and lists as {@link ArrayList}s.
+     */
+    public static final class TreeBuilder implements ConfigurationEventHandler {
+        private final @NotNull Deque<Object> containers = new ArrayDeque<>();
+        private final @NotNull Deque<String> keys = new ArrayDeque<>();
+        private @Nullable Object root;
+
+        /**
+         * Gets the tree built so far: the value of the first complete event.
+         *
+         * @return the root
+         */
+        public @Nullable Object getRoot() {
+            return this.root;
+        }
+
+        @Override
+        public void startSection() {
+            this.containers.push(new LinkedHashMap<String, Object>());
+        }
+
+        @Override
+        public void key(final @NotNull String key) {
+            this.keys.push(key);
+        }
+
+        @Override
+        public void scalar(final @Nullable Object value) {
+            add(value);
+        }
+
+        @Override
+        public void startList() {
+            this.containers.push(new ArrayList<>());
+        }
+
+        @Override
+        public void end() {
+            if (this.containers.isEmpty()) throw new IllegalStateException("No section or list to end");
+            add(this.containers.pop());
+        }
+
+        @SuppressWarnings("unchecked")
+        private void add(final @Nullable Object value) {
+            final Object parent = this.containers.peek();
+            if (parent instanceof Map) {
+                if (this.keys.isEmpty()) throw new IllegalStateException("Missing key for value " + value);
+                ((Map<String, Object>) parent).put(this.keys.pop(), value);
+            } else if (parent != null) ((List<Object>) parent).add(value);
+            else this.root = value;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import jdk.jfr.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the measurements of {@link ConfigurationMetrics} as Flight Recorder events,
+ * so that the configurations can be profiled with any recording, without additional agents.
+ * <p>
+ * Once {@link #enable()} is called, every load, dump and save is recorded as an event of the category
+ * <code>YAMLParser</code>, lasting as long as the operation, while the hits and misses of the caches are counted
+ * and committed periodically, every second by default.
+ * As with any event, nothing is recorded while no recording enables them.
+ * <p>
+ * Requires Java 11, or Java 8 from update 262: this class is only loaded when used,
+ * so the rest of the library works on older versions too.
+ */
+public final class ConfigurationFlightRecorder {
+    private static @Nullable Recorder recorder;
+
+    private ConfigurationFlightRecorder() {}
+
+    /**
+     * Starts recording the events, if not already enabled.
+     */
+    public static synchronized void enable() {
+        if (recorder != null) return;
+        final Recorder newRecorder = new Recorder();
+        FlightRecorder.addPeriodicEvent(CacheStatisticsEvent.class, newRecorder);
+        ConfigurationMetrics.addListener(newRecorder);
+        ConfigurationMetrics.recording = true;
+        recorder = newRecorder;
+    }
+
+    /**
+     * Stops recording the events.
+     */
+    public static synchronized void disable() {
+        final Recorder current = recorder;
+        if (current == null) return;
+        ConfigurationMetrics.recording = false;
+        ConfigurationMetrics.removeListener(current);
+        FlightRecorder.removePeriodicEvent(current);
+        recorder = null;
+    }
+
+    /**
+     * Checks if the events are recorded.
+     *
+     * @return true if they are
+     */
+    public static synchronized boolean isEnabled() {
+        return recorder != null;
+    }
+
+    /**
+     * Begins a {@link LoadEvent}, called by {@link ConfigurationMetrics} before a document is parsed.
+     *
+     * @return the event, or null if it is not enabled by any recording
+     */
+    static @Nullable Object beginLoad() {
+        return begin(new LoadEvent());
+    }
+
+    /**
+     * Begins a {@link DumpEvent}, called by {@link ConfigurationMetrics} before some data is written.
+     *
+     * @return the event, or null if it is not enabled by any recording
+     */
+    static @Nullable Object beginDump() {
+        return begin(new DumpEvent());
+    }
+
+    /**
+     * Begins a {@link SaveEvent}, called by {@link ConfigurationMetrics} before a configuration is saved.
+     *
+     * @return the event, or null if it is not enabled by any recording
+     */
+    static @Nullable Object beginSave() {
+        return begin(new SaveEvent());
+    }
+
+    private static @Nullable Event begin(final @NotNull Event event) {
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the given event, as soon as its operation is completed.
+     * The event is committed later, once its fields are computed.
+     *
+     * @param event the event returned by one of the begin methods
+     */
+    static void end(final @NotNull Object event) {
+        ((Event) event).end();
+    }
+
+    static void commitLoad(final @NotNull Object event, final @NotNull String format, final long bytes, final int nodes) {
+        final LoadEvent loadEvent = (LoadEvent) event;
+        loadEvent.format = format;
+        loadEvent.bytes = bytes;
+        loadEvent.nodes = nodes;
+        loadEvent.commit();
+    }
+
+    static void commitDump(final @NotNull Object event, final @NotNull String format, final long characters, final int nodes) {
+        final DumpEvent dumpEvent = (DumpEvent) event;
+        dumpEvent.format = format;
+        dumpEvent.characters = characters;
+        dumpEvent.nodes = nodes;
+        dumpEvent.commit();
+    }
+
+    static void commitSave(final @NotNull Object event, final @NotNull File file, final long bytes) {
+        final SaveEvent saveEvent = (SaveEvent) event;
+        saveEvent.file = file.getPath();
+        saveEvent.bytes = bytes;
+        saveEvent.commit();
+    }
+
+    /**
+     * The listener counting the lookups of the caches, which also emits their periodic statistics.
+     * The other events are begun and committed directly by {@link ConfigurationMetrics},
+     * so that their duration is the one of the operation.
+     */
+    private static final class Recorder implements ConfigurationListener, Runnable {
+        private final @NotNull LongAdder pathHits = new LongAdder();
+        private final @NotNull LongAdder pathMisses = new LongAdder();
+        private final @NotNull LongAdder valueHits = new LongAdder();
+        private final @NotNull LongAdder valueMisses = new LongAdder();
+
+        @Override
+        public void onCacheLookup(final @NotNull Cache cache, final boolean hit) {
+            if (cache == Cache.PATH) (hit ? this.pathHits : this.pathMisses).increment();
+            else (hit ? this.valueHits : this.valueMisses).increment();
+        }
+
+        @Override
+        public void run() {
+            final CacheStatisticsEvent event = new CacheStatisticsEvent();
+            event.pathHits = this.pathHits.sum();
+            event.pathMisses = this.pathMisses.sum();
+            event.valueHits = this.valueHits.sum();
+            event.valueMisses = this.valueMisses.sum();
+            event.commit();
+        }
+    }
+
+    @Name("it.fulminazzo.yamlparser.Load")
+    @Label("Configuration Load")
+    @Description("A document parsed by a configuration format")
+    @Category("YAMLParser")
+    @StackTrace(false)
+    static final class LoadEvent extends Event {
+        @Label("Format")
+        String format;
+        @Label("Bytes Read")
+        @DataAmount
+        long bytes;
+        @Label("Nodes")
+        int nodes;
+    }
+
+    @Name("it.fulminazzo.yamlparser.Dump")
+    @Label("Configuration Dump")
+    @Description("Data written by a configuration format, measured in characters since the encoding belongs to the writer: "
+            + "the bytes written to the files are reported by the Configuration Save events")
+    @Category("YAMLParser")
+    @StackTrace(false)
+    static final class DumpEvent extends Event {
+        @Label("Format")
+        String format;
+        @Label("Characters Written")
+        long characters;
+        @Label("Nodes")
+        int nodes;
+    }
+
+    @Name("it.fulminazzo.yamlparser.Save")
+    @Label("Configuration Save")
+    @Description("A configuration written to its file")
+    @Category("YAMLParser")
+    static final class SaveEvent extends Event {
+        @Label("File")
+        String file;
+        @Label("Bytes Written")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("it.fulminazzo.yamlparser.CacheStatistics")
+    @Label("Configuration Cache Statistics")
+    @Description("The hits and misses of the caches of the configurations, since the recording was enabled")
+    @Category("YAMLParser")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class CacheStatisticsEvent extends Event {
+        @Label("Path Hits")
+        long pathHits;
+        @Label("Path Misses")
+        long pathMisses;
+        @Label("Value Hits")
+        long valueHits;
+        @Label("Value Misses")
+        long valueMisses;
+    }
+}
@@ -0,0 +1,170 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Represents a data format supported by {@link FileConfiguration}.
+ * Every format is bound to one implementation class, whose constructors are resolved
+ * only once as {@link MethodHandle}s when the format is registered in {@link ConfigurationFormats}.
+ */
+@Getter
+public final class ConfigurationFormat {
+    private static final MethodType FILE_CONSTRUCTOR = MethodType.methodType(FileConfiguration.class, File.class, InputStream.class);
+    private static final MethodType STREAM_CONSTRUCTOR = MethodType.methodType(FileConfiguration.class, InputStream.class);
+
+    private final @NotNull String name;
+    private final @NotNull Class<? extends FileConfiguration> configurationClass;
+    private final @NotNull List<String> extensions;
+    @Getter(AccessLevel.NONE)
+    private final @NotNull MethodHandle fileConstructor;
+    @Getter(AccessLevel.NONE)
+    private final @NotNull MethodHandle streamConstructor;
+
+    /**
+     * Instantiates a new Configuration format.
+     *
+     * @param name               the name
+     * @param configurationClass the configuration class
+     * @param extensions         the file extensions handled by this format
+     */
+    ConfigurationFormat(final @NotNull String name, final @NotNull Class<? extends FileConfiguration> configurationClass,
+                        final String @NotNull ... extensions) {
+        if (Modifier.isAbstract(configurationClass.getModifiers()))
+            throw new IllegalArgumentException(String.format("Class %s cannot be abstract", configurationClass.getCanonicalName()));
+        this.name = name.toLowerCase(Locale.ROOT);
+        this.configurationClass = configurationClass;
+        String[] lowerCase = new String[extensions.length];
+        for (int i = 0; i < extensions.length; i++) lowerCase[i] = extensions[i].toLowerCase(Locale.ROOT);
+        this.extensions = Collections.unmodifiableList(Arrays.asList(lowerCase));
+        this.fileConstructor = findConstructor(configurationClass, FILE_CONSTRUCTOR);
+        this.streamConstructor = findConstructor(configurationClass, STREAM_CONSTRUCTOR);
+    }
+
+    /**
+     * Creates a new configuration of this format from the given file.
+     * The file is read with {@link ConfigurationBuffers#read(File)}.
+     * If a {@link ConfigurationCache} is set, its data is used when the file did not change,
+     * and the cache is updated when the file is parsed.
+     *
+     * @param file the file
+     * @return the file configuration
+     */
+    public @NotNull FileConfiguration newConfiguration(final @NotNull File file) {
+        if (!file.isFile()) throw new RuntimeException(new FileNotFoundException(file.getPath()));
+        final ByteBuffer content;
+        try {
+            content = ConfigurationBuffers.read(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        final ConfigurationCache cache = ConfigurationFormats.getCache();
+        if (cache == null) return newConfiguration(file, new BufferInputStream(content));
+
+        final Map<?, ?> cached = cache.read(file, this, content.duplicate());
+        if (cached != null) return newConfiguration(file, new PreloadedInputStream(cached));
+        final FileConfiguration configuration = newConfiguration(file, new BufferInputStream(content));
+        // Sections that were not parsed yet cannot be cached
+        if (!(configuration instanceof ManagedFileConfiguration) || !((ManagedFileConfiguration) configuration).hasLazySections())
+            cache.write(file, this, content.duplicate(), configuration.toMap());
+        return configuration;
+    }
+
+    /**
+     * Creates a new configuration of this format from the given UTF-8 encoded buffer.
+     * The buffer is read from its position to its limit, without changing them.
+     *
+     * @param buffer the buffer
+     * @return the file configuration
+     */
+    public @NotNull FileConfiguration newConfiguration(final @NotNull ByteBuffer buffer) {
+        return newConfiguration(new BufferInputStream(buffer));
+    }
+
+    /**
+     * Creates a new configuration of this format from the given buffer.
+     * The buffer is read from its position to its limit, without changing them.
+     *
+     * @param buffer the buffer
+     * @return the file configuration
+     */
+    public @NotNull FileConfiguration newConfiguration(final @NotNull CharBuffer buffer) {
+        return newConfiguration(new BufferInputStream(buffer));
+    }
+
+    /**
+     * Creates a new configuration of this format from the given file and stream.
+     * The file will only be used as the save destination, while the data will be read from the stream.
+     *
+     * @param file   the file
+     * @param stream the stream
+     * @return the file configuration
+     */
+    public @NotNull FileConfiguration newConfiguration(final @NotNull File file, final @NotNull InputStream stream) {
+        try {
+            return (FileConfiguration) this.fileConstructor.invokeExact(file, stream);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates a new configuration of this format from the given stream.
+     *
+     * @param stream the stream
+     * @return the file configuration
+     */
+    public @NotNull FileConfiguration newConfiguration(final @NotNull InputStream stream) {
+        try {
+            return (FileConfiguration) this.streamConstructor.invokeExact(stream);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the {@link ConfigurationEventStream} of this format, registered in {@link ConfigurationFormats}.
+     *
+     * @return the event stream, or null if this format does not support streaming
+     */
+    public @Nullable ConfigurationEventStream getEventStream() {
+        return ConfigurationFormats.getEventStream(this.name);
+    }
+
+    private static @NotNull MethodHandle findConstructor(final @NotNull Class<? extends FileConfiguration> clazz,
+                                                         final @NotNull MethodType type) {
+        try {
+            Constructor<? extends FileConfiguration> constructor = clazz.getDeclaredConstructor(type.parameterArray());
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("Class %s does not declare a %s constructor",
+                    clazz.getCanonicalName(), Arrays.toString(type.parameterArray())), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s {name: %s, extensions: %s}", getClass().getSimpleName(), this.name, this.extensions);
+    }
+}
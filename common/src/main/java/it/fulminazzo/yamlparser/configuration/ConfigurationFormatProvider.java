@@ -0,0 +1,56 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A service that provides a {@link ConfigurationFormat} to {@link ConfigurationFormats}.
+ * Every module declares its own implementation in
+ * <code>META-INF/services/it.fulminazzo.yamlparser.configuration.ConfigurationFormatProvider</code>,
+ * so that its format is registered with a {@link java.util.ServiceLoader} as soon as the module is in the classpath.
+ * Implementations must be public and have a public constructor without parameters.
+ */
+public interface ConfigurationFormatProvider {
+
+    /**
+     * Gets the name of the format.
+     *
+     * @return the name
+     */
+    @NotNull String getName();
+
+    /**
+     * Gets the class implementing the format.
+     *
+     * @return the configuration class
+     */
+    @NotNull Class<? extends FileConfiguration> getConfigurationClass();
+
+    /**
+     * Gets the file extensions handled by the format.
+     *
+     * @return the extensions
+     */
+    String @NotNull [] getExtensions();
+
+    /**
+     * Gets the {@link ConfigurationEventStream} of the format.
+     *
+     * @return the event stream, or null if the format does not support streaming
+     */
+    default @Nullable ConfigurationEventStream getEventStream() {
+        return null;
+    }
+
+    /**
+     * Gets the priority of the format.
+     * Formats with a lower priority are registered first:
+     * since content of an unknown format is read with the first registered format,
+     * this keeps the choice independent of the order of the classpath.
+     *
+     * @return the priority
+     */
+    default int getPriority() {
+        return 100;
+    }
+}
@@ -0,0 +1,202 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The registry of every {@link ConfigurationFormat} known to {@link FileConfiguration}.
+ * The formats of the {@link ConfigurationFormatProvider}s found in the classpath are registered once,
+ * the first time this class is used: this includes the ones of the modules of this project.
+ * Further formats can be added with {@link #register(String, Class, String...)}.
+ * Other implementations of {@link FileConfiguration} are not discovered.
+ */
+public final class ConfigurationFormats {
+    private static final List<ConfigurationFormat> FORMATS = new CopyOnWriteArrayList<>();
+    private static final Map<String, ConfigurationFormat> NAMES = new ConcurrentHashMap<>();
+    private static final Map<String, ConfigurationFormat> EXTENSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, ConfigurationEventStream> EVENT_STREAMS = new ConcurrentHashMap<>();
+    private static volatile @Nullable ConfigurationCache cache;
+
+    static {
+        final List<ConfigurationFormatProvider> providers = new ArrayList<>();
+        for (ConfigurationFormatProvider provider : ServiceLoader.load(ConfigurationFormatProvider.class,
+                ConfigurationFormats.class.getClassLoader())) providers.add(provider);
+        providers.sort(Comparator.comparingInt(ConfigurationFormatProvider::getPriority));
+        for (ConfigurationFormatProvider provider : providers) register(provider);
+    }
+
+    private ConfigurationFormats() {}
+
+    /**
+     * Registers a new format.
+     * If a format with the same name was already present, it will be replaced.
+     *
+     * @param name               the name of the format
+     * @param configurationClass the class implementing the format
+     * @param extensions         the file extensions handled by the format
+     * @return the configuration format
+     */
+    public static synchronized @NotNull ConfigurationFormat register(final @NotNull String name,
+                                                                     final @NotNull Class<? extends FileConfiguration> configurationClass,
+                                                                     final String @NotNull ... extensions) {
+        final ConfigurationFormat format = new ConfigurationFormat(name, configurationClass, extensions);
+        unregister(format.getName());
+        FORMATS.add(format);
+        NAMES.put(format.getName(), format);
+        for (final String extension : format.getExtensions()) EXTENSIONS.put(extension, format);
+        return format;
+    }
+
+    /**
+     * Registers the format and the event stream of the given provider.
+     *
+     * @param provider the provider
+     * @return the configuration format
+     */
+    public static synchronized @NotNull ConfigurationFormat register(final @NotNull ConfigurationFormatProvider provider) {
+        final ConfigurationFormat format = register(provider.getName(), provider.getConfigurationClass(), provider.getExtensions());
+        final ConfigurationEventStream eventStream = provider.getEventStream();
+        if (eventStream != null) registerEventStream(format.getName(), eventStream);
+        return format;
+    }
+
+    /**
+     * Removes the format with the given name.
+     * Its extensions are given back to the last registered format that handles them, if any.
+     *
+     * @param name the name
+     * @return the removed format, if present
+     */
+    public static synchronized @Nullable ConfigurationFormat unregister(final @NotNull String name) {
+        final ConfigurationFormat format = NAMES.remove(name.toLowerCase(Locale.ROOT));
+        if (format == null) return null;
+        FORMATS.remove(format);
+        for (final String extension : format.getExtensions()) {
+            if (!EXTENSIONS.remove(extension, format)) continue;
+            for (final ConfigurationFormat previous : FORMATS)
+                if (previous.getExtensions().contains(extension)) EXTENSIONS.put(extension, previous);
+        }
+        return format;
+    }
+
+    /**
+     * Gets the format with the given name.
+     *
+     * @param name the name
+     * @return the format
+     */
+    public static @Nullable ConfigurationFormat getFormat(final @NotNull String name) {
+        return NAMES.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the format associated with the given extension.
+     *
+     * @param extension the extension
+     * @return the format
+     */
+    public static @Nullable ConfigurationFormat fromExtension(final @NotNull String extension) {
+        return EXTENSIONS.get(extension.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets the format associated with the extension of the given file.
+     *
+     * @param file the file
+     * @return the format
+     */
+    public static @Nullable ConfigurationFormat fromFile(final @NotNull File file) {
+        final String fileName = file.getName();
+        final int index = fileName.lastIndexOf('.');
+        if (index == -1 || index == fileName.length() - 1) return null;
+        return fromExtension(fileName.substring(index + 1));
+    }
+
+    /**
+     * Gets the format of the given stream using {@link FormatDetector}.
+     * If the detected format is not registered, or the stream is empty, the first registered format will be returned.
+     * The stream must support {@link InputStream#mark(int)}, and it will be reset to its original position.
+     *
+     * @param stream the stream
+     * @return the format
+     * @throws IOException an exception thrown while reading the stream
+     */
+    public static @NotNull ConfigurationFormat fromContent(final @NotNull InputStream stream) throws IOException {
+        return fromDetectedName(FormatDetector.detect(stream));
+    }
+
+    /**
+     * Gets the format of the given content using {@link FormatDetector}.
+     * If the detected format is not registered, or the content is empty, the first registered format will be returned.
+     *
+     * @param content the content
+     * @return the format
+     */
+    public static @NotNull ConfigurationFormat fromContent(final @NotNull CharSequence content) {
+        return fromDetectedName(FormatDetector.detect(content));
+    }
+
+    private static @NotNull ConfigurationFormat fromDetectedName(final @Nullable String name) {
+        final ConfigurationFormat format = name == null ? null : getFormat(name);
+        if (format != null) return format;
+        final Iterator<ConfigurationFormat> iterator = FORMATS.iterator();
+        if (!iterator.hasNext()) throw new IllegalStateException("No configuration format has been registered");
+        return iterator.next();
+    }
+
+    /**
+     * Registers the {@link ConfigurationEventStream} of the format with the given name.
+     * It is kept even if the format is registered again.
+     *
+     * @param name        the name of the format
+     * @param eventStream the event stream
+     */
+    public static void registerEventStream(final @NotNull String name, final @NotNull ConfigurationEventStream eventStream) {
+        EVENT_STREAMS.put(name.toLowerCase(Locale.ROOT), eventStream);
+    }
+
+    /**
+     * Gets the {@link ConfigurationEventStream} of the format with the given name.
+     *
+     * @param name the name of the format
+     * @return the event stream, or null if the format does not support streaming
+     */
+    public static @Nullable ConfigurationEventStream getEventStream(final @NotNull String name) {
+        return EVENT_STREAMS.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Sets the cache used by {@link ConfigurationFormat#newConfiguration(File)} to skip parsing unchanged files.
+     *
+     * @param cache the cache, or null to disable it
+     */
+    public static void setCache(final @Nullable ConfigurationCache cache) {
+        ConfigurationFormats.cache = cache;
+    }
+
+    /**
+     * Gets the cache used by {@link ConfigurationFormat#newConfiguration(File)}.
+     * It is not set by default.
+     *
+     * @return the cache
+     */
+    public static @Nullable ConfigurationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets all the registered formats, in order of registration.
+     *
+     * @return the formats
+     */
+    public static @NotNull List<ConfigurationFormat> getFormats() {
+        return Collections.unmodifiableList(FORMATS);
+    }
+}
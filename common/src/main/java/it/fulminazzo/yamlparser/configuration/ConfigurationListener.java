@@ -0,0 +1,71 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * A receiver of the measurements of the operations of the configurations,
+ * registered with {@link ConfigurationMetrics#addListener(ConfigurationListener)}.
+ * Every method does nothing by default, so that implementations only override the ones they need.
+ * <p>
+ * The methods are called synchronously, on the thread that performed the operation, so they should return quickly
+ * and never throw. {@link #onCacheLookup(Cache, boolean)} in particular is called on every cached lookup.
+ */
+public interface ConfigurationListener {
+
+    /**
+     * Called after a document was parsed by the format with the given name.
+     *
+     * @param format   the name of the format
+     * @param bytes    the size of the document in bytes, or -1 if it is not known
+     * @param nodes    the number of sections, lists and scalars parsed, where each section not parsed yet counts as one
+     * @param duration the duration, in nanoseconds
+     */
+    default void onLoad(final @NotNull String format, final long bytes, final int nodes, final long duration) {}
+
+    /**
+     * Called after some data was written by the format with the given name.
+     * Since the data is written to a {@link java.io.Writer}, its size is counted in characters:
+     * the bytes written to the files are reported by {@link #onSave(File, long, long)}.
+     *
+     * @param format     the name of the format
+     * @param characters the number of characters written
+     * @param nodes      the number of sections, lists and scalars written
+     * @param duration   the duration, in nanoseconds
+     */
+    default void onDump(final @NotNull String format, final long characters, final int nodes, final long duration) {}
+
+    /**
+     * Called after a {@link ManagedFileConfiguration} was written to its file.
+     * Saves skipped because nothing changed are not reported.
+     *
+     * @param file     the file
+     * @param bytes    the size of the file in bytes
+     * @param duration the duration, including the dump and the replacement of the file, in nanoseconds
+     */
+    default void onSave(final @NotNull File file, final long bytes, final long duration) {}
+
+    /**
+     * Called on every lookup of one of the caches of the configurations.
+     *
+     * @param cache the cache
+     * @param hit   true if the value was found in the cache
+     */
+    default void onCacheLookup(final @NotNull Cache cache, final boolean hit) {}
+
+    /**
+     * The caches of the configurations.
+     */
+    enum Cache {
+        /**
+         * The sections resolved from a {@link ConfigPath} by {@link ManagedFileConfiguration}.
+         */
+        PATH,
+        /**
+         * The converted values of {@link ManagedFileConfiguration#enableValueCache()}
+         * and the resolved values of {@link OverlayConfiguration}.
+         */
+        VALUE
+    }
+}
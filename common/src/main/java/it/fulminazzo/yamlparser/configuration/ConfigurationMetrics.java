@@ -0,0 +1,218 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Collects the measurements of the operations of the configurations, and sends them to the registered
+ * {@link ConfigurationListener}s.
+ * The formats report every document they parse or write through {@link #load(String, InputStream, Function)}
+ * and {@link #dump(String, Map, Writer, BiConsumer)}, while {@link ManagedFileConfiguration} reports its saves
+ * and the lookups of its caches.
+ * <p>
+ * No listener is registered by default: until one is, nothing is measured,
+ * and the only cost of the instrumentation is a check of the listeners.
+ * To record the operations with Flight Recorder, see {@link ConfigurationFlightRecorder}.
+ */
+public final class ConfigurationMetrics {
+    private static final ConfigurationListener[] NO_LISTENERS = new ConfigurationListener[0];
+
+    private static volatile ConfigurationListener @NotNull [] listeners = NO_LISTENERS;
+    /**
+     * Set by {@link ConfigurationFlightRecorder} while it is enabled, so that its class is never loaded otherwise.
+     */
+    static volatile boolean recording;
+
+    private ConfigurationMetrics() {}
+
+    /**
+     * Registers the given listener.
+     * Registering the same listener more than once has no effect.
+     *
+     * @param listener the listener
+     */
+    public static synchronized void addListener(final @NotNull ConfigurationListener listener) {
+        final List<ConfigurationListener> list = new ArrayList<>(Arrays.asList(listeners));
+        if (list.contains(listener)) return;
+        list.add(listener);
+        listeners = list.toArray(NO_LISTENERS);
+    }
+
+    /**
+     * Unregisters the given listener.
+     *
+     * @param listener the listener
+     * @return true if it was registered
+     */
+    public static synchronized boolean removeListener(final @NotNull ConfigurationListener listener) {
+        final List<ConfigurationListener> list = new ArrayList<>(Arrays.asList(listeners));
+        if (!list.remove(listener)) return false;
+        listeners = list.toArray(NO_LISTENERS);
+        return true;
+    }
+
+    /**
+     * Checks if at least one listener is registered.
+     *
+     * @return true if it is
+     */
+    public static boolean isEnabled() {
+        return listeners.length > 0;
+    }
+
+    /**
+     * Parses a document with the given loader, reporting it to the listeners.
+     * Called by the formats from {@link FileConfiguration#load(InputStream)}.
+     *
+     * @param format the name of the format
+     * @param stream the stream of the document
+     * @param loader the function that parses the stream
+     * @return the data returned by the loader
+     */
+    public static @Nullable Map<?, ?> load(final @NotNull String format, final @NotNull InputStream stream,
+                                           final @NotNull Function<InputStream, Map<?, ?>> loader) {
+        final ConfigurationListener[] listeners = ConfigurationMetrics.listeners;
+        if (listeners.length == 0) return loader.apply(stream);
+        final long bytes;
+        if (stream instanceof BufferInputStream) bytes = ((BufferInputStream) stream).getRemainingBytes();
+        else if (stream instanceof PreloadedInputStream) bytes = 0;
+        else bytes = -1;
+        final Object event = recording ? ConfigurationFlightRecorder.beginLoad() : null;
+        final long start = System.nanoTime();
+        final Map<?, ?> data = loader.apply(stream);
+        final long duration = System.nanoTime() - start;
+        if (event != null) ConfigurationFlightRecorder.end(event);
+        final int nodes = data == null ? 0 : countNodes(data);
+        for (ConfigurationListener listener : listeners) listener.onLoad(format, bytes, nodes, duration);
+        if (event != null) ConfigurationFlightRecorder.commitLoad(event, format, bytes, nodes);
+        return data;
+    }
+
+    /**
+     * Writes the given data with the given dumper, reporting it to the listeners.
+     * Called by the formats from {@link FileConfiguration#dump(Map, Writer)}.
+     *
+     * @param format the name of the format
+     * @param data   the data
+     * @param writer the writer
+     * @param dumper the function that writes the data
+     */
+    public static void dump(final @NotNull String format, final @NotNull Map<?, ?> data, final @NotNull Writer writer,
+                            final @NotNull BiConsumer<Map<?, ?>, Writer> dumper) {
+        final ConfigurationListener[] listeners = ConfigurationMetrics.listeners;
+        if (listeners.length == 0) {
+            dumper.accept(data, writer);
+            return;
+        }
+        final CountingWriter counter = new CountingWriter(writer);
+        final Object event = recording ? ConfigurationFlightRecorder.beginDump() : null;
+        final long start = System.nanoTime();
+        dumper.accept(data, counter);
+        final long duration = System.nanoTime() - start;
+        if (event != null) ConfigurationFlightRecorder.end(event);
+        final int nodes = countNodes(data);
+        for (ConfigurationListener listener : listeners) listener.onDump(format, counter.count, nodes, duration);
+        if (event != null) ConfigurationFlightRecorder.commitDump(event, format, counter.count, nodes);
+    }
+
+    /**
+     * Begins the measurement of a save, to be passed to {@link #save(Object, File, long, long)} once completed.
+     *
+     * @return the Flight Recorder event of the save, if recorded
+     */
+    static @Nullable Object beginSave() {
+        return recording ? ConfigurationFlightRecorder.beginSave() : null;
+    }
+
+    static void save(final @Nullable Object event, final @NotNull File file, final long bytes, final long duration) {
+        if (event != null) ConfigurationFlightRecorder.end(event);
+        for (ConfigurationListener listener : listeners) listener.onSave(file, bytes, duration);
+        if (event != null) ConfigurationFlightRecorder.commitSave(event, file, bytes);
+    }
+
+    static void cacheLookup(final @NotNull ConfigurationListener.Cache cache, final boolean hit) {
+        final ConfigurationListener[] listeners = ConfigurationMetrics.listeners;
+        for (ConfigurationListener listener : listeners) listener.onCacheLookup(cache, hit);
+    }
+
+    /**
+     * Counts the sections, lists and scalars of the given data, including itself.
+     * The data is walked iteratively, so that its depth is not limited by the stack.
+     *
+     * @param data the data
+     * @return the number of nodes
+     */
+    static int countNodes(final @NotNull Object data) {
+        final Deque<Object> pending = new ArrayDeque<>();
+        pending.push(data);
+        int nodes = 0;
+        while (!pending.isEmpty()) {
+            Object value = pending.pop();
+            nodes++;
+            if (value instanceof IConfiguration) value = ((IConfiguration) value).toMap();
+            if (value instanceof NumericList) nodes += ((NumericList<?>) value).size();
+            else if (value instanceof Map) {
+                for (Object child : ((Map<?, ?>) value).values()) if (child != null) pending.push(child);
+            } else if (value instanceof Collection) {
+                for (Object child : (Collection<?>) value) if (child != null) pending.push(child);
+            } else if (value.getClass().isArray()) {
+                final int length = Array.getLength(value);
+                if (value.getClass().getComponentType().isPrimitive()) nodes += length;
+                else for (int i = 0; i < length; i++) {
+                    final Object child = Array.get(value, i);
+                    if (child != null) pending.push(child);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * A {@link Writer} that counts the characters written to another one.
+     */
+    private static final class CountingWriter extends Writer {
+        private final @NotNull Writer writer;
+        private long count;
+
+        CountingWriter(final @NotNull Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            this.writer.write(c);
+            this.count++;
+        }
+
+        @Override
+        public void write(final char @NotNull [] buffer, final int offset, final int length) throws IOException {
+            this.writer.write(buffer, offset, length);
+            this.count += length;
+        }
+
+        @Override
+        public void write(final @NotNull String string, final int offset, final int length) throws IOException {
+            this.writer.write(string, offset, length);
+            this.count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.writer.close();
+        }
+    }
+}
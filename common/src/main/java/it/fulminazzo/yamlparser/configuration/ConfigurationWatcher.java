@@ -0,0 +1,213 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Watches the files of some {@link ManagedFileConfiguration}s with a {@link WatchService},
+ * and reloads them with {@link ManagedFileConfiguration#reload()} when they are modified.
+ * <p>
+ * Changes are debounced: a file is reloaded only once no other change happened for the debounce delay,
+ * so that editors writing a file in many steps cause a single reload.
+ * If the file cannot be parsed (for example, because it is still being written), the configuration is left as it was.
+ * <p>
+ * As described in {@link ManagedFileConfiguration#reload()}, the files that the configurations just saved themselves
+ * are not reloaded, and neither are the configurations with unsaved changes:
+ * for those, the conflict handler given to {@link #watch(ManagedFileConfiguration, Consumer, Consumer)} is called,
+ * so that it can keep the changes with {@link ManagedFileConfiguration#save()}
+ * or take the file with {@link ManagedFileConfiguration#reload(boolean)}.
+ * Until then, the file is checked again on every change, including the next save of the configuration.
+ */
+public final class ConfigurationWatcher implements Closeable {
+    /**
+     * The default debounce delay, in milliseconds.
+     */
+    public static final long DEFAULT_DEBOUNCE = 200;
+
+    private final @NotNull WatchService watchService;
+    private final long debounce;
+    private final @NotNull ScheduledThreadPoolExecutor executor;
+    private final Map<Path, WatchedFile> files = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a new Configuration watcher, with the {@link #DEFAULT_DEBOUNCE} delay.
+     *
+     * @throws IOException an exception thrown while creating the watch service
+     */
+    public ConfigurationWatcher() throws IOException {
+        this(DEFAULT_DEBOUNCE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Instantiates a new Configuration watcher.
+     *
+     * @param debounce the debounce delay
+     * @param unit     the unit of the delay
+     * @throws IOException an exception thrown while creating the watch service
+     */
+    public ConfigurationWatcher(final long debounce, final @NotNull TimeUnit unit) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounce = unit.toNanos(debounce);
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "Configurations reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        Thread thread = new Thread(this::watch, "Configurations watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts watching the file of the given configuration.
+     *
+     * @param configuration the configuration
+     * @throws IOException an exception thrown while registering the directory of the file
+     */
+    public void watch(final @NotNull ManagedFileConfiguration configuration) throws IOException {
+        watch(configuration, null);
+    }
+
+    /**
+     * Starts watching the file of the given configuration.
+     * After every reload that changed something, the listener is called with the changed paths.
+     *
+     * @param configuration the configuration
+     * @param listener      the listener
+     * @throws IOException an exception thrown while registering the directory of the file
+     */
+    public void watch(final @NotNull ManagedFileConfiguration configuration,
+                      final @Nullable Consumer<Set<String>> listener) throws IOException {
+        watch(configuration, listener, null);
+    }
+
+    /**
+     * Starts watching the file of the given configuration.
+     * After every reload that changed something, the listener is called with the changed paths.
+     * When the file is modified while the configuration has unsaved changes, the conflict handler is called once,
+     * until a reload succeeds again.
+     *
+     * @param configuration   the configuration
+     * @param listener        the listener
+     * @param conflictHandler the conflict handler
+     * @throws IOException an exception thrown while registering the directory of the file
+     */
+    public synchronized void watch(final @NotNull ManagedFileConfiguration configuration,
+                                   final @Nullable Consumer<Set<String>> listener,
+                                   final @Nullable Consumer<ManagedFileConfiguration> conflictHandler) throws IOException {
+        if (this.closed) throw new IllegalStateException("Watcher has been closed");
+        final File file = configuration.getSaveFile();
+        if (file == null) throw new IllegalArgumentException("Cannot watch a configuration without a file");
+        final Path path = file.toPath().toAbsolutePath().normalize();
+        final Path directory = path.getParent();
+        if (!this.directories.containsKey(directory))
+            this.directories.put(directory, directory.register(this.watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+        final WatchedFile previous = this.files.put(path, new WatchedFile(configuration, listener, conflictHandler));
+        if (previous != null) previous.cancel();
+    }
+
+    /**
+     * Stops watching the file of the given configuration.
+     *
+     * @param configuration the configuration
+     */
+    public synchronized void unwatch(final @NotNull ManagedFileConfiguration configuration) {
+        final Iterator<Map.Entry<Path, WatchedFile>> iterator = this.files.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Path, WatchedFile> entry = iterator.next();
+            if (entry.getValue().configuration != configuration) continue;
+            entry.getValue().cancel();
+            iterator.remove();
+            final Path directory = entry.getKey().getParent();
+            if (this.files.keySet().stream().noneMatch(p -> p.getParent().equals(directory))) {
+                final WatchKey key = this.directories.remove(directory);
+                if (key != null) key.cancel();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.watchService.close();
+        this.executor.shutdownNow();
+    }
+
+    private void watch() {
+        while (!this.closed) {
+            final WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            final Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    for (Map.Entry<Path, WatchedFile> entry : this.files.entrySet())
+                        if (entry.getKey().getParent().equals(directory)) entry.getValue().schedule();
+                    continue;
+                }
+                final WatchedFile file = this.files.get(directory.resolve((Path) event.context()));
+                if (file != null) file.schedule();
+            }
+            key.reset();
+        }
+    }
+
+    /**
+     * A watched file with its pending reload.
+     */
+    private final class WatchedFile {
+        private final @NotNull ManagedFileConfiguration configuration;
+        private final @Nullable Consumer<Set<String>> listener;
+        private final @Nullable Consumer<ManagedFileConfiguration> conflictHandler;
+        private @Nullable ScheduledFuture<?> pending;
+        private boolean conflict;
+
+        WatchedFile(final @NotNull ManagedFileConfiguration configuration, final @Nullable Consumer<Set<String>> listener,
+                    final @Nullable Consumer<ManagedFileConfiguration> conflictHandler) {
+            this.configuration = configuration;
+            this.listener = listener;
+            this.conflictHandler = conflictHandler;
+        }
+
+        synchronized void schedule() {
+            cancel();
+            if (!closed) this.pending = executor.schedule(this::reload, debounce, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized void cancel() {
+            if (this.pending != null) this.pending.cancel(false);
+            this.pending = null;
+        }
+
+        private void reload() {
+            final Set<String> changed;
+            try {
+                changed = this.configuration.reload();
+            } catch (ConcurrentModificationException e) {
+                if (!this.conflict && this.conflictHandler != null) this.conflictHandler.accept(this.configuration);
+                this.conflict = true;
+                return;
+            } catch (RuntimeException e) {
+                // The file is not valid yet: it will be reloaded on its next change
+                return;
+            }
+            this.conflict = false;
+            if (this.listener != null && !changed.isEmpty()) this.listener.accept(changed);
+        }
+    }
+}
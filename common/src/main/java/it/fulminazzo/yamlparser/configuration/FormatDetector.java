@@ -0,0 +1,123 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Guesses the format of configuration data by looking only at its beginning.
+ * Streams are never consumed: at most {@link #PEEK_LIMIT} bytes are read and then reset.
+ * <p>
+ * Content starting with the signature of the binary format is <b>binary</b>.
+ * Otherwise, the rules applied to the first significant line (ignoring whitespaces and <code>#</code> comments) are:
+ * <ul>
+ *     <li><code>&lt;</code> is <b>XML</b>;</li>
+ *     <li><code>{</code> is <b>JSON</b>;</li>
+ *     <li><code>[</code> is <b>TOML</b> if the line is a table header, <b>JSON</b> otherwise;</li>
+ *     <li><code>-</code> and <code>%</code> are <b>YAML</b>;</li>
+ *     <li>a key followed by <code>=</code> is <b>TOML</b>, any other line is <b>YAML</b>.</li>
+ * </ul>
+ */
+public final class FormatDetector {
+    /**
+     * The maximum number of bytes read from a stream to detect its format.
+     */
+    public static final int PEEK_LIMIT = 8192;
+    /**
+     * The signature at the beginning of the documents of the binary format: its magic number and version.
+     */
+    static final String BINARY_SIGNATURE = "CFGB\u0001";
+    private static final Pattern TOML_TABLE = Pattern.compile("\\[\\[?\\s*" +
+            "([A-Za-z0-9_-]+|\"([^\"\\\\]|\\\\.)*\"|'[^']*')" +
+            "(\\s*\\.\\s*([A-Za-z0-9_-]+|\"([^\"\\\\]|\\\\.)*\"|'[^']*'))*" +
+            "\\s*]]?\\s*(#.*)?");
+
+    private FormatDetector() {}
+
+    /**
+     * Detects the format of the given stream.
+     * The stream must support {@link InputStream#mark(int)}, and it will be reset to its original position.
+     *
+     * @param stream the stream
+     * @return the name of the format, or null if the stream is empty
+     * @throws IOException an exception thrown while reading the stream
+     */
+    public static @Nullable String detect(final @NotNull InputStream stream) throws IOException {
+        if (!stream.markSupported())
+            throw new IllegalArgumentException("Cannot detect format of a stream that does not support mark");
+        final byte[] buffer = new byte[PEEK_LIMIT];
+        int length = 0;
+        stream.mark(PEEK_LIMIT);
+        try {
+            int read;
+            while (length < buffer.length && (read = stream.read(buffer, length, buffer.length - length)) != -1)
+                length += read;
+        } finally {
+            stream.reset();
+        }
+        return detect(new String(buffer, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Detects the format of the given content.
+     *
+     * @param content the content
+     * @return the name of the format, or null if the content is empty
+     */
+    public static @Nullable String detect(final @NotNull CharSequence content) {
+        final int length = content.length();
+        if (length >= BINARY_SIGNATURE.length() && BINARY_SIGNATURE.contentEquals(content.subSequence(0, BINARY_SIGNATURE.length())))
+            return "binary";
+        int start = 0;
+        if (length > 0 && content.charAt(0) == '\uFEFF') start++;
+        while (start < length) {
+            final char c = content.charAt(start);
+            if (c == '#') start = lineEnd(content, start);
+            else if (Character.isWhitespace(c)) start++;
+            else break;
+        }
+        if (start == length) return null;
+
+        final int end = lineEnd(content, start);
+        switch (content.charAt(start)) {
+            case '<':
+                return "xml";
+            case '{':
+                return "json";
+            case '[':
+                return TOML_TABLE.matcher(content.subSequence(start, end)).matches() ? "toml" : "json";
+            case '-':
+            case '%':
+                return "yaml";
+            default:
+                return isTomlKeyValue(content, start, end) ? "toml" : "yaml";
+        }
+    }
+
+    /**
+     * Checks if the first separator outside quotes of the given line is an equal sign.
+     */
+    private static boolean isTomlKeyValue(final @NotNull CharSequence content, final int start, final int end) {
+        char quote = 0;
+        for (int i = start; i < end; i++) {
+            final char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == '\\' && quote == '"') i++;
+                else if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') quote = c;
+            else if (c == '=') return true;
+            else if (c == ':' && (i + 1 == end || Character.isWhitespace(content.charAt(i + 1)))) return false;
+        }
+        return false;
+    }
+
+    private static int lineEnd(final @NotNull CharSequence content, int index) {
+        final int length = content.length();
+        while (index < length && content.charAt(index) != '\n' && content.charAt(index) != '\r') index++;
+        return index;
+    }
+}
@@ -0,0 +1,81 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A placeholder for a section that was not parsed yet, returned by the loaders in lazy mode.
+ * {@link ManagedFileConfiguration} replaces it with the parsed section the first time it is accessed.
+ * <p>
+ * If the source of the section is known, {@link ManagedFileConfiguration#reload()} compares it with the new one,
+ * so that sections not parsed yet are never parsed just to find out whether they changed.
+ */
+public final class LazySection {
+    private final @Nullable CharSequence source;
+    private final @NotNull Supplier<? extends Map<?, ?>> parser;
+
+    /**
+     * Instantiates a new Lazy section, whose source is not known.
+     *
+     * @param parser the function that parses the section
+     */
+    public LazySection(final @NotNull Supplier<? extends Map<?, ?>> parser) {
+        this(null, parser);
+    }
+
+    /**
+     * Instantiates a new Lazy section.
+     *
+     * @param source the text of the section in the document
+     * @param parser the function that parses the section
+     */
+    public LazySection(final @Nullable CharSequence source, final @NotNull Supplier<? extends Map<?, ?>> parser) {
+        this.source = source;
+        this.parser = parser;
+    }
+
+    /**
+     * Parses the section.
+     *
+     * @return the data of the section
+     */
+    public @NotNull Map<?, ?> load() {
+        return this.parser.get();
+    }
+
+    /**
+     * Checks if the given value is a lazy section with the same source as this one, and so the same data.
+     *
+     * @param other the value
+     * @return true only if both sources are known and equal
+     */
+    boolean hasSameSource(final @Nullable Object other) {
+        if (!(other instanceof LazySection)) return false;
+        final CharSequence source = ((LazySection) other).source;
+        if (this.source == null || source == null || this.source.length() != source.length()) return false;
+        for (int i = 0; i < source.length(); i++) if (this.source.charAt(i) != source.charAt(i)) return false;
+        return true;
+    }
+
+    /**
+     * Replaces every lazy section at the top level of the given data with its parsed data.
+     *
+     * @param data the data
+     * @return the data
+     */
+    @SuppressWarnings("unchecked")
+    static @NotNull Map<?, ?> loadAll(final @NotNull Map<?, ?> data) {
+        for (Map.Entry<?, ?> entry : data.entrySet())
+            if (entry.getValue() instanceof LazySection)
+                ((Map.Entry<Object, Object>) entry).setValue(((LazySection) entry.getValue()).load());
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,1196 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A {@link FileConfiguration} that keeps track of the data it was loaded or last saved with.
+ * <p>
+ * Changes made through this configuration are counted, so that {@link #save()} is skipped entirely when there are none.
+ * Once a section, a list or a map of the data has been handed out, it could also be modified directly:
+ * from then on, a 64-bit fingerprint of the data, including every {@link ConfigurationSection}, is kept as well,
+ * and compared when the counter alone cannot tell whether something changed.
+ * Otherwise, the data is written to a temporary file in the same directory, with the permissions and the owner of
+ * the original one, which it then atomically replaces, so that an interrupted save never leaves a half-written file.
+ * If the file is a symbolic link, the file it points to is replaced instead.
+ * <p>
+ * In write-behind mode (see {@link #enableWriteBehind(long, TimeUnit, int)}), {@link #save()} only schedules the save
+ * on a background thread: every call received before it runs is coalesced in a single write.
+ * {@link #flush()} writes the pending changes immediately, and they are also flushed when the JVM shuts down.
+ * A background save that fails is retried later, until it succeeds or {@link #flush()} is called.
+ * Saves hold the lock of the configuration while writing, so changes made through it wait for them to complete;
+ * sections modified directly while a background save runs should be synchronized on this configuration too.
+ * <p>
+ * Values can also be accessed with a precompiled {@link ConfigPath}: the section containing its last key
+ * is cached, so repeated lookups skip both the parsing of the path and the walk from the root.
+ * The cache is cleared by every change made through this configuration that could replace a section,
+ * and by {@link #reload()}. Sections replaced directly on a child section require a call to {@link #invalidatePaths()}.
+ * <p>
+ * With {@link #enableValueCache()}, converted values are cached too, by path and type,
+ * so that hot reads of complex values do not repeat the conversion.
+ * <p>
+ * Formats loaded in lazy mode store their top-level sections as {@link LazySection}s:
+ * each one is parsed the first time a path inside it is accessed, and all of them before saving.
+ * Until then, {@link #toMap()} returns the placeholders: {@link #materialize()} parses every section.
+ * {@link #reload()} does not parse them either: only the sections already parsed are compared with the file.
+ */
+public abstract class ManagedFileConfiguration extends FileConfiguration {
+    private static final int MAX_CACHED_SECTIONS = 4096;
+    private static final int MAX_CACHED_VALUES = 4096;
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toNanos(1);
+    private static final AtomicLongFieldUpdater<ManagedFileConfiguration> VERSION =
+            AtomicLongFieldUpdater.newUpdater(ManagedFileConfiguration.class, "version");
+
+    private final @Nullable File file;
+    private long modifications;
+    private long savedModifications;
+    private long savedFingerprint;
+    private volatile boolean exposed;
+    private boolean forceSave;
+    private long writtenSize = -1;
+    private long writtenChecksum;
+
+    private long writeBehindDelay = -1;
+    private int maxPendingSaves;
+    private int pendingSaves;
+    private @Nullable ScheduledFuture<?> scheduledSave;
+
+    private volatile @Nullable Map<ConfigPath, IConfiguration> sections;
+    private volatile @Nullable Map<ValueKey, Object> values;
+
+    private volatile int lazySections;
+
+    private volatile long version;
+    /**
+     * Odd while {@link #reload()} is applying the changes of the file.
+     */
+    private volatile long reloadSequence;
+
+    /**
+     * Instantiates a new Managed file configuration.
+     *
+     * @param path the path
+     */
+    protected ManagedFileConfiguration(final @NotNull String path) {
+        super(path);
+        this.file = new File(path);
+        initialize();
+    }
+
+    /**
+     * Instantiates a new Managed file configuration.
+     *
+     * @param file the file
+     */
+    protected ManagedFileConfiguration(final @NotNull File file) {
+        super(file);
+        this.file = file;
+        initialize();
+    }
+
+    /**
+     * Instantiates a new Managed file configuration.
+     * Since it has no file, it cannot be saved.
+     *
+     * @param inputStream the input stream
+     */
+    protected ManagedFileConfiguration(final InputStream inputStream) {
+        super(inputStream);
+        this.file = null;
+        initialize();
+    }
+
+    /**
+     * Instantiates a new Managed file configuration.
+     *
+     * @param file        the file
+     * @param inputStream the input stream
+     */
+    protected ManagedFileConfiguration(final @Nullable File file, final InputStream inputStream) {
+        super(file, inputStream);
+        this.file = file;
+        initialize();
+    }
+
+    /**
+     * Saves the configuration to its file, only if it was modified since it was loaded or last saved.
+     * In write-behind mode, the save is only scheduled.
+     */
+    @Override
+    public void save() {
+        synchronized (this) {
+            if (this.writeBehindDelay >= 0) {
+                requestSave();
+                return;
+            }
+        }
+        saveNow();
+    }
+
+    /**
+     * Immediately saves the pending changes of the write-behind mode.
+     * If a background save failed, the error will be thrown by this method, when retrying it.
+     * If the write-behind mode is not enabled, this is the same as {@link #save()}.
+     */
+    public void flush() {
+        synchronized (this) {
+            cancelPendingSaves();
+        }
+        saveNow();
+    }
+
+    private void cancelPendingSaves() {
+        if (this.scheduledSave != null) {
+            this.scheduledSave.cancel(false);
+            this.scheduledSave = null;
+        }
+        this.pendingSaves = 0;
+        WriteBehindScheduler.untrack(this);
+    }
+
+    /**
+     * Enables the write-behind mode.
+     * Saves will be performed in background, after the given delay from the first unsaved call to {@link #save()},
+     * or as soon as possible once the given number of calls has been reached.
+     *
+     * @param delay           the delay
+     * @param unit            the unit of the delay
+     * @param maxPendingSaves the maximum number of calls to {@link #save()} coalesced together
+     */
+    public synchronized void enableWriteBehind(final long delay, final @NotNull TimeUnit unit, final int maxPendingSaves) {
+        if (delay < 0) throw new IllegalArgumentException("Delay cannot be negative");
+        if (maxPendingSaves < 1) throw new IllegalArgumentException("Maximum pending saves must be at least 1");
+        if (this.file == null) throw new IllegalStateException("Cannot save a configuration without a file");
+        this.writeBehindDelay = unit.toNanos(delay);
+        this.maxPendingSaves = maxPendingSaves;
+    }
+
+    /**
+     * Enables the write-behind mode, with no limit on the number of coalesced saves.
+     *
+     * @param delay the delay
+     * @param unit  the unit of the delay
+     * @see #enableWriteBehind(long, TimeUnit, int)
+     */
+    public void enableWriteBehind(final long delay, final @NotNull TimeUnit unit) {
+        enableWriteBehind(delay, unit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Disables the write-behind mode, flushing the pending changes.
+     */
+    public void disableWriteBehind() {
+        synchronized (this) {
+            this.writeBehindDelay = -1;
+        }
+        flush();
+    }
+
+    /**
+     * Checks if the write-behind mode is enabled.
+     *
+     * @return true if it is
+     */
+    public synchronized boolean isWriteBehind() {
+        return this.writeBehindDelay >= 0;
+    }
+
+    private void requestSave() {
+        this.pendingSaves++;
+        WriteBehindScheduler.track(this);
+        if (this.pendingSaves >= this.maxPendingSaves) {
+            if (this.scheduledSave != null) this.scheduledSave.cancel(false);
+            this.scheduledSave = WriteBehindScheduler.schedule(this::flushInBackground, 0);
+        } else if (this.scheduledSave == null)
+            this.scheduledSave = WriteBehindScheduler.schedule(this::flushInBackground, this.writeBehindDelay);
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the changes pending and retry them, unless another save was scheduled in the meantime
+            synchronized (this) {
+                WriteBehindScheduler.track(this);
+                if (this.writeBehindDelay >= 0 && this.scheduledSave == null)
+                    this.scheduledSave = WriteBehindScheduler.schedule(this::flushInBackground,
+                            Math.max(this.writeBehindDelay, RETRY_DELAY));
+            }
+        }
+    }
+
+    private synchronized void saveNow() {
+        if (this.file == null) throw new IllegalStateException("Cannot save a configuration without a file");
+        materialize();
+        final Map<?, ?> data = super.toMap();
+        final long fingerprint = this.exposed ? fingerprint(data) : 0;
+        if (!this.forceSave && this.modifications == this.savedModifications &&
+                (!this.exposed || fingerprint == this.savedFingerprint)) return;
+        try {
+            write(this.file, data);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        this.savedModifications = this.modifications;
+        this.savedFingerprint = fingerprint;
+        this.forceSave = false;
+    }
+
+    /**
+     * Reads the file again, and applies only the paths whose value changed:
+     * the sections that did not change are left untouched, so references to them stay valid.
+     * The changes are published atomically: the getters of this configuration called while they are applied
+     * wait for them, instead of seeing only some of them.
+     * <p>
+     * Nothing is applied if the file is still the one last written or reloaded by this configuration.
+     * If the configuration has changes that were not saved yet, including the pending ones of the write-behind mode,
+     * they are never reverted: a {@link ConcurrentModificationException} is thrown instead.
+     * The conflict can then be solved with {@link #save()}, which overwrites the file,
+     * or with {@link #reload(boolean)}, which discards the changes.
+     *
+     * @return the changed paths
+     * @throws ConcurrentModificationException if the file was modified while the configuration had unsaved changes
+     */
+    public @NotNull Set<String> reload() {
+        return reload(false);
+    }
+
+    /**
+     * Reads the file again, and applies only the paths whose value changed.
+     * If the given flag is true, the changes not saved yet are discarded, together with the pending saves
+     * of the write-behind mode, and the configuration is made equal to the file.
+     *
+     * @param discardChanges true to discard the unsaved changes
+     * @return the changed paths
+     * @throws ConcurrentModificationException if the file was modified while the configuration had unsaved changes,
+     *                                         and they are not discarded
+     * @see #reload()
+     */
+    public synchronized @NotNull Set<String> reload(final boolean discardChanges) {
+        if (this.file == null) throw new IllegalStateException("Cannot reload a configuration without a file");
+        final ByteBuffer buffer;
+        try {
+            buffer = ConfigurationBuffers.read(this.file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        final long size = buffer.remaining();
+        final long checksum = checksum(buffer);
+        if (discardChanges) cancelPendingSaves();
+        // The content last written or reloaded by this configuration is already applied
+        else if (size == this.writtenSize && checksum == this.writtenChecksum) return new LinkedHashSet<>();
+        else if (isDirty())
+            throw new ConcurrentModificationException("File " + this.file + " was modified while the configuration had unsaved changes");
+        final Map<?, ?> loaded = load(new BufferInputStream(buffer));
+        final Map<String, Object> oldData = new LinkedHashMap<>(super.toMap());
+        final Map<String, Object> newData = new LinkedHashMap<>();
+        if (loaded != null) for (Map.Entry<?, ?> entry : loaded.entrySet()) newData.put(entry.getKey().toString(), entry.getValue());
+        final Set<String> changed = new LinkedHashSet<>();
+        this.reloadSequence++;
+        try {
+            applyLazyChanges(oldData, newData, changed);
+            applyChanges(this, "", oldData, newData, changed);
+            if (!changed.isEmpty()) invalidatePaths();
+        } finally {
+            this.reloadSequence++;
+        }
+        markSaved();
+        this.writtenSize = size;
+        this.writtenChecksum = checksum;
+        return changed;
+    }
+
+    /**
+     * Applies the top-level entries of the new data that are not parsed yet in the old data, in the new data, or both,
+     * and removes them from both, so that only the sections already parsed are compared.
+     * Sections not parsed yet are replaced without parsing them, and only if their source changed:
+     * their key is reported as changed, instead of the paths inside them.
+     *
+     * @param oldData the old data
+     * @param newData the new data
+     * @param changed the changed paths
+     */
+    private void applyLazyChanges(final @NotNull Map<String, Object> oldData, final @NotNull Map<String, Object> newData,
+                                  final @NotNull Set<String> changed) {
+        final Iterator<Map.Entry<String, Object>> iterator = newData.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Object> entry = iterator.next();
+            final String key = entry.getKey();
+            final Object oldValue = oldData.get(key);
+            final Object newValue = entry.getValue();
+            if (oldValue instanceof LazySection || newValue instanceof LazySection && !oldData.containsKey(key)) {
+                iterator.remove();
+                oldData.remove(key);
+                if (oldValue instanceof LazySection && ((LazySection) oldValue).hasSameSource(newValue)) continue;
+                super.set(ConfigPath.escape(key), newValue);
+                changed.add(key);
+            } else if (newValue instanceof LazySection) entry.setValue(((LazySection) newValue).load());
+        }
+        final Iterator<Map.Entry<String, Object>> removed = oldData.entrySet().iterator();
+        while (removed.hasNext()) {
+            final Map.Entry<String, Object> entry = removed.next();
+            // Still in the old data only if it is not in the new one anymore
+            if (!(entry.getValue() instanceof LazySection)) continue;
+            removed.remove();
+            super.set(ConfigPath.escape(entry.getKey()), null);
+            changed.add(entry.getKey());
+        }
+        this.lazySections = countLazySections();
+    }
+
+    private int countLazySections() {
+        int lazySections = 0;
+        for (Object value : super.toMap().values()) if (value instanceof LazySection) lazySections++;
+        return lazySections;
+    }
+
+    private static long checksum(final @NotNull ByteBuffer buffer) {
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate());
+        return checksum.getValue();
+    }
+
+    /**
+     * Runs the given reader without locking, unless {@link #reload()} is applying some changes:
+     * in that case, or if they started while reading, it is run again once they are all applied.
+     *
+     * @param <T>    the type of the value
+     * @param reader the reader
+     * @return the value returned by the reader
+     */
+    private <T> T read(final @NotNull Supplier<T> reader) {
+        final long sequence = this.reloadSequence;
+        if ((sequence & 1) == 0)
+            try {
+                final T value = reader.get();
+                if (this.reloadSequence == sequence) return value;
+            } catch (RuntimeException e) {
+                // Thrown by the data being changed, unless no reload happened
+                if (this.reloadSequence == sequence) throw e;
+            }
+        synchronized (this) {
+            return reader.get();
+        }
+    }
+
+    @Override
+    public synchronized void set(final @NotNull String path, final @Nullable Object object) {
+        if (this.lazySections > 0) materialize(path);
+        // Only replacing a section can invalidate the paths inside it
+        final Object previous = super.get(path);
+        final boolean section = object instanceof Map || object instanceof IConfiguration ||
+                previous instanceof IConfiguration;
+        if (section || !Objects.equals(previous, object)) this.modifications++;
+        super.set(path, object);
+        expose(object);
+        if (section) invalidatePaths();
+        else {
+            VERSION.incrementAndGet(this);
+            invalidateValues(path);
+        }
+    }
+
+    @Override
+    public @Nullable Object get(final @NotNull String path) {
+        if (this.lazySections > 0) materialize(path);
+        return expose(read(() -> super.get(path)));
+    }
+
+    @Override
+    public boolean contains(final @NotNull String path) {
+        if (this.lazySections > 0 && path.indexOf('.') != -1) materialize(path);
+        return read(() -> super.contains(path));
+    }
+
+    @Override
+    public @Nullable ConfigurationSection getConfigurationSection(final @NotNull String path) {
+        if (this.lazySections > 0) materialize(path);
+        return expose(read(() -> super.getConfigurationSection(path)));
+    }
+
+    @Override
+    public <T> @Nullable T get(final @NotNull String path, final @NotNull Class<T> clazz) {
+        if (this.lazySections > 0) materialize(path);
+        final Map<ValueKey, Object> values = this.values;
+        if (values == null) return expose(read(() -> super.get(path, clazz)));
+        return expose(getCached(values, new ValueKey(path, clazz, false), () -> read(() -> super.get(path, clazz))));
+    }
+
+    @Override
+    public <T> @Nullable List<T> getList(final @NotNull String path, final @NotNull Class<T> clazz) {
+        if (this.lazySections > 0) materialize(path);
+        final Map<ValueKey, Object> values = this.values;
+        if (values == null) return expose(read(() -> super.getList(path, clazz)));
+        return getCached(values, new ValueKey(path, clazz, true), () -> {
+            final List<T> list = read(() -> super.getList(path, clazz));
+            return list == null ? null : Collections.unmodifiableList(list);
+        });
+    }
+
+    @Override
+    public @NotNull Map<String, Object> toMap() {
+        return expose(read(super::toMap));
+    }
+
+    /**
+     * Starts keeping the fingerprint of the saved data, if the given value can be modified without this configuration
+     * knowing it: a section, a collection, a map or an array.
+     *
+     * @param <T>   the type of the value
+     * @param value the value handed out
+     * @return the value
+     */
+    private <T> T expose(final T value) {
+        if (!this.exposed && (value instanceof IConfiguration || value instanceof Collection || value instanceof Map ||
+                value != null && value.getClass().isArray()))
+            synchronized (this) {
+                // Until now, the data could only be changed through this configuration
+                if (!this.exposed && !isDirty()) this.savedFingerprint = fingerprint(super.toMap());
+                this.exposed = true;
+            }
+        return value;
+    }
+
+    /**
+     * Parses every section that was not loaded yet, in lazy mode.
+     */
+    public synchronized void materialize() {
+        if (this.lazySections == 0) return;
+        final List<String> keys = new ArrayList<>();
+        for (Map.Entry<?, ?> entry : super.toMap().entrySet())
+            if (entry.getValue() instanceof LazySection) keys.add(entry.getKey().toString());
+        for (String key : keys) materializeKey(key);
+    }
+
+    /**
+     * Checks if some sections were not loaded yet, in lazy mode.
+     *
+     * @return true if there are
+     */
+    public boolean hasLazySections() {
+        return this.lazySections > 0;
+    }
+
+    /**
+     * Parses the section at the first key of the given path, if it was not loaded yet.
+     *
+     * @param path the path
+     */
+    private void materialize(final @NotNull String path) {
+        int end = path.indexOf('.');
+        while (end > 0 && path.charAt(end - 1) == '\\') end = path.indexOf('.', end + 1);
+        final String key = (end == -1 ? path : path.substring(0, end)).replace("\\.", ".");
+        synchronized (this) {
+            if (this.lazySections > 0) materializeKey(key);
+        }
+    }
+
+    private void materializeKey(final @NotNull String key) {
+        final String path = ConfigPath.escape(key);
+        final Object value = super.get(path);
+        if (!(value instanceof LazySection)) return;
+        final Map<?, ?> data = ((LazySection) value).load();
+        super.set(path, data);
+        this.lazySections--;
+        invalidatePaths();
+        // The section was loaded, not modified: a placeholder is never written, so it was there when last saved
+        if (this.exposed) this.savedFingerprint += entryFingerprint(key, data) - entryFingerprint(key, value);
+    }
+
+    private void initialize() {
+        this.lazySections = countLazySections();
+        // The data might have been set through this configuration while loading
+        this.savedModifications = this.modifications;
+        this.exposed = false;
+    }
+
+    /**
+     * Enables the cache of converted values.
+     * The values returned by {@link #get(String, Class)}, {@link #getList(String, Class)},
+     * the typed getters based on them and the {@link ConfigPath} getters are kept by path and type,
+     * so that reading them again does not convert the raw value again.
+     * <p>
+     * Cached values are shared between calls, so they must not be modified: lists are returned unmodifiable.
+     * The cache is invalidated by every change made through this configuration and by {@link #reload()};
+     * changes made directly on a child section require a call to {@link #invalidatePaths()}.
+     */
+    public void enableValueCache() {
+        if (this.values == null) this.values = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Disables the cache of converted values, discarding it.
+     */
+    public void disableValueCache() {
+        this.values = null;
+    }
+
+    /**
+     * Checks if the cache of converted values is enabled.
+     *
+     * @return true if it is
+     */
+    public boolean isValueCache() {
+        return this.values != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> @Nullable T getConverted(final @NotNull ConfigPath path, final @NotNull Class<?> type, final boolean list,
+                                         final @NotNull BiFunction<IConfiguration, String, T> getter) {
+        final Map<ValueKey, Object> values = this.values;
+        final Supplier<T> converter = () -> read(() -> {
+            final IConfiguration section = getSection(path);
+            return section == null ? null : getter.apply(section, ConfigPath.escape(path.getLastKey()));
+        });
+        if (values == null) return converter.get();
+        return getCached(values, new ValueKey(path.toString(), type, list), () -> {
+            final T value = converter.get();
+            return value instanceof List ? (T) Collections.unmodifiableList((List<?>) value) : value;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> @Nullable T getCached(final @NotNull Map<ValueKey, Object> values, final @NotNull ValueKey key,
+                                      final @NotNull Supplier<T> converter) {
+        final Object cached = values.get(key);
+        if (ConfigurationMetrics.isEnabled()) ConfigurationMetrics.cacheLookup(ConfigurationListener.Cache.VALUE, cached != null);
+        if (cached != null) return (T) cached;
+        final long version = this.version;
+        final T value = converter.get();
+        if (value != null) {
+            if (values.size() >= MAX_CACHED_VALUES) values.clear();
+            values.put(key, value);
+            // The data changed while converting, and the cache might have been invalidated before the value was added
+            if (this.version != version) values.remove(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes from the cache of converted values the given path, together with its parents and children.
+     *
+     * @param path the path
+     */
+    private void invalidateValues(final @NotNull String path) {
+        final Map<ValueKey, Object> values = this.values;
+        if (values == null || values.isEmpty()) return;
+        values.keySet().removeIf(k -> k.path.equals(path) || isParent(k.path, path) || isParent(path, k.path));
+    }
+
+    private static boolean isParent(final @NotNull String parent, final @NotNull String path) {
+        return path.length() > parent.length() && path.startsWith(parent) && path.charAt(parent.length()) == '.' &&
+                path.charAt(parent.length() - 1) != '\\';
+    }
+
+    /**
+     * Sets the given value at the given path.
+     *
+     * @param path   the path
+     * @param object the value
+     */
+    public synchronized void set(final @NotNull ConfigPath path, final @Nullable Object object) {
+        final IConfiguration section = getSection(path);
+        final String key = ConfigPath.escape(path.getLastKey());
+        if (section == null || object == null || object instanceof Map || object instanceof IConfiguration ||
+                section.get(key) instanceof IConfiguration) set(path.toString(), object);
+        else {
+            if (!Objects.equals(section.get(key), object)) this.modifications++;
+            section.set(key, object);
+            expose(object);
+            VERSION.incrementAndGet(this);
+            invalidateValues(path.toString());
+        }
+    }
+
+    /**
+     * Gets the value at the given path.
+     *
+     * @param path the path
+     * @return the value
+     */
+    public @Nullable Object get(final @NotNull ConfigPath path) {
+        return expose(read(() -> {
+            final IConfiguration section = getSection(path);
+            return section == null ? null : section.get(ConfigPath.escape(path.getLastKey()));
+        }));
+    }
+
+    /**
+     * Gets the value at the given path, converted to the given type.
+     *
+     * @param <T>   the type of the value
+     * @param path  the path
+     * @param clazz the class of the value
+     * @return the value
+     */
+    public <T> @Nullable T get(final @NotNull ConfigPath path, final @NotNull Class<T> clazz) {
+        return expose(getConverted(path, clazz, false, (section, key) -> section.get(key, clazz)));
+    }
+
+    /**
+     * Checks if the given path is present.
+     *
+     * @param path the path
+     * @return true if it is
+     */
+    public boolean contains(final @NotNull ConfigPath path) {
+        return read(() -> {
+            final IConfiguration section = getSection(path);
+            return section != null && section.contains(ConfigPath.escape(path.getLastKey()));
+        });
+    }
+
+    /**
+     * Gets the string at the given path.
+     *
+     * @param path the path
+     * @return the string
+     */
+    public @Nullable String getString(final @NotNull ConfigPath path) {
+        return getConverted(path, String.class, false, IConfiguration::getString);
+    }
+
+    /**
+     * Gets the integer at the given path.
+     *
+     * @param path the path
+     * @return the integer
+     */
+    public @Nullable Integer getInteger(final @NotNull ConfigPath path) {
+        return getConverted(path, Integer.class, false, IConfiguration::getInteger);
+    }
+
+    /**
+     * Gets the long at the given path.
+     *
+     * @param path the path
+     * @return the long
+     */
+    public @Nullable Long getLong(final @NotNull ConfigPath path) {
+        return getConverted(path, Long.class, false, IConfiguration::getLong);
+    }
+
+    /**
+     * Gets the double at the given path.
+     *
+     * @param path the path
+     * @return the double
+     */
+    public @Nullable Double getDouble(final @NotNull ConfigPath path) {
+        return getConverted(path, Double.class, false, IConfiguration::getDouble);
+    }
+
+    /**
+     * Gets the boolean at the given path.
+     *
+     * @param path the path
+     * @return the boolean
+     */
+    public @Nullable Boolean getBoolean(final @NotNull ConfigPath path) {
+        return getConverted(path, Boolean.class, false, IConfiguration::getBoolean);
+    }
+
+    /**
+     * Gets the list at the given path, with its elements converted to the given type.
+     *
+     * @param <T>   the type of the elements
+     * @param path  the path
+     * @param clazz the class of the elements
+     * @return the list
+     */
+    public <T> @Nullable List<T> getList(final @NotNull ConfigPath path, final @NotNull Class<T> clazz) {
+        return expose(getConverted(path, clazz, true, (section, key) -> section.getList(key, clazz)));
+    }
+
+    /**
+     * Gets the list at the given path as an int array.
+     * Lists loaded as a {@link NumericList} are copied without boxing.
+     *
+     * @param path the path
+     * @return the array
+     */
+    public int @Nullable [] getIntArray(final @NotNull String path) {
+        return toIntArray(get(path));
+    }
+
+    /**
+     * Gets the list at the given path as an int array.
+     *
+     * @param path the path
+     * @return the array
+     * @see #getIntArray(String)
+     */
+    public int @Nullable [] getIntArray(final @NotNull ConfigPath path) {
+        return toIntArray(get(path));
+    }
+
+    /**
+     * Gets the list at the given path as a long array.
+     * Lists loaded as a {@link NumericList} are copied without boxing.
+     *
+     * @param path the path
+     * @return the array
+     */
+    public long @Nullable [] getLongArray(final @NotNull String path) {
+        return toLongArray(get(path));
+    }
+
+    /**
+     * Gets the list at the given path as a long array.
+     *
+     * @param path the path
+     * @return the array
+     * @see #getLongArray(String)
+     */
+    public long @Nullable [] getLongArray(final @NotNull ConfigPath path) {
+        return toLongArray(get(path));
+    }
+
+    /**
+     * Gets the list at the given path as a double array.
+     * Lists loaded as a {@link NumericList} are copied without boxing.
+     *
+     * @param path the path
+     * @return the array
+     */
+    public double @Nullable [] getDoubleArray(final @NotNull String path) {
+        return toDoubleArray(get(path));
+    }
+
+    /**
+     * Gets the list at the given path as a double array.
+     *
+     * @param path the path
+     * @return the array
+     * @see #getDoubleArray(String)
+     */
+    public double @Nullable [] getDoubleArray(final @NotNull ConfigPath path) {
+        return toDoubleArray(get(path));
+    }
+
+    /**
+     * Gets the configuration section at the given path.
+     *
+     * @param path the path
+     * @return the configuration section
+     */
+    public @Nullable ConfigurationSection getConfigurationSection(final @NotNull ConfigPath path) {
+        return expose(read(() -> {
+            final IConfiguration section = getSection(path);
+            return section == null ? null : section.getConfigurationSection(ConfigPath.escape(path.getLastKey()));
+        }));
+    }
+
+    /**
+     * Gets the version of the data, incremented by every change made through this configuration,
+     * by {@link #reload()} when it changes something, and by {@link #invalidatePaths()}.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Clears the cache of the sections resolved from a {@link ConfigPath}, and the cache of converted values.
+     */
+    public void invalidatePaths() {
+        VERSION.incrementAndGet(this);
+        final Map<ConfigPath, IConfiguration> sections = this.sections;
+        if (sections != null) sections.clear();
+        final Map<ValueKey, Object> values = this.values;
+        if (values != null) values.clear();
+    }
+
+    /**
+     * Gets the section containing the last key of the given path, using the cache if possible.
+     *
+     * @param path the path
+     * @return the section, or null if it does not exist
+     */
+    private @Nullable IConfiguration getSection(final @NotNull ConfigPath path) {
+        final ConfigPath parent = path.getParent();
+        if (parent == null) return this;
+        Map<ConfigPath, IConfiguration> sections = this.sections;
+        if (sections == null) this.sections = sections = new ConcurrentHashMap<>();
+        IConfiguration section = sections.get(parent);
+        if (ConfigurationMetrics.isEnabled()) ConfigurationMetrics.cacheLookup(ConfigurationListener.Cache.PATH, section != null);
+        if (section != null) return section;
+        final String first = ConfigPath.escape(parent.getKey(0));
+        if (this.lazySections > 0) materialize(first);
+        section = super.getConfigurationSection(first);
+        for (int i = 1; section != null && i < parent.size(); i++)
+            section = section.getConfigurationSection(ConfigPath.escape(parent.getKey(i)));
+        if (section == null) return null;
+        if (sections.size() >= MAX_CACHED_SECTIONS) sections.clear();
+        sections.put(parent, section);
+        return section;
+    }
+
+    static int @Nullable [] toIntArray(final @Nullable Object value) {
+        if (isUnboxed(value)) return ((NumericList<?>) value).toIntArray();
+        if (value instanceof int[]) return ((int[]) value).clone();
+        final List<?> list = toList(value);
+        if (list == null) return null;
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = toNumber(list.get(i), i).intValue();
+        return array;
+    }
+
+    static long @Nullable [] toLongArray(final @Nullable Object value) {
+        if (isUnboxed(value)) return ((NumericList<?>) value).toLongArray();
+        if (value instanceof long[]) return ((long[]) value).clone();
+        final List<?> list = toList(value);
+        if (list == null) return null;
+        final long[] array = new long[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = toNumber(list.get(i), i).longValue();
+        return array;
+    }
+
+    static double @Nullable [] toDoubleArray(final @Nullable Object value) {
+        if (isUnboxed(value)) return ((NumericList<?>) value).toDoubleArray();
+        if (value instanceof double[]) return ((double[]) value).clone();
+        final List<?> list = toList(value);
+        if (list == null) return null;
+        final double[] array = new double[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = toNumber(list.get(i), i).doubleValue();
+        return array;
+    }
+
+    private static boolean isUnboxed(final @Nullable Object value) {
+        return value instanceof NumericList && !((NumericList<?>) value).isBoxed();
+    }
+
+    private static @Nullable List<?> toList(final @Nullable Object value) {
+        if (value instanceof List) return (List<?>) value;
+        if (value instanceof Collection) return new ArrayList<>((Collection<?>) value);
+        if (value != null && value.getClass().isArray()) return (List<?>) copy(value);
+        return null;
+    }
+
+    private static @NotNull Number toNumber(final @Nullable Object element, final int index) {
+        if (element instanceof Number) return (Number) element;
+        if (element == null) throw new IllegalArgumentException("Invalid null number at index " + index);
+        try {
+            return new BigDecimal(element.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number at index " + index + ": " + element, e);
+        }
+    }
+
+    /**
+     * Sets in the given section every value of the new data that differs from the old one,
+     * and removes the keys not present anymore.
+     * Sections present in both are updated recursively.
+     *
+     * @param section the section
+     * @param prefix  the path of the section, used for the changed paths
+     * @param oldData the old data of the section
+     * @param newData the new data of the section
+     * @param changed the changed paths
+     */
+    static void applyChanges(final @NotNull IConfiguration section, final @NotNull String prefix,
+                             final @NotNull Map<?, ?> oldData, final @NotNull Map<?, ?> newData,
+                             final @NotNull Set<String> changed) {
+        final Map<String, Object> oldValues = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : oldData.entrySet()) oldValues.put(entry.getKey().toString(), entry.getValue());
+        for (Map.Entry<?, ?> entry : newData.entrySet()) {
+            final String key = entry.getKey().toString();
+            final String path = ConfigPath.escape(key);
+            Object oldValue = oldValues.remove(key);
+            final Object newValue = entry.getValue();
+            if (oldValue instanceof IConfiguration) oldValue = ((IConfiguration) oldValue).toMap();
+            if (newValue instanceof Map && oldValue instanceof Map) {
+                final IConfiguration child = section.getConfigurationSection(path);
+                if (child != null) {
+                    applyChanges(child, prefix + key + ".", (Map<?, ?>) oldValue, (Map<?, ?>) newValue, changed);
+                    continue;
+                }
+            }
+            if (!Objects.equals(copy(oldValue), copy(newValue))) {
+                section.set(path, newValue);
+                changed.add(prefix + key);
+            }
+        }
+        for (String key : oldValues.keySet()) {
+            section.set(ConfigPath.escape(key), null);
+            changed.add(prefix + key);
+        }
+    }
+
+    /**
+     * Checks if the configuration was modified since it was loaded or last saved.
+     *
+     * @return true if it was
+     */
+    public synchronized boolean isDirty() {
+        // Only the changes made directly on the values handed out are not counted
+        return this.forceSave || this.modifications != this.savedModifications ||
+                this.exposed && fingerprint(super.toMap()) != this.savedFingerprint;
+    }
+
+    /**
+     * Forces the next {@link #save()} to write the file, even if nothing changed.
+     */
+    public synchronized void markDirty() {
+        this.forceSave = true;
+    }
+
+    /**
+     * Marks the current data as saved.
+     */
+    protected synchronized void markSaved() {
+        this.savedModifications = this.modifications;
+        if (this.exposed) this.savedFingerprint = fingerprint(super.toMap());
+        this.forceSave = false;
+    }
+
+    /**
+     * Gets the file where this configuration is saved.
+     *
+     * @return the file, or null if it was loaded from a stream
+     */
+    public @Nullable File getSaveFile() {
+        return this.file;
+    }
+
+    /**
+     * Gets the charset used to write the file.
+     *
+     * @return the charset
+     */
+    protected @NotNull Charset getCharset() {
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Writes the given data to a temporary file, which is then moved to the given file.
+     * The temporary file gets the permissions and the owner of the existing file, if any,
+     * and symbolic links are resolved, so that the file they point to is replaced instead of the link.
+     * The save is reported to the listeners of {@link ConfigurationMetrics}.
+     * The size and the checksum of the file of this configuration are kept, so that {@link #reload()} can ignore it.
+     *
+     * @param file the file
+     * @param data the data
+     * @throws IOException an exception thrown while writing
+     */
+    protected void write(final @NotNull File file, final @NotNull Map<?, ?> data) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        final boolean exists = Files.exists(target);
+        if (exists) target = target.toRealPath();
+        final Path directory = target.getParent();
+        if (directory != null) Files.createDirectories(directory);
+        final Object event = ConfigurationMetrics.isEnabled() ? ConfigurationMetrics.beginSave() : null;
+        final long start = System.nanoTime();
+        final long size;
+        final CRC32 checksum = new CRC32();
+        final Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            if (exists) copyAttributes(target, temp);
+            try (FileOutputStream output = new FileOutputStream(temp.toFile());
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(new CheckedOutputStream(output, checksum), getCharset()))) {
+                dump(data, writer);
+                writer.flush();
+                output.getFD().sync();
+                size = output.getChannel().size();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        if (file.equals(this.file))
+            synchronized (this) {
+                this.writtenSize = size;
+                this.writtenChecksum = checksum.getValue();
+            }
+        if (ConfigurationMetrics.isEnabled()) ConfigurationMetrics.save(event, file, size, System.nanoTime() - start);
+    }
+
+    /**
+     * Copies the POSIX permissions, the owner and the group of the given file to the other one.
+     * The owner and the group are copied only if allowed, since usually only privileged users can change them.
+     * Nothing is copied on file systems without POSIX attributes.
+     *
+     * @param source the file to copy the attributes from
+     * @param target the file to copy the attributes to
+     * @throws IOException an exception thrown while reading or changing the permissions
+     */
+    private static void copyAttributes(final @NotNull Path source, final @NotNull Path target) throws IOException {
+        final PosixFileAttributeView sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        final PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (sourceView == null || targetView == null) return;
+        final PosixFileAttributes attributes = sourceView.readAttributes();
+        try {
+            targetView.setOwner(attributes.owner());
+        } catch (IOException ignored) {
+            // Not allowed: the file will belong to the current user
+        }
+        try {
+            targetView.setGroup(attributes.group());
+        } catch (IOException ignored) {
+            // Not allowed: the file will belong to the group of the current user
+        }
+        targetView.setPermissions(attributes.permissions());
+    }
+
+    /**
+     * Creates a deep copy of the given data, that can be compared with {@link Object#equals(Object)}.
+     * Sections are converted to maps and arrays to lists, while numeric lists are copied without boxing,
+     * unless they were already boxed.
+     *
+     * @param data the data
+     * @return the copy
+     */
+    static @Nullable Object copy(@Nullable Object data) {
+        if (data instanceof IConfiguration) data = ((IConfiguration) data).toMap();
+        if (isUnboxed(data)) {
+            if (data instanceof NumericList.OfInt) return NumericList.ofInts(((NumericList<?>) data).toIntArray());
+            else if (data instanceof NumericList.OfLong) return NumericList.ofLongs(((NumericList<?>) data).toLongArray());
+            else return NumericList.ofDoubles(((NumericList<?>) data).toDoubleArray());
+        } else if (data instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) data;
+            final Map<Object, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) copy.put(entry.getKey(), copy(entry.getValue()));
+            return copy;
+        } else if (data instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) data;
+            final Collection<Object> copy = data instanceof Set ? new LinkedHashSet<>() : new ArrayList<>(collection.size());
+            for (Object object : collection) copy.add(copy(object));
+            return copy;
+        } else if (data != null && data.getClass().isArray()) {
+            final int length = Array.getLength(data);
+            final List<Object> copy = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) copy.add(copy(Array.get(data, i)));
+            return copy;
+        } else return data;
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of the given data, without copying it.
+     * Data that is equal once copied with {@link #copy(Object)} has the same fingerprint:
+     * maps and sets are hashed regardless of the order of their entries, while lists, arrays and numeric lists
+     * are hashed in order, with the same result for the same numbers, boxed or not.
+     *
+     * @param data the data
+     * @return the fingerprint
+     */
+    static long fingerprint(@Nullable Object data) {
+        if (data instanceof IConfiguration) data = ((IConfiguration) data).toMap();
+        if (data == null) return 0;
+        if (data instanceof String) {
+            final String string = (String) data;
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < string.length(); i++) hash = (hash ^ string.charAt(i)) * 0x100000001B3L;
+            return mix(hash);
+        }
+        if (data instanceof Integer) return fingerprintInt((Integer) data);
+        if (data instanceof Long) return fingerprintLong((Long) data);
+        if (data instanceof Double) return fingerprintDouble((Double) data);
+        if (data instanceof Map) {
+            long hash = 0x4D41500000000000L;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) data).entrySet())
+                hash += entryFingerprint(entry.getKey(), entry.getValue());
+            return hash;
+        }
+        if (data instanceof Set) {
+            long hash = 0x5345540000000000L;
+            for (Object element : (Set<?>) data) hash += mix(fingerprint(element));
+            return hash;
+        }
+        long hash = 0x4C49535400000000L;
+        if (isUnboxed(data)) {
+            final NumericList<?> list = (NumericList<?>) data;
+            for (int i = 0; i < list.size(); i++) {
+                final long element;
+                if (list instanceof NumericList.OfInt) element = fingerprintInt(list.getInt(i));
+                else if (list instanceof NumericList.OfLong) element = fingerprintLong(list.getLong(i));
+                else element = fingerprintDouble(list.getDouble(i));
+                hash = hash * 0x9E3779B97F4A7C15L + element;
+            }
+        } else if (data instanceof Collection) {
+            for (Object element : (Collection<?>) data) hash = hash * 0x9E3779B97F4A7C15L + fingerprint(element);
+        } else if (data.getClass().isArray()) {
+            final int length = Array.getLength(data);
+            for (int i = 0; i < length; i++) hash = hash * 0x9E3779B97F4A7C15L + fingerprint(Array.get(data, i));
+        } else return mix(data.hashCode());
+        return mix(hash);
+    }
+
+    private static long entryFingerprint(final @Nullable Object key, final @Nullable Object value) {
+        return mix(fingerprint(key) * 31 + fingerprint(value));
+    }
+
+    private static long fingerprintInt(final int value) {
+        return mix(value * 0x9E3779B97F4A7C15L + 1);
+    }
+
+    private static long fingerprintLong(final long value) {
+        return mix(value * 0x9E3779B97F4A7C15L + 2);
+    }
+
+    private static long fingerprintDouble(final double value) {
+        return mix(Double.doubleToLongBits(value) * 0x9E3779B97F4A7C15L + 3);
+    }
+
+    /**
+     * The finalizer of SplitMix64, which spreads every bit of the input over the whole output.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * The key of a converted value: its path, its type, and whether it was converted as a list.
+     */
+    static final class ValueKey {
+        private final @NotNull String path;
+        private final @NotNull Class<?> type;
+        private final boolean list;
+
+        ValueKey(final @NotNull String path, final @NotNull Class<?> type, final boolean list) {
+            this.path = path;
+            this.type = type;
+            this.list = list;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof ValueKey)) return false;
+            final ValueKey other = (ValueKey) o;
+            return this.list == other.list && this.type == other.type && this.path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.path.hashCode() * 31 + this.type.hashCode()) * 31 + (this.list ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of numbers backed by a primitive array, used by the format modules for lists made only of numbers.
+ * It behaves like any other {@link List}, boxing the elements only when they are accessed as objects,
+ * while {@link #getInt(int)}, {@link #getLong(int)}, {@link #getDouble(int)}
+ * and the <code>to*Array</code> methods read the primitive values directly.
+ * <p>
+ * Since configurations hand out their lists to be modified, any element can be stored:
+ * when an element that is not of the type of the array is set or added (for example a decimal in a list of ints,
+ * a string or null), the list copies its elements to a boxed {@link ArrayList} and uses it from then on
+ * (see {@link #isBoxed()}). For the same reason, the type of the elements is not bound to {@link Number}.
+ *
+ * @param <N> the type of the numbers
+ */
+public abstract class NumericList<N> extends AbstractList<N> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    int size;
+    private @Nullable List<Object> boxed;
+
+    /**
+     * Gets the element at the given index as an int.
+     *
+     * @param index the index
+     * @return the int
+     * @throws ClassCastException if the list {@link #isBoxed()} and the element is not a number
+     * @throws NullPointerException if the list {@link #isBoxed()} and the element is null
+     */
+    public int getInt(final int index) {
+        return this.boxed == null ? intAt(index) : getNumber(index).intValue();
+    }
+
+    /**
+     * Gets the element at the given index as a long.
+     *
+     * @param index the index
+     * @return the long
+     * @throws ClassCastException if the list {@link #isBoxed()} and the element is not a number
+     * @throws NullPointerException if the list {@link #isBoxed()} and the element is null
+     */
+    public long getLong(final int index) {
+        return this.boxed == null ? longAt(index) : getNumber(index).longValue();
+    }
+
+    /**
+     * Gets the element at the given index as a double.
+     *
+     * @param index the index
+     * @return the double
+     * @throws ClassCastException if the list {@link #isBoxed()} and the element is not a number
+     * @throws NullPointerException if the list {@link #isBoxed()} and the element is null
+     */
+    public double getDouble(final int index) {
+        return this.boxed == null ? doubleAt(index) : getNumber(index).doubleValue();
+    }
+
+    /**
+     * Copies the elements to a new int array, narrowing them if necessary.
+     *
+     * @return the array
+     */
+    public int @NotNull [] toIntArray() {
+        final int[] array = new int[this.size];
+        for (int i = 0; i < array.length; i++) array[i] = getInt(i);
+        return array;
+    }
+
+    /**
+     * Copies the elements to a new long array, narrowing them if necessary.
+     *
+     * @return the array
+     */
+    public long @NotNull [] toLongArray() {
+        final long[] array = new long[this.size];
+        for (int i = 0; i < array.length; i++) array[i] = getLong(i);
+        return array;
+    }
+
+    /**
+     * Copies the elements to a new double array.
+     *
+     * @return the array
+     */
+    public double @NotNull [] toDoubleArray() {
+        final double[] array = new double[this.size];
+        for (int i = 0; i < array.length; i++) array[i] = getDouble(i);
+        return array;
+    }
+
+    /**
+     * Checks whether an element that is not of the type of the array was stored,
+     * so that the elements are now kept boxed.
+     *
+     * @return true if they are
+     */
+    public boolean isBoxed() {
+        return this.boxed != null;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public N get(final int index) {
+        if (this.boxed != null) return (N) this.boxed.get(index);
+        checkIndex(index, this.size);
+        return (N) box(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public N set(final int index, final N element) {
+        if (this.boxed == null) {
+            checkIndex(index, this.size);
+            if (accepts(element)) {
+                final Object previous = box(index);
+                store(index, element);
+                return (N) previous;
+            }
+            toBoxed();
+        }
+        return (N) this.boxed.set(index, element);
+    }
+
+    @Override
+    public void add(final int index, final N element) {
+        checkIndex(index, this.size + 1);
+        if (this.boxed == null && accepts(element)) insert(index, element);
+        else {
+            if (this.boxed == null) toBoxed();
+            this.boxed.add(index, element);
+        }
+        this.size++;
+        this.modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public N remove(final int index) {
+        final Object previous;
+        if (this.boxed != null) previous = this.boxed.remove(index);
+        else {
+            checkIndex(index, this.size);
+            previous = box(index);
+            delete(index);
+        }
+        this.size--;
+        this.modCount++;
+        return (N) previous;
+    }
+
+    abstract int intAt(final int index);
+
+    abstract long longAt(final int index);
+
+    abstract double doubleAt(final int index);
+
+    /**
+     * Checks if the given element can be stored in the array.
+     *
+     * @param element the element
+     * @return true if it can
+     */
+    abstract boolean accepts(final @Nullable Object element);
+
+    abstract @NotNull Object box(final int index);
+
+    abstract void store(final int index, final @NotNull Object element);
+
+    abstract void insert(final int index, final @NotNull Object element);
+
+    abstract void delete(final int index);
+
+    /**
+     * Copies the elements to a boxed list, and releases the array.
+     */
+    abstract void release();
+
+    private void toBoxed() {
+        final List<Object> boxed = new ArrayList<>(Math.max(DEFAULT_CAPACITY, this.size + 1));
+        for (int i = 0; i < this.size; i++) boxed.add(box(i));
+        release();
+        this.boxed = boxed;
+    }
+
+    private @NotNull Number getNumber(final int index) {
+        return (Number) get(index);
+    }
+
+    void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    }
+
+    static int grow(final int capacity, final int required) {
+        return Math.max(required, Math.max(DEFAULT_CAPACITY, capacity + (capacity >> 1)));
+    }
+
+    /**
+     * Creates a new list backed by a copy of the given ints.
+     *
+     * @param values the values
+     * @return the list
+     */
+    public static @NotNull OfInt ofInts(final int @NotNull ... values) {
+        return new OfInt(values.clone(), values.length);
+    }
+
+    /**
+     * Creates a new list backed by a copy of the given longs.
+     *
+     * @param values the values
+     * @return the list
+     */
+    public static @NotNull OfLong ofLongs(final long @NotNull ... values) {
+        return new OfLong(values.clone(), values.length);
+    }
+
+    /**
+     * Creates a new list backed by a copy of the given doubles.
+     *
+     * @param values the values
+     * @return the list
+     */
+    public static @NotNull OfDouble ofDoubles(final double @NotNull ... values) {
+        return new OfDouble(values.clone(), values.length);
+    }
+
+    /**
+     * A {@link NumericList} of ints.
+     */
+    public static final class OfInt extends NumericList<Integer> {
+        private int[] elements;
+
+        /**
+         * Instantiates a new empty list.
+         */
+        public OfInt() {
+            this.elements = new int[0];
+        }
+
+        OfInt(final int @NotNull [] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        /**
+         * Appends the given int.
+         *
+         * @param value the value
+         */
+        public void addInt(final int value) {
+            if (isBoxed()) {
+                add(value);
+                return;
+            }
+            if (this.size == this.elements.length)
+                this.elements = Arrays.copyOf(this.elements, grow(this.elements.length, this.size + 1));
+            this.elements[this.size++] = value;
+            this.modCount++;
+        }
+
+        @Override
+        int intAt(final int index) {
+            checkIndex(index, this.size);
+            return this.elements[index];
+        }
+
+        @Override
+        long longAt(final int index) {
+            return intAt(index);
+        }
+
+        @Override
+        double doubleAt(final int index) {
+            return intAt(index);
+        }
+
+        @Override
+        public int @NotNull [] toIntArray() {
+            return isBoxed() ? super.toIntArray() : Arrays.copyOf(this.elements, this.size);
+        }
+
+        @Override
+        boolean accepts(final @Nullable Object element) {
+            return element instanceof Integer;
+        }
+
+        @Override
+        @NotNull Object box(final int index) {
+            return this.elements[index];
+        }
+
+        @Override
+        void store(final int index, final @NotNull Object element) {
+            this.elements[index] = (Integer) element;
+        }
+
+        @Override
+        void insert(final int index, final @NotNull Object element) {
+            if (this.size == this.elements.length)
+                this.elements = Arrays.copyOf(this.elements, grow(this.elements.length, this.size + 1));
+            System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+            this.elements[index] = (Integer) element;
+        }
+
+        @Override
+        void delete(final int index) {
+            System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+        }
+
+        @Override
+        void release() {
+            this.elements = new int[0];
+        }
+    }
+
+    /**
+     * A {@link NumericList} of longs.
+     */
+    public static final class OfLong extends NumericList<Long> {
+        private long[] elements;
+
+        /**
+         * Instantiates a new empty list.
+         */
+        public OfLong() {
+            this.elements = new long[0];
+        }
+
+        OfLong(final long @NotNull [] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        /**
+         * Appends the given long.
+         *
+         * @param value the value
+         */
+        public void addLong(final long value) {
+            if (isBoxed()) {
+                add(value);
+                return;
+            }
+            if (this.size == this.elements.length)
+                this.elements = Arrays.copyOf(this.elements, grow(this.elements.length, this.size + 1));
+            this.elements[this.size++] = value;
+            this.modCount++;
+        }
+
+        /**
+         * Checks if every element fits in an int.
+         *
+         * @return true if they do
+         */
+        public boolean fitsInts() {
+            if (isBoxed()) return false;
+            for (int i = 0; i < this.size; i++)
+                if (this.elements[i] != (int) this.elements[i]) return false;
+            return true;
+        }
+
+        @Override
+        int intAt(final int index) {
+            return (int) longAt(index);
+        }
+
+        @Override
+        long longAt(final int index) {
+            checkIndex(index, this.size);
+            return this.elements[index];
+        }
+
+        @Override
+        double doubleAt(final int index) {
+            return longAt(index);
+        }
+
+        @Override
+        public long @NotNull [] toLongArray() {
+            return isBoxed() ? super.toLongArray() : Arrays.copyOf(this.elements, this.size);
+        }
+
+        @Override
+        boolean accepts(final @Nullable Object element) {
+            return element instanceof Long;
+        }
+
+        @Override
+        @NotNull Object box(final int index) {
+            return this.elements[index];
+        }
+
+        @Override
+        void store(final int index, final @NotNull Object element) {
+            this.elements[index] = (Long) element;
+        }
+
+        @Override
+        void insert(final int index, final @NotNull Object element) {
+            if (this.size == this.elements.length)
+                this.elements = Arrays.copyOf(this.elements, grow(this.elements.length, this.size + 1));
+            System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+            this.elements[index] = (Long) element;
+        }
+
+        @Override
+        void delete(final int index) {
+            System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+        }
+
+        @Override
+        void release() {
+            this.elements = new long[0];
+        }
+    }
+
+    /**
+     * A {@link NumericList} of doubles.
+     */
+    public static final class OfDouble extends NumericList<Double> {
+        private double[] elements;
+
+        /**
+         * Instantiates a new empty list.
+         */
+        public OfDouble() {
+            this.elements = new double[0];
+        }
+
+        OfDouble(final double @NotNull [] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        /**
+         * Appends the given double.
+         *
+         * @param value the value
+         */
+        public void addDouble(final double value) {
+            if (isBoxed()) {
+                add(value);
+                return;
+            }
+            if (this.size == this.elements.length)
+                this.elements = Arrays.copyOf(this.elements, grow(this.elements.length, this.size + 1));
+            this.elements[this.size++] = value;
+            this.modCount++;
+        }
+
+        @Override
+        int intAt(final int index) {
+            return (int) doubleAt(index);
+        }
+
+        @Override
+        long longAt(final int index) {
+            return (long) doubleAt(index);
+        }
+
+        @Override
+        double doubleAt(final int index) {
+            checkIndex(index, this.size);
+            return this.elements[index];
+        }
+
+        @Override
+        public double @NotNull [] toDoubleArray() {
+            return isBoxed() ? super.toDoubleArray() : Arrays.copyOf(this.elements, this.size);
+        }
+
+        @Override
+        boolean accepts(final @Nullable Object element) {
+            return element instanceof Double;
+        }
+
+        @Override
+        @NotNull Object box(final int index) {
+            return this.elements[index];
+        }
+
+        @Override
+        void store(final int index, final @NotNull Object element) {
+            this.elements[index] = (Double) element;
+        }
+
+        @Override
+        void insert(final int index, final @NotNull Object element) {
+            if (this.size == this.elements.length)
+                this.elements = Arrays.copyOf(this.elements, grow(this.elements.length, this.size + 1));
+            System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+            this.elements[index] = (Double) element;
+        }
+
+        @Override
+        void delete(final int index) {
+            System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+        }
+
+        @Override
+        void release() {
+            this.elements = new double[0];
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A read-only configuration that resolves its values through an ordered stack of layers,
+ * for example a file of defaults, a site file and an environment file, without copying them.
+ * <p>
+ * Every path is resolved from the layer with the highest priority that contains it.
+ * Sections are merged: {@link #get(String)} and {@link #getConfigurationSection(String)} return them as overlays
+ * of the sections of every layer at the same path, while {@link #toMap()} returns a copy of the merged data.
+ * <p>
+ * The resolved values are cached by path and type. The cache is discarded as soon as one of the
+ * {@link ManagedFileConfiguration} layers changes or reloads (see {@link ManagedFileConfiguration#getVersion()}).
+ * Changes made to other layers, or directly to a child section of a layer, require a call to {@link #invalidate()}.
+ * Cached values are shared between calls, so they must not be modified: lists are returned unmodifiable.
+ */
+public final class OverlayConfiguration extends SimpleConfiguration {
+    private static final int MAX_CACHED_VALUES = 4096;
+
+    private final @NotNull List<IConfiguration> layers;
+    private final @Nullable OverlayConfiguration root;
+    private final @NotNull String prefix;
+
+    private volatile @Nullable Cache cache;
+
+    /**
+     * Instantiates a new Overlay configuration.
+     *
+     * @param layers the layers, from the lowest to the highest priority
+     */
+    public OverlayConfiguration(final IConfiguration @NotNull ... layers) {
+        this(Arrays.asList(layers));
+    }
+
+    /**
+     * Instantiates a new Overlay configuration.
+     *
+     * @param layers the layers, from the lowest to the highest priority
+     */
+    public OverlayConfiguration(final @NotNull List<? extends IConfiguration> layers) {
+        if (layers.isEmpty()) throw new IllegalArgumentException("Overlay configuration requires at least one layer");
+        this.layers = Collections.unmodifiableList(new ArrayList<>(layers));
+        this.root = null;
+        this.prefix = "";
+    }
+
+    private OverlayConfiguration(final @NotNull OverlayConfiguration root, final @NotNull String prefix) {
+        this.layers = root.layers;
+        this.root = root;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Gets the layers, from the lowest to the highest priority.
+     *
+     * @return the layers
+     */
+    public @NotNull List<IConfiguration> getLayers() {
+        return this.layers;
+    }
+
+    /**
+     * Discards every resolved value, so that the next lookups read the layers again.
+     */
+    public void invalidate() {
+        getRoot().cache = null;
+    }
+
+    @Override
+    public @Nullable Object get(final @NotNull String path) {
+        final OverlayConfiguration root = getRoot();
+        final String fullPath = getFullPath(path);
+        return root.getCached(new ManagedFileConfiguration.ValueKey(fullPath, Object.class, false), () -> {
+            final IConfiguration layer = getLayer(fullPath);
+            if (layer == null) return null;
+            final Object value = layer.get(fullPath);
+            return value instanceof IConfiguration ? new OverlayConfiguration(root, fullPath) : value;
+        });
+    }
+
+    @Override
+    public <T> @Nullable T get(final @NotNull String path, final @NotNull Class<T> clazz) {
+        final String fullPath = getFullPath(path);
+        return getRoot().getCached(new ManagedFileConfiguration.ValueKey(fullPath, clazz, false), () -> {
+            final Object value = get(path);
+            if (value instanceof OverlayConfiguration) {
+                if (clazz.isInstance(value)) return clazz.cast(value);
+                if (clazz.isAssignableFrom(Section.class)) return clazz.cast(newSection(path, (OverlayConfiguration) value));
+            }
+            final IConfiguration layer = getLayer(fullPath);
+            return layer == null ? null : layer.get(fullPath, clazz);
+        });
+    }
+
+    @Override
+    public <T> @Nullable List<T> getList(final @NotNull String path, final @NotNull Class<T> clazz) {
+        final String fullPath = getFullPath(path);
+        return getRoot().getCached(new ManagedFileConfiguration.ValueKey(fullPath, clazz, true), () -> {
+            final IConfiguration layer = getLayer(fullPath);
+            final List<T> list = layer == null ? null : layer.getList(fullPath, clazz);
+            return list == null ? null : Collections.unmodifiableList(list);
+        });
+    }
+
+    @Override
+    public boolean contains(final @NotNull String path) {
+        return getLayer(getFullPath(path)) != null;
+    }
+
+    @Override
+    public @Nullable ConfigurationSection getConfigurationSection(final @NotNull String path) {
+        return get(path, ConfigurationSection.class);
+    }
+
+    /**
+     * Not supported: the values must be changed on the layers.
+     *
+     * @param path   the path
+     * @param object the value
+     */
+    @Override
+    public void set(final @NotNull String path, final @Nullable Object object) {
+        throw new UnsupportedOperationException("Overlay configuration is read-only: change one of its layers instead");
+    }
+
+    /**
+     * Creates a copy of the merged data of every layer.
+     *
+     * @return the map
+     */
+    @Override
+    public @NotNull Map<String, Object> toMap() {
+        final Map<Object, Object> map = new LinkedHashMap<>();
+        for (IConfiguration layer : this.layers) {
+            if (layer instanceof ManagedFileConfiguration) ((ManagedFileConfiguration) layer).materialize();
+            final Object data = this.prefix.isEmpty() ? layer : layer.get(this.prefix);
+            if (data instanceof IConfiguration) merge(map, ((IConfiguration) data).toMap());
+        }
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> result = (Map<String, Object>) (Map<?, ?>) map;
+        return result;
+    }
+
+    /**
+     * Gets the layer with the highest priority that contains the given path.
+     *
+     * @param path the full path
+     * @return the layer, or null if none contains it
+     */
+    private @Nullable IConfiguration getLayer(final @NotNull String path) {
+        for (int i = this.layers.size() - 1; i >= 0; i--) {
+            final IConfiguration layer = this.layers.get(i);
+            if (layer.contains(path)) return layer;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> @Nullable T getCached(final @NotNull ManagedFileConfiguration.ValueKey key,
+                                      final @NotNull Supplier<T> resolver) {
+        final long version = getLayersVersion();
+        Cache cache = this.cache;
+        if (cache == null || cache.version != version) this.cache = cache = new Cache(version);
+        final Object cached = cache.values.get(key);
+        if (ConfigurationMetrics.isEnabled()) ConfigurationMetrics.cacheLookup(ConfigurationListener.Cache.VALUE, cached != null);
+        if (cached != null) return (T) cached;
+        final T value = resolver.get();
+        // A layer changed while resolving: the value might already be outdated
+        if (value != null && getLayersVersion() == version) {
+            if (cache.values.size() >= MAX_CACHED_VALUES) cache.values.clear();
+            cache.values.put(key, value);
+        }
+        return value;
+    }
+
+    private @NotNull Section newSection(final @NotNull String path, final @NotNull OverlayConfiguration overlay) {
+        final ConfigPath configPath = ConfigPath.of(path);
+        final ConfigPath parentPath = configPath.getParent();
+        final IConfiguration parent = parentPath == null ? null : getConfigurationSection(parentPath.toString());
+        return new Section(parent == null ? this : parent, configPath.getLastKey(), overlay);
+    }
+
+    private long getLayersVersion() {
+        long version = 0;
+        for (IConfiguration layer : this.layers)
+            if (layer instanceof ManagedFileConfiguration) version += ((ManagedFileConfiguration) layer).getVersion();
+        return version;
+    }
+
+    private @NotNull OverlayConfiguration getRoot() {
+        return this.root == null ? this : this.root;
+    }
+
+    private @NotNull String getFullPath(final @NotNull String path) {
+        return this.prefix.isEmpty() ? path : this.prefix + "." + path;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void merge(final @NotNull Map<Object, Object> target, final @NotNull Map<?, ?> source) {
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            final Object value = ManagedFileConfiguration.copy(entry.getValue());
+            final Object previous = target.get(entry.getKey());
+            if (value instanceof Map && previous instanceof Map)
+                merge((Map<Object, Object>) previous, (Map<?, ?>) value);
+            else target.put(entry.getKey(), value);
+        }
+    }
+
+    /**
+     * A read-only section returned by {@link #getConfigurationSection(String)},
+     * that resolves its values through the overlay of the sections of every layer at its path.
+     */
+    private static final class Section extends ConfigurationSection {
+        private final @NotNull OverlayConfiguration overlay;
+
+        Section(final @NotNull IConfiguration parent, final @NotNull String name,
+                final @NotNull OverlayConfiguration overlay) {
+            super(parent, name);
+            this.overlay = overlay;
+        }
+
+        @Override
+        public @Nullable Object get(final @NotNull String path) {
+            return this.overlay.get(path);
+        }
+
+        @Override
+        public <T> @Nullable T get(final @NotNull String path, final @NotNull Class<T> clazz) {
+            return this.overlay.get(path, clazz);
+        }
+
+        @Override
+        public <T> @Nullable List<T> getList(final @NotNull String path, final @NotNull Class<T> clazz) {
+            return this.overlay.getList(path, clazz);
+        }
+
+        @Override
+        public boolean contains(final @NotNull String path) {
+            return this.overlay.contains(path);
+        }
+
+        @Override
+        public @Nullable ConfigurationSection getConfigurationSection(final @NotNull String path) {
+            return this.overlay.getConfigurationSection(path);
+        }
+
+        @Override
+        public void set(final @NotNull String path, final @Nullable Object object) {
+            this.overlay.set(path, object);
+        }
+
+        @Override
+        public @NotNull Map<String, Object> toMap() {
+            return this.overlay.toMap();
+        }
+    }
+
+    /**
+     * The values resolved while the layers were at the given version.
+     */
+    private static final class Cache {
+        private final long version;
+        private final @NotNull Map<ManagedFileConfiguration.ValueKey, Object> values = new ConcurrentHashMap<>();
+
+        Cache(final long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * Provides the parser instances used by a format module, so that they are not rebuilt on every load and dump.
+ * Parsers that are safe to use concurrently are shared by every thread,
+ * while the others are kept one per thread.
+ * When the options of a format change, {@link #reset()} discards the current instances.
+ *
+ * @param <P> the type of the parser
+ */
+public final class ParserProvider<P> {
+    private final @NotNull Supplier<P> factory;
+    private final boolean threadSafe;
+    private volatile P shared;
+    private volatile ThreadLocal<P> local;
+
+    private ParserProvider(final @NotNull Supplier<P> factory, final boolean threadSafe) {
+        this.factory = factory;
+        this.threadSafe = threadSafe;
+        reset();
+    }
+
+    /**
+     * Gets the parser for the current thread, creating it if necessary.
+     *
+     * @return the parser
+     */
+    public @NotNull P get() {
+        if (!this.threadSafe) return this.local.get();
+        P parser = this.shared;
+        if (parser == null)
+            synchronized (this) {
+                parser = this.shared;
+                if (parser == null) this.shared = parser = this.factory.get();
+            }
+        return parser;
+    }
+
+    /**
+     * Discards the current parsers.
+     * New ones will be created on the next call to {@link #get()}.
+     */
+    public synchronized void reset() {
+        this.shared = null;
+        this.local = this.threadSafe ? null : ThreadLocal.withInitial(this.factory);
+    }
+
+    /**
+     * Creates a provider that shares a single parser between every thread.
+     *
+     * @param <P>     the type of the parser
+     * @param factory the factory of the parser
+     * @return the parser provider
+     */
+    public static <P> @NotNull ParserProvider<P> shared(final @NotNull Supplier<P> factory) {
+        return new ParserProvider<>(factory, true);
+    }
+
+    /**
+     * Creates a provider that keeps one parser per thread.
+     *
+     * @param <P>     the type of the parser
+     * @param factory the factory of the parser
+     * @return the parser provider
+     */
+    public static <P> @NotNull ParserProvider<P> perThread(final @NotNull Supplier<P> factory) {
+        return new ParserProvider<>(factory, false);
+    }
+}
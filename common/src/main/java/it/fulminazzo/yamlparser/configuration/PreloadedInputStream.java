@@ -0,0 +1,30 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * An empty {@link InputStream} carrying data that was already parsed, like the one read from a {@link ConfigurationCache}.
+ * The formats return its data from {@link FileConfiguration#load(InputStream)} instead of reading the stream.
+ */
+@Getter
+public final class PreloadedInputStream extends InputStream {
+    private final @NotNull Map<?, ?> data;
+
+    /**
+     * Instantiates a new Preloaded input stream.
+     *
+     * @param data the data
+     */
+    public PreloadedInputStream(final @NotNull Map<?, ?> data) {
+        this.data = data;
+    }
+
+    @Override
+    public int read() {
+        return -1;
+    }
+}
@@ -0,0 +1,99 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+/**
+ * Converts the values of a type to a compact textual form and back.
+ * Codecs are registered in {@link ValueCodecs}, and are used by the formats
+ * that cannot represent a value natively.
+ *
+ * @param <T> the type of the values
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Gets the name of this codec.
+     * It is saved together with the encoded value, so it should never change.
+     *
+     * @return the name
+     */
+    @NotNull String getName();
+
+    /**
+     * Gets the type of the values handled by this codec.
+     *
+     * @return the type
+     */
+    @NotNull Class<T> getType();
+
+    /**
+     * Checks if this codec is also used for the subclasses of its type that do not have a codec of their own.
+     * By default, it is not: a subclass may hold more state than the codec encodes,
+     * like the nanoseconds of {@link java.sql.Timestamp} for a codec of {@link java.util.Date},
+     * so it would be silently decoded as an instance of the type.
+     *
+     * @return true if it is
+     */
+    default boolean isInherited() {
+        return false;
+    }
+
+    /**
+     * Encodes the given value.
+     *
+     * @param value the value
+     * @return the encoded value
+     */
+    @NotNull String encode(final @NotNull T value);
+
+    /**
+     * Decodes the given text.
+     *
+     * @param text the text
+     * @return the decoded value
+     */
+    @NotNull T decode(final @NotNull String text);
+
+    /**
+     * Creates a new codec from the given functions.
+     *
+     * @param <T>     the type of the values
+     * @param name    the name
+     * @param type    the type
+     * @param encoder the encoder
+     * @param decoder the decoder
+     * @return the codec
+     */
+    static <T> @NotNull ValueCodec<T> of(final @NotNull String name, final @NotNull Class<T> type,
+                                         final @NotNull Function<T, String> encoder,
+                                         final @NotNull Function<String, T> decoder) {
+        return new ValueCodec<T>() {
+            @Override
+            public @NotNull String getName() {
+                return name;
+            }
+
+            @Override
+            public @NotNull Class<T> getType() {
+                return type;
+            }
+
+            @Override
+            public @NotNull String encode(@NotNull T value) {
+                return encoder.apply(value);
+            }
+
+            @Override
+            public @NotNull T decode(@NotNull String text) {
+                return decoder.apply(text);
+            }
+
+            @Override
+            public String toString() {
+                return String.format("ValueCodec{name=%s, type=%s}", name, type.getName());
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of every {@link ValueCodec}.
+ * Codecs for {@link UUID}, {@link Date}, {@link BigInteger}, {@link BigDecimal}
+ * and the most common <code>java.time</code> types are registered by default.
+ * <p>
+ * The codec of a class is the one registered for the class itself or, if missing, the one of its closest superclass
+ * that accepts subclasses (see {@link ValueCodec#isInherited()}).
+ * The result of the lookup is cached by class until a codec is registered or removed.
+ */
+public final class ValueCodecs {
+    private static final Map<String, ValueCodec<?>> NAMES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ValueCodec<?>> TYPES = new ConcurrentHashMap<>();
+    /**
+     * The cache of the lookups, replaced as a whole on every change of the codecs,
+     * so that lookups that were still resolving with the previous codecs do not fill the new one.
+     */
+    private static volatile Map<Class<?>, Optional<ValueCodec<?>>> cache = new ConcurrentHashMap<>();
+
+    static {
+        register(ValueCodec.of("uuid", UUID.class, UUID::toString, UUID::fromString));
+        register(ValueCodec.of("date", Date.class, d -> String.valueOf(d.getTime()), t -> new Date(Long.parseLong(t))));
+        register(ValueCodec.of("big-integer", BigInteger.class, BigInteger::toString, BigInteger::new));
+        register(ValueCodec.of("big-decimal", BigDecimal.class, BigDecimal::toString, BigDecimal::new));
+        register(ValueCodec.of("instant", Instant.class, Instant::toString, Instant::parse));
+        register(ValueCodec.of("duration", Duration.class, Duration::toString, Duration::parse));
+        register(ValueCodec.of("local-date", LocalDate.class, LocalDate::toString, LocalDate::parse));
+        register(ValueCodec.of("local-time", LocalTime.class, LocalTime::toString, LocalTime::parse));
+        register(ValueCodec.of("local-date-time", LocalDateTime.class, LocalDateTime::toString, LocalDateTime::parse));
+    }
+
+    private ValueCodecs() {}
+
+    /**
+     * Registers a new codec.
+     * If a codec with the same name or for the same type was already present, it will be replaced.
+     *
+     * @param codec the codec
+     */
+    public static synchronized void register(final @NotNull ValueCodec<?> codec) {
+        unregister(codec.getName());
+        final ValueCodec<?> previous = TYPES.put(codec.getType(), codec);
+        if (previous != null) NAMES.remove(previous.getName());
+        NAMES.put(codec.getName(), codec);
+        cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Removes the codec with the given name.
+     *
+     * @param name the name
+     * @return the removed codec, if present
+     */
+    public static synchronized @Nullable ValueCodec<?> unregister(final @NotNull String name) {
+        final ValueCodec<?> codec = NAMES.remove(name);
+        if (codec == null) return null;
+        TYPES.remove(codec.getType(), codec);
+        cache = new ConcurrentHashMap<>();
+        return codec;
+    }
+
+    /**
+     * Gets the codec with the given name.
+     *
+     * @param name the name
+     * @return the codec
+     */
+    public static @Nullable ValueCodec<?> getCodec(final @NotNull String name) {
+        return NAMES.get(name);
+    }
+
+    /**
+     * Gets the codec of the given class.
+     *
+     * @param <T>  the type of the class
+     * @param type the class
+     * @return the codec
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> @Nullable ValueCodec<? super T> getCodec(final @NotNull Class<T> type) {
+        return (ValueCodec<? super T>) cache.computeIfAbsent(type, t -> Optional.ofNullable(findCodec(t))).orElse(null);
+    }
+
+    /**
+     * Decodes the given text with the codec of the given name.
+     *
+     * @param name the name of the codec
+     * @param text the text
+     * @return the decoded value, or the text itself if no codec with the given name is registered
+     */
+    public static @NotNull Object decode(final @NotNull String name, final @NotNull String text) {
+        final ValueCodec<?> codec = getCodec(name);
+        return codec == null ? text : codec.decode(text);
+    }
+
+    private static @Nullable ValueCodec<?> findCodec(final @NotNull Class<?> type) {
+        final ValueCodec<?> exact = TYPES.get(type);
+        if (exact != null) return exact;
+        for (Class<?> superclass = type.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            final ValueCodec<?> codec = TYPES.get(superclass);
+            if (codec != null && codec.isInherited()) return codec;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs the delayed saves of the {@link ManagedFileConfiguration}s in write-behind mode,
+ * on a single daemon thread shared by every configuration.
+ * The configurations with pending saves are flushed when the JVM shuts down.
+ * They are tracked by identity, since configurations are equal when their contents are.
+ */
+final class WriteBehindScheduler {
+    private static final ScheduledThreadPoolExecutor EXECUTOR;
+    private static final Set<ManagedFileConfiguration> PENDING = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    static {
+        EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "Configurations write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(WriteBehindScheduler::flushAll, "Configurations write-behind flush"));
+    }
+
+    private WriteBehindScheduler() {}
+
+    /**
+     * Schedules the given task.
+     *
+     * @param task  the task
+     * @param delay the delay in nanoseconds
+     * @return the scheduled future
+     */
+    static @NotNull ScheduledFuture<?> schedule(final @NotNull Runnable task, final long delay) {
+        return EXECUTOR.schedule(task, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks the given configuration as pending, so that it will be flushed on shutdown.
+     *
+     * @param configuration the configuration
+     */
+    static void track(final @NotNull ManagedFileConfiguration configuration) {
+        synchronized (PENDING) {
+            PENDING.add(configuration);
+        }
+    }
+
+    /**
+     * Removes the given configuration from the pending ones.
+     *
+     * @param configuration the configuration
+     */
+    static void untrack(final @NotNull ManagedFileConfiguration configuration) {
+        synchronized (PENDING) {
+            PENDING.remove(configuration);
+        }
+    }
+
+    /**
+     * Flushes every pending configuration.
+     */
+    static void flushAll() {
+        final List<ManagedFileConfiguration> configurations;
+        synchronized (PENDING) {
+            configurations = new ArrayList<>(PENDING);
+        }
+        for (ManagedFileConfiguration configuration : configurations)
+            try {
+                configuration.flush();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+    }
+}
@@ -0,0 +1,92 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferInputStreamTest {
+    private static final String CONTENT = "key: \"värde\"\nother: 1";
+
+    @Test
+    void testReadBytesWithMark() {
+        ByteBuffer buffer = ByteBuffer.wrap(CONTENT.getBytes(StandardCharsets.UTF_8));
+        BufferInputStream stream = new BufferInputStream(buffer);
+        assertTrue(stream.markSupported());
+        stream.mark(0);
+        assertEquals('k', stream.read());
+        assertEquals('e', stream.read());
+        stream.reset();
+        byte[] read = new byte[buffer.remaining()];
+        assertEquals(read.length, stream.read(read, 0, read.length));
+        assertEquals(CONTENT, new String(read, StandardCharsets.UTF_8));
+        assertEquals(-1, stream.read());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void testReaderFromBytesSkipsByteOrderMark() throws IOException {
+        byte[] bytes = ("\uFEFF" + CONTENT).getBytes(StandardCharsets.UTF_8);
+        assertEquals(CONTENT, readAll(new BufferInputStream(ByteBuffer.wrap(bytes)).newReader()));
+    }
+
+    @Test
+    void testReaderFromChars() throws IOException {
+        BufferInputStream stream = new BufferInputStream(CharBuffer.wrap(CONTENT));
+        assertEquals(CONTENT, readAll(ConfigurationBuffers.newReader(stream)));
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    void testStreamingReader() throws IOException {
+        byte[] bytes = ("\uFEFF" + CONTENT).getBytes(StandardCharsets.UTF_8);
+        BufferInputStream stream = new BufferInputStream(ByteBuffer.wrap(bytes));
+        assertFalse(stream.hasCharacters());
+        assertEquals(CONTENT, readAll(ConfigurationBuffers.newStreamingReader(stream)));
+        assertEquals(CONTENT, readAll(ConfigurationBuffers.newStreamingReader(new ByteArrayInputStream(bytes))));
+        stream = new BufferInputStream(CharBuffer.wrap(CONTENT));
+        assertTrue(stream.hasCharacters());
+        assertEquals(CONTENT, readAll(ConfigurationBuffers.newStreamingReader(stream)));
+    }
+
+    @Test
+    void testCharsAreEncodedWhenReadAsBytes() throws IOException {
+        BufferInputStream stream = new BufferInputStream(CharBuffer.wrap(CONTENT));
+        assertEquals('k', stream.read());
+        assertEquals(CONTENT.substring(1), readAll(stream.newReader()));
+    }
+
+    @Test
+    void testReadFile(@TempDir File directory) throws IOException {
+        File file = new File(directory, "config.yml");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        ByteBuffer read = ConfigurationBuffers.read(file);
+        assertFalse(read instanceof MappedByteBuffer);
+        assertEquals(CONTENT, StandardCharsets.UTF_8.decode(read).toString());
+
+        ByteBuffer mapped = ConfigurationBuffers.read(file, 0);
+        assertInstanceOf(MappedByteBuffer.class, mapped);
+        assertEquals(CONTENT, StandardCharsets.UTF_8.decode(mapped).toString());
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        char[] buffer = new char[4];
+        int read;
+        while ((read = bufferedReader.read(buffer)) != -1) builder.append(buffer, 0, read);
+        return builder.toString();
+    }
+}
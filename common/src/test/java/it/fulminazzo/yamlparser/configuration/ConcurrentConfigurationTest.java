@@ -0,0 +1,151 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentConfigurationTest {
+    @TempDir
+    File directory;
+
+    private static ConcurrentConfiguration newConfiguration() {
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("value", 1);
+        section.put("name", "first");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("section", section);
+        data.put("other", Collections.singletonMap("value", 2));
+        return new ConcurrentConfiguration(data);
+    }
+
+    @Test
+    void testTypedGetters() {
+        ConcurrentConfiguration configuration = newConfiguration();
+        assertEquals(1, configuration.getInteger("section.value"));
+        assertEquals("first", configuration.getString("section.name"));
+        assertEquals(1, configuration.get("section.value", Integer.class));
+        assertNull(configuration.get("missing", Integer.class));
+
+        ConfigurationSection section = configuration.getConfigurationSection("other");
+        assertNotNull(section);
+        assertEquals(2, section.getInteger("value"));
+        assertEquals(Collections.singletonMap("value", 2), section.toMap());
+        assertInstanceOf(ConfigurationSection.class, configuration.get("section"));
+        assertThrows(UnsupportedOperationException.class, () -> section.set("value", 3));
+
+        configuration.set("list", Arrays.asList("a", "b"));
+        assertEquals(Arrays.asList("a", "b"), configuration.getStringList("list"));
+    }
+
+    @Test
+    void testViewIsReadOnly() {
+        ConcurrentConfiguration view = newConfiguration().view();
+        assertSame(view, view.view());
+        assertThrows(UnsupportedOperationException.class, () -> view.set("section.value", 3));
+    }
+
+    @Test
+    void testSetSharesUnchangedBranches() {
+        ConcurrentConfiguration configuration = newConfiguration();
+        Map<String, Object> before = configuration.toMap();
+        ConcurrentConfiguration view = configuration.view();
+        ConfigurationSection section = configuration.getConfigurationSection("section");
+        configuration.set("section.value", 3);
+
+        Map<String, Object> after = configuration.toMap();
+        assertNotSame(before, after);
+        assertSame(before.get("other"), after.get("other"));
+        assertEquals(1, ((Map<?, ?>) before.get("section")).get("value"));
+        assertEquals(3, configuration.get("section.value"));
+        assertEquals(1, configuration.getVersion());
+        assertEquals(1, view.getInteger("section.value"));
+        assertEquals(3, configuration.getInteger("section.value"));
+        assertNotNull(section);
+        assertEquals(1, section.getInteger("value"));
+    }
+
+    @Test
+    void testSetNullRemovesPath() {
+        ConcurrentConfiguration configuration = newConfiguration();
+        configuration.set("section.name", null);
+        configuration.set("missing.path", null);
+        assertFalse(configuration.contains("section.name"));
+        assertFalse(configuration.contains("missing"));
+        assertTrue(configuration.contains("section.value"));
+    }
+
+    @Test
+    void testEscapedPaths() {
+        ConcurrentConfiguration configuration = newConfiguration();
+        configuration.set("dotted\\.key.value", 4);
+        assertEquals(4, configuration.get("dotted\\.key.value"));
+        assertTrue(configuration.toMap().containsKey("dotted.key"));
+    }
+
+    @Test
+    void testDataIsImmutable() {
+        ConcurrentConfiguration configuration = newConfiguration();
+        assertThrows(UnsupportedOperationException.class, () -> configuration.toMap().put("key", "value"));
+    }
+
+    @Test
+    @Timeout(30)
+    void testReadersNeverSeePartialUpdates() throws InterruptedException {
+        ConcurrentConfiguration configuration = newConfiguration();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 10_000; j++) {
+                        Map<?, ?> section = (Map<?, ?>) configuration.toMap().get("section");
+                        assertEquals(section.get("value"), section.get("copy"));
+                    }
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            });
+            readers.add(reader);
+        }
+        configuration.set("section.copy", 1);
+        readers.forEach(Thread::start);
+        for (int i = 0; i < 1_000; i++) {
+            Map<String, Object> section = new LinkedHashMap<>();
+            section.put("value", i);
+            section.put("copy", i);
+            configuration.set("section", section);
+        }
+        for (Thread reader : readers) reader.join();
+        assertNull(error.get());
+    }
+
+    @Test
+    void testSaveAndReloadSource() throws IOException {
+        File file = new File(this.directory, "config.yml");
+        Files.write(file.toPath(), "section:\n  value: 1\n".getBytes(StandardCharsets.UTF_8));
+        ManagedFileConfigurationTest.CountingConfiguration source = new ManagedFileConfigurationTest.CountingConfiguration(file);
+        ConcurrentConfiguration configuration = ConcurrentConfiguration.of(source);
+
+        configuration.set("section.value", 2);
+        configuration.save();
+        assertEquals(2, new ManagedFileConfigurationTest.CountingConfiguration(file).getInteger("section.value"));
+
+        Files.write(file.toPath(), "section:\n  value: 5\n".getBytes(StandardCharsets.UTF_8));
+        configuration.reload();
+        assertEquals(5, configuration.getInteger("section.value"));
+    }
+
+    @Test
+    void testSaveWithoutSourceThrows() {
+        assertThrows(IllegalStateException.class, () -> newConfiguration().save());
+    }
+}
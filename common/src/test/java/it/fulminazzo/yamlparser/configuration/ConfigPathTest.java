@@ -0,0 +1,41 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigPathTest {
+
+    @Test
+    void testOfSplitsUnescapedDots() {
+        ConfigPath path = ConfigPath.of("a.b\\.c.d");
+        assertEquals(Arrays.asList("a", "b.c", "d"), path.getKeys());
+        assertEquals("a.b\\.c.d", path.toString());
+        assertEquals("d", path.getLastKey());
+    }
+
+    @Test
+    void testOfKeysEscapesDots() {
+        ConfigPath path = ConfigPath.ofKeys("a", "b.c");
+        assertEquals("a.b\\.c", path.toString());
+        assertEquals(ConfigPath.of("a.b\\.c"), path);
+        assertEquals(ConfigPath.of("a.b\\.c").hashCode(), path.hashCode());
+    }
+
+    @Test
+    void testParentAndChild() {
+        ConfigPath path = ConfigPath.of("a.b\\.c");
+        ConfigPath parent = path.getParent();
+        assertNotNull(parent);
+        assertEquals("a", parent.toString());
+        assertNull(parent.getParent());
+        assertEquals(path, parent.child("b.c"));
+    }
+
+    @Test
+    void testOfKeysRequiresKeys() {
+        assertThrows(IllegalArgumentException.class, ConfigPath::ofKeys);
+    }
+}
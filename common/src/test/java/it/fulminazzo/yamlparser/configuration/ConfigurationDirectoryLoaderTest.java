@@ -0,0 +1,99 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationDirectoryLoaderTest {
+
+    @BeforeEach
+    void setUp() {
+        ConfigurationFormats.register("mock", MockFileConfiguration.class, "mck");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConfigurationFormats.unregister("mock");
+    }
+
+    @Test
+    void testLoadDirectory(@TempDir File directory) throws IOException {
+        write(new File(directory, "general.mck"), "name: general");
+        write(new File(directory, "plugins/economy.mck"), "currency: coins\nbalance:\n  start: 100");
+        write(new File(directory, "plugins/economy.v2.mck"), "currency: gems");
+        write(new File(directory, "plugins/.hidden.mck"), "name: hidden");
+        write(new File(directory, ".git/config.mck"), "name: hidden");
+        write(new File(directory, "plugins/.backup/economy.mck"), "name: hidden");
+        write(new File(directory, "readme.txt"), "Not a configuration");
+
+        ConfigurationDirectoryLoader.Result result = new ConfigurationDirectoryLoader().load(directory);
+        assertTrue(result.isSuccessful());
+        assertEquals(Arrays.asList("general", "plugins.economy", "plugins.economy\\.v2"),
+                Arrays.asList(result.getConfigurations().keySet().toArray()));
+        assertEquals("coins", result.getConfigurations().get("plugins.economy").getString("currency"));
+
+        IConfiguration configuration = result.toConfiguration();
+        assertEquals("general", configuration.getString("general.name"));
+        assertEquals(100, configuration.getInteger("plugins.economy.balance.start"));
+        assertEquals("gems", configuration.getString("plugins.economy\\.v2.currency"));
+    }
+
+    @Test
+    void testHiddenDirectoryIsLoaded(@TempDir File parent) throws IOException {
+        File directory = new File(parent, ".config");
+        write(new File(directory, "general.mck"), "name: general");
+
+        ConfigurationDirectoryLoader.Result result = new ConfigurationDirectoryLoader().load(directory);
+        assertEquals(Collections.singleton("general"), result.getConfigurations().keySet());
+    }
+
+    @Test
+    void testInvalidFileDoesNotStopOthers(@TempDir File directory) throws IOException {
+        File invalid = new File(directory, "invalid.mck");
+        write(invalid, "key: [unclosed");
+        write(new File(directory, "valid.mck"), "key: value");
+
+        ConfigurationDirectoryLoader.Result result = new ConfigurationDirectoryLoader().load(directory);
+        assertFalse(result.isSuccessful());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().containsKey(invalid));
+        assertEquals("value", result.getConfigurations().get("valid").getString("key"));
+    }
+
+    @Test
+    void testCustomExecutor(@TempDir File directory) throws IOException {
+        write(new File(directory, "first.mck"), "key: 1");
+        write(new File(directory, "second.mck"), "key: 2");
+
+        AtomicInteger tasks = new AtomicInteger();
+        ConfigurationDirectoryLoader loader = new ConfigurationDirectoryLoader(r -> {
+            tasks.incrementAndGet();
+            r.run();
+        });
+        assertEquals(2, loader.load(directory).getConfigurations().size());
+        assertEquals(2, tasks.get());
+    }
+
+    @Test
+    void testNotDirectory(@TempDir File directory) {
+        assertThrowsExactly(FileNotFoundException.class, () ->
+                new ConfigurationDirectoryLoader().load(new File(directory, "missing")));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
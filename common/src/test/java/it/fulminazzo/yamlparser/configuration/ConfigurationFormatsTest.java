@@ -0,0 +1,113 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationFormatsTest {
+
+    @AfterEach
+    void tearDown() {
+        ConfigurationFormats.unregister("mock");
+    }
+
+    @Test
+    void testRegisterResolvesExtensionsIgnoringCase() {
+        ConfigurationFormat format = ConfigurationFormats.register("Mock", MockFileConfiguration.class, "MOCK", "mck");
+        assertEquals("mock", format.getName());
+        assertSame(format, ConfigurationFormats.getFormat("MOCK"));
+        assertSame(format, ConfigurationFormats.fromExtension("mock"));
+        assertSame(format, ConfigurationFormats.fromFile(new File("directory/config.MCK")));
+        assertTrue(ConfigurationFormats.getFormats().contains(format));
+    }
+
+    @Test
+    void testUnregisterRemovesExtensions() {
+        ConfigurationFormats.register("mock", MockFileConfiguration.class, "mck");
+        assertNotNull(ConfigurationFormats.unregister("mock"));
+        assertNull(ConfigurationFormats.fromExtension("mck"));
+        assertNull(ConfigurationFormats.getFormat("mock"));
+    }
+
+    @Test
+    void testUnregisterRestoresPreviousExtensions() {
+        ConfigurationFormat previous = ConfigurationFormats.register("previous", MockFileConfiguration.class, "mck");
+        try {
+            ConfigurationFormat format = ConfigurationFormats.register("mock", MockFileConfiguration.class, "mck");
+            assertSame(format, ConfigurationFormats.fromExtension("mck"));
+            ConfigurationFormats.unregister("mock");
+            assertSame(previous, ConfigurationFormats.fromExtension("mck"));
+        } finally {
+            ConfigurationFormats.unregister("previous");
+        }
+        assertNull(ConfigurationFormats.fromExtension("mck"));
+    }
+
+    @Test
+    void testRegisterProvider() {
+        ConfigurationEventStream eventStream = new ConfigurationEventStream() {
+            @Override
+            public void read(@NotNull InputStream input, @NotNull ConfigurationEventHandler handler) {}
+
+            @Override
+            public @NotNull ConfigurationEventHandler newWriter(@NotNull Writer writer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        ConfigurationFormat format = ConfigurationFormats.register(new ConfigurationFormatProvider() {
+            @Override
+            public @NotNull String getName() {
+                return "mock";
+            }
+
+            @Override
+            public @NotNull Class<? extends FileConfiguration> getConfigurationClass() {
+                return MockFileConfiguration.class;
+            }
+
+            @Override
+            public String @NotNull [] getExtensions() {
+                return new String[]{"mck"};
+            }
+
+            @Override
+            public @NotNull ConfigurationEventStream getEventStream() {
+                return eventStream;
+            }
+        });
+        assertSame(format, ConfigurationFormats.fromExtension("mck"));
+        assertSame(eventStream, ConfigurationFormats.getEventStream("mock"));
+    }
+
+    @Test
+    void testFileWithoutExtension() {
+        ConfigurationFormats.register("mock", MockFileConfiguration.class, "mck");
+        assertNull(ConfigurationFormats.fromFile(new File("config")));
+        assertNull(ConfigurationFormats.fromFile(new File("config.")));
+    }
+
+    @Test
+    void testAbstractClass() {
+        assertThrowsExactly(IllegalArgumentException.class, () ->
+                ConfigurationFormats.register("invalid", FileConfiguration.class, "inv"));
+    }
+
+    @Test
+    void testClassWithoutConstructors() {
+        assertThrowsExactly(IllegalArgumentException.class, () ->
+                ConfigurationFormats.register("invalid", PathConfiguration.class, "inv"));
+    }
+
+    static class PathConfiguration extends MockFileConfiguration {
+
+        public PathConfiguration(String path) {
+            super(path);
+        }
+    }
+}
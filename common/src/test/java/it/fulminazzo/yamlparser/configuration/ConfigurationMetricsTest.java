@@ -0,0 +1,167 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationMetricsTest {
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        this.listener = new RecordingListener();
+        ConfigurationMetrics.addListener(this.listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConfigurationMetrics.removeListener(this.listener);
+    }
+
+    @Test
+    void testLoadIsReported() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "value");
+        data.put("list", Arrays.asList(1, 2));
+        data.put("section", Collections.singletonMap("key", true));
+        ByteBuffer buffer = ByteBuffer.wrap("content".getBytes(StandardCharsets.UTF_8));
+
+        assertSame(data, ConfigurationMetrics.load("mock", new BufferInputStream(buffer), s -> data));
+        assertEquals(Collections.singletonList("mock 7 7"), this.listener.loads);
+    }
+
+    @Test
+    void testUnknownSize() {
+        ConfigurationMetrics.load("mock", new ByteArrayInputStream(new byte[3]), s -> null);
+        assertEquals(Collections.singletonList("mock -1 0"), this.listener.loads);
+    }
+
+    @Test
+    void testDumpIsReported() {
+        StringWriter writer = new StringWriter();
+        ConfigurationMetrics.dump("mock", Collections.singletonMap("key", "value"), writer, (d, w) -> {
+            try {
+                w.write("key=value");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals("key=value", writer.toString());
+        assertEquals(Collections.singletonList("mock 9 2"), this.listener.dumps);
+    }
+
+    @Test
+    void testSaveIsReported(@TempDir File directory) {
+        File file = new File(directory, "config.yml");
+        ManagedFileConfigurationTest.CountingConfiguration configuration =
+                new ManagedFileConfigurationTest.CountingConfiguration(new ByteArrayInputStream(new byte[0]));
+        configuration.set("key", "value");
+        assertDoesNotThrow(() -> configuration.write(file, configuration.toMap()));
+        assertEquals(Collections.singletonList(file.getPath() + " " + file.length()), this.listener.saves);
+    }
+
+    @Test
+    void testCacheLookupsAreReported() {
+        ManagedFileConfigurationTest.CountingConfiguration configuration = new ManagedFileConfigurationTest.CountingConfiguration(
+                new ByteArrayInputStream("section:\n  value: 1\n".getBytes(StandardCharsets.UTF_8)));
+        configuration.enableValueCache();
+        ConfigPath path = ConfigPath.of("section.value");
+        assertEquals(1, configuration.getInteger(path));
+        assertEquals(1, configuration.getInteger(path));
+        assertEquals(Arrays.asList("VALUE false", "PATH false", "VALUE true"), this.listener.lookups);
+    }
+
+    @Test
+    void testRemovedListenerIsNotCalled() {
+        assertTrue(ConfigurationMetrics.removeListener(this.listener));
+        assertFalse(ConfigurationMetrics.removeListener(this.listener));
+        assertFalse(ConfigurationMetrics.isEnabled());
+        ConfigurationMetrics.load("mock", new ByteArrayInputStream(new byte[0]), s -> null);
+        assertTrue(this.listener.loads.isEmpty());
+    }
+
+    @Test
+    void testFlightRecorder(@TempDir File directory) throws IOException {
+        File output = new File(directory, "recording.jfr");
+        ConfigurationFlightRecorder.enable();
+        try (Recording recording = new Recording()) {
+            assertTrue(ConfigurationFlightRecorder.isEnabled());
+            recording.enable("it.fulminazzo.yamlparser.Load").withThreshold(Duration.ZERO);
+            recording.start();
+            ConfigurationMetrics.load("mock", new BufferInputStream(ByteBuffer.wrap(new byte[3])), s -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return Collections.singletonMap("key", "value");
+            });
+            recording.stop();
+            recording.dump(output.toPath());
+        } finally {
+            ConfigurationFlightRecorder.disable();
+        }
+        assertFalse(ConfigurationFlightRecorder.isEnabled());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(output.toPath());
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("mock", event.getString("format"));
+        assertEquals(3, event.getLong("bytes"));
+        assertEquals(2, event.getInt("nodes"));
+        assertTrue(event.getDuration().toMillis() >= 20, "The event does not cover the load: " + event.getDuration());
+    }
+
+    @Test
+    void testCountNodes() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("numbers", NumericList.ofInts(1, 2, 3));
+        data.put("array", new int[]{1, 2});
+        data.put("nested", Collections.singletonList(Collections.singletonMap("key", "value")));
+        assertEquals(11, ConfigurationMetrics.countNodes(data));
+    }
+
+    private static final class RecordingListener implements ConfigurationListener {
+        private final List<String> loads = new ArrayList<>();
+        private final List<String> dumps = new ArrayList<>();
+        private final List<String> saves = new ArrayList<>();
+        private final List<String> lookups = new ArrayList<>();
+
+        @Override
+        public void onLoad(@NotNull String format, long bytes, int nodes, long duration) {
+            assertTrue(duration >= 0);
+            this.loads.add(format + " " + bytes + " " + nodes);
+        }
+
+        @Override
+        public void onDump(@NotNull String format, long characters, int nodes, long duration) {
+            this.dumps.add(format + " " + characters + " " + nodes);
+        }
+
+        @Override
+        public void onSave(@NotNull File file, long bytes, long duration) {
+            this.saves.add(file.getPath() + " " + bytes);
+        }
+
+        @Override
+        public void onCacheLookup(@NotNull Cache cache, boolean hit) {
+            this.lookups.add(cache + " " + hit);
+        }
+    }
+}
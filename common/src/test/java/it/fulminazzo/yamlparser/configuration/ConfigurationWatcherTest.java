@@ -0,0 +1,72 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationWatcherTest {
+    @TempDir
+    File directory;
+
+    @Test
+    void testModifiedFileIsReloadedOnce() throws IOException, InterruptedException {
+        File file = new File(this.directory, "config.yml");
+        Files.write(file.toPath(), "value: 1\n".getBytes(StandardCharsets.UTF_8));
+        ManagedFileConfigurationTest.CountingConfiguration configuration = new ManagedFileConfigurationTest.CountingConfiguration(file);
+        List<Set<String>> reloads = new CopyOnWriteArrayList<>();
+
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher(100, TimeUnit.MILLISECONDS)) {
+            watcher.watch(configuration, reloads::add);
+            for (int i = 2; i <= 5; i++)
+                Files.write(file.toPath(), ("value: " + i + "\n").getBytes(StandardCharsets.UTF_8));
+
+            long end = System.currentTimeMillis() + 30_000;
+            while (configuration.getInteger("value") != 5 && System.currentTimeMillis() < end) Thread.sleep(20);
+            assertEquals(5, configuration.getInteger("value"));
+            Thread.sleep(300);
+            assertFalse(reloads.isEmpty());
+            assertTrue(reloads.size() < 4, "Changes were not debounced: " + reloads);
+            for (Set<String> changed : reloads) assertEquals(Collections.singleton("value"), changed);
+        }
+    }
+
+    @Test
+    void testConflictIsReported() throws IOException, InterruptedException {
+        File file = new File(this.directory, "config.yml");
+        Files.write(file.toPath(), "value: 1\n".getBytes(StandardCharsets.UTF_8));
+        ManagedFileConfigurationTest.CountingConfiguration configuration = new ManagedFileConfigurationTest.CountingConfiguration(file);
+        configuration.set("value", 2);
+        List<ManagedFileConfiguration> conflicts = new CopyOnWriteArrayList<>();
+
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher(100, TimeUnit.MILLISECONDS)) {
+            watcher.watch(configuration, null, conflicts::add);
+            Files.write(file.toPath(), "value: 3\n".getBytes(StandardCharsets.UTF_8));
+
+            long end = System.currentTimeMillis() + 30_000;
+            while (conflicts.isEmpty() && System.currentTimeMillis() < end) Thread.sleep(20);
+            assertEquals(Collections.singletonList(configuration), conflicts);
+            assertEquals(2, configuration.getInteger("value"));
+        }
+    }
+
+    @Test
+    void testConfigurationWithoutFileCannotBeWatched() throws IOException {
+        ManagedFileConfigurationTest.CountingConfiguration configuration =
+                new ManagedFileConfigurationTest.CountingConfiguration(new ByteArrayInputStream(new byte[0]));
+        try (ConfigurationWatcher watcher = new ConfigurationWatcher()) {
+            assertThrowsExactly(IllegalArgumentException.class, () -> watcher.watch(configuration));
+        }
+    }
+}
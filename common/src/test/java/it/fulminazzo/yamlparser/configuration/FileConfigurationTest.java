@@ -2,6 +2,8 @@ package it.fulminazzo.yamlparser.configuration;
 
 import it.fulminazzo.fulmicollection.objects.Refl;
 import it.fulminazzo.yamlparser.utils.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -18,6 +20,16 @@ import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 class FileConfigurationTest {
     private static final String FILE_NAME = "build/resources/test/config.yml";
 
+    @BeforeAll
+    static void registerFormat() {
+        ConfigurationFormats.register("mock", MockFileConfiguration.class, "yml");
+    }
+
+    @AfterAll
+    static void unregisterFormat() {
+        ConfigurationFormats.unregister("mock");
+    }
+
     @BeforeEach
     void setUp() throws IOException {
         File file = new File(FILE_NAME);
@@ -0,0 +1,67 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatDetectorTest {
+
+    private static Object[][] getContents() {
+        return new Object[][]{
+                new Object[]{"<root><value>1</value></root>", "xml"},
+                new Object[]{"<?xml version=\"1.0\"?>\n<root/>", "xml"},
+                new Object[]{"  {\"value\": 1}", "json"},
+                new Object[]{"[1, 2, 3]", "json"},
+                new Object[]{"[\n  {\"id\": 1}\n]", "json"},
+                new Object[]{"# comment\n[table]\nvalue = 1", "toml"},
+                new Object[]{"[[repositories]]\nid = \"sonatype\"", "toml"},
+                new Object[]{"[ \"quoted.table\" . inner ] # comment", "toml"},
+                new Object[]{"\"dotted.value\" = 1", "toml"},
+                new Object[]{"url = \"https://hub.spigotmc.org\"", "toml"},
+                new Object[]{"\uFEFFvalue = 1", "toml"},
+                new Object[]{"dotted.value: 1", "yaml"},
+                new Object[]{"url: https://hub.spigotmc.org?a=b", "yaml"},
+                new Object[]{"\"key = value\": 1", "yaml"},
+                new Object[]{"---\nvalue: 1", "yaml"},
+                new Object[]{"- first\n- second", "yaml"},
+                new Object[]{"CFGB\u0001\u000E\u0001", "binary"},
+                new Object[]{"CFGB: 1", "yaml"},
+                new Object[]{"# comment only\n\n", null},
+                new Object[]{"", null},
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("getContents")
+    void testDetect(String content, String expected) {
+        assertEquals(expected, FormatDetector.detect(content));
+    }
+
+    @Test
+    void testDetectDoesNotConsumeStream() throws IOException {
+        byte[] content = "{\"value\": 1}".getBytes();
+        InputStream stream = new BufferedInputStream(new ByteArrayInputStream(content));
+        assertEquals("json", FormatDetector.detect(stream));
+        byte[] read = new byte[content.length];
+        assertEquals(content.length, stream.read(read));
+        assertArrayEquals(content, read);
+    }
+
+    @Test
+    void testDetectRequiresMark() {
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() {
+                return -1;
+            }
+        };
+        assertThrowsExactly(IllegalArgumentException.class, () -> FormatDetector.detect(stream));
+    }
+}
@@ -0,0 +1,381 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ManagedFileConfigurationTest {
+    @TempDir
+    File directory;
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.file = new File(this.directory, "config.yml");
+        Files.write(this.file.toPath(), "section:\n  value: 1\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testUnchangedSaveIsSkipped() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        assertFalse(configuration.isDirty());
+        configuration.set("section.value", 1);
+        assertFalse(configuration.isDirty());
+        configuration.save();
+        configuration.save();
+        assertEquals(0, configuration.dumps);
+    }
+
+    @Test
+    void testSectionChangesAreSaved() throws IOException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        ConfigurationSection section = configuration.getConfigurationSection("section");
+        assertNotNull(section);
+        section.set("value", 2);
+        assertTrue(configuration.isDirty());
+        configuration.save();
+        assertFalse(configuration.isDirty());
+        configuration.save();
+        assertEquals(1, configuration.dumps);
+        assertEquals(2, new CountingConfiguration(this.file).getInteger("section.value"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testListChangesAreSaved() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.set("list", new ArrayList<>(Arrays.asList(1, 2)));
+        configuration.save();
+        assertFalse(configuration.isDirty());
+        ((List<Object>) configuration.get("list")).add(3);
+        assertTrue(configuration.isDirty());
+    }
+
+    @Test
+    void testSaveKeepsPermissionsAndLinks() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+        Files.setPosixFilePermissions(this.file.toPath(), permissions);
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.set("section.value", 2);
+        configuration.save();
+        assertEquals(permissions, Files.getPosixFilePermissions(this.file.toPath()));
+
+        File link = new File(this.directory, "link.yml");
+        Files.createSymbolicLink(link.toPath(), this.file.toPath());
+        CountingConfiguration linked = new CountingConfiguration(link);
+        linked.set("section.value", 3);
+        linked.save();
+        assertTrue(Files.isSymbolicLink(link.toPath()));
+        assertEquals(permissions, Files.getPosixFilePermissions(this.file.toPath()));
+        assertEquals(3, new CountingConfiguration(this.file).getInteger("section.value"));
+    }
+
+    @Test
+    void testConfigPathAccess() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        ConfigPath path = ConfigPath.of("section.value");
+        assertEquals(1, configuration.getInteger(path));
+        configuration.set(path, 2);
+        assertEquals(2, configuration.getInteger("section.value"));
+        assertTrue(configuration.contains(path));
+        assertNull(configuration.get(ConfigPath.of("missing.value")));
+    }
+
+    @Test
+    void testConfigPathCacheIsInvalidatedOnStructuralChanges() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        ConfigPath path = ConfigPath.of("section.value");
+        assertEquals(1, configuration.getInteger(path));
+        configuration.set("section", Collections.singletonMap("value", 3));
+        assertEquals(3, configuration.getInteger(path));
+        configuration.set(ConfigPath.of("section"), 4);
+        assertNull(configuration.get(path));
+        configuration.set(path, 5);
+        assertEquals(5, configuration.getInteger("section.value"));
+    }
+
+    @Test
+    void testVersionChangesOnSet() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        long version = configuration.getVersion();
+        configuration.set(ConfigPath.of("section.value"), 2);
+        assertTrue(configuration.getVersion() > version);
+        version = configuration.getVersion();
+        configuration.set("other", 3);
+        assertTrue(configuration.getVersion() > version);
+    }
+
+    @Test
+    void testValueCacheReturnsSameConversion() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.set("list", Arrays.asList(1, 2, 3));
+        configuration.enableValueCache();
+        assertTrue(configuration.isValueCache());
+        List<Integer> list = configuration.getList("list", Integer.class);
+        assertSame(list, configuration.getList("list", Integer.class));
+        assertThrows(UnsupportedOperationException.class, () -> list.add(4));
+        assertEquals(Arrays.asList(1, 2, 3), list);
+    }
+
+    @Test
+    void testValueCacheIsInvalidatedOnSet() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableValueCache();
+        ConfigPath path = ConfigPath.of("section.value");
+        assertEquals(1, configuration.getInteger(path));
+        assertEquals(1, configuration.getInteger("section.value"));
+        configuration.set(path, 2);
+        assertEquals(2, configuration.getInteger(path));
+        assertEquals(2, configuration.getInteger("section.value"));
+        configuration.set("section", Collections.singletonMap("value", 3));
+        assertEquals(3, configuration.getInteger(path));
+        assertEquals(3, configuration.getInteger("section.value"));
+    }
+
+    @Test
+    void testValueCacheKeepsOtherPathsOnSet() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.set("list", Arrays.asList(1, 2, 3));
+        configuration.enableValueCache();
+        List<Integer> list = configuration.getList("list", Integer.class);
+        configuration.set("section.other", 1);
+        assertSame(list, configuration.getList("list", Integer.class));
+        configuration.set("list", Arrays.asList(4, 5));
+        assertEquals(Arrays.asList(4, 5), configuration.getList("list", Integer.class));
+        configuration.set("section", null);
+        assertNull(configuration.getInteger(ConfigPath.of("section.value")));
+    }
+
+    @Test
+    void testValueCacheIsInvalidatedOnReload() throws IOException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableValueCache();
+        assertEquals(1, configuration.getInteger("section.value"));
+        Files.write(this.file.toPath(), "section:\n  value: 4\n".getBytes(StandardCharsets.UTF_8));
+        configuration.reload();
+        assertEquals(4, configuration.getInteger("section.value"));
+        configuration.disableValueCache();
+        assertFalse(configuration.isValueCache());
+    }
+
+    @Test
+    void testMarkDirtyForcesSave() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.markDirty();
+        configuration.save();
+        assertEquals(1, configuration.dumps);
+    }
+
+    @Test
+    void testFingerprint() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("numbers", NumericList.ofInts(1, 2));
+        first.put("section", Collections.singletonMap("key", "value"));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("section", Collections.singletonMap("key", "value"));
+        second.put("numbers", new int[]{1, 2});
+        assertEquals(ManagedFileConfiguration.fingerprint(first), ManagedFileConfiguration.fingerprint(second));
+
+        second.put("numbers", Arrays.asList(2, 1));
+        assertNotEquals(ManagedFileConfiguration.fingerprint(first), ManagedFileConfiguration.fingerprint(second));
+        second.put("numbers", Arrays.asList(1L, 2L));
+        assertNotEquals(ManagedFileConfiguration.fingerprint(first), ManagedFileConfiguration.fingerprint(second));
+        assertNotEquals(ManagedFileConfiguration.fingerprint(Collections.singletonMap("a", "b")),
+                ManagedFileConfiguration.fingerprint(Collections.singletonMap("b", "a")));
+    }
+
+    @Test
+    void testFailedSaveKeepsOriginalFile() throws IOException {
+        byte[] original = Files.readAllBytes(this.file.toPath());
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.set("new", "value");
+        configuration.failing = true;
+        assertThrows(RuntimeException.class, configuration::save);
+        assertArrayEquals(original, Files.readAllBytes(this.file.toPath()));
+        assertTrue(configuration.isDirty());
+        String[] files = this.directory.list();
+        assertNotNull(files);
+        assertEquals(1, files.length);
+    }
+
+    @Test
+    void testWriteBehindCoalescesSaves() {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableWriteBehind(1, TimeUnit.HOURS);
+        for (int i = 0; i < 100; i++) {
+            configuration.set("value", i);
+            configuration.save();
+        }
+        assertEquals(0, configuration.dumps);
+        configuration.flush();
+        assertEquals(1, configuration.dumps);
+        assertEquals(99, new CountingConfiguration(this.file).getInteger("value"));
+    }
+
+    @Test
+    void testWriteBehindSavesAfterDelay() throws InterruptedException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableWriteBehind(10, TimeUnit.MILLISECONDS);
+        configuration.set("value", 1);
+        configuration.save();
+        awaitDumps(configuration, 1);
+        assertFalse(configuration.isDirty());
+    }
+
+    @Test
+    void testWriteBehindSavesWhenPendingLimitIsReached() throws InterruptedException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableWriteBehind(1, TimeUnit.HOURS, 5);
+        for (int i = 0; i < 5; i++) {
+            configuration.set("value", i);
+            configuration.save();
+        }
+        awaitDumps(configuration, 1);
+        configuration.disableWriteBehind();
+        assertFalse(configuration.isWriteBehind());
+    }
+
+    @Test
+    void testFailedWriteBehindSaveIsRetried() throws InterruptedException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.failing = true;
+        configuration.enableWriteBehind(10, TimeUnit.MILLISECONDS);
+        configuration.set("value", 1);
+        configuration.save();
+        awaitDumps(configuration, 1);
+        assertTrue(configuration.isDirty());
+        configuration.failing = false;
+        awaitDumps(configuration, 2);
+        assertFalse(configuration.isDirty());
+        assertEquals(1, new CountingConfiguration(this.file).getInteger("value"));
+    }
+
+    @Test
+    void testEqualConfigurationsAreFlushedOnShutdown() throws IOException {
+        File otherFile = new File(this.directory, "other.yml");
+        Files.copy(this.file.toPath(), otherFile.toPath());
+        CountingConfiguration first = new CountingConfiguration(this.file);
+        CountingConfiguration second = new CountingConfiguration(otherFile);
+        for (CountingConfiguration configuration : Arrays.asList(first, second)) {
+            configuration.enableWriteBehind(1, TimeUnit.HOURS);
+            configuration.set("value", 1);
+            configuration.save();
+        }
+        assertEquals(first, second);
+        WriteBehindScheduler.flushAll();
+        assertEquals(1, first.dumps);
+        assertEquals(1, second.dumps);
+    }
+
+    private static void awaitDumps(CountingConfiguration configuration, int dumps) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (configuration.dumps < dumps && System.currentTimeMillis() < end) Thread.sleep(5);
+        assertEquals(dumps, configuration.dumps);
+    }
+
+    @Test
+    void testReloadAppliesOnlyChangedPaths() throws IOException {
+        Files.write(this.file.toPath(), "section:\n  value: 1\nother:\n  a: 1\nremoved: true\n".getBytes(StandardCharsets.UTF_8));
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        ConfigurationSection section = configuration.getConfigurationSection("section");
+        ConfigurationSection other = configuration.getConfigurationSection("other");
+
+        Files.write(this.file.toPath(), "section:\n  value: 2\nother:\n  a: 1\nadded: x\n".getBytes(StandardCharsets.UTF_8));
+        Set<String> changed = configuration.reload();
+
+        assertEquals(new HashSet<>(Arrays.asList("section.value", "added", "removed")), changed);
+        assertSame(section, configuration.getConfigurationSection("section"));
+        assertSame(other, configuration.getConfigurationSection("other"));
+        assertEquals(2, configuration.getInteger("section.value"));
+        assertEquals("x", configuration.getString("added"));
+        assertFalse(configuration.contains("removed"));
+        assertFalse(configuration.isDirty());
+    }
+
+    @Test
+    void testReloadKeepsUnsavedChanges() throws IOException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableWriteBehind(1, TimeUnit.HOURS);
+        configuration.set("section.value", 2);
+        configuration.save();
+        Files.write(this.file.toPath(), "section:\n  value: 3\n".getBytes(StandardCharsets.UTF_8));
+        assertThrowsExactly(ConcurrentModificationException.class, configuration::reload);
+        assertEquals(2, configuration.getInteger("section.value"));
+        configuration.flush();
+        assertEquals(2, new CountingConfiguration(this.file).getInteger("section.value"));
+    }
+
+    @Test
+    void testReloadCanDiscardUnsavedChanges() throws IOException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        configuration.enableWriteBehind(1, TimeUnit.HOURS);
+        configuration.set("section.value", 2);
+        configuration.save();
+        Files.write(this.file.toPath(), "section:\n  value: 3\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Collections.singleton("section.value"), configuration.reload(true));
+        assertEquals(3, configuration.getInteger("section.value"));
+        assertFalse(configuration.isDirty());
+        configuration.flush();
+        assertEquals(0, configuration.dumps);
+    }
+
+    @Test
+    void testReloadIgnoresOwnWrites() throws IOException {
+        CountingConfiguration configuration = new CountingConfiguration(this.file);
+        // Read back as an Integer: reloading the saved file would change it
+        configuration.set("number", 1L);
+        configuration.save();
+        assertTrue(configuration.reload().isEmpty());
+        assertEquals(1L, configuration.get("number"));
+
+        Files.write(this.file.toPath(), "number: 2\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("number", "section")), configuration.reload());
+        assertEquals(2, configuration.get("number"));
+    }
+
+    @Test
+    void testStreamConfigurationCannotBeSaved() {
+        CountingConfiguration configuration = new CountingConfiguration(new ByteArrayInputStream(new byte[0]));
+        configuration.set("value", 1);
+        assertThrowsExactly(IllegalStateException.class, configuration::save);
+    }
+
+    static class CountingConfiguration extends ManagedFileConfiguration {
+        private volatile int dumps;
+        private volatile boolean failing;
+
+        CountingConfiguration(@NotNull File file) {
+            super(file);
+        }
+
+        CountingConfiguration(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        protected Map<?, ?> load(@NotNull InputStream stream) {
+            return newYaml().load(stream);
+        }
+
+        @Override
+        protected void dump(@NotNull Map<?, ?> data, @NotNull Writer writer) {
+            this.dumps++;
+            if (this.failing) throw new IllegalStateException("Dump failed");
+            newYaml().dump(data, writer);
+        }
+    }
+}
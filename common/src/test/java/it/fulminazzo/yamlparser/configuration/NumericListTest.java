@@ -0,0 +1,76 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericListTest {
+
+    @Test
+    void testIntList() {
+        NumericList.OfInt list = NumericList.ofInts(1, 2, 3);
+        list.addInt(4);
+        list.add(0, 0);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), list);
+        assertEquals(Integer.valueOf(2), list.remove(2));
+        assertEquals(Integer.valueOf(3), list.set(2, 5));
+        assertArrayEquals(new int[]{0, 1, 5, 4}, list.toIntArray());
+        assertArrayEquals(new double[]{0, 1, 5, 4}, list.toDoubleArray());
+    }
+
+    @Test
+    void testLongList() {
+        NumericList.OfLong list = NumericList.ofLongs(1, 2);
+        assertTrue(list.fitsInts());
+        list.addLong(Long.MAX_VALUE);
+        assertFalse(list.fitsInts());
+        assertEquals(Arrays.asList(1L, 2L, Long.MAX_VALUE), list);
+        assertArrayEquals(new long[]{1, 2, Long.MAX_VALUE}, list.toLongArray());
+    }
+
+    @Test
+    void testDoubleList() {
+        NumericList.OfDouble list = new NumericList.OfDouble();
+        for (int i = 0; i < 100; i++) list.addDouble(i / 2d);
+        assertEquals(100, list.size());
+        assertEquals(49.5, list.getDouble(99));
+        assertEquals(49, list.getInt(99));
+        assertEquals(list, NumericList.ofDoubles(list.toDoubleArray()));
+    }
+
+    @Test
+    void testOutOfBounds() {
+        NumericList.OfInt list = NumericList.ofInts(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(2, 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testForeignElementsAreBoxed() {
+        NumericList.OfInt list = NumericList.ofInts(1, 2);
+        List<Object> objects = (List<Object>) (List<?>) list;
+        objects.set(0, 3);
+        assertFalse(list.isBoxed());
+        objects.add(2.5);
+        assertTrue(list.isBoxed());
+        objects.add("x");
+        objects.add(1, null);
+        list.addInt(4);
+        assertEquals(Arrays.asList(3, null, 2, 2.5, "x", 4), list);
+        assertEquals(2, list.getInt(3));
+        assertEquals("x", objects.remove(4));
+        assertThrows(NullPointerException.class, list::toIntArray);
+        objects.remove(1);
+        assertArrayEquals(new double[]{3, 2, 2.5, 4}, list.toDoubleArray());
+
+        NumericList.OfLong longs = NumericList.ofLongs(1);
+        ((List<Object>) (List<?>) longs).add(2);
+        assertTrue(longs.isBoxed());
+        assertEquals(Arrays.asList(1L, 2), longs);
+        assertArrayEquals(new long[]{1, 2}, longs.toLongArray());
+    }
+}
@@ -0,0 +1,112 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverlayConfigurationTest {
+
+    private static SimpleConfiguration newDefaults() {
+        SimpleConfiguration defaults = new SimpleConfiguration();
+        defaults.set("name", "default");
+        defaults.set("port", 80);
+        defaults.set("database.host", "localhost");
+        defaults.set("database.user", "root");
+        return defaults;
+    }
+
+    private static ManagedFileConfiguration newOverride() {
+        String content = "port: 8080\ndatabase:\n  host: remote\n";
+        return new ManagedFileConfigurationTest.CountingConfiguration(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testHighestLayerWins() {
+        OverlayConfiguration configuration = new OverlayConfiguration(newDefaults(), newOverride());
+        assertEquals(8080, configuration.getInteger("port"));
+        assertEquals("default", configuration.getString("name"));
+        assertEquals("remote", configuration.getString("database.host"));
+        assertEquals("root", configuration.getString("database.user"));
+        assertFalse(configuration.contains("missing"));
+    }
+
+    @Test
+    void testSectionsAreMerged() {
+        OverlayConfiguration configuration = new OverlayConfiguration(newDefaults(), newOverride());
+        Object database = configuration.get("database");
+        assertInstanceOf(IConfiguration.class, database);
+        assertEquals("remote", ((IConfiguration) database).getString("host"));
+        assertEquals("root", ((IConfiguration) database).getString("user"));
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("host", "remote");
+        expected.put("user", "root");
+        assertEquals(expected, ((IConfiguration) database).toMap());
+        assertEquals(expected, configuration.toMap().get("database"));
+        assertEquals(8080, configuration.toMap().get("port"));
+    }
+
+    @Test
+    void testConfigurationSectionIsMerged() {
+        SimpleConfiguration environment = new SimpleConfiguration();
+        environment.set("database", Collections.singletonMap("port", 1));
+        OverlayConfiguration configuration = new OverlayConfiguration(newDefaults(), environment);
+
+        ConfigurationSection database = configuration.getConfigurationSection("database");
+        assertNotNull(database);
+        assertEquals("localhost", database.getString("host"));
+        assertEquals(1, database.getInteger("port"));
+        assertEquals("root", database.getString("user"));
+        assertSame(database, configuration.getConfigurationSection("database"));
+        assertThrowsExactly(UnsupportedOperationException.class, () -> database.set("port", 2));
+        assertNull(configuration.getConfigurationSection("name"));
+    }
+
+    @Test
+    void testChangedLayerInvalidatesCache() {
+        ManagedFileConfiguration override = newOverride();
+        OverlayConfiguration configuration = new OverlayConfiguration(newDefaults(), override);
+        assertEquals(8080, configuration.getInteger("port"));
+        override.set("port", 9090);
+        assertEquals(9090, configuration.getInteger("port"));
+        override.set("port", null);
+        assertEquals(80, configuration.getInteger("port"));
+    }
+
+    @Test
+    void testInvalidateForOtherLayers() {
+        SimpleConfiguration defaults = newDefaults();
+        OverlayConfiguration configuration = new OverlayConfiguration(defaults, newOverride());
+        assertEquals("default", configuration.getString("name"));
+        defaults.set("name", "changed");
+        configuration.invalidate();
+        assertEquals("changed", configuration.getString("name"));
+    }
+
+    @Test
+    void testCachedListsCannotBeModified() {
+        SimpleConfiguration defaults = newDefaults();
+        defaults.set("values", Arrays.asList(1, 2, 3));
+        OverlayConfiguration configuration = new OverlayConfiguration(defaults, newOverride());
+        List<Integer> values = configuration.getList("values", Integer.class);
+        assertEquals(Arrays.asList(1, 2, 3), values);
+        assertSame(values, configuration.getList("values", Integer.class));
+        assertThrows(UnsupportedOperationException.class, () -> values.add(4));
+    }
+
+    @Test
+    void testReadOnly() {
+        OverlayConfiguration configuration = new OverlayConfiguration(newDefaults());
+        assertThrowsExactly(UnsupportedOperationException.class, () -> configuration.set("port", 1));
+    }
+
+    @Test
+    void testNoLayers() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new OverlayConfiguration(Collections.emptyList()));
+    }
+}
@@ -0,0 +1,45 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserProviderTest {
+
+    @Test
+    void testSharedParserIsReused() {
+        AtomicInteger created = new AtomicInteger();
+        ParserProvider<Object> provider = ParserProvider.shared(() -> created.incrementAndGet() + "");
+        assertSame(provider.get(), provider.get());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void testPerThreadParserIsNotShared() throws InterruptedException {
+        ParserProvider<Object> provider = ParserProvider.perThread(Object::new);
+        Object parser = provider.get();
+        assertSame(parser, provider.get());
+        AtomicReference<Object> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(provider.get()));
+        thread.start();
+        thread.join();
+        assertNotNull(other.get());
+        assertNotSame(parser, other.get());
+    }
+
+    @Test
+    void testResetDiscardsParsers() {
+        ParserProvider<Object> shared = ParserProvider.shared(Object::new);
+        Object parser = shared.get();
+        shared.reset();
+        assertNotSame(parser, shared.get());
+
+        ParserProvider<Object> perThread = ParserProvider.perThread(Object::new);
+        parser = perThread.get();
+        perThread.reset();
+        assertNotSame(parser, perThread.get());
+    }
+}
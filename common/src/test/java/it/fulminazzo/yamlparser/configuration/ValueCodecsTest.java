@@ -0,0 +1,97 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueCodecsTest {
+
+    @AfterEach
+    void tearDown() {
+        ValueCodecs.unregister("mock");
+    }
+
+    private static Object[] getDefaultValues() {
+        return new Object[]{
+                UUID.randomUUID(), new Date(), new BigInteger("123456789012345678901234567890"),
+                new BigDecimal("1234.5678"), Instant.now(), Duration.ofMinutes(90),
+                LocalDate.now(), LocalTime.now(), LocalDateTime.now()
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("getDefaultValues")
+    @SuppressWarnings("unchecked")
+    void testDefaultCodecs(Object value) {
+        ValueCodec<Object> codec = (ValueCodec<Object>) ValueCodecs.getCodec(value.getClass());
+        assertNotNull(codec);
+        assertEquals(value, ValueCodecs.decode(codec.getName(), codec.encode(value)));
+    }
+
+    @Test
+    void testSuperclassCodecIsNotInherited() {
+        assertNotNull(ValueCodecs.getCodec(Date.class));
+        assertNull(ValueCodecs.getCodec(Timestamp.class));
+    }
+
+    @Test
+    void testInheritedCodec() {
+        ValueCodec<Number> codec = new ValueCodec<Number>() {
+            @Override
+            public @NotNull String getName() {
+                return "mock";
+            }
+
+            @Override
+            public @NotNull Class<Number> getType() {
+                return Number.class;
+            }
+
+            @Override
+            public @NotNull String encode(@NotNull Number value) {
+                return value.toString();
+            }
+
+            @Override
+            public @NotNull Number decode(@NotNull String text) {
+                return new BigDecimal(text);
+            }
+
+            @Override
+            public boolean isInherited() {
+                return true;
+            }
+        };
+        ValueCodecs.register(codec);
+        assertSame(codec, ValueCodecs.getCodec(AtomicInteger.class));
+        assertEquals("big-integer", Objects.requireNonNull(ValueCodecs.getCodec(BigInteger.class)).getName());
+    }
+
+    @Test
+    void testRegisterInvalidatesCache() {
+        assertNull(ValueCodecs.getCodec(StringBuilder.class));
+        ValueCodec<StringBuilder> codec = ValueCodec.of("mock", StringBuilder.class, StringBuilder::toString, StringBuilder::new);
+        ValueCodecs.register(codec);
+        assertSame(codec, ValueCodecs.getCodec(StringBuilder.class));
+        ValueCodecs.unregister("mock");
+        assertNull(ValueCodecs.getCodec(StringBuilder.class));
+    }
+
+    @Test
+    void testDecodeWithUnknownCodec() {
+        assertEquals("text", ValueCodecs.decode("unknown", "text"));
+    }
+}
@@ -2,17 +2,27 @@ package it.fulminazzo.yamlparser.configuration;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.ToNumberPolicy;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
-import java.util.Map;
+import java.lang.reflect.Array;
+import java.util.*;
 
 /**
  * An implementation of {@link FileConfiguration} to support JSON files.
  */
-class JSONConfiguration extends FileConfiguration {
+@SuppressWarnings("unchecked")
+class JSONConfiguration extends ManagedFileConfiguration {
+    /**
+     * The shared {@link Gson} instance, which is thread-safe.
+     */
+    static final ParserProvider<Gson> PARSER = ParserProvider.shared(JSONConfiguration::newJson);
 
     /**
      * Instantiates a new Json configuration.
@@ -51,24 +61,335 @@ class JSONConfiguration extends FileConfiguration {
         super(file, inputStream);
     }
 
+    /**
+     * Reads the stream as UTF-8, token by token, directly into the maps and lists of the configuration.
+     * In lazy mode (see {@link JSONOptions#setLazyLoading(boolean)}), top-level objects are only delimited,
+     * and parsed when first accessed.
+     * The data of a {@link PreloadedInputStream} is returned as it is.
+     *
+     * @param stream the stream
+     * @return the map
+     */
     @Override
     protected Map<?, ?> load(final @NotNull InputStream stream) {
-        return newJson().fromJson(new InputStreamReader(stream), Map.class);
+        return ConfigurationMetrics.load("json", stream, this::parse);
+    }
+
+    private Map<?, ?> parse(final @NotNull InputStream stream) {
+        if (stream instanceof PreloadedInputStream) return ((PreloadedInputStream) stream).getData();
+        try {
+            if (JSONOptions.isLazyLoading()) return JSONLazyLoader.load(ConfigurationBuffers.newReader(stream));
+            return readDocument(ConfigurationBuffers.newReader(stream));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads a whole document, which must be an object.
+     *
+     * @param input the input
+     * @return the map, or null if the document is empty
+     * @throws IOException an exception thrown while reading
+     */
+    static @Nullable Map<String, Object> readDocument(final @NotNull Reader input) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        reader.setLenient(true);
+        JsonToken token;
+        try {
+            token = reader.peek();
+        } catch (EOFException e) {
+            // Empty document
+            return null;
+        }
+        if (token != JsonToken.BEGIN_OBJECT)
+            throw new JsonSyntaxException(String.format("Expected %s but was %s at path %s",
+                    JsonToken.BEGIN_OBJECT, token, reader.getPath()));
+        final Map<String, Object> map = readObject(reader);
+        checkEnd(reader);
+        return map;
+    }
+
+    /**
+     * Checks that nothing but whitespaces and comments follows the document.
+     * Lenient readers would otherwise accept any number of top-level values.
+     *
+     * @param reader the reader
+     * @throws IOException an exception thrown while reading
+     */
+    static void checkEnd(final @NotNull JsonReader reader) throws IOException {
+        final JsonToken token = reader.peek();
+        if (token != JsonToken.END_DOCUMENT)
+            throw new JsonSyntaxException(String.format("Expected %s but was %s at path %s",
+                    JsonToken.END_DOCUMENT, token, reader.getPath()));
     }
 
+    /**
+     * Writes the data token by token to a buffered {@link JsonWriter}, compact or indented according to {@link JSONOptions}.
+     *
+     * @param data   the data
+     * @param writer the writer
+     */
     @Override
     protected void dump(final @NotNull Map<?, ?> data, final @NotNull Writer writer) {
-        newJson().toJson(data, writer);
+        ConfigurationMetrics.dump("json", data, writer, this::serialize);
+    }
+
+    private void serialize(final @NotNull Map<?, ?> data, final @NotNull Writer writer) {
+        try {
+            JsonWriter jsonWriter = new JsonWriter(writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+            jsonWriter.setIndent(JSONOptions.isPrettyPrinting() ? "  " : "");
+            jsonWriter.setHtmlSafe(JSONOptions.isHtmlEscaping());
+            jsonWriter.setSerializeNulls(false);
+            writeObject(jsonWriter, data);
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the next object of the given reader.
+     * Nested objects and arrays are read iteratively, so that the depth of the document is not limited by the stack.
+     * Arrays made only of integers or only of decimals are read in a {@link NumericList}.
+     *
+     * @param reader the reader
+     * @return the map
+     * @throws IOException an exception thrown while reading
+     */
+    static @NotNull Map<String, Object> readObject(final @NotNull JsonReader reader) throws IOException {
+        final Map<String, Object> root = new LinkedHashMap<>();
+        reader.beginObject();
+        readContainer(reader, root);
+        return root;
+    }
+
+    /**
+     * Reads the next value of the given reader, which can also be an object or an array.
+     *
+     * @param reader the reader
+     * @return the value
+     * @throws IOException an exception thrown while reading
+     */
+    static @Nullable Object readElement(final @NotNull JsonReader reader) throws IOException {
+        final JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_OBJECT) return readObject(reader);
+        else if (token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            final List<Object> array = readNumbers(reader);
+            if (!(array instanceof NumericList)) readContainer(reader, array);
+            return array;
+        } else return readValue(reader, token);
+    }
+
+    /**
+     * Reads the remaining contents of the given object or array, which was already opened, and closes it.
+     *
+     * @param reader the reader
+     * @param root   the map or list where the contents are stored
+     * @throws IOException an exception thrown while reading
+     */
+    private static void readContainer(final @NotNull JsonReader reader, final @NotNull Object root) throws IOException {
+        final Deque<Object> parents = new ArrayDeque<>();
+        Object current = root;
+        while (true) {
+            while (reader.hasNext()) {
+                final String name = current instanceof Map ? reader.nextName() : null;
+                final JsonToken token = reader.peek();
+                final Object value;
+                final boolean container;
+                if (token == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    value = new LinkedHashMap<String, Object>();
+                    container = true;
+                } else if (token == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    value = readNumbers(reader);
+                    container = !(value instanceof NumericList);
+                } else {
+                    value = readValue(reader, token);
+                    container = false;
+                }
+                if (name == null) ((List<Object>) current).add(value);
+                else ((Map<String, Object>) current).put(name, value);
+                if (container) {
+                    parents.push(current);
+                    current = value;
+                }
+            }
+            if (current instanceof Map) reader.endObject();
+            else reader.endArray();
+            if (parents.isEmpty()) return;
+            current = parents.pop();
+        }
+    }
+
+    /**
+     * Reads the numbers at the start of an array that was just opened.
+     * If the array contains only integers or only decimals, it is closed and returned as a {@link NumericList}.
+     * Otherwise, the numbers read so far are returned in an {@link ArrayList}, where the rest of the array should be read.
+     * Only the default {@link ToNumberPolicy#LONG_OR_DOUBLE} is supported, any other strategy returns an empty list.
+     *
+     * @param reader the reader
+     * @return the list
+     * @throws IOException an exception thrown while reading
+     */
+    static @NotNull List<Object> readNumbers(final @NotNull JsonReader reader) throws IOException {
+        if (JSONOptions.getNumberStrategy() != ToNumberPolicy.LONG_OR_DOUBLE) return new ArrayList<>();
+        NumericList<?> numbers = null;
+        while (reader.peek() == JsonToken.NUMBER) {
+            final String number = reader.nextString();
+            if (isInteger(number)) {
+                if (numbers == null) numbers = new NumericList.OfLong();
+                if (numbers instanceof NumericList.OfLong) {
+                    try {
+                        ((NumericList.OfLong) numbers).addLong(Long.parseLong(number));
+                        continue;
+                    } catch (NumberFormatException ignored) {
+                        // Too big for a long, read as a double by the policy
+                    }
+                }
+            } else {
+                if (numbers == null) numbers = new NumericList.OfDouble();
+                if (numbers instanceof NumericList.OfDouble) {
+                    ((NumericList.OfDouble) numbers).addDouble(Double.parseDouble(number));
+                    continue;
+                }
+            }
+            final List<Object> list = numbers == null ? new ArrayList<>() : new ArrayList<>(numbers);
+            list.add(toNumber(number));
+            return list;
+        }
+        if (numbers == null) return new ArrayList<>();
+        if (reader.peek() != JsonToken.END_ARRAY) return new ArrayList<>(numbers);
+        reader.endArray();
+        return (List<Object>) (List<?>) numbers;
+    }
+
+    private static boolean isInteger(final @NotNull String number) {
+        for (int i = 0; i < number.length(); i++) {
+            final char c = number.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') return false;
+        }
+        return true;
+    }
+
+    private static @NotNull Number toNumber(final @NotNull String number) {
+        if (isInteger(number))
+            try {
+                return Long.parseLong(number);
+            } catch (NumberFormatException ignored) {}
+        return Double.parseDouble(number);
+    }
+
+    /**
+     * Writes the given map to the given writer.
+     * Nested maps, sections, collections and arrays are written iteratively, without converting them first.
+     *
+     * @param writer the writer
+     * @param map    the map
+     * @throws IOException an exception thrown while writing
+     */
+    static void writeObject(final @NotNull JsonWriter writer, final @NotNull Map<?, ?> map) throws IOException {
+        final Deque<Iterator<?>> parents = new ArrayDeque<>();
+        final Deque<Boolean> parentObjects = new ArrayDeque<>();
+        Iterator<?> current = map.entrySet().iterator();
+        boolean object = true;
+        writer.beginObject();
+        while (true) {
+            while (current.hasNext()) {
+                Object value = current.next();
+                if (object) {
+                    Map.Entry<?, ?> entry = (Map.Entry<?, ?>) value;
+                    writer.name(String.valueOf(entry.getKey()));
+                    value = entry.getValue();
+                }
+                if (value instanceof IConfiguration) value = ((IConfiguration) value).toMap();
+                final Iterator<?> children;
+                final boolean childObject;
+                if (value instanceof Map) {
+                    writer.beginObject();
+                    children = ((Map<?, ?>) value).entrySet().iterator();
+                    childObject = true;
+                } else if (value instanceof Iterable) {
+                    writer.beginArray();
+                    children = ((Iterable<?>) value).iterator();
+                    childObject = false;
+                } else if (value != null && value.getClass().isArray()) {
+                    writer.beginArray();
+                    children = arrayIterator(value);
+                    childObject = false;
+                } else {
+                    writeValue(writer, value);
+                    continue;
+                }
+                parents.push(current);
+                parentObjects.push(object);
+                current = children;
+                object = childObject;
+            }
+            if (object) writer.endObject();
+            else writer.endArray();
+            if (parents.isEmpty()) return;
+            current = parents.pop();
+            object = parentObjects.pop();
+        }
+    }
+
+    private static @NotNull Iterator<Object> arrayIterator(final @NotNull Object array) {
+        final int length = Array.getLength(array);
+        return new Iterator<Object>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < length;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return Array.get(array, this.index++);
+            }
+        };
+    }
+
+    static void writeValue(final @NotNull JsonWriter writer, final @Nullable Object value) throws IOException {
+        if (value == null) writer.nullValue();
+        else if (value instanceof String) writer.value((String) value);
+        else if (value instanceof Number) writer.value((Number) value);
+        else if (value instanceof Boolean) writer.value((Boolean) value);
+        else if (value instanceof Character) writer.value(value.toString());
+        // Objects not converted by YAMLParser are left to Gson, like before
+        else PARSER.get().toJson(value, value.getClass(), writer);
+    }
+
+    static @Nullable Object readValue(final @NotNull JsonReader reader, final @NotNull JsonToken token) throws IOException {
+        switch (token) {
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return JSONOptions.getNumberStrategy().readNumber(reader);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                throw new JsonSyntaxException(String.format("Unexpected %s at path %s", token, reader.getPath()));
+        }
     }
 
     /**
-     * New json gson.
+     * Creates a new gson from the current {@link JSONOptions}.
+     * To avoid rebuilding it, {@link #PARSER} should be used instead.
      *
      * @return the gson
      */
     public static Gson newJson() {
-        return new GsonBuilder()
-                .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
-                .create();
+        GsonBuilder builder = new GsonBuilder().setObjectToNumberStrategy(JSONOptions.getNumberStrategy());
+        if (JSONOptions.isPrettyPrinting()) builder.setPrettyPrinting();
+        if (!JSONOptions.isHtmlEscaping()) builder.disableHtmlEscaping();
+        return builder.create();
     }
 }
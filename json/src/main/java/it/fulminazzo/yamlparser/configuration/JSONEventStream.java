@@ -0,0 +1,120 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The {@link ConfigurationEventStream} of JSON files.
+ * Documents are read and written token by token, with the same options of {@link JSONConfiguration}.
+ */
+final class JSONEventStream implements ConfigurationEventStream {
+
+    @Override
+    public void read(final @NotNull InputStream input, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        final JsonReader reader = new JsonReader(ConfigurationBuffers.newStreamingReader(input));
+        reader.setLenient(true);
+        JsonToken token;
+        try {
+            token = reader.peek();
+        } catch (EOFException e) {
+            // Empty document
+            handler.startSection();
+            handler.end();
+            return;
+        }
+        if (token != JsonToken.BEGIN_OBJECT)
+            throw new JsonSyntaxException(String.format("Expected %s but was %s at path %s",
+                    JsonToken.BEGIN_OBJECT, token, reader.getPath()));
+        int depth = 0;
+        do {
+            token = reader.peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    handler.startSection();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    handler.end();
+                    depth--;
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    handler.startList();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    handler.end();
+                    depth--;
+                    break;
+                case NAME:
+                    handler.key(reader.nextName());
+                    break;
+                default:
+                    handler.scalar(JSONConfiguration.readValue(reader, token));
+            }
+        } while (depth > 0);
+        JSONConfiguration.checkEnd(reader);
+    }
+
+    @Override
+    public @NotNull ConfigurationEventHandler newWriter(final @NotNull Writer writer) {
+        final JsonWriter jsonWriter = new JsonWriter(writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+        jsonWriter.setIndent(JSONOptions.isPrettyPrinting() ? "  " : "");
+        jsonWriter.setHtmlSafe(JSONOptions.isHtmlEscaping());
+        jsonWriter.setSerializeNulls(false);
+        return new Handler(jsonWriter);
+    }
+
+    /**
+     * Writes the events to a {@link JsonWriter}.
+     * Sections and lists map directly to objects and arrays, so nothing is kept apart from their types.
+     */
+    private static final class Handler implements ConfigurationEventHandler {
+        private final @NotNull JsonWriter writer;
+        private final @NotNull Deque<Boolean> sections = new ArrayDeque<>();
+
+        private Handler(final @NotNull JsonWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void startSection() throws IOException {
+            this.writer.beginObject();
+            this.sections.push(true);
+        }
+
+        @Override
+        public void key(final @NotNull String key) throws IOException {
+            this.writer.name(key);
+        }
+
+        @Override
+        public void scalar(final @Nullable Object value) throws IOException {
+            JSONConfiguration.writeValue(this.writer, value);
+        }
+
+        @Override
+        public void startList() throws IOException {
+            this.writer.beginArray();
+            this.sections.push(false);
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (this.sections.pop()) this.writer.endObject();
+            else this.writer.endArray();
+            if (this.sections.isEmpty()) this.writer.flush();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link ConfigurationFormatProvider} of JSON files, implemented by {@link JSONConfiguration}.
+ */
+public final class JSONFormatProvider implements ConfigurationFormatProvider {
+
+    @Override
+    public @NotNull String getName() {
+        return "json";
+    }
+
+    @Override
+    public @NotNull Class<? extends FileConfiguration> getConfigurationClass() {
+        return JSONConfiguration.class;
+    }
+
+    @Override
+    public String @NotNull [] getExtensions() {
+        return new String[]{"json"};
+    }
+
+    @Override
+    public @NotNull ConfigurationEventStream getEventStream() {
+        return new JSONEventStream();
+    }
+
+    @Override
+    public int getPriority() {
+        return 10;
+    }
+}
@@ -0,0 +1,169 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads a JSON document in lazy mode.
+ * The top-level object is scanned only to find where each value starts and ends:
+ * objects are stored as {@link LazySection}s, that parse their range of the document when first accessed,
+ * while every other value is parsed immediately.
+ * <p>
+ * The scanner only understands standard JSON: documents that use the lenient extensions of Gson,
+ * like comments or unquoted strings, are parsed eagerly instead.
+ * The same happens to objects with unclosed strings or unmatched brackets, so that their errors are thrown while loading.
+ */
+final class JSONLazyLoader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final @NotNull String text;
+    private int position;
+
+    private JSONLazyLoader(final @NotNull String text) {
+        this.text = text;
+    }
+
+    /**
+     * Loads the document of the given reader.
+     *
+     * @param reader the reader
+     * @return the map, or null if the document is empty
+     * @throws IOException an exception thrown while reading
+     */
+    static @Nullable Map<String, Object> load(final @NotNull Reader reader) throws IOException {
+        final String text = readFully(reader);
+        try {
+            return new JSONLazyLoader(text).readRoot();
+        } catch (IllegalStateException | JsonParseException | IOException e) {
+            return JSONConfiguration.readDocument(new StringReader(text));
+        }
+    }
+
+    private @Nullable Map<String, Object> readRoot() throws IOException {
+        skipWhitespaces();
+        if (this.position == this.text.length()) return null;
+        expect('{');
+        final Map<String, Object> map = new LinkedHashMap<>();
+        skipWhitespaces();
+        if (peek() == '}') this.position++;
+        else while (true) {
+            skipWhitespaces();
+            final String key = readKey();
+            skipWhitespaces();
+            expect(':');
+            skipWhitespaces();
+            final int start = this.position;
+            skipValue();
+            final int end = this.position;
+            if (this.text.charAt(start) == '{') map.put(key, new LazySection(CharBuffer.wrap(this.text, start, end), () -> parseObject(start, end)));
+            else map.put(key, JSONConfiguration.readElement(newReader(start, end)));
+            skipWhitespaces();
+            final char c = next();
+            if (c == '}') break;
+            if (c != ',') throw invalid();
+        }
+        skipWhitespaces();
+        if (this.position != this.text.length()) throw invalid();
+        return map;
+    }
+
+    private @NotNull Map<String, Object> parseObject(final int start, final int end) {
+        try {
+            return JSONConfiguration.readObject(newReader(start, end));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private @NotNull JsonReader newReader(final int start, final int end) {
+        final JsonReader reader = new JsonReader(new StringReader(this.text.substring(start, end)));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private @NotNull String readKey() throws IOException {
+        final int start = this.position;
+        if (peek() != '"') throw invalid();
+        skipString();
+        final String key = this.text.substring(start + 1, this.position - 1);
+        if (key.indexOf('\\') == -1) return key;
+        return newReader(start, this.position).nextString();
+    }
+
+    /**
+     * Moves after the value starting at the current position, without parsing it.
+     * Only the strings and the brackets of objects and arrays are checked.
+     */
+    private void skipValue() {
+        final char first = peek();
+        if (first == '"') skipString();
+        else if (first == '{' || first == '[') {
+            final StringBuilder brackets = new StringBuilder();
+            do {
+                final char c = next();
+                if (c == '"') {
+                    this.position--;
+                    skipString();
+                } else if (c == '{' || c == '[') brackets.append(c);
+                else if (c == '}' || c == ']') {
+                    if (brackets.charAt(brackets.length() - 1) != (c == '}' ? '{' : '[')) throw invalid();
+                    brackets.setLength(brackets.length() - 1);
+                } else if (c == '\'' || c == '/' || c == '#') throw invalid();
+            } while (brackets.length() > 0);
+        } else {
+            final int start = this.position;
+            while (this.position < this.text.length() && ",}] \t\r\n".indexOf(peek()) == -1) this.position++;
+            if (this.position == start) throw invalid();
+        }
+    }
+
+    private void skipString() {
+        this.position++;
+        while (true) {
+            final char c = next();
+            if (c == '\\') this.position++;
+            else if (c == '"') return;
+        }
+    }
+
+    private void skipWhitespaces() {
+        while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position)))
+            this.position++;
+    }
+
+    private void expect(final char expected) {
+        if (next() != expected) throw invalid();
+    }
+
+    private char peek() {
+        if (this.position >= this.text.length()) throw invalid();
+        return this.text.charAt(this.position);
+    }
+
+    private char next() {
+        final char c = peek();
+        this.position++;
+        return c;
+    }
+
+    private @NotNull IllegalStateException invalid() {
+        return new IllegalStateException("Unexpected content at position " + this.position);
+    }
+
+    private static @NotNull String readFully(final @NotNull Reader reader) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) builder.append(buffer, 0, read);
+        return builder.toString();
+    }
+}
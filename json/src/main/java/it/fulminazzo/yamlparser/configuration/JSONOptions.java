@@ -0,0 +1,103 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.ToNumberStrategy;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The options used by every JSON configuration.
+ * They should be set once, before loading any file: changing them discards the shared parser.
+ */
+public final class JSONOptions {
+    private static volatile @NotNull ToNumberStrategy numberStrategy = ToNumberPolicy.LONG_OR_DOUBLE;
+    private static volatile boolean prettyPrinting = false;
+    private static volatile boolean htmlEscaping = true;
+    private static volatile boolean lazyLoading = false;
+
+    private JSONOptions() {}
+
+    /**
+     * Gets the strategy used to read numbers.
+     *
+     * @return the number strategy
+     */
+    public static @NotNull ToNumberStrategy getNumberStrategy() {
+        return numberStrategy;
+    }
+
+    /**
+     * Sets the strategy used to read numbers.
+     * By default, {@link ToNumberPolicy#LONG_OR_DOUBLE} is used.
+     *
+     * @param numberStrategy the number strategy
+     */
+    public static void setNumberStrategy(final @NotNull ToNumberStrategy numberStrategy) {
+        JSONOptions.numberStrategy = numberStrategy;
+        JSONConfiguration.PARSER.reset();
+    }
+
+    /**
+     * Checks if saved files are indented.
+     *
+     * @return true if they are
+     */
+    public static boolean isPrettyPrinting() {
+        return prettyPrinting;
+    }
+
+    /**
+     * Sets whether saved files should be indented.
+     * By default, they are not.
+     *
+     * @param prettyPrinting true to indent them
+     */
+    public static void setPrettyPrinting(final boolean prettyPrinting) {
+        JSONOptions.prettyPrinting = prettyPrinting;
+        JSONConfiguration.PARSER.reset();
+    }
+
+    /**
+     * Checks if HTML characters like <code>&lt;</code> are escaped when saving.
+     *
+     * @return true if they are
+     */
+    public static boolean isHtmlEscaping() {
+        return htmlEscaping;
+    }
+
+    /**
+     * Sets whether HTML characters like <code>&lt;</code> should be escaped when saving.
+     * By default, they are.
+     *
+     * @param htmlEscaping true to escape them
+     */
+    public static void setHtmlEscaping(final boolean htmlEscaping) {
+        JSONOptions.htmlEscaping = htmlEscaping;
+        JSONConfiguration.PARSER.reset();
+    }
+
+    /**
+     * Checks if top-level objects are parsed only when first accessed.
+     *
+     * @return true if they are
+     */
+    public static boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Sets whether top-level objects should be parsed only when first accessed.
+     * This speeds up loading very large documents of which only a few sections are used.
+     * By default, the whole document is parsed when loaded.
+     * <p>
+     * While loading, only the structure of the objects is checked: their strings and brackets must be closed and matched.
+     * Any other syntax error inside an object is only thrown when it is first accessed,
+     * or by {@link ManagedFileConfiguration#save()}, which parses every object before writing.
+     *
+     * @param lazyLoading true to parse them lazily
+     * @see LazySection
+     */
+    public static void setLazyLoading(final boolean lazyLoading) {
+        JSONOptions.lazyLoading = lazyLoading;
+    }
+}
@@ -1,8 +1,219 @@
 package it.fulminazzo.yamlparser.configuration;
 
+import com.google.gson.JsonSyntaxException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class JSONConfigurationTest extends AFileConfigurationTest {
 
     public JSONConfigurationTest() {
         super("json");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamingLoad() {
+        FileConfiguration config = FileConfiguration.newConfiguration("{\"text\": \"héllo 世界\", " +
+                "\"numbers\": {\"long\": 10, \"double\": 10.5, \"values\": [1, 2.5, \"three\"]}}");
+        assertEquals("héllo 世界", config.getString("text"));
+        assertEquals(10L, config.get("numbers.long", Object.class));
+        assertEquals(10.5d, config.get("numbers.double", Object.class));
+        assertEquals(Arrays.asList(1L, 2.5d, "three"), config.getList("numbers.values", Object.class));
+    }
+
+    @Test
+    void testNumericLists() {
+        ManagedFileConfiguration config = (ManagedFileConfiguration) FileConfiguration.newConfiguration(
+                "{\"longs\": [1, 2, 3], \"doubles\": [0.5, 1.5], \"mixed\": [1, 2.5], \"tail\": [1, \"a\"], \"empty\": []}");
+        assertInstanceOf(NumericList.OfLong.class, config.get("longs"));
+        assertEquals(Arrays.asList(1L, 2L, 3L), config.get("longs"));
+        assertArrayEquals(new int[]{1, 2, 3}, config.getIntArray("longs"));
+        assertInstanceOf(NumericList.OfDouble.class, config.get("doubles"));
+        assertArrayEquals(new double[]{0.5, 1.5}, config.getDoubleArray("doubles"));
+        assertEquals(Arrays.asList(1L, 2.5d), config.get("mixed"));
+        assertArrayEquals(new double[]{1, 2.5}, config.getDoubleArray("mixed"));
+        assertEquals(Arrays.asList(1L, "a"), config.get("tail"));
+        assertEquals(Collections.emptyList(), config.get("empty"));
+        assertNull(config.getLongArray("missing"));
+    }
+
+    @Test
+    void testLazyLoading() {
+        JSONOptions.setLazyLoading(true);
+        try {
+            ManagedFileConfiguration config = new JSONConfiguration(new ByteArrayInputStream(("{\"name\": \"lazy\", " +
+                    "\"big\": {\"value\": 1, \"inner\": {\"text\": \"}\\\"\"}}, \"list\": [1, {\"a\": 2}]}")
+                    .getBytes(StandardCharsets.UTF_8)));
+            assertTrue(config.hasLazySections());
+            assertEquals("lazy", config.getString("name"));
+            assertEquals(Arrays.asList(1L, Collections.singletonMap("a", 2L)), config.get("list", Object.class));
+            assertInstanceOf(LazySection.class, config.toMap().get("big"));
+            assertEquals("}\"", config.getString("big.inner.text"));
+            assertFalse(config.hasLazySections());
+            assertFalse(config.isDirty());
+
+            ManagedFileConfiguration lenient = new JSONConfiguration(new ByteArrayInputStream(
+                    "{// comment\n\"big\": {\"value\": 1}}".getBytes(StandardCharsets.UTF_8)));
+            assertFalse(lenient.hasLazySections());
+            assertEquals(1L, lenient.get("big.value", Object.class));
+
+            for (String json : Arrays.asList("{\"big\": {\"a\": [1}]}}", "{\"big\": {\"a\": \"unclosed}}"))
+                assertThrows(RuntimeException.class, () -> new JSONConfiguration(
+                        new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))), json);
+        } finally {
+            JSONOptions.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    void testLazyReload(@TempDir File directory) throws IOException {
+        JSONOptions.setLazyLoading(true);
+        try {
+            File file = new File(directory, "config.json");
+            Files.write(file.toPath(), "{\"first\": {\"value\": 1}, \"second\": {\"value\": 2}}".getBytes(StandardCharsets.UTF_8));
+            ManagedFileConfiguration config = new JSONConfiguration(file);
+            assertEquals(1L, config.get("first.value", Object.class));
+
+            Files.write(file.toPath(), "{\"first\": {\"value\": 3}, \"second\": {\"value\": 2}}".getBytes(StandardCharsets.UTF_8));
+            assertEquals(Collections.singleton("first.value"), config.reload());
+            assertTrue(config.hasLazySections());
+
+            Files.write(file.toPath(), "{\"first\": {\"value\": 3}, \"second\": {\"value\": 4}}".getBytes(StandardCharsets.UTF_8));
+            assertEquals(Collections.singleton("second"), config.reload());
+            assertTrue(config.hasLazySections());
+            assertEquals(4L, config.get("second.value", Object.class));
+        } finally {
+            JSONOptions.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    void testLoadFromBuffers() {
+        ConfigurationFormat format = ConfigurationFormats.getFormat("json");
+        assertNotNull(format);
+        String content = "{\"text\": \"héllo\", \"number\": 10}";
+
+        FileConfiguration fromChars = format.newConfiguration(CharBuffer.wrap(content));
+        assertEquals("héllo", fromChars.getString("text"));
+        FileConfiguration fromBytes = format.newConfiguration(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(fromChars, fromBytes);
+    }
+
+    @Test
+    void testStreamingDump() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("array", new int[]{1, 2});
+        inner.put("null", null);
+        inner.put("char", 'c');
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("list", Arrays.asList("a", inner));
+        data.put("empty", new LinkedHashMap<>());
+        data.put("number", 10.5f);
+
+        StringWriter writer = new StringWriter();
+        FileConfiguration.newConfiguration("{}").dump(data, writer);
+        assertEquals("{\"list\":[\"a\",{\"array\":[1,2],\"char\":\"c\"}],\"empty\":{},\"number\":10.5}", writer.toString());
+
+        JSONOptions.setPrettyPrinting(true);
+        try {
+            writer = new StringWriter();
+            FileConfiguration.newConfiguration("{}").dump(inner, writer);
+            assertEquals("{\n  \"array\": [\n    1,\n    2\n  ],\n  \"char\": \"c\"\n}", writer.toString());
+        } finally {
+            JSONOptions.setPrettyPrinting(false);
+        }
+    }
+
+    @Test
+    void testEventStreamRead() throws IOException {
+        String json = "{\"a\": 1, \"b\": {\"c\": [1, 2.5, \"x\"], \"d\": null, \"e\": {}}, \"f\": [[true], {\"g\": 2}]}";
+        ConfigurationEvents.TreeBuilder builder = new ConfigurationEvents.TreeBuilder();
+        new JSONEventStream().read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), builder);
+        assertEquals(JSONConfiguration.readDocument(new StringReader(json)), builder.getRoot());
+
+        builder = new ConfigurationEvents.TreeBuilder();
+        new JSONEventStream().read(new ByteArrayInputStream(new byte[0]), builder);
+        assertEquals(Collections.emptyMap(), builder.getRoot());
+    }
+
+    @Test
+    void testTrailingContentIsRejected() {
+        assertEquals(Collections.singletonMap("a", 1L), assertDoesNotThrow(() ->
+                JSONConfiguration.readDocument(new StringReader("{\"a\": 1} // comment\n"))));
+        for (String json : Arrays.asList("{\"a\": 1} garbage", "{}{}", "{} []")) {
+            assertThrowsExactly(JsonSyntaxException.class, () -> JSONConfiguration.readDocument(new StringReader(json)), json);
+            assertThrowsExactly(JsonSyntaxException.class, () -> new JSONEventStream().read(
+                    new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), new ConfigurationEvents.TreeBuilder()), json);
+        }
+    }
+
+    @Test
+    void testEventStreamWrite() throws IOException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("a", 1L);
+        data.put("b", Collections.singletonMap("c", Arrays.asList(1L, 2.5d, "x")));
+        data.put("null", null);
+        data.put("empty", Collections.emptyMap());
+        StringWriter writer = new StringWriter();
+        ConfigurationEvents.emit(data, new JSONEventStream().newWriter(writer));
+        data.remove("null");
+        assertEquals(data, JSONConfiguration.readDocument(new StringReader(writer.toString())));
+    }
+
+    @Test
+    void testConvert(@TempDir File directory) throws IOException {
+        File source = new File(directory, "source.json");
+        File target = new File(directory, "target.json");
+        Files.write(source.toPath(), "{\"a\": {\"b\": [1, 2]}, \"c\": \"text\"}".getBytes(StandardCharsets.UTF_8));
+        ConfigurationConverter.convert(source, target);
+        FileConfiguration configuration = FileConfiguration.newConfiguration(target);
+        assertEquals(Arrays.asList(1L, 2L), configuration.get("a.b", Object.class));
+        assertEquals("text", configuration.getString("c"));
+        assertThrowsExactly(IllegalArgumentException.class, () ->
+                ConfigurationConverter.convert(source, new File(directory, "target.unknown")));
+    }
+
+    @Test
+    void testMetricsAreReported() {
+        List<String> operations = new ArrayList<>();
+        ConfigurationListener listener = new ConfigurationListener() {
+            @Override
+            public void onLoad(@NotNull String format, long bytes, int nodes, long duration) {
+                operations.add("load " + format + " " + bytes + " " + nodes);
+            }
+
+            @Override
+            public void onDump(@NotNull String format, long characters, int nodes, long duration) {
+                operations.add("dump " + format + " " + characters + " " + nodes);
+            }
+        };
+        ConfigurationMetrics.addListener(listener);
+        try {
+            byte[] content = "{\"a\":[1,2]}".getBytes(StandardCharsets.UTF_8);
+            FileConfiguration config = new JSONConfiguration(new BufferInputStream(ByteBuffer.wrap(content)));
+            StringWriter writer = new StringWriter();
+            config.dump(config.toMap(), writer);
+            assertEquals(Arrays.asList("load json 11 4", "dump json " + writer.toString().length() + " 4"), operations);
+        } finally {
+            ConfigurationMetrics.removeListener(listener);
+        }
+    }
+}
@@ -1,20 +1,15 @@
 package it.fulminazzo.yamlparser.configuration;
 
-import com.moandjiezana.toml.Toml;
-import com.moandjiezana.toml.TomlWriter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.Writer;
+import java.io.*;
 import java.util.Map;
 
 /**
  * An implementation of {@link FileConfiguration} to support TOML files.
  */
-class TOMLConfiguration extends FileConfiguration {
+class TOMLConfiguration extends ManagedFileConfiguration {
 
     /**
      * Instantiates a new Toml configuration.
@@ -53,22 +48,41 @@ class TOMLConfiguration extends FileConfiguration {
         super(file, inputStream);
     }
 
+    /**
+     * Reads the stream with {@link TOMLReader}.
+     * The data of a {@link PreloadedInputStream} is returned as it is.
+     *
+     * @param stream the stream
+     * @return the map
+     */
     @Override
     protected Map<?, ?> load(@NotNull InputStream stream) {
+        return ConfigurationMetrics.load("toml", stream, this::parse);
+    }
+
+    private Map<?, ?> parse(@NotNull InputStream stream) {
+        if (stream instanceof PreloadedInputStream) return ((PreloadedInputStream) stream).getData();
         try {
-            Toml toml = new Toml();
-            if (stream.available() > 0) toml.read(stream);
-            return toml.toMap();
+            return TOMLReader.read(ConfigurationBuffers.newReader(stream));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Writes the data with {@link TOMLWriter}, using the current {@link TOMLOptions}.
+     *
+     * @param data   the data
+     * @param writer the writer
+     */
     @Override
     protected void dump(@NotNull Map<?, ?> data, @NotNull Writer writer) {
+        ConfigurationMetrics.dump("toml", data, writer, this::serialize);
+    }
+
+    private void serialize(@NotNull Map<?, ?> data, @NotNull Writer writer) {
         try {
-            TomlWriter tomlWriter = new TomlWriter();
-            tomlWriter.write(data, writer);
+            new TOMLWriter(new BufferedWriter(writer)).write(data);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,147 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link ConfigurationEventStream} of TOML files.
+ * Documents are read by {@link TOMLReader#read(Reader, ConfigurationEventHandler)}, so their tables must be grouped.
+ * <p>
+ * Since the values of a table might be received after its sub-tables,
+ * documents are written without table headers: every value is written with the dotted key of its full path,
+ * while lists, and the sections inside them, are written inline.
+ * Null values are skipped, like {@link TOMLWriter} does.
+ */
+final class TOMLEventStream implements ConfigurationEventStream {
+
+    @Override
+    public void read(final @NotNull InputStream input, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        TOMLReader.read(ConfigurationBuffers.newStreamingReader(input), handler);
+    }
+
+    @Override
+    public @NotNull ConfigurationEventHandler newWriter(final @NotNull Writer writer) {
+        return new Handler(writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+    }
+
+    /**
+     * Writes the events with a {@link TOMLWriter}.
+     */
+    private static final class Handler implements ConfigurationEventHandler {
+        private final @NotNull Writer writer;
+        private final @NotNull TOMLWriter tomlWriter;
+        private final @NotNull String padding = TOMLWriter.indent(TOMLOptions.getArrayDelimiterPadding());
+        private final @NotNull List<Container> containers = new ArrayList<>();
+        private @Nullable String key;
+
+        private Handler(final @NotNull Writer writer) {
+            this.writer = writer;
+            this.tomlWriter = new TOMLWriter(writer);
+        }
+
+        @Override
+        public void startSection() throws IOException {
+            final Container parent = getParent();
+            if (parent == null || !parent.inline) this.containers.add(new Container(this.key, false, false));
+            else {
+                startValue(parent);
+                this.writer.write('{');
+                this.containers.add(new Container(null, false, true));
+            }
+            this.key = null;
+        }
+
+        @Override
+        public void key(final @NotNull String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void scalar(final @Nullable Object value) throws IOException {
+            final Container parent = getParent();
+            if (parent == null) throw new IllegalStateException("Values must be inside the document section");
+            if (value != null) {
+                startValue(parent);
+                this.tomlWriter.writeValue(value);
+                if (!parent.inline) this.writer.write('\n');
+            }
+            this.key = null;
+        }
+
+        @Override
+        public void startList() throws IOException {
+            final Container parent = getParent();
+            if (parent == null) throw new IllegalStateException("Lists must be inside the document section");
+            startValue(parent);
+            this.writer.write('[');
+            this.containers.add(new Container(null, true, true));
+            this.key = null;
+        }
+
+        @Override
+        public void end() throws IOException {
+            final Container container = this.containers.remove(this.containers.size() - 1);
+            final Container parent = getParent();
+            if (container.list) this.writer.write(container.empty ? "]" : this.padding + "]");
+            else if (container.inline) this.writer.write(container.empty ? "}" : " }");
+            else if (parent == null) {
+                this.writer.flush();
+                return;
+            } else if (container.empty) {
+                this.key = container.key;
+                startValue(parent);
+                this.writer.write("{}");
+            }
+            if (parent != null && !parent.inline) {
+                if (container.inline || container.empty) this.writer.write('\n');
+                parent.empty = false;
+            }
+        }
+
+        /**
+         * Writes what comes before a value in the given container:
+         * the separator from the previous value, and the key if the container is a section.
+         * Values outside of lists are written with the dotted key of their full path.
+         *
+         * @param container the container
+         * @throws IOException an exception thrown while writing
+         */
+        private void startValue(final @NotNull Container container) throws IOException {
+            if (container.list) this.writer.write(container.empty ? this.padding : ", ");
+            else if (container.inline) this.writer.write(container.empty ? " " : ", ");
+            else for (int i = 1; i < this.containers.size(); i++) {
+                this.tomlWriter.writeKey(String.valueOf(this.containers.get(i).key));
+                this.writer.write('.');
+            }
+            container.empty = false;
+            if (container.list) return;
+            if (this.key == null) throw new IllegalStateException("Missing key for value");
+            this.tomlWriter.writeKey(this.key);
+            this.writer.write(" = ");
+        }
+
+        private @Nullable Container getParent() {
+            return this.containers.isEmpty() ? null : this.containers.get(this.containers.size() - 1);
+        }
+    }
+
+    /**
+     * A section or a list being written.
+     */
+    private static final class Container {
+        private final @Nullable String key;
+        private final boolean list;
+        private final boolean inline;
+        private boolean empty = true;
+
+        private Container(final @Nullable String key, final boolean list, final boolean inline) {
+            this.key = key;
+            this.list = list;
+            this.inline = inline;
+        }
+    }
+}
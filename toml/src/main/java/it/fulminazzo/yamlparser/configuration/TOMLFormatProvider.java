@@ -0,0 +1,34 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link ConfigurationFormatProvider} of TOML files, implemented by {@link TOMLConfiguration}.
+ */
+public final class TOMLFormatProvider implements ConfigurationFormatProvider {
+
+    @Override
+    public @NotNull String getName() {
+        return "toml";
+    }
+
+    @Override
+    public @NotNull Class<? extends FileConfiguration> getConfigurationClass() {
+        return TOMLConfiguration.class;
+    }
+
+    @Override
+    public String @NotNull [] getExtensions() {
+        return new String[]{"toml"};
+    }
+
+    @Override
+    public @NotNull ConfigurationEventStream getEventStream() {
+        return new TOMLEventStream();
+    }
+
+    @Override
+    public int getPriority() {
+        return 30;
+    }
+}
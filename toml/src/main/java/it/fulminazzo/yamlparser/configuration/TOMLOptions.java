@@ -0,0 +1,67 @@
+package it.fulminazzo.yamlparser.configuration;
+
+/**
+ * The options used by every TOML configuration.
+ * They are read every time a file is saved.
+ */
+public final class TOMLOptions {
+    private static volatile int valuesIndentation = 0;
+    private static volatile int tablesIndentation = 0;
+    private static volatile int arrayDelimiterPadding = 0;
+
+    private TOMLOptions() {}
+
+    /**
+     * Gets the number of spaces used to indent the values of a table.
+     *
+     * @return the values indentation
+     */
+    public static int getValuesIndentation() {
+        return valuesIndentation;
+    }
+
+    /**
+     * Sets the number of spaces used to indent the values of a table.
+     *
+     * @param valuesIndentation the values indentation
+     */
+    public static void setValuesIndentation(final int valuesIndentation) {
+        TOMLOptions.valuesIndentation = valuesIndentation;
+    }
+
+    /**
+     * Gets the number of spaces used to indent nested tables.
+     *
+     * @return the tables indentation
+     */
+    public static int getTablesIndentation() {
+        return tablesIndentation;
+    }
+
+    /**
+     * Sets the number of spaces used to indent nested tables.
+     *
+     * @param tablesIndentation the tables indentation
+     */
+    public static void setTablesIndentation(final int tablesIndentation) {
+        TOMLOptions.tablesIndentation = tablesIndentation;
+    }
+
+    /**
+     * Gets the number of spaces written after the opening and before the closing bracket of an array.
+     *
+     * @return the array delimiter padding
+     */
+    public static int getArrayDelimiterPadding() {
+        return arrayDelimiterPadding;
+    }
+
+    /**
+     * Sets the number of spaces written after the opening and before the closing bracket of an array.
+     *
+     * @param arrayDelimiterPadding the array delimiter padding
+     */
+    public static void setArrayDelimiterPadding(final int arrayDelimiterPadding) {
+        TOMLOptions.arrayDelimiterPadding = arrayDelimiterPadding;
+    }
+}
@@ -0,0 +1,699 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * A streaming TOML parser, that reads the characters of a {@link Reader} only once
+ * and builds the resulting maps and lists directly.
+ * <p>
+ * Integers are read as {@link Long}, floats as {@link Double},
+ * offset date-times as {@link Date} and local dates and times as their <code>java.time</code> counterparts.
+ * Arrays of only integers or only floats are read in a {@link NumericList}, without boxing their elements.
+ * Parsing errors are reported with an {@link IllegalStateException}.
+ */
+final class TOMLReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final @NotNull Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int column = 1;
+
+    private final Set<Object> definedTables = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> inlineTables = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> tableArrays = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // The state of the event mode
+    private final List<Table> openTables = new ArrayList<>();
+    private final List<String> openKeys = new ArrayList<>();
+    private final Set<List<Object>> closedTables = new HashSet<>();
+
+    private TOMLReader(final @NotNull Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the whole TOML document of the given reader.
+     *
+     * @param reader the reader
+     * @return the map
+     * @throws IOException an exception thrown while reading
+     */
+    static @NotNull Map<String, Object> read(final @NotNull Reader reader) throws IOException {
+        return new TOMLReader(reader).readDocument();
+    }
+
+    /**
+     * Reads the TOML document of the given reader, passing its events to the given handler.
+     * Tables are passed as soon as their header is read, so every table must be defined in a single block:
+     * once a table is closed by a header or a dotted key outside of it, it cannot be extended anymore.
+     * Arrays and inline tables are read whole before being passed.
+     *
+     * @param reader  the reader
+     * @param handler the handler
+     * @throws IOException an exception thrown while reading or by the handler
+     */
+    static void read(final @NotNull Reader reader, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        new TOMLReader(reader).readEvents(handler);
+    }
+
+    private @NotNull Map<String, Object> readDocument() throws IOException {
+        final Map<String, Object> root = new LinkedHashMap<>();
+        Map<String, Object> current = root;
+        if (peek() == '\uFEFF') next();
+        while (true) {
+            skipBlanks();
+            if (peek() == -1) return root;
+            if (peek() == '[') {
+                next();
+                final boolean array = peek() == '[';
+                if (array) next();
+                final List<String> keys = readKey();
+                expect(']');
+                if (array) {
+                    expect(']');
+                    current = appendTable(root, keys);
+                } else current = openTable(root, keys);
+            } else readKeyValue(current);
+            endLine();
+        }
+    }
+
+    private void readEvents(final @NotNull ConfigurationEventHandler handler) throws IOException {
+        handler.startSection();
+        if (peek() == '\uFEFF') next();
+        while (true) {
+            skipBlanks();
+            if (peek() == -1) break;
+            if (peek() == '[') {
+                next();
+                final boolean array = peek() == '[';
+                if (array) next();
+                final List<String> keys = readKey();
+                expect(']');
+                if (array) expect(']');
+                startTable(keys, array, handler);
+            } else readKeyValue(handler);
+            endLine();
+        }
+        closeKeys(0, handler);
+        closeTables(0, handler);
+        handler.end();
+    }
+
+    /**
+     * Starts the table of the given header, closing the open tables that are not its parents.
+     */
+    private void startTable(final @NotNull List<String> keys, final boolean array,
+                            final @NotNull ConfigurationEventHandler handler) throws IOException {
+        closeKeys(0, handler);
+        int common = 0;
+        while (common < keys.size() && common < this.openTables.size() &&
+                this.openTables.get(common).key.equals(keys.get(common))) common++;
+        closeTables(common, handler);
+        if (common == keys.size()) {
+            final Table table = this.openTables.get(common - 1);
+            if (array) {
+                if (!table.array) throw error("Key " + String.join(".", keys) + " is already defined");
+                table.elements++;
+                handler.end();
+                handler.startSection();
+            } else {
+                if (table.array || table.defined) throw error("Table " + String.join(".", keys) + " is defined twice");
+                table.defined = true;
+            }
+            return;
+        }
+        for (int i = common; i < keys.size(); i++) {
+            if (this.closedTables.contains(getPath(keys, i, i + 1)))
+                throw error("Table " + String.join(".", keys.subList(0, i + 1)) + " must be defined in a single block to be streamed");
+            final boolean last = i == keys.size() - 1;
+            handler.key(keys.get(i));
+            if (last && array) handler.startList();
+            handler.startSection();
+            this.openTables.add(new Table(keys.get(i), last && array, last));
+        }
+    }
+
+    /**
+     * Reads a key-value pair, closing the tables of the previous dotted key that are not its parents.
+     */
+    private void readKeyValue(final @NotNull ConfigurationEventHandler handler) throws IOException {
+        final List<String> keys = readKey();
+        expect('=');
+        skipSpaces();
+        final Object value = readValue();
+        int common = 0;
+        while (common < keys.size() - 1 && common < this.openKeys.size() &&
+                this.openKeys.get(common).equals(keys.get(common))) common++;
+        closeKeys(common, handler);
+        for (int i = common; i < keys.size(); i++) {
+            if (!this.closedTables.isEmpty() && this.closedTables.contains(getPath(keys, 0, i + 1)))
+                throw error("Key " + String.join(".", keys.subList(0, i + 1)) + " must be defined in a single block to be streamed");
+            handler.key(keys.get(i));
+            if (i == keys.size() - 1) break;
+            handler.startSection();
+            this.openKeys.add(keys.get(i));
+        }
+        ConfigurationEvents.emit(value, handler);
+    }
+
+    private void closeTables(final int size, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        while (this.openTables.size() > size) {
+            final Table table = this.openTables.remove(this.openTables.size() - 1);
+            this.closedTables.add(getPath(Collections.singletonList(table.key), 0, 1));
+            handler.end();
+            if (table.array) handler.end();
+        }
+    }
+
+    private void closeKeys(final int size, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        while (this.openKeys.size() > size) {
+            this.closedTables.add(getPath(this.openKeys, 0, this.openKeys.size()));
+            this.openKeys.remove(this.openKeys.size() - 1);
+            handler.end();
+        }
+    }
+
+    /**
+     * Gets the full path of the given keys, relative to the open tables.
+     * Open arrays of tables are followed by the index of their current table,
+     * so that the tables of different elements have different paths.
+     */
+    private @NotNull List<Object> getPath(final @NotNull List<String> keys, final int from, final int to) {
+        final List<Object> path = new ArrayList<>(this.openTables.size() * 2 + to - from);
+        for (Table table : this.openTables) {
+            path.add(table.key);
+            if (table.array) path.add(table.elements);
+        }
+        path.addAll(keys.subList(from, to));
+        return path;
+    }
+
+    private @NotNull Map<String, Object> openTable(final @NotNull Map<String, Object> root,
+                                                   final @NotNull List<String> keys) {
+        final Map<String, Object> table = getTable(root, keys, keys.size());
+        if (!this.definedTables.add(table)) throw error("Table " + String.join(".", keys) + " is defined twice");
+        return table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull Map<String, Object> appendTable(final @NotNull Map<String, Object> root,
+                                                     final @NotNull List<String> keys) {
+        final Map<String, Object> parent = getTable(root, keys, keys.size() - 1);
+        final String key = keys.get(keys.size() - 1);
+        final Object value = parent.get(key);
+        final List<Object> array;
+        if (value == null) {
+            array = new ArrayList<>();
+            this.tableArrays.add(array);
+            parent.put(key, array);
+        } else if (this.tableArrays.contains(value)) array = (List<Object>) value;
+        else throw error("Key " + String.join(".", keys) + " is already defined");
+        final Map<String, Object> table = new LinkedHashMap<>();
+        array.add(table);
+        this.definedTables.add(table);
+        return table;
+    }
+
+    /**
+     * Gets the table found at the given keys, creating the missing ones.
+     * For arrays of tables, the last table is used.
+     */
+    @SuppressWarnings("unchecked")
+    private @NotNull Map<String, Object> getTable(@NotNull Map<String, Object> table,
+                                                  final @NotNull List<String> keys, final int size) {
+        for (int i = 0; i < size; i++) {
+            final String key = keys.get(i);
+            Object value = table.get(key);
+            if (value == null) {
+                value = new LinkedHashMap<>();
+                table.put(key, value);
+            } else if (this.tableArrays.contains(value)) {
+                final List<Object> array = (List<Object>) value;
+                value = array.get(array.size() - 1);
+            }
+            if (!(value instanceof Map) || this.inlineTables.contains(value))
+                throw error("Key " + String.join(".", keys.subList(0, i + 1)) + " is not a table");
+            table = (Map<String, Object>) value;
+        }
+        return table;
+    }
+
+    private void readKeyValue(final @NotNull Map<String, Object> table) throws IOException {
+        final List<String> keys = readKey();
+        expect('=');
+        skipSpaces();
+        final Object value = readValue();
+        final Map<String, Object> parent = getTable(table, keys, keys.size() - 1);
+        final String key = keys.get(keys.size() - 1);
+        if (parent.containsKey(key)) throw error("Key " + String.join(".", keys) + " is already defined");
+        parent.put(key, value);
+    }
+
+    private @NotNull List<String> readKey() throws IOException {
+        final List<String> keys = new ArrayList<>(2);
+        while (true) {
+            skipSpaces();
+            final int c = peek();
+            if (c == '"') {
+                next();
+                keys.add(readBasicString());
+            } else if (c == '\'') {
+                next();
+                keys.add(readLiteralString());
+            } else {
+                final StringBuilder key = new StringBuilder();
+                while (isBareKeyChar(peek())) key.append((char) next());
+                if (key.length() == 0) throw error("Expected a key");
+                keys.add(key.toString());
+            }
+            skipSpaces();
+            if (peek() != '.') return keys;
+            next();
+        }
+    }
+
+    private @NotNull Object readValue() throws IOException {
+        final int c = peek();
+        switch (c) {
+            case '"':
+                if (peek(1) == '"' && peek(2) == '"') {
+                    skip(3);
+                    return readMultilineString(true);
+                }
+                next();
+                return readBasicString();
+            case '\'':
+                if (peek(1) == '\'' && peek(2) == '\'') {
+                    skip(3);
+                    return readMultilineString(false);
+                }
+                next();
+                return readLiteralString();
+            case '[':
+                next();
+                return readArray();
+            case '{':
+                next();
+                return readInlineTable();
+            default:
+                return readScalar();
+        }
+    }
+
+    /**
+     * Reads an array.
+     * Arrays made only of decimal integers or only of decimal floats are read in a {@link NumericList}.
+     */
+    private @NotNull List<?> readArray() throws IOException {
+        NumericList<?> numbers = null;
+        List<Object> array = null;
+        while (true) {
+            skipBlanks();
+            if (peek() == ']') {
+                next();
+                break;
+            }
+            if (array == null && isNumberStart(peek())) {
+                final String token = readScalarToken();
+                if (numbers == null) {
+                    if (isInteger(token)) numbers = new NumericList.OfLong();
+                    else if (isFloat(token)) numbers = new NumericList.OfDouble();
+                }
+                if (!addNumber(numbers, token)) {
+                    array = numbers == null ? new ArrayList<>() : new ArrayList<>(numbers);
+                    array.add(parseScalar(token));
+                }
+            } else {
+                if (array == null) array = numbers == null ? new ArrayList<>() : new ArrayList<>(numbers);
+                array.add(readValue());
+            }
+            skipBlanks();
+            final int c = next();
+            if (c == ']') break;
+            if (c != ',') throw error("Expected , or ] in array");
+        }
+        if (array != null) return array;
+        return numbers == null ? new ArrayList<>() : numbers;
+    }
+
+    /**
+     * Appends the given token to the given list, if it is a number of the same kind.
+     *
+     * @return true if it was appended
+     */
+    private boolean addNumber(final @Nullable NumericList<?> numbers, final @NotNull String token) {
+        try {
+            if (numbers instanceof NumericList.OfLong && isInteger(token))
+                ((NumericList.OfLong) numbers).addLong(Long.parseLong(token.replace("_", "")));
+            else if (numbers instanceof NumericList.OfDouble && isFloat(token))
+                ((NumericList.OfDouble) numbers).addDouble(Double.parseDouble(token.replace("_", "")));
+            else return false;
+            return true;
+        } catch (NumberFormatException e) {
+            throw error("Invalid value " + token);
+        }
+    }
+
+    private static boolean isNumberStart(final int c) {
+        return isDigit(c) || c == '+' || c == '-';
+    }
+
+    /**
+     * Checks if the given token is a decimal integer.
+     */
+    private static boolean isInteger(final @NotNull String token) {
+        if (token.length() > 2 && token.charAt(0) == '0' && "xob".indexOf(token.charAt(1)) != -1) return false;
+        for (int i = 0; i < token.length(); i++) {
+            final char c = token.charAt(i);
+            if (!(isDigit(c) || c == '_' || i == 0 && (c == '+' || c == '-'))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the given token is a finite decimal float.
+     */
+    private static boolean isFloat(final @NotNull String token) {
+        boolean decimal = false;
+        for (int i = 0; i < token.length(); i++) {
+            final char c = token.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') decimal = true;
+            else if (!(isDigit(c) || c == '_' || c == '+' || c == '-')) return false;
+        }
+        return decimal;
+    }
+
+    private @NotNull Map<String, Object> readInlineTable() throws IOException {
+        final Map<String, Object> table = new LinkedHashMap<>();
+        skipSpaces();
+        if (peek() == '}') next();
+        else
+            while (true) {
+                readKeyValue(table);
+                skipSpaces();
+                final int c = next();
+                if (c == '}') break;
+                if (c != ',') throw error("Expected , or } in inline table");
+            }
+        this.inlineTables.add(table);
+        return table;
+    }
+
+    private @NotNull String readBasicString() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        while (true) {
+            final int c = next();
+            if (c == '"') return builder.toString();
+            else if (c == '\\') readEscape(builder);
+            else if (c == -1 || c == '\n' || c == '\r') throw error("Unterminated string");
+            else builder.append((char) c);
+        }
+    }
+
+    private @NotNull String readLiteralString() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        while (true) {
+            final int c = next();
+            if (c == '\'') return builder.toString();
+            else if (c == -1 || c == '\n' || c == '\r') throw error("Unterminated string");
+            else builder.append((char) c);
+        }
+    }
+
+    /**
+     * Reads a multiline string, after its opening delimiter.
+     * A newline immediately following the delimiter is trimmed.
+     *
+     * @param basic if the string is basic (<code>"""</code>) or literal (<code>'''</code>)
+     */
+    private @NotNull String readMultilineString(final boolean basic) throws IOException {
+        final char delimiter = basic ? '"' : '\'';
+        final StringBuilder builder = new StringBuilder();
+        if (peek() == '\r' && peek(1) == '\n') skip(2);
+        else if (peek() == '\n') next();
+        while (true) {
+            final int c = peek();
+            if (c == -1) throw error("Unterminated string");
+            if (c == delimiter && peek(1) == delimiter && peek(2) == delimiter) {
+                int quotes = 3;
+                while (quotes < 5 && peek(quotes) == delimiter) quotes++;
+                for (int i = 3; i < quotes; i++) builder.append(delimiter);
+                skip(quotes);
+                return builder.toString();
+            }
+            next();
+            if (basic && c == '\\') {
+                if (isWhitespace(peek()) || peek() == '\n' || peek() == '\r') {
+                    while (isWhitespace(peek()) || peek() == '\n' || peek() == '\r') next();
+                } else readEscape(builder);
+            } else builder.append((char) c);
+        }
+    }
+
+    private void readEscape(final @NotNull StringBuilder builder) throws IOException {
+        final int c = next();
+        switch (c) {
+            case 'b':
+                builder.append('\b');
+                break;
+            case 't':
+                builder.append('\t');
+                break;
+            case 'n':
+                builder.append('\n');
+                break;
+            case 'f':
+                builder.append('\f');
+                break;
+            case 'r':
+                builder.append('\r');
+                break;
+            case '"':
+                builder.append('"');
+                break;
+            case '\\':
+                builder.append('\\');
+                break;
+            case 'u':
+                builder.appendCodePoint(readCodePoint(4));
+                break;
+            case 'U':
+                builder.appendCodePoint(readCodePoint(8));
+                break;
+            default:
+                throw error("Invalid escape sequence");
+        }
+    }
+
+    private int readCodePoint(final int length) throws IOException {
+        int codePoint = 0;
+        for (int i = 0; i < length; i++) {
+            final int digit = Character.digit(next(), 16);
+            if (digit == -1) throw error("Invalid unicode escape");
+            codePoint = codePoint * 16 + digit;
+        }
+        if (!Character.isValidCodePoint(codePoint)) throw error("Invalid unicode escape");
+        return codePoint;
+    }
+
+    /**
+     * Reads a boolean, a number or a date-time.
+     */
+    private @NotNull Object readScalar() throws IOException {
+        return parseScalar(readScalarToken());
+    }
+
+    private @NotNull String readScalarToken() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        while (isScalarChar(peek())) builder.append((char) next());
+        // A date can be separated from its time by a space
+        if (builder.length() == 10 && builder.charAt(4) == '-' && peek() == ' ' && isDigit(peek(1))) {
+            builder.append((char) next());
+            while (isScalarChar(peek())) builder.append((char) next());
+        }
+        return builder.toString();
+    }
+
+    private @NotNull Object parseScalar(final @NotNull String token) {
+        if (token.isEmpty()) throw error("Expected a value");
+        switch (token) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+            case "+nan":
+            case "-nan":
+                return Double.NaN;
+        }
+        try {
+            if (token.length() > 2 && token.charAt(0) == '0' && "xob".indexOf(token.charAt(1)) != -1)
+                return readRadixInteger(token);
+            if (isDateTime(token)) return readDateTime(token);
+            final String number = token.replace("_", "");
+            if (number.indexOf('.') != -1 || number.indexOf('e') != -1 || number.indexOf('E') != -1)
+                return Double.parseDouble(number);
+            return Long.parseLong(number);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw error("Invalid value " + token);
+        }
+    }
+
+    private @NotNull Long readRadixInteger(final @NotNull String token) {
+        final int radix;
+        switch (token.charAt(1)) {
+            case 'x':
+                radix = 16;
+                break;
+            case 'o':
+                radix = 8;
+                break;
+            case 'b':
+                radix = 2;
+                break;
+            default:
+                throw new NumberFormatException(token);
+        }
+        return Long.parseLong(token.substring(2).replace("_", ""), radix);
+    }
+
+    private static boolean isDateTime(final @NotNull String token) {
+        if (token.length() >= 8 && token.charAt(2) == ':') return isDigit(token.charAt(0)) && isDigit(token.charAt(1));
+        if (token.length() < 10 || token.charAt(4) != '-') return false;
+        for (int i = 0; i < 4; i++) if (!isDigit(token.charAt(i))) return false;
+        return true;
+    }
+
+    private static @NotNull Object readDateTime(@NotNull String token) {
+        if (token.charAt(2) == ':') return LocalTime.parse(token);
+        if (token.length() == 10) return LocalDate.parse(token);
+        token = token.substring(0, 10) + 'T' + token.substring(11);
+        final char last = token.charAt(token.length() - 1);
+        if (last == 'Z' || last == 'z') token = token.substring(0, token.length() - 1) + 'Z';
+        else if (token.lastIndexOf('+') == -1 && token.lastIndexOf('-') <= 10) return LocalDateTime.parse(token);
+        return Date.from(OffsetDateTime.parse(token).toInstant());
+    }
+
+    /**
+     * Skips the spaces, an eventual comment and the end of the current line.
+     */
+    private void endLine() throws IOException {
+        skipSpaces();
+        if (peek() == '#') skipComment();
+        final int c = next();
+        if (c == '\r' && peek() == '\n') next();
+        else if (c != '\n' && c != -1) throw error("Expected a new line");
+    }
+
+    /**
+     * Skips whitespaces, new lines and comments.
+     */
+    private void skipBlanks() throws IOException {
+        while (true) {
+            final int c = peek();
+            if (c == '#') skipComment();
+            else if (isWhitespace(c) || c == '\n' || c == '\r') next();
+            else return;
+        }
+    }
+
+    private void skipSpaces() throws IOException {
+        while (isWhitespace(peek())) next();
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && c != '\n' && c != '\r') next();
+    }
+
+    private void expect(final char expected) throws IOException {
+        skipSpaces();
+        if (next() != expected) throw error("Expected " + expected);
+    }
+
+    private int peek() throws IOException {
+        return peek(0);
+    }
+
+    private int peek(final int offset) throws IOException {
+        if (this.position + offset >= this.limit) fill(offset + 1);
+        return this.position + offset < this.limit ? this.buffer[this.position + offset] : -1;
+    }
+
+    private int next() throws IOException {
+        final int c = peek();
+        if (c == -1) return c;
+        this.position++;
+        if (c == '\n') {
+            this.line++;
+            this.column = 1;
+        } else this.column++;
+        return c;
+    }
+
+    private void skip(final int amount) throws IOException {
+        for (int i = 0; i < amount; i++) next();
+    }
+
+    private void fill(final int required) throws IOException {
+        final int remaining = this.limit - this.position;
+        if (this.position > 0) System.arraycopy(this.buffer, this.position, this.buffer, 0, remaining);
+        this.position = 0;
+        this.limit = remaining;
+        int read;
+        while (this.limit < required && (read = this.reader.read(this.buffer, this.limit, this.buffer.length - this.limit)) != -1)
+            this.limit += read;
+    }
+
+    private @NotNull IllegalStateException error(final @NotNull String message) {
+        return new IllegalStateException(String.format("%s at line %s, column %s", message, this.line, this.column));
+    }
+
+    private static boolean isBareKeyChar(final int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c) || c == '_' || c == '-';
+    }
+
+    private static boolean isScalarChar(final int c) {
+        return isBareKeyChar(c) || c == '+' || c == '.' || c == ':';
+    }
+
+    private static boolean isDigit(final int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(final int c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * A table opened by a header, while reading in event mode.
+     */
+    private static final class Table {
+        private final @NotNull String key;
+        private final boolean array;
+        private boolean defined;
+        private int elements;
+
+        private Table(final @NotNull String key, final boolean array, final boolean defined) {
+            this.key = key;
+            this.array = array;
+            this.defined = defined;
+        }
+    }
+}
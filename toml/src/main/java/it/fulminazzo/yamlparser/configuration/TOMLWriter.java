@@ -0,0 +1,261 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import it.fulminazzo.fulmicollection.utils.SerializeUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * A streaming TOML writer, that writes every value directly to a {@link Writer} without using reflection.
+ * <p>
+ * The values of a table are written before its sub-tables, which are written as <code>[table]</code> headers.
+ * Lists of tables are written as arrays of tables, while tables inside other lists are written inline.
+ * Values that TOML cannot represent natively are written as strings, encoded with their {@link ValueCodec}
+ * or, as a last resort, serialized in Base64. Null values are skipped.
+ * <p>
+ * Dates and times are written as the four TOML kinds, always with their seconds:
+ * offset date-times ({@link Date}, {@link Instant}, {@link OffsetDateTime} and {@link ZonedDateTime}, without its zone),
+ * local date-times, local dates and local times. Any other temporal is written as a string.
+ */
+final class TOMLWriter {
+    private final @NotNull Writer writer;
+    private final int valuesIndentation;
+    private final int tablesIndentation;
+    private final int arrayDelimiterPadding;
+    private boolean empty = true;
+
+    /**
+     * Instantiates a new TOML writer with the current {@link TOMLOptions}.
+     *
+     * @param writer the writer
+     */
+    TOMLWriter(final @NotNull Writer writer) {
+        this.writer = writer;
+        this.valuesIndentation = TOMLOptions.getValuesIndentation();
+        this.tablesIndentation = TOMLOptions.getTablesIndentation();
+        this.arrayDelimiterPadding = TOMLOptions.getArrayDelimiterPadding();
+    }
+
+    /**
+     * Writes the given data as a TOML document.
+     *
+     * @param data the data
+     * @throws IOException an exception thrown while writing
+     */
+    void write(final @NotNull Map<?, ?> data) throws IOException {
+        writeTable(new ArrayList<>(), data, false);
+        this.writer.flush();
+    }
+
+    private void writeTable(final @NotNull List<String> path, final @NotNull Map<?, ?> table,
+                            final boolean arrayElement) throws IOException {
+        final String indentation;
+        if (path.isEmpty()) indentation = "";
+        else {
+            final String headerIndentation = indent(this.tablesIndentation * (path.size() - 1));
+            if (!this.empty) this.writer.write('\n');
+            this.writer.write(headerIndentation);
+            this.writer.write(arrayElement ? "[[" : "[");
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) this.writer.write('.');
+                writeKey(path.get(i));
+            }
+            this.writer.write(arrayElement ? "]]\n" : "]\n");
+            this.empty = false;
+            indentation = headerIndentation + indent(this.valuesIndentation);
+        }
+
+        for (Map.Entry<?, ?> entry : table.entrySet()) {
+            final Object value = unwrap(entry.getValue());
+            if (value == null || isTable(value) || isTableArray(value)) continue;
+            this.writer.write(indentation);
+            writeKey(entry.getKey().toString());
+            this.writer.write(" = ");
+            writeValue(value);
+            this.writer.write('\n');
+            this.empty = false;
+        }
+
+        for (Map.Entry<?, ?> entry : table.entrySet()) {
+            final Object value = unwrap(entry.getValue());
+            if (isTable(value)) {
+                path.add(entry.getKey().toString());
+                writeTable(path, (Map<?, ?>) value, false);
+                path.remove(path.size() - 1);
+            } else if (isTableArray(value)) {
+                path.add(entry.getKey().toString());
+                for (Object element : toIterable(value)) writeTable(path, (Map<?, ?>) unwrap(element), true);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    void writeValue(final @NotNull Object value) throws IOException {
+        if (value instanceof String) writeString((String) value);
+        else if (value instanceof Character) writeString(value.toString());
+        else if (value instanceof Boolean) this.writer.write(value.toString());
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            this.writer.write(value.toString());
+        else if (value instanceof Double || value instanceof Float) writeFloat(((Number) value).doubleValue(), value);
+        else if (value instanceof Date)
+            this.writer.write(DateTimeFormatter.ISO_INSTANT.format(((Date) value).toInstant()));
+        else if (value instanceof TemporalAccessor && !(value instanceof Enum)) writeTemporal((TemporalAccessor) value);
+        else if (value instanceof Map) writeInlineTable((Map<?, ?>) value);
+        else if (value instanceof Iterable || value.getClass().isArray()) writeArray(toIterable(value));
+        else if (value instanceof Enum) writeString(((Enum<?>) value).name());
+        else writeString(encode(value));
+    }
+
+    private void writeTemporal(final @NotNull TemporalAccessor value) throws IOException {
+        if (value instanceof Instant) this.writer.write(DateTimeFormatter.ISO_INSTANT.format(value));
+        else if (value instanceof OffsetDateTime || value instanceof ZonedDateTime)
+            this.writer.write(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value));
+        else if (value instanceof LocalDateTime) this.writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        else if (value instanceof LocalDate) this.writer.write(DateTimeFormatter.ISO_LOCAL_DATE.format(value));
+        else if (value instanceof LocalTime) this.writer.write(DateTimeFormatter.ISO_LOCAL_TIME.format(value));
+        else {
+            @SuppressWarnings("unchecked")
+            final ValueCodec<Object> codec = (ValueCodec<Object>) ValueCodecs.getCodec(value.getClass());
+            writeString(codec == null ? value.toString() : codec.encode(value));
+        }
+    }
+
+    private void writeFloat(final double number, final @NotNull Object value) throws IOException {
+        if (Double.isNaN(number)) this.writer.write("nan");
+        else if (Double.isInfinite(number)) this.writer.write(number > 0 ? "inf" : "-inf");
+        else this.writer.write(value.toString());
+    }
+
+    private void writeArray(final @NotNull Iterable<?> array) throws IOException {
+        final String padding = indent(this.arrayDelimiterPadding);
+        this.writer.write('[');
+        boolean first = true;
+        for (Object element : array) {
+            element = unwrap(element);
+            if (element == null) continue;
+            this.writer.write(first ? padding : ", ");
+            writeValue(element);
+            first = false;
+        }
+        if (!first) this.writer.write(padding);
+        this.writer.write(']');
+    }
+
+    private void writeInlineTable(final @NotNull Map<?, ?> table) throws IOException {
+        this.writer.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : table.entrySet()) {
+            final Object value = unwrap(entry.getValue());
+            if (value == null) continue;
+            this.writer.write(first ? " " : ", ");
+            writeKey(entry.getKey().toString());
+            this.writer.write(" = ");
+            writeValue(value);
+            first = false;
+        }
+        this.writer.write(first ? "}" : " }");
+    }
+
+    void writeKey(final @NotNull String key) throws IOException {
+        if (isBareKey(key)) this.writer.write(key);
+        else writeString(key);
+    }
+
+    private void writeString(final @NotNull String string) throws IOException {
+        this.writer.write('"');
+        int start = 0;
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            final String escape = escape(c);
+            if (escape == null) continue;
+            this.writer.write(string, start, i - start);
+            this.writer.write(escape);
+            start = i + 1;
+        }
+        this.writer.write(string, start, string.length() - start);
+        this.writer.write('"');
+    }
+
+    private static @Nullable String escape(final char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\b':
+                return "\\b";
+            case '\t':
+                return "\\t";
+            case '\n':
+                return "\\n";
+            case '\f':
+                return "\\f";
+            case '\r':
+                return "\\r";
+            default:
+                return c < 0x20 || c == 0x7F ? String.format("\\u%04X", (int) c) : null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull String encode(final @NotNull Object value) {
+        final ValueCodec<Object> codec = (ValueCodec<Object>) ValueCodecs.getCodec(value.getClass());
+        if (codec != null) return codec.encode(value);
+        try {
+            String serialized = SerializeUtils.serializeToBase64(value);
+            if (serialized != null) return serialized;
+        } catch (Exception ignored) {}
+        return value.toString();
+    }
+
+    private static @Nullable Object unwrap(final @Nullable Object value) {
+        return value instanceof IConfiguration ? ((IConfiguration) value).toMap() : value;
+    }
+
+    private static boolean isTable(final @Nullable Object value) {
+        return value instanceof Map;
+    }
+
+    /**
+     * Checks if the given value is a non-empty list or array containing only tables.
+     */
+    private static boolean isTableArray(final @Nullable Object value) {
+        if (value == null || !(value instanceof Iterable || value.getClass().isArray())) return false;
+        if (value.getClass().isArray() && value.getClass().getComponentType().isPrimitive()) return false;
+        final Iterator<?> iterator = toIterable(value).iterator();
+        if (!iterator.hasNext()) return false;
+        while (iterator.hasNext()) if (!isTable(unwrap(iterator.next()))) return false;
+        return true;
+    }
+
+    private static @NotNull Iterable<?> toIterable(final @NotNull Object value) {
+        if (value instanceof Iterable) return (Iterable<?>) value;
+        final int length = Array.getLength(value);
+        final List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) list.add(Array.get(value, i));
+        return list;
+    }
+
+    private static boolean isBareKey(final @NotNull String key) {
+        if (key.isEmpty()) return false;
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-'))
+                return false;
+        }
+        return true;
+    }
+
+    static @NotNull String indent(final int spaces) {
+        final char[] chars = new char[spaces];
+        Arrays.fill(chars, ' ');
+        return new String(chars);
+    }
+}
@@ -1,5 +1,15 @@
 package it.fulminazzo.yamlparser.configuration;
 
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TOMLConfigurationTest extends AFileConfigurationTest {
@@ -7,4 +17,203 @@ class TOMLConfigurationTest extends AFileConfigurationTest {
     public TOMLConfigurationTest() {
         super("toml");
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamingLoad() throws Exception {
+        Map<String, Object> map = TOMLReader.read(new StringReader("# A comment\n" +
+                "title = \"TOML \\\"test\\\" \\u00e8\" # Trailing comment\n" +
+                "literal = 'C:\\Users'\n" +
+                "multiline = \"\"\"\nfirst \\\n   second\"\"\"\n" +
+                "raw = '''\nno \\n escape'''\n" +
+                "numbers = [ 1_000, 0xff, 0o17, 0b101, -3, +4,\n  6.5e-1, inf, # comment\n]\n" +
+                "date = 1979-05-27T07:32:00Z\n" +
+                "local-date-time = 1979-05-27 07:32:00\n" +
+                "local-date = 1979-05-27\n" +
+                "local-time = 07:32:00\n" +
+                "site.\"google.com\" = true\n" +
+                "point = { x = 1, y = { z = 2 } }\n" +
+                "\n[server]\nhost = \"localhost\"\n" +
+                "[[products]]\nname = \"Hammer\"\n[products.details]\nweight = 1.5\n" +
+                "[[products]]\nname = \"Nail\"\n"));
+
+        assertEquals("TOML \"test\" è", map.get("title"));
+        assertEquals("C:\\Users", map.get("literal"));
+        assertEquals("first second", map.get("multiline"));
+        assertEquals("no \\n escape", map.get("raw"));
+        assertEquals(Arrays.asList(1000L, 255L, 15L, 5L, -3L, 4L, 0.65, Double.POSITIVE_INFINITY), map.get("numbers"));
+        assertEquals(Date.from(OffsetDateTime.parse("1979-05-27T07:32:00Z").toInstant()), map.get("date"));
+        assertEquals(LocalDateTime.parse("1979-05-27T07:32:00"), map.get("local-date-time"));
+        assertEquals(LocalDate.parse("1979-05-27"), map.get("local-date"));
+        assertEquals(LocalTime.parse("07:32:00"), map.get("local-time"));
+        assertEquals(Collections.singletonMap("google.com", true), map.get("site"));
+        assertEquals(2L, ((Map<String, Object>) ((Map<String, Object>) map.get("point")).get("y")).get("z"));
+        assertEquals(Collections.singletonMap("host", "localhost"), map.get("server"));
+
+        List<Map<String, Object>> products = (List<Map<String, Object>>) map.get("products");
+        assertEquals(2, products.size());
+        assertEquals(Collections.singletonMap("weight", 1.5), products.get(0).get("details"));
+        assertEquals("Nail", products.get(1).get("name"));
+    }
+
+    @Test
+    void testNumericArrays() throws Exception {
+        Map<String, Object> map = TOMLReader.read(new StringReader("longs = [1, -2, 3_000]\n" +
+                "doubles = [0.5, 1e3]\nmixed = [1, 2.5]\nradix = [1, 0xff]\n"));
+        assertInstanceOf(NumericList.OfLong.class, map.get("longs"));
+        assertEquals(Arrays.asList(1L, -2L, 3000L), map.get("longs"));
+        assertInstanceOf(NumericList.OfDouble.class, map.get("doubles"));
+        assertEquals(Arrays.asList(0.5, 1000d), map.get("doubles"));
+        assertEquals(Arrays.asList(1L, 2.5), map.get("mixed"));
+        assertFalse(map.get("mixed") instanceof NumericList);
+        assertEquals(Arrays.asList(1L, 255L), map.get("radix"));
+        assertThrowsExactly(IllegalStateException.class, () -> TOMLReader.read(new StringReader("a = [1, 2-]")));
+    }
+
+    @Test
+    void testStreamingLoadErrors() {
+        assertThrowsExactly(IllegalStateException.class, () -> TOMLReader.read(new StringReader("a = 1\na = 2")));
+        assertThrowsExactly(IllegalStateException.class, () -> TOMLReader.read(new StringReader("[a]\n[a]")));
+        assertThrowsExactly(IllegalStateException.class, () -> TOMLReader.read(new StringReader("a = \"unterminated")));
+        assertThrowsExactly(IllegalStateException.class, () -> TOMLReader.read(new StringReader("a = 1 b = 2")));
+        assertThrowsExactly(IllegalStateException.class, () -> TOMLReader.read(new StringReader("a = { b = 1 }\n[a]")));
+    }
+
+    @Test
+    void testStreamingLoadOfEmptyStream() {
+        FileConfiguration configuration = new TOMLConfiguration(new ByteArrayInputStream(new byte[0]));
+        assertTrue(configuration.getKeys().isEmpty());
+    }
+
+    @Test
+    void testStreamingDump() throws Exception {
+        Map<String, Object> server = new LinkedHashMap<>();
+        server.put("host", "localhost");
+        server.put("dotted.key", true);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "a \"quoted\"\nname");
+        data.put("server", server);
+        data.put("count", 10L);
+        data.put("ratio", 1.5d);
+        data.put("missing", null);
+        data.put("matrix", Arrays.asList(Arrays.asList(1, 2), new int[]{3}));
+        data.put("mixed", Arrays.asList(Collections.singletonMap("a", 1), 2));
+        data.put("users", Arrays.asList(Collections.singletonMap("id", 1), Collections.singletonMap("id", 2)));
+        data.put("empty", new HashMap<>());
+
+        StringWriter writer = new StringWriter();
+        new TOMLWriter(writer).write(data);
+        assertEquals("name = \"a \\\"quoted\\\"\\nname\"\n" +
+                "count = 10\n" +
+                "ratio = 1.5\n" +
+                "matrix = [[1, 2], [3]]\n" +
+                "mixed = [{ a = 1 }, 2]\n" +
+                "\n[server]\n" +
+                "host = \"localhost\"\n" +
+                "\"dotted.key\" = true\n" +
+                "\n[[users]]\nid = 1\n" +
+                "\n[[users]]\nid = 2\n" +
+                "\n[empty]\n", writer.toString());
+
+        Map<String, Object> read = TOMLReader.read(new StringReader(writer.toString()));
+        assertEquals(data.get("name"), read.get("name"));
+        assertEquals(server, read.get("server"));
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Collections.singletonList(3L)), read.get("matrix"));
+    }
+
+    @Test
+    void testTemporalsRoundTrip() throws Exception {
+        OffsetDateTime offset = OffsetDateTime.parse("1979-05-27T07:32:00+02:00");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("offset", offset);
+        data.put("zoned", offset.atZoneSameInstant(ZoneId.of("Europe/Rome")));
+        data.put("instant", offset.toInstant());
+        data.put("local-date-time", LocalDateTime.parse("1979-05-27T07:32"));
+        data.put("local-date", LocalDate.parse("1979-05-27"));
+        data.put("local-time", LocalTime.parse("10:15"));
+        data.put("nanos", LocalTime.parse("10:15:00.5"));
+        data.put("year-month", YearMonth.parse("1979-05"));
+        data.put("month-day", MonthDay.parse("--05-27"));
+        data.put("day", DayOfWeek.SUNDAY);
+
+        StringWriter writer = new StringWriter();
+        new TOMLWriter(writer).write(data);
+        assertEquals("offset = 1979-05-27T07:32:00+02:00\n" +
+                "zoned = 1979-05-27T07:32:00+02:00\n" +
+                "instant = 1979-05-27T05:32:00Z\n" +
+                "local-date-time = 1979-05-27T07:32:00\n" +
+                "local-date = 1979-05-27\n" +
+                "local-time = 10:15:00\n" +
+                "nanos = 10:15:00.5\n" +
+                "year-month = \"1979-05\"\n" +
+                "month-day = \"--05-27\"\n" +
+                "day = \"SUNDAY\"\n", writer.toString());
+
+        Map<String, Object> read = TOMLReader.read(new StringReader(writer.toString()));
+        Date date = Date.from(offset.toInstant());
+        assertEquals(date, read.get("offset"));
+        assertEquals(date, read.get("zoned"));
+        assertEquals(date, read.get("instant"));
+        assertEquals(data.get("local-date-time"), read.get("local-date-time"));
+        assertEquals(data.get("local-date"), read.get("local-date"));
+        assertEquals(data.get("local-time"), read.get("local-time"));
+        assertEquals(data.get("nanos"), read.get("nanos"));
+        assertEquals("1979-05", read.get("year-month"));
+        assertEquals("--05-27", read.get("month-day"));
+        assertEquals("SUNDAY", read.get("day"));
+    }
+
+    @Test
+    void testStreamingDumpWithOptions() throws Exception {
+        TOMLOptions.setValuesIndentation(2);
+        TOMLOptions.setTablesIndentation(4);
+        TOMLOptions.setArrayDelimiterPadding(1);
+        try {
+            Map<String, Object> child = Collections.singletonMap("list", Arrays.asList(1, 2));
+            Map<String, Object> parent = Collections.singletonMap("child", child);
+            StringWriter writer = new StringWriter();
+            new TOMLWriter(writer).write(Collections.singletonMap("parent", parent));
+            assertEquals("[parent]\n\n    [parent.child]\n      list = [ 1, 2 ]\n", writer.toString());
+        } finally {
+            TOMLOptions.setValuesIndentation(0);
+            TOMLOptions.setTablesIndentation(0);
+            TOMLOptions.setArrayDelimiterPadding(0);
+        }
+    }
+
+    @Test
+    void testStreamingLoadOfStreamWithoutAvailableBytes() {
+        byte[] data = "key = \"value\"".getBytes(StandardCharsets.UTF_8);
+        FileConfiguration configuration = new TOMLConfiguration(new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        });
+        assertEquals("value", configuration.getString("key"));
+    }
+
+    @Test
+    void testEventStreamRead() throws IOException {
+        String toml = "a = 1\n[b]\nc = [1, 2.5, \"x\"]\nd.e = true\nd.f = {}\n[b.g]\nh = 2001-12-14\n" +
+                "[[i]]\nj = 1\n[i.k]\nl = 2\n[[i]]\nj = 3\n[m]\n";
+        ConfigurationEvents.TreeBuilder builder = new ConfigurationEvents.TreeBuilder();
+        new TOMLEventStream().read(new ByteArrayInputStream(toml.getBytes(StandardCharsets.UTF_8)), builder);
+        assertEquals(TOMLReader.read(new StringReader(toml)), builder.getRoot());
+
+        assertThrowsExactly(IllegalStateException.class, () -> new TOMLEventStream().read(new ByteArrayInputStream(
+                "[a]\nb = 1\n[c]\n[a.d]\n".getBytes(StandardCharsets.UTF_8)), new ConfigurationEvents.TreeBuilder()));
+    }
+
+    @Test
+    void testEventStreamWrite() throws IOException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("a", 1L);
+        data.put("b", Collections.singletonMap("c", Collections.singletonMap("d", "text")));
+        data.put("list", Arrays.asList(Collections.singletonMap("e", 2.5d), Arrays.asList(1L, 2L)));
+        data.put("empty", Collections.emptyMap());
+        StringWriter writer = new StringWriter();
+        ConfigurationEvents.emit(data, new TOMLEventStream().newWriter(writer));
+        assertEquals(data, TOMLReader.read(new StringReader(writer.toString())));
+    }
+}
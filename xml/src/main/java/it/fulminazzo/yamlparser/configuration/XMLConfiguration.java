@@ -5,31 +5,31 @@ import it.fulminazzo.fulmicollection.utils.SerializeUtils;
 import it.fulminazzo.tagparser.markup.INodeObject;
 import it.fulminazzo.tagparser.nodes.ContainerNode;
 import it.fulminazzo.tagparser.nodes.Node;
-import it.fulminazzo.tagparser.nodes.exceptions.EmptyNodeException;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.Writer;
+import javax.xml.stream.*;
+import java.io.*;
 import java.util.*;
 
 /**
  * An implementation of {@link FileConfiguration} to support XML files.
  */
-@SuppressWarnings("unchecked")
-@Getter
-class XMLConfiguration extends FileConfiguration implements INodeObject {
+class XMLConfiguration extends ManagedFileConfiguration implements INodeObject {
     /**
      * This value will be used when saving lists.
      * Since XML cannot accept tags of the format &lt;\d+&gt;, this will be prepended to the tag name.
      */
-    private static final String PADDING = "pre";
-    private static final String COLLECTION_ID = "collection";
+    static final String PADDING = "pre";
+    static final String COLLECTION_ID = "collection";
     private static final String VALUE_CLASS = "value-class";
-    private Node rootNode;
+    /**
+     * The attribute holding the name of the {@link ValueCodec} used to write the text of an element.
+     */
+    static final String CODEC = "codec";
+    static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+    static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
 
     /**
      * Instantiates a new Xml configuration.
@@ -68,111 +68,192 @@ class XMLConfiguration extends FileConfiguration implements INodeObject {
         super(file, inputStream);
     }
 
+    /**
+     * Reads the stream with a {@link XMLStreamReader}, converting every element to its final value
+     * as soon as it is closed, so that the document is read in a single pass.
+     * Elements with the {@link #CODEC} attribute are decoded with the corresponding {@link ValueCodec}.
+     * The data of a {@link PreloadedInputStream} is returned as it is.
+     *
+     * @param stream the stream
+     * @return the map
+     */
     @Override
     protected Map<?, ?> load(@NotNull InputStream stream) {
+        return ConfigurationMetrics.load("xml", stream, this::parse);
+    }
+
+    private Map<?, ?> parse(@NotNull InputStream stream) {
+        if (stream instanceof PreloadedInputStream) return ((PreloadedInputStream) stream).getData();
         try {
-            this.rootNode = Node.newNode(stream);
-        } catch (EmptyNodeException e) {
-            return new HashMap<>();
-        }
-        if (this.rootNode instanceof ContainerNode) {
-            Node child = ((ContainerNode) this.rootNode).getChild();
-            if (child != null && this.rootNode.getTagName().equals("root"))
-                this.rootNode = child;
+            InputStream input = stream.markSupported() ? stream : new BufferedInputStream(stream);
+            if (skipWhitespaces(input)) return new HashMap<>();
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+            try {
+                return readDocument(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException(e);
         }
-        Map<?, ?> output = toMap(this.rootNode, true);
-        if (output.isEmpty()) return output;
-
-        parseMap((Map<Object, Object>) output);
-
-        return output;
     }
 
+    /**
+     * Writes the data element by element with a {@link XMLStreamWriter},
+     * using the same format of {@link #getRootNode()} without building it.
+     *
+     * @param data   the data
+     * @param writer the writer
+     */
     @Override
     protected void dump(@NotNull Map<?, ?> data, @NotNull Writer writer) {
+        ConfigurationMetrics.dump("xml", data, writer, this::serialize);
+    }
+
+    private void serialize(@NotNull Map<?, ?> data, @NotNull Writer writer) {
         try {
-            ContainerNode converted = convertToXML("root", data);
-            writer.write(converted.toHTML());
-        } catch (IOException e) {
+            BufferedWriter bufferedWriter = new BufferedWriter(writer);
+            XMLStreamWriter xmlWriter = OUTPUT_FACTORY.createXMLStreamWriter(bufferedWriter);
+            writeElement(xmlWriter, "root", data);
+            xmlWriter.flush();
+            bufferedWriter.flush();
+        } catch (IOException | XMLStreamException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Converts the given map to a format acceptable by {@link FileConfiguration}.
-     * Specifically, it removes every key prepended with {@link #PADDING} and uses
-     * {@link #tryListConversion(Map, Object, Map)} to convert collections.
+     * Reads the whole document of the given reader.
+     * If the root element is named <code>root</code>, its children will be the keys of the returned map.
+     * Otherwise, the map will contain the root element itself.
      *
-     * @param map the map
+     * @param reader the reader
+     * @return the map
+     * @throws XMLStreamException an exception thrown while reading
      */
-    static void parseMap(Map<Object, Object> map) {
-        for (Object key : new ArrayList<>(map.keySet())) {
-            if (key == null) continue;
-            Object val = map.get(key);
-            if (key.toString().matches(PADDING + "\\d+")) {
-                map.remove(key);
-                map.put(key.toString().substring(PADDING.length()), val);
-            }
-            if (val instanceof Map) {
-                Map<Object, Object> valmap = (Map<Object, Object>) val;
-                if (tryListConversion(map, key, valmap)) continue;
-                parseMap(valmap);
+    static @NotNull Map<Object, Object> readDocument(final @NotNull XMLStreamReader reader) throws XMLStreamException {
+        final Deque<Element> elements = new ArrayDeque<>();
+        while (reader.hasNext())
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    elements.push(new Element(reader.getLocalName(), reader.getAttributeValue(null, CODEC)));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (!elements.isEmpty()) elements.peek().appendText(reader.getText());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    Element element = elements.pop();
+                    if (!elements.isEmpty()) elements.peek().addChild(element.getName(), element.toValue());
+                    else if (element.getName().equals("root")) return element.toRootMap();
+                    else {
+                        Map<Object, Object> map = new LinkedHashMap<>();
+                        map.put(element.getName(), element.toValue());
+                        return map;
+                    }
+                    break;
             }
+        return new HashMap<>();
+    }
+
+    /**
+     * Converts the children of an element to the format acceptable by {@link FileConfiguration}.
+     * Every key prepended with {@link #PADDING} is renamed to its number.
+     * If there is a key named {@link #COLLECTION_ID} and the others match the format {@link #PADDING}&lt;number&gt;,
+     * the children will be converted to a list, where every child is placed at its index and missing indexes are null.
+     * Lists too sparse to be allocated (see {@link #isSparse(int, int)}) are kept as maps instead.
+     *
+     * @param children the children
+     * @return the map or the list
+     */
+    static @NotNull Object parseMap(final @NotNull Map<Object, Object> children) {
+        if (!children.containsKey(COLLECTION_ID) || children.containsKey(VALUE_CLASS)) return removePadding(children);
+        final int[] indexes = new int[children.size() - 1];
+        int size = 0;
+        int i = 0;
+        for (Object key : children.keySet()) {
+            if (key.equals(COLLECTION_ID)) continue;
+            final int index = getIndex(key.toString());
+            if (index == -1) return removePadding(children);
+            indexes[i++] = index;
+            if (index >= size) size = index + 1;
         }
+        if (isSparse(size, indexes.length)) return removePadding(children);
+        final List<Object> list = new ArrayList<>(Collections.nCopies(size, null));
+        i = 0;
+        for (Map.Entry<Object, Object> entry : children.entrySet())
+            if (!entry.getKey().equals(COLLECTION_ID)) list.set(indexes[i++], entry.getValue());
+        return list;
     }
 
     /**
-     * Analyzes the given value map.
-     * If it has a key named "collection" and the others matching the format {@link #PADDING}&lt;number&gt;,
-     * it will be interpreted as a list.
-     * This means that every value of the map will be added to a list, and finally that list will replace the value map in the original map.
-     *
-     * @param originalMap    the original map
-     * @param key    the key
-     * @param valueMap the value map
-     * @return the boolean
-     */
-    static boolean tryListConversion(Map<Object, Object> originalMap, Object key, Map<Object, Object> valueMap) {
-        if (valueMap.containsKey(VALUE_CLASS)) {
-            if (valueMap.keySet().stream()
-                    .filter(k -> !k.equals(VALUE_CLASS))
-                    .allMatch(k -> k.toString().matches(PADDING + "\\d+"))) {
-                for (Object k : new ArrayList<>(valueMap.keySet()))
-                    if (!k.equals(VALUE_CLASS)) {
-                        int num = Integer.parseInt(k.toString().substring(PADDING.length()));
-                        Object val = valueMap.get(k);
-                        if (val instanceof Map) {
-                            Map<Object, Object> m = (Map<Object, Object>) val;
-                            if (!tryListConversion(valueMap, k, m)) parseMap(m);
-                            val = valueMap.get(k);
-                        }
-                        valueMap.remove(k);
-                        valueMap.put(num + "", val);
-                    }
-                return true;
-            }
-        } else if (valueMap.containsKey(COLLECTION_ID)) {
-            if (valueMap.keySet().stream()
-                    .filter(k -> !k.equals(COLLECTION_ID))
-                    .allMatch(k -> k.toString().matches(PADDING + "\\d+"))) {
-                List<Object> list = new LinkedList<>();
-                for (Object k : valueMap.keySet())
-                    if (!k.equals(COLLECTION_ID)) {
-                        int num = Integer.parseInt(k.toString().substring(PADDING.length()));
-                        while (list.size() < num) list.add(null);
-                        Object val = valueMap.get(k);
-                        if (val instanceof Map) parseMap((Map<Object, Object>) val);
-                        list.add(val);
-                    }
-                originalMap.put(key, list);
-                return true;
-            }
+     * Checks if a list of the given size, with the given number of elements, has too many missing indexes to be created,
+     * which would let a small document like <code>&lt;pre999999999/&gt;</code> allocate a huge list.
+     *
+     * @param size     the size of the list
+     * @param elements the number of elements present
+     * @return true if it does
+     */
+    static boolean isSparse(final int size, final int elements) {
+        return size > 2 * elements + 16;
+    }
+
+    /**
+     * Renames every key prepended with {@link #PADDING} to its number.
+     *
+     * @param children the children
+     * @return the renamed map
+     */
+    static @NotNull Map<Object, Object> removePadding(final @NotNull Map<Object, Object> children) {
+        final Map<Object, Object> map = new LinkedHashMap<>(children.size() * 4 / 3 + 1);
+        for (Map.Entry<Object, Object> entry : children.entrySet()) {
+            final String key = entry.getKey().toString();
+            if (isPadded(key)) map.put(key.substring(PADDING.length()), entry.getValue());
+            else map.put(key, entry.getValue());
+        }
+        return map;
+    }
+
+    /**
+     * Gets the index of a key of the format {@link #PADDING}&lt;number&gt;.
+     *
+     * @param key the key
+     * @return the index, or -1 if the key is not of the format or the number is too big
+     */
+    static int getIndex(final @NotNull String key) {
+        if (!isPadded(key) || key.length() - PADDING.length() > 9) return -1;
+        return Integer.parseInt(key.substring(PADDING.length()));
+    }
+
+    /**
+     * Checks if the given key is of the format {@link #PADDING}&lt;number&gt;.
+     *
+     * @param key the key
+     * @return true if it is
+     */
+    static boolean isPadded(final @NotNull String key) {
+        return key.length() > PADDING.length() && key.startsWith(PADDING) && isDigits(key, PADDING.length());
+    }
+
+    static boolean isDigits(final @NotNull String string, final int start) {
+        for (int i = start; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            if (c < '0' || c > '9') return false;
         }
-        return false;
+        return true;
+    }
+
+    /**
+     * Creates the {@link INodeObject} view of this configuration from its current values.
+     *
+     * @return the root node
+     */
+    public @NotNull Node getRootNode() {
+        return convertToXML("root", toMap());
     }
 
     private ContainerNode convertToXML(String key, Object data) {
-        if (key.matches("\\d*")) key = PADDING + key;
+        if (isDigits(key, 0)) key = PADDING + key;
         ContainerNode node = new ContainerNode(key);
         if (data instanceof IConfiguration) data = ((IConfiguration) data).toMap();
         if (data instanceof Iterable) {
@@ -181,24 +262,192 @@ class XMLConfiguration extends FileConfiguration implements INodeObject {
                 node.addChild(convertToXML(PADDING + i, object));
                 i++;
             }
-            node.addChild(new Node("collection"));
+            node.addChild(new Node(COLLECTION_ID));
         } else if (data instanceof Map) {
             Map<?, ?> map = (Map<?, ?>) data;
             for (Object k : map.keySet())
                 node.addChild(convertToXML(k.toString(), map.get(k)));
         } else if (data != null) {
-            if (!ReflectionUtils.isPrimitiveOrWrapper(data.getClass()))
-                try {
-                    String tmp = SerializeUtils.serializeToBase64(data);
-                    if (tmp != null) data = tmp;
-                } catch (Exception ignored) {}
-            node.setText(data.toString());
+            ValueCodec<Object> codec = getCodec(data);
+            if (codec != null) node.setAttribute(CODEC, codec.getName());
+            node.setText(toText(data));
         }
         return node;
     }
 
+    /**
+     * Writes the given data as an element of the given name.
+     * Lists are written as elements named {@link #PADDING}&lt;index&gt;, followed by an empty {@link #COLLECTION_ID} element.
+     *
+     * @param writer the writer
+     * @param key    the name of the element
+     * @param data   the data
+     * @throws XMLStreamException an exception thrown while writing
+     */
+    static void writeElement(final @NotNull XMLStreamWriter writer, @NotNull String key, @Nullable Object data) throws XMLStreamException {
+        if (isDigits(key, 0)) key = PADDING + key;
+        writer.writeStartElement(key);
+        if (data instanceof IConfiguration) data = ((IConfiguration) data).toMap();
+        if (data instanceof Iterable) {
+            int i = 0;
+            for (Object object : (Iterable<?>) data) {
+                writeElement(writer, PADDING + i, object);
+                i++;
+            }
+            writer.writeEmptyElement(COLLECTION_ID);
+        } else if (data instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) data;
+            for (Map.Entry<?, ?> entry : map.entrySet())
+                writeElement(writer, entry.getKey().toString(), entry.getValue());
+        } else if (data != null) writeText(writer, data);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes the given value as the text of the current element,
+     * with the {@link #CODEC} attribute if it is encoded by a {@link ValueCodec}.
+     *
+     * @param writer the writer
+     * @param data   the data
+     * @throws XMLStreamException an exception thrown while writing
+     */
+    static void writeText(final @NotNull XMLStreamWriter writer, final @NotNull Object data) throws XMLStreamException {
+        ValueCodec<Object> codec = getCodec(data);
+        if (codec != null) {
+            writer.writeAttribute(CODEC, codec.getName());
+            writer.writeCharacters(codec.encode(data));
+        } else writer.writeCharacters(toText(data));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable ValueCodec<Object> getCodec(final @NotNull Object data) {
+        if (ReflectionUtils.isPrimitiveOrWrapper(data.getClass())) return null;
+        return (ValueCodec<Object>) ValueCodecs.getCodec(data.getClass());
+    }
+
+    /**
+     * Converts the given value to the text of its element.
+     * Values that are not primitives or wrappers are encoded with their {@link ValueCodec}.
+     * If they do not have one, they are serialized in Base64, if possible.
+     *
+     * @param data the data
+     * @return the text
+     */
+    private static @NotNull String toText(@NotNull Object data) {
+        ValueCodec<Object> codec = getCodec(data);
+        if (codec != null) return codec.encode(data);
+        if (!ReflectionUtils.isPrimitiveOrWrapper(data.getClass()))
+            try {
+                String tmp = SerializeUtils.serializeToBase64(data);
+                if (tmp != null) data = tmp;
+            } catch (Exception ignored) {}
+        return data.toString();
+    }
+
     @Override
     public String toHTML() {
-        return this.rootNode == null ? "" : this.rootNode.toHTML();
+        return getRootNode().toHTML();
+    }
+
+    /**
+     * Skips the whitespaces at the beginning of the given stream.
+     *
+     * @param stream the stream, which must support {@link InputStream#mark(int)}
+     * @return true if the stream contains nothing else
+     * @throws IOException an exception thrown while reading
+     */
+    static boolean skipWhitespaces(final @NotNull InputStream stream) throws IOException {
+        while (true) {
+            stream.mark(1);
+            final int read = stream.read();
+            if (read == -1) return true;
+            if (!Character.isWhitespace(read)) {
+                stream.reset();
+                return false;
+            }
+        }
+    }
+
+    private static @NotNull XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * An element being read by {@link #readDocument(XMLStreamReader)}.
+     */
+    private static final class Element {
+        @Getter
+        private final @NotNull String name;
+        private final @Nullable String codec;
+        private @Nullable Map<Object, Object> children;
+        private @Nullable Set<String> repeated;
+        private @Nullable StringBuilder text;
+
+        Element(final @NotNull String name, final @Nullable String codec) {
+            this.name = name;
+            this.codec = codec;
+        }
+
+        void appendText(final @NotNull String text) {
+            if (this.children != null) return;
+            if (this.text == null) this.text = new StringBuilder(text);
+            else this.text.append(text);
+        }
+
+        /**
+         * Adds a child to this element.
+         * Children with the same name are grouped in a list.
+         *
+         * @param name  the name
+         * @param value the value
+         */
+        @SuppressWarnings("unchecked")
+        void addChild(final @NotNull String name, final @Nullable Object value) {
+            if (this.children == null) {
+                this.children = new LinkedHashMap<>();
+                this.text = null;
+            }
+            if (!this.children.containsKey(name)) this.children.put(name, value);
+            else {
+                if (this.repeated == null) this.repeated = new HashSet<>();
+                if (this.repeated.add(name)) {
+                    List<Object> list = new ArrayList<>();
+                    list.add(this.children.get(name));
+                    this.children.put(name, list);
+                }
+                ((List<Object>) this.children.get(name)).add(value);
+            }
+        }
+
+        /**
+         * Converts this element to its final value: a text, a list or a map.
+         * An element whose children all have the same name is converted to the list of its children.
+         *
+         * @return the value
+         */
+        @Nullable Object toValue() {
+            if (this.children == null) {
+                if (this.text == null) return null;
+                String text = this.text.toString();
+                if (text.trim().isEmpty()) return null;
+                return this.codec == null ? text : ValueCodecs.decode(this.codec, text);
+            }
+            if (this.children.size() == 1 && this.repeated != null) return this.children.values().iterator().next();
+            return parseMap(this.children);
+        }
+
+        /**
+         * Converts the children of this element to the map of the whole document.
+         *
+         * @return the map
+         */
+        @NotNull Map<Object, Object> toRootMap() {
+            return this.children == null ? new LinkedHashMap<>() : removePadding(this.children);
+        }
     }
 }
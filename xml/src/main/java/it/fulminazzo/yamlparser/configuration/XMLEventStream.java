@@ -0,0 +1,445 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.util.*;
+
+import static it.fulminazzo.yamlparser.configuration.XMLConfiguration.*;
+
+/**
+ * The {@link ConfigurationEventStream} of XML files, based on {@link XMLStreamReader} and {@link XMLStreamWriter}.
+ * Documents are written in the same format of {@link XMLConfiguration}.
+ * <p>
+ * Like {@link XMLConfiguration}, children with the same name are grouped in a list,
+ * and an element whose children all have the same name is read as that list.
+ * Since this is known only when the next sibling starts, the events of every child are held until then,
+ * up to {@link #MAX_PENDING_EVENTS}: after that, they are passed to the handler as they are read.
+ * Therefore, some documents accepted by {@link XMLConfiguration} cannot be streamed:
+ * <ul>
+ *     <li>elements whose first child is named {@link XMLConfiguration#PADDING}&lt;number&gt; or
+ *     {@link XMLConfiguration#COLLECTION_ID} are always read as lists, and their children must be in ascending order,
+ *     without so many missing indexes that {@link XMLConfiguration#isSparse(int, int)} is already true before the end;</li>
+ *     <li>children with the same name must be consecutive;</li>
+ *     <li>a child with the same name of a previous sibling bigger than {@link #MAX_PENDING_EVENTS} is rejected,
+ *     as is a child following more than {@link #MAX_PENDING_EVENTS} events of siblings with the same name,
+ *     if its name is different.</li>
+ * </ul>
+ */
+final class XMLEventStream implements ConfigurationEventStream {
+    /**
+     * The maximum number of events of a child that are held until its next sibling starts.
+     */
+    static final int MAX_PENDING_EVENTS = 4096;
+    private static final int UNKNOWN = 0;
+    private static final int SECTION = 1;
+    private static final int LIST = 2;
+    private static final int SKIPPED = 3;
+    // All the children so far have the same name: the element might be their list or a section
+    private static final int GROUP = 4;
+    // The element is the list of its children, which must all have the same name
+    private static final int REPEATED = 5;
+    private static final Object START_SECTION = new Object();
+    private static final Object START_LIST = new Object();
+    private static final Object END = new Object();
+
+    @Override
+    public void read(final @NotNull InputStream input, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        final InputStream stream = input.markSupported() ? input : new BufferedInputStream(input);
+        if (skipWhitespaces(stream)) {
+            // Empty document
+            handler.startSection();
+            handler.end();
+            return;
+        }
+        try {
+            final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(stream);
+            try {
+                readDocument(reader, handler);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void readDocument(final @NotNull XMLStreamReader reader,
+                                     final @NotNull ConfigurationEventHandler handler) throws IOException, XMLStreamException {
+        final Deque<Element> elements = new ArrayDeque<>();
+        boolean wrapped = false;
+        while (reader.hasNext())
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT: {
+                    final String name = reader.getLocalName();
+                    final String codec = reader.getAttributeValue(null, CODEC);
+                    final Element parent = elements.peek();
+                    final Element element;
+                    if (parent == null) {
+                        handler.startSection();
+                        element = new Element(handler, codec);
+                        if (name.equals("root")) element.type = SECTION;
+                        else {
+                            // Like XMLConfiguration, the document contains the root element itself
+                            handler.key(name);
+                            wrapped = true;
+                        }
+                    } else element = new Element(parent.addChild(name, reader), codec);
+                    elements.push(element);
+                    break;
+                }
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (!elements.isEmpty()) elements.peek().appendText(reader.getText());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    elements.pop().end();
+                    if (elements.isEmpty()) {
+                        if (wrapped) handler.end();
+                        return;
+                    }
+                    break;
+            }
+        // No root element
+        handler.startSection();
+        handler.end();
+    }
+
+    @Override
+    public @NotNull ConfigurationEventHandler newWriter(final @NotNull Writer writer) throws IOException {
+        final Writer bufferedWriter = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        try {
+            return new Handler(bufferedWriter, OUTPUT_FACTORY.createXMLStreamWriter(bufferedWriter));
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * An element being read, whose type is decided by its children.
+     * The events of its last child are held by a {@link Pending} until the next child starts,
+     * so that children with the same name can be grouped.
+     */
+    private static final class Element {
+        private final @Nullable ConfigurationEventHandler handler;
+        private final @Nullable String codec;
+        private int type;
+        private @Nullable StringBuilder text;
+        private @Nullable Set<String> names;
+        private int size;
+        // The number of indexed children
+        private int indexes;
+        private @Nullable String last;
+        // The number of consecutive children named last
+        private int repeated;
+        private @Nullable Pending pending;
+
+        /**
+         * Instantiates a new Element.
+         *
+         * @param handler the handler of the events of this element, or null if it should be skipped
+         * @param codec   the codec of its text
+         */
+        private Element(final @Nullable ConfigurationEventHandler handler, final @Nullable String codec) {
+            this.handler = handler;
+            this.codec = codec;
+            this.type = handler == null ? SKIPPED : UNKNOWN;
+        }
+
+        private void appendText(final @NotNull String text) {
+            if (this.type != UNKNOWN) return;
+            if (this.text == null) this.text = new StringBuilder(text);
+            else this.text.append(text);
+        }
+
+        /**
+         * Starts a child with the given name, starting this element if it is the first.
+         *
+         * @param name   the name
+         * @param reader the reader, used for error messages
+         * @return the handler of the events of the child, or null if it should be skipped
+         * @throws IOException an exception thrown by the handler, or if the child cannot be streamed
+         */
+        private @Nullable ConfigurationEventHandler addChild(final @NotNull String name,
+                                                             final @NotNull XMLStreamReader reader) throws IOException {
+            final ConfigurationEventHandler handler = this.handler;
+            if (handler == null) return null;
+            if (this.type == UNKNOWN) {
+                this.text = null;
+                if (name.equals(COLLECTION_ID) || isPadded(name)) {
+                    this.type = LIST;
+                    handler.startList();
+                } else this.type = GROUP;
+            }
+            if (this.type == LIST && name.equals(COLLECTION_ID)) return null;
+            if (name.equals(this.last)) {
+                this.repeated++;
+                if (this.type == GROUP) return this.pending;
+                if (this.repeated > 2 || this.type == REPEATED) return handler;
+                final Pending pending = this.pending;
+                if (pending == null || !pending.isHeld()) throw invalid(reader, "Repeated element " + name);
+                handler.startList();
+                pending.release();
+                this.pending = null;
+                return handler;
+            }
+            if (this.type == REPEATED) throw invalid(reader, "Element " + name + " after repeated elements");
+            if (this.type == GROUP && this.last != null) startSection();
+            closeChild();
+            if (this.type == LIST) {
+                final int index = getIndex(name);
+                if (index < this.size) throw invalid(reader, "Unexpected element " + name + " in list");
+                if (isSparse(index + 1, ++this.indexes)) throw invalid(reader, "Index of element " + name + " too big");
+                for (; this.size < index; this.size++) handler.scalar(null);
+                this.size++;
+            } else if (this.type == SECTION) {
+                if (this.names == null) this.names = new HashSet<>();
+                if (!this.names.add(name)) throw invalid(reader, "Repeated element " + name);
+                handler.key(isPadded(name) ? name.substring(PADDING.length()) : name);
+            }
+            this.last = name;
+            this.repeated = 1;
+            this.pending = new Pending(handler);
+            return this.pending;
+        }
+
+        /**
+         * Decides that this element, whose children so far all have the same name, is a section.
+         *
+         * @throws IOException an exception thrown by the handler
+         */
+        private void startSection() throws IOException {
+            final ConfigurationEventHandler handler = Objects.requireNonNull(this.handler);
+            final String last = Objects.requireNonNull(this.last);
+            handler.startSection();
+            this.type = SECTION;
+            this.names = new HashSet<>();
+            this.names.add(last);
+            handler.key(last);
+            if (this.repeated > 1) {
+                handler.startList();
+                Objects.requireNonNull(this.pending).release();
+                this.pending = null;
+            }
+        }
+
+        /**
+         * Passes the held events of the last child to the handler, closing its list if it was repeated.
+         *
+         * @throws IOException an exception thrown by the handler
+         */
+        private void closeChild() throws IOException {
+            if (this.last == null) return;
+            if (this.repeated > 1) Objects.requireNonNull(this.handler).end();
+            else if (this.pending != null) this.pending.release();
+            this.pending = null;
+        }
+
+        /**
+         * Called when the last child has more than {@link #MAX_PENDING_EVENTS} events:
+         * since they are passed to the handler from now on, the type of this element must be decided.
+         *
+         * @throws IOException an exception thrown by the handler
+         */
+        private void overflow() throws IOException {
+            if (this.type != GROUP) return;
+            if (this.repeated == 1) startSection();
+            else {
+                Objects.requireNonNull(this.handler).startList();
+                this.type = REPEATED;
+            }
+        }
+
+        private void end() throws IOException {
+            final ConfigurationEventHandler handler = this.handler;
+            if (handler == null) return;
+            if (this.type == UNKNOWN) {
+                final String text = this.text == null ? null : this.text.toString();
+                if (text == null || text.trim().isEmpty()) handler.scalar(null);
+                else handler.scalar(this.codec == null ? text : ValueCodecs.decode(this.codec, text));
+                return;
+            }
+            if (this.type == GROUP) {
+                if (this.repeated > 1) {
+                    handler.startList();
+                    this.type = REPEATED;
+                } else startSection();
+            }
+            if (this.type == REPEATED) {
+                if (this.pending != null) this.pending.release();
+            } else closeChild();
+            handler.end();
+        }
+
+        private static @NotNull IOException invalid(final @NotNull XMLStreamReader reader, final @NotNull String message) {
+            final Location location = reader.getLocation();
+            return new IOException(String.format("%s cannot be streamed at line %s, column %s",
+                    message, location.getLineNumber(), location.getColumnNumber()));
+        }
+
+        /**
+         * Holds the events of the children named {@link #last}, until {@link #release()} or {@link #MAX_PENDING_EVENTS}.
+         * Then, it passes them to the handler of the element.
+         */
+        private final class Pending implements ConfigurationEventHandler {
+            private final @NotNull ConfigurationEventHandler handler;
+            private @Nullable List<Object> events = new ArrayList<>();
+
+            private Pending(final @NotNull ConfigurationEventHandler handler) {
+                this.handler = handler;
+            }
+
+            private boolean isHeld() {
+                return this.events != null;
+            }
+
+            @Override
+            public void startSection() throws IOException {
+                if (this.events == null) this.handler.startSection();
+                else add(START_SECTION);
+            }
+
+            @Override
+            public void key(final @NotNull String key) throws IOException {
+                if (this.events == null) this.handler.key(key);
+                else add(new Key(key));
+            }
+
+            @Override
+            public void scalar(final @Nullable Object value) throws IOException {
+                if (this.events == null) this.handler.scalar(value);
+                else add(value);
+            }
+
+            @Override
+            public void startList() throws IOException {
+                if (this.events == null) this.handler.startList();
+                else add(START_LIST);
+            }
+
+            @Override
+            public void end() throws IOException {
+                if (this.events == null) this.handler.end();
+                else add(END);
+            }
+
+            private void add(final @Nullable Object event) throws IOException {
+                final List<Object> events = Objects.requireNonNull(this.events);
+                events.add(event);
+                if (events.size() > MAX_PENDING_EVENTS) {
+                    overflow();
+                    release();
+                }
+            }
+
+            /**
+             * Passes the held events to the handler, and the next ones as soon as they are received.
+             *
+             * @throws IOException an exception thrown by the handler
+             */
+            private void release() throws IOException {
+                final List<Object> events = this.events;
+                if (events == null) return;
+                this.events = null;
+                for (Object event : events)
+                    if (event == START_SECTION) this.handler.startSection();
+                    else if (event == START_LIST) this.handler.startList();
+                    else if (event == END) this.handler.end();
+                    else if (event instanceof Key) this.handler.key(((Key) event).name);
+                    else this.handler.scalar(event);
+            }
+        }
+    }
+
+    /**
+     * A key held by a {@link Element.Pending}.
+     */
+    private static final class Key {
+        private final @NotNull String name;
+
+        private Key(final @NotNull String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Writes the events to a {@link XMLStreamWriter}, with the document section as the <code>root</code> element.
+     */
+    private static final class Handler implements ConfigurationEventHandler {
+        private final @NotNull Writer writer;
+        private final @NotNull XMLStreamWriter xmlWriter;
+        // The size of every open list, or -1 for sections
+        private final @NotNull Deque<int[]> containers = new ArrayDeque<>();
+        private @Nullable String key;
+
+        private Handler(final @NotNull Writer writer, final @NotNull XMLStreamWriter xmlWriter) {
+            this.writer = writer;
+            this.xmlWriter = xmlWriter;
+        }
+
+        @Override
+        public void startSection() throws IOException {
+            startElement(this.containers.isEmpty() ? "root" : nextName());
+            this.containers.push(new int[]{-1});
+        }
+
+        @Override
+        public void key(final @NotNull String key) {
+            this.key = isDigits(key, 0) ? PADDING + key : key;
+        }
+
+        @Override
+        public void scalar(final @Nullable Object value) throws IOException {
+            try {
+                this.xmlWriter.writeStartElement(nextName());
+                if (value != null) writeText(this.xmlWriter, value);
+                this.xmlWriter.writeEndElement();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void startList() throws IOException {
+            startElement(nextName());
+            this.containers.push(new int[]{0});
+        }
+
+        @Override
+        public void end() throws IOException {
+            try {
+                if (this.containers.pop()[0] != -1) this.xmlWriter.writeEmptyElement(COLLECTION_ID);
+                this.xmlWriter.writeEndElement();
+                if (!this.containers.isEmpty()) return;
+                this.xmlWriter.flush();
+                this.writer.flush();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void startElement(final @NotNull String name) throws IOException {
+            try {
+                this.xmlWriter.writeStartElement(name);
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private @NotNull String nextName() {
+            final int[] container = this.containers.peek();
+            if (container == null) throw new IllegalStateException("Values must be inside the document section");
+            if (container[0] != -1) return PADDING + container[0]++;
+            if (this.key == null) throw new IllegalStateException("Missing key for value");
+            final String name = this.key;
+            this.key = null;
+            return name;
+        }
+    }
+}
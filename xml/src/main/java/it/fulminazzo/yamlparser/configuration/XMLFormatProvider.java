@@ -0,0 +1,34 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link ConfigurationFormatProvider} of XML files, implemented by {@link XMLConfiguration}.
+ */
+public final class XMLFormatProvider implements ConfigurationFormatProvider {
+
+    @Override
+    public @NotNull String getName() {
+        return "xml";
+    }
+
+    @Override
+    public @NotNull Class<? extends FileConfiguration> getConfigurationClass() {
+        return XMLConfiguration.class;
+    }
+
+    @Override
+    public String @NotNull [] getExtensions() {
+        return new String[]{"xml"};
+    }
+
+    @Override
+    public @NotNull ConfigurationEventStream getEventStream() {
+        return new XMLEventStream();
+    }
+
+    @Override
+    public int getPriority() {
+        return 20;
+    }
+}
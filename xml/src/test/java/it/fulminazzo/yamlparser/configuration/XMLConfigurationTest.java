@@ -1,9 +1,226 @@
 package it.fulminazzo.yamlparser.configuration;
 
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class XMLConfigurationTest extends AFileConfigurationTest {
 
     public XMLConfigurationTest() {
         super("xml");
     }
 
-}
\ No newline at end of file
+    @Test
+    void testStreamingLoad() {
+        XMLConfiguration configuration = load("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<root>\n" +
+                "    <name>Fish &amp; chips</name>\n" +
+                "    <script><![CDATA[<b>bold</b>]]></script>\n" +
+                "    <empty/>\n" +
+                "    <items><item>a</item><item>b</item><item>c</item></items>\n" +
+                "    <padded><pre0>first</pre0><pre2>third</pre2><collection/></padded>\n" +
+                "    <section><pre1>one</pre1><key>value</key></section>\n" +
+                "</root>");
+        assertEquals("Fish & chips", configuration.getString("name"));
+        assertEquals("<b>bold</b>", configuration.getString("script"));
+        assertNull(configuration.getString("empty"));
+        assertEquals(Arrays.asList("a", "b", "c"), configuration.getStringList("items"));
+        assertEquals(Arrays.asList("first", null, "third"), configuration.getStringList("padded"));
+        assertEquals("one", configuration.getString("section.1"));
+        assertEquals("value", configuration.getString("section.key"));
+    }
+
+    @Test
+    void testStreamingLoadOfEmptyDocument() {
+        assertTrue(load("  \n\t ").getKeys().isEmpty());
+    }
+
+    @Test
+    void testStreamingDump() throws IOException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "Fish & chips");
+        data.put("list", Arrays.asList("a", null, 1));
+        data.put("empty", new LinkedHashMap<>());
+        XMLConfiguration configuration = load("");
+        StringWriter writer = new StringWriter();
+        configuration.dump(data, writer);
+        assertEquals("<root><name>Fish &amp; chips</name>" +
+                "<list><pre0>a</pre0><pre1></pre1><pre2>1</pre2><collection/></list>" +
+                "<empty></empty></root>", writer.toString());
+        XMLConfiguration loaded = load(writer.toString());
+        assertEquals("Fish & chips", loaded.getString("name"));
+        assertEquals(Arrays.asList("a", null, "1"), loaded.getStringList("list"));
+    }
+
+    @Test
+    void testValuesAreWrittenWithCodecs() {
+        UUID uuid = UUID.randomUUID();
+        StringWriter writer = new StringWriter();
+        load("").dump(Collections.singletonMap("uuid", uuid), writer);
+        assertEquals("<root><uuid codec=\"uuid\">" + uuid + "</uuid></root>", writer.toString());
+        assertEquals(uuid, load(writer.toString()).get("uuid", UUID.class));
+    }
+
+    @Test
+    void testRootNodeKeepsCodecs() {
+        UUID uuid = UUID.randomUUID();
+        XMLConfiguration configuration = load("");
+        configuration.set("uuid", uuid);
+        String html = configuration.toHTML();
+        assertTrue(html.contains("codec=\"uuid\""), html);
+        assertEquals(uuid, load(html).get("uuid", UUID.class));
+    }
+
+    @Test
+    void testUnorderedIndexesAreRestored() {
+        XMLConfiguration configuration = load("<root><list><pre3>d</pre3><pre0>a</pre0><collection/><pre1>b</pre1></list></root>");
+        assertEquals(Arrays.asList("a", "b", null, "d"), configuration.getStringList("list"));
+    }
+
+    @Test
+    void testDumpMatchesRootNode() {
+        List<XMLConfiguration> configurations = new ArrayList<>();
+        for (String name : Arrays.asList("list", "test-dot"))
+            configurations.add((XMLConfiguration) FileConfiguration.newConfiguration(new File("build/resources/test/" + name + ".xml")));
+        XMLConfiguration nested = load("");
+        nested.set("section.inner.value", "text");
+        nested.set("section.inner.list", Arrays.asList("a", "b"));
+        nested.set("section.sections", Arrays.asList(Collections.singletonMap("key", "value"), Collections.singletonList("c")));
+        nested.set("section.number", 10);
+        configurations.add(nested);
+        XMLConfiguration empty = load("");
+        empty.set("empty", new LinkedHashMap<>());
+        empty.set("nested.empty", new LinkedHashMap<>());
+        empty.set("list", new ArrayList<>());
+        configurations.add(empty);
+
+        for (XMLConfiguration configuration : configurations) {
+            StringWriter writer = new StringWriter();
+            configuration.dump(configuration.toMap(), writer);
+            assertEquals(configuration.getRootNode().toHTML(), writer.toString());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void testSparseIndexesAreNotAllocated() {
+        String xml = "<root><list><pre999999999>x</pre999999999><collection/></list></root>";
+        ConfigurationSection section = load(xml).getConfigurationSection("list");
+        assertNotNull(section);
+        assertEquals("x", section.getString("999999999"));
+        assertThrowsExactly(IOException.class, () -> new XMLEventStream().read(new ByteArrayInputStream(
+                xml.getBytes(StandardCharsets.UTF_8)), new ConfigurationEvents.TreeBuilder()));
+
+        assertEquals(Arrays.asList("a", null, null, "b"), load("<root><list><pre0>a</pre0><pre3>b</pre3><collection/></list></root>")
+                .getStringList("list"));
+    }
+
+    @Test
+    @Timeout(60)
+    void testMillionElementsList() {
+        final int size = 1_000_000;
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(i);
+        StringWriter writer = new StringWriter();
+        load("").dump(Collections.singletonMap("list", list), writer);
+
+        List<String> loaded = load(writer.toString()).getStringList("list");
+        assertEquals(size, loaded.size());
+        for (int i = 0; i < size; i += 99_999) assertEquals(String.valueOf(i), loaded.get(i));
+        assertEquals(String.valueOf(size - 1), loaded.get(size - 1));
+    }
+
+    @Test
+    @Timeout(60)
+    void testMillionElementsSection() {
+        final int size = 1_000_000;
+        StringBuilder builder = new StringBuilder("<root><section>");
+        for (int i = 0; i < size; i++) builder.append("<pre").append(i).append('>').append(i).append("</pre").append(i).append('>');
+        builder.append("</section></root>");
+
+        ConfigurationSection section = load(builder.toString()).getConfigurationSection("section");
+        assertNotNull(section);
+        assertEquals(size, section.getKeys().size());
+        assertEquals("999999", section.getString("999999"));
+    }
+
+    private static XMLConfiguration load(String content) {
+        return new XMLConfiguration(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testEventStreamRead() throws IOException, XMLStreamException {
+        String xml = "<root><a>1</a><b><c><pre0>x</pre0><pre2>y</pre2><collection/></c><d></d></b>" +
+                "<pre1>one</pre1><e><collection/></e></root>";
+        ConfigurationEvents.TreeBuilder builder = new ConfigurationEvents.TreeBuilder();
+        new XMLEventStream().read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), builder);
+        assertEquals(readDocument(xml), builder.getRoot());
+
+        builder = new ConfigurationEvents.TreeBuilder();
+        new XMLEventStream().read(new ByteArrayInputStream("  ".getBytes(StandardCharsets.UTF_8)), builder);
+        assertEquals(Collections.emptyMap(), builder.getRoot());
+
+        assertThrowsExactly(IOException.class, () -> new XMLEventStream().read(new ByteArrayInputStream(
+                "<root><a>1</a><b/><a>2</a></root>".getBytes(StandardCharsets.UTF_8)), new ConfigurationEvents.TreeBuilder()));
+    }
+
+    @Test
+    void testEventStreamGroupsRepeatedElements() throws IOException, XMLStreamException {
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < XMLEventStream.MAX_PENDING_EVENTS; i++) big.append("<item>").append(i).append("</item>");
+        for (String xml : Arrays.asList("<root><a>1</a><a>2</a></root>",
+                "<root><items><item>a</item><item>b</item></items><section><b>1</b><b>2</b><c>3</c></section></root>",
+                "<root><list><pre0>a</pre0><pre0>b</pre0><pre1>c</pre1><collection/></list></root>",
+                "<root><nested><i><k>1</k></i><i><k>2</k><k>3</k></i></nested></root>",
+                "<root><big>" + big + "</big><section><a/>" + big + "<b/></section></root>")) {
+            ConfigurationEvents.TreeBuilder builder = new ConfigurationEvents.TreeBuilder();
+            new XMLEventStream().read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), builder);
+            assertEquals(readDocument(xml), builder.getRoot());
+        }
+
+        for (String xml : Arrays.asList("<root><big><first>" + big + "</first><first/></big></root>",
+                "<root><big>" + big + "<item/><other/></big></root>"))
+            assertThrowsExactly(IOException.class, () -> new XMLEventStream().read(new ByteArrayInputStream(
+                    xml.getBytes(StandardCharsets.UTF_8)), new ConfigurationEvents.TreeBuilder()));
+    }
+
+    @Test
+    void testConvertRepeatedElements(@TempDir File directory) throws IOException {
+        File source = new File(directory, "source.xml");
+        File target = new File(directory, "target.xml");
+        Files.write(source.toPath(), ("<root><items><item>a</item><item>b</item></items>" +
+                "<section><value>1</value><value>2</value><name>text</name></section></root>").getBytes(StandardCharsets.UTF_8));
+        ConfigurationConverter.convert(source, target);
+        XMLConfiguration configuration = new XMLConfiguration(target);
+        assertEquals(Arrays.asList("a", "b"), configuration.getStringList("items"));
+        assertEquals(Arrays.asList("1", "2"), configuration.getStringList("section.value"));
+        assertEquals("text", configuration.getString("section.name"));
+    }
+
+    @Test
+    void testEventStreamWrite() throws IOException, XMLStreamException {
+        Map<Object, Object> data = new LinkedHashMap<>();
+        data.put("a", "1");
+        data.put("b", Collections.singletonMap("c", Arrays.asList("x", "y")));
+        data.put("1", "one");
+        data.put("empty", Collections.emptyList());
+        StringWriter writer = new StringWriter();
+        ConfigurationEvents.emit(data, new XMLEventStream().newWriter(writer));
+        assertEquals(data, readDocument(writer.toString()));
+    }
+
+    private static Map<Object, Object> readDocument(String content) throws XMLStreamException {
+        return XMLConfiguration.readDocument(XMLConfiguration.INPUT_FACTORY.createXMLStreamReader(new StringReader(content)));
+    }
+}
@@ -0,0 +1,94 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.util.List;
+
+/**
+ * A {@link Constructor} that reads sequences made only of plain decimal integers, or only of plain decimal floats,
+ * directly from their text into a {@link NumericList}, without constructing an object for every element.
+ * Integers are stored as ints when all of them fit, like SnakeYAML does for single values.
+ * Any other sequence, including ones with hexadecimal, octal, sexagesimal or special values, is constructed as usual.
+ */
+final class NumericListConstructor extends Constructor {
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * Instantiates a new Numeric list constructor.
+     *
+     * @param loaderOptions the loader options
+     */
+    NumericListConstructor(final @NotNull LoaderOptions loaderOptions) {
+        super(loaderOptions);
+    }
+
+    @Override
+    protected List<?> constructSequence(final @NotNull SequenceNode node) {
+        final List<Node> values = node.getValue();
+        if (values.isEmpty()) return super.constructSequence(node);
+        final Tag tag = values.get(0).getTag();
+        if (Tag.INT.equals(tag)) {
+            final NumericList.OfLong numbers = new NumericList.OfLong();
+            for (Node value : values) {
+                final String text = getText(value, tag);
+                if (text == null || !isInteger(text)) return super.constructSequence(node);
+                numbers.addLong(Long.parseLong(text));
+            }
+            return numbers.fitsInts() ? NumericList.ofInts(numbers.toIntArray()) : numbers;
+        } else if (Tag.FLOAT.equals(tag)) {
+            final NumericList.OfDouble numbers = new NumericList.OfDouble();
+            try {
+                for (Node value : values) {
+                    final String text = getText(value, tag);
+                    if (text == null || !isFloat(text)) return super.constructSequence(node);
+                    numbers.addDouble(Double.parseDouble(text));
+                }
+            } catch (NumberFormatException e) {
+                return super.constructSequence(node);
+            }
+            return numbers;
+        }
+        return super.constructSequence(node);
+    }
+
+    private static @Nullable String getText(final @NotNull Node node, final @NotNull Tag tag) {
+        if (!(node instanceof ScalarNode) || !tag.equals(node.getTag())) return null;
+        return ((ScalarNode) node).getValue();
+    }
+
+    /**
+     * Checks if the given text is a decimal integer, without leading zeros, that fits in a long.
+     */
+    private static boolean isInteger(final @NotNull String text) {
+        final int start = text.startsWith("-") || text.startsWith("+") ? 1 : 0;
+        final int digits = text.length() - start;
+        if (digits == 0 || digits > MAX_LONG_DIGITS) return false;
+        if (text.charAt(start) == '0' && digits > 1) return false;
+        for (int i = start; i < text.length(); i++) if (!isDigit(text.charAt(i))) return false;
+        return true;
+    }
+
+    /**
+     * Checks if the given text is a finite decimal float, without underscores.
+     */
+    private static boolean isFloat(final @NotNull String text) {
+        boolean digits = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (isDigit(c)) digits = true;
+            else if (c != '.' && c != 'e' && c != 'E' && c != '+' && c != '-') return false;
+        }
+        return digits;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
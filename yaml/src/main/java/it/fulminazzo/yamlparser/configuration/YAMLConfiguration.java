@@ -2,16 +2,26 @@ package it.fulminazzo.yamlparser.configuration;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
 
-import java.io.File;
-import java.io.InputStream;
-import java.io.Writer;
+import java.io.*;
+import java.lang.reflect.Field;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * An implementation of {@link FileConfiguration} to support YAML files.
  */
-class YAMLConfiguration extends FileConfiguration {
+class YAMLConfiguration extends ManagedFileConfiguration {
+    /**
+     * The {@link Yaml} instances, one per thread since they are not thread-safe.
+     */
+    static final ParserProvider<Yaml> PARSER = ParserProvider.perThread(YAMLConfiguration::newParser);
 
     /**
      * Instantiates a new Yaml configuration.
@@ -50,13 +60,86 @@ class YAMLConfiguration extends FileConfiguration {
         super(file, inputStream);
     }
 
+    /**
+     * Loads the given stream.
+     * In lazy mode (see {@link YAMLOptions#setLazyLoading(boolean)}), top-level mappings are only delimited,
+     * and parsed when first accessed.
+     * The data of a {@link PreloadedInputStream} is returned as it is.
+     *
+     * @param stream the stream
+     * @return the map
+     */
     @Override
     protected Map<?, ?> load(final @NotNull InputStream stream) {
-        return newYaml().load(stream);
+        return ConfigurationMetrics.load("yaml", stream, this::parse);
+    }
+
+    private Map<?, ?> parse(final @NotNull InputStream stream) {
+        if (stream instanceof PreloadedInputStream) return ((PreloadedInputStream) stream).getData();
+        final Reader reader = stream instanceof BufferInputStream ? ((BufferInputStream) stream).newReader() : null;
+        if (YAMLOptions.isLazyLoading())
+            try {
+                return YAMLLazyLoader.load(reader == null ? new UnicodeReader(stream) : reader);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        if (reader != null) return PARSER.get().load(reader);
+        return PARSER.get().load(stream);
     }
 
     @Override
     protected void dump(final @NotNull Map<?, ?> data, final @NotNull Writer writer) {
-        newYaml().dump(data, writer);
+        ConfigurationMetrics.dump("yaml", data, writer, this::serialize);
+    }
+
+    private void serialize(final @NotNull Map<?, ?> data, final @NotNull Writer writer) {
+        PARSER.get().dump(data, writer);
+    }
+
+    /**
+     * Creates a new yaml from the current {@link YAMLOptions},
+     * which reads lists of numbers in a {@link NumericList} through {@link NumericListConstructor}.
+     * When no option is set, it is the yaml of {@link FileConfiguration#newYaml()} with only its constructor replaced.
+     * To avoid rebuilding it, {@link #PARSER} should be used instead.
+     *
+     * @return the yaml
+     */
+    static @NotNull Yaml newParser() {
+        LoaderOptions loaderOptions = YAMLOptions.getLoaderOptions();
+        DumperOptions dumperOptions = YAMLOptions.getDumperOptions();
+        if (loaderOptions == null && dumperOptions == null) return withNumericLists(newYaml());
+        if (loaderOptions == null) loaderOptions = new LoaderOptions();
+        if (dumperOptions == null) {
+            dumperOptions = new DumperOptions();
+            dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        }
+        return new Yaml(new NumericListConstructor(loaderOptions), new Representer(dumperOptions), dumperOptions, loaderOptions);
+    }
+
+    /**
+     * Creates a copy of the given yaml, with the same options, representer and resolver,
+     * but with a {@link NumericListConstructor}.
+     * Since {@link Yaml} does not expose them, they are read by reflection:
+     * if that fails, the given yaml is returned as it is, and lists of numbers are boxed.
+     *
+     * @param yaml the yaml
+     * @return the copy
+     */
+    static @NotNull Yaml withNumericLists(final @NotNull Yaml yaml) {
+        try {
+            final LoaderOptions loaderOptions = getField(yaml, "loadingConfig", LoaderOptions.class);
+            return new Yaml(new NumericListConstructor(loaderOptions), getField(yaml, "representer", Representer.class),
+                    getField(yaml, "dumperOptions", DumperOptions.class), loaderOptions,
+                    getField(yaml, "resolver", Resolver.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return yaml;
+        }
+    }
+
+    private static <T> @NotNull T getField(final @NotNull Yaml yaml, final @NotNull String name,
+                                           final @NotNull Class<T> type) throws ReflectiveOperationException {
+        final Field field = Yaml.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return type.cast(Objects.requireNonNull(field.get(yaml), name));
     }
 }
@@ -0,0 +1,191 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.*;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The {@link ConfigurationEventStream} of YAML files, based on the events of the SnakeYAML parser and emitter.
+ * Scalars are resolved and constructed one by one, like {@link YAMLConfiguration} does,
+ * while collections are written in block style unless {@link YAMLOptions} sets another default flow style.
+ * <p>
+ * Aliases cannot be streamed, since they refer to nodes that were already passed to the handler:
+ * documents that use them should be loaded instead.
+ */
+final class YAMLEventStream implements ConfigurationEventStream {
+    private static final Resolver RESOLVER = new Resolver();
+
+    @Override
+    public void read(final @NotNull InputStream input, final @NotNull ConfigurationEventHandler handler) throws IOException {
+        final Reader reader = input instanceof BufferInputStream && ((BufferInputStream) input).hasCharacters() ?
+                ((BufferInputStream) input).newReader() : new UnicodeReader(input);
+        final LoaderOptions loaderOptions = YAMLOptions.getLoaderOptions();
+        final ScalarConstructor constructor = new ScalarConstructor(loaderOptions == null ? new LoaderOptions() : loaderOptions);
+        // For every open collection, whether it is a mapping
+        final Deque<Boolean> mappings = new ArrayDeque<>();
+        boolean key = false;
+        for (Event event : YAMLConfiguration.PARSER.get().parse(reader)) {
+            if (event instanceof MappingStartEvent || event instanceof SequenceStartEvent) {
+                final boolean mapping = event instanceof MappingStartEvent;
+                if (key) throw new IOException("Complex keys are not supported: " + event.getStartMark());
+                if (mappings.isEmpty() && !mapping)
+                    throw new IOException("Expected a mapping as document: " + event.getStartMark());
+                if (mapping) handler.startSection();
+                else handler.startList();
+                mappings.push(mapping);
+                key = mapping;
+            } else if (event instanceof CollectionEndEvent) {
+                mappings.pop();
+                handler.end();
+                if (mappings.isEmpty()) return;
+                key = mappings.peek();
+            } else if (event instanceof ScalarEvent) {
+                final Object value = constructor.construct((ScalarEvent) event);
+                if (mappings.isEmpty()) {
+                    if (value != null) throw new IOException("Expected a mapping as document: " + event.getStartMark());
+                    break;
+                }
+                if (key) handler.key(String.valueOf(value));
+                else handler.scalar(value);
+                key = !key && mappings.peek();
+            } else if (event instanceof AliasEvent)
+                throw new IOException("Aliases are not supported while streaming: " + event.getStartMark());
+        }
+        // Empty document
+        handler.startSection();
+        handler.end();
+    }
+
+    @Override
+    public @NotNull ConfigurationEventHandler newWriter(final @NotNull Writer writer) throws IOException {
+        DumperOptions dumperOptions = YAMLOptions.getDumperOptions();
+        if (dumperOptions == null) {
+            dumperOptions = new DumperOptions();
+            dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        }
+        return new Handler(writer, dumperOptions);
+    }
+
+    /**
+     * A {@link SafeConstructor} that constructs single scalars, without keeping track of them.
+     */
+    private static final class ScalarConstructor extends SafeConstructor {
+
+        private ScalarConstructor(final @NotNull LoaderOptions loaderOptions) {
+            super(loaderOptions);
+        }
+
+        private @Nullable Object construct(final @NotNull ScalarEvent event) {
+            final String value = event.getValue();
+            final Tag tag;
+            if (event.getTag() != null && !event.getTag().equals("!")) tag = new Tag(event.getTag());
+            else tag = RESOLVER.resolve(NodeId.scalar, value, event.getImplicit().canOmitTagInPlainScalar());
+            final ScalarNode node = new ScalarNode(tag, value, event.getStartMark(), event.getEndMark(), event.getScalarStyle());
+            return getConstructor(node).construct(node);
+        }
+    }
+
+    /**
+     * Writes the events to an {@link Emitter}.
+     * Values are represented with a {@link Representer}, like {@link YAMLConfiguration} does.
+     */
+    private static final class Handler implements ConfigurationEventHandler {
+        private final @NotNull Writer writer;
+        private final @NotNull Emitter emitter;
+        private final @NotNull Representer representer;
+        private final @NotNull DumperOptions.FlowStyle flowStyle;
+        private final @NotNull Deque<Boolean> mappings = new ArrayDeque<>();
+
+        private Handler(final @NotNull Writer writer, final @NotNull DumperOptions dumperOptions) throws IOException {
+            this.writer = writer;
+            this.emitter = new Emitter(writer, dumperOptions);
+            this.representer = new Representer(dumperOptions);
+            this.representer.setDefaultScalarStyle(dumperOptions.getDefaultScalarStyle());
+            this.representer.setDefaultFlowStyle(dumperOptions.getDefaultFlowStyle());
+            this.representer.setTimeZone(dumperOptions.getTimeZone());
+            final DumperOptions.FlowStyle flowStyle = dumperOptions.getDefaultFlowStyle();
+            this.flowStyle = flowStyle == DumperOptions.FlowStyle.AUTO ? DumperOptions.FlowStyle.BLOCK : flowStyle;
+            this.emitter.emit(new StreamStartEvent(null, null));
+            this.emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+        }
+
+        @Override
+        public void startSection() throws IOException {
+            this.emitter.emit(new MappingStartEvent(null, null, true, null, null, this.flowStyle));
+            this.mappings.push(true);
+        }
+
+        @Override
+        public void key(final @NotNull String key) throws IOException {
+            emitNode(this.representer.represent(key));
+        }
+
+        @Override
+        public void scalar(final @Nullable Object value) throws IOException {
+            emitNode(this.representer.represent(value));
+        }
+
+        @Override
+        public void startList() throws IOException {
+            this.emitter.emit(new SequenceStartEvent(null, null, true, null, null, this.flowStyle));
+            this.mappings.push(false);
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (this.mappings.pop()) this.emitter.emit(new MappingEndEvent(null, null));
+            else this.emitter.emit(new SequenceEndEvent(null, null));
+            if (!this.mappings.isEmpty()) return;
+            this.emitter.emit(new DocumentEndEvent(null, null, false));
+            this.emitter.emit(new StreamEndEvent(null, null));
+            this.writer.flush();
+        }
+
+        /**
+         * Emits the given node, which is a scalar unless the value was an object represented as a collection.
+         *
+         * @param node the node
+         * @throws IOException an exception thrown while writing
+         */
+        private void emitNode(final @NotNull Node node) throws IOException {
+            final String tag = node.getTag().getValue();
+            if (node instanceof ScalarNode) {
+                final ScalarNode scalar = (ScalarNode) node;
+                final ImplicitTuple implicit = new ImplicitTuple(
+                        node.getTag().equals(RESOLVER.resolve(NodeId.scalar, scalar.getValue(), true)),
+                        node.getTag().equals(RESOLVER.resolve(NodeId.scalar, scalar.getValue(), false)));
+                this.emitter.emit(new ScalarEvent(null, tag, implicit, scalar.getValue(), null, null, scalar.getScalarStyle()));
+            } else if (node instanceof SequenceNode) {
+                final SequenceNode sequence = (SequenceNode) node;
+                final boolean implicit = node.getTag().equals(RESOLVER.resolve(NodeId.sequence, null, true));
+                this.emitter.emit(new SequenceStartEvent(null, tag, implicit, null, null, sequence.getFlowStyle()));
+                for (Node child : sequence.getValue()) emitNode(child);
+                this.emitter.emit(new SequenceEndEvent(null, null));
+            } else {
+                final MappingNode mapping = (MappingNode) node;
+                final boolean implicit = node.getTag().equals(RESOLVER.resolve(NodeId.mapping, null, true));
+                this.emitter.emit(new MappingStartEvent(null, tag, implicit, null, null, mapping.getFlowStyle()));
+                for (NodeTuple tuple : mapping.getValue()) {
+                    emitNode(tuple.getKeyNode());
+                    emitNode(tuple.getValueNode());
+                }
+                this.emitter.emit(new MappingEndEvent(null, null));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link ConfigurationFormatProvider} of YAML files, implemented by {@link YAMLConfiguration}.
+ */
+public final class YAMLFormatProvider implements ConfigurationFormatProvider {
+
+    @Override
+    public @NotNull String getName() {
+        return "yaml";
+    }
+
+    @Override
+    public @NotNull Class<? extends FileConfiguration> getConfigurationClass() {
+        return YAMLConfiguration.class;
+    }
+
+    @Override
+    public String @NotNull [] getExtensions() {
+        return new String[]{"yml", "yaml"};
+    }
+
+    @Override
+    public @NotNull ConfigurationEventStream getEventStream() {
+        return new YAMLEventStream();
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+}
@@ -0,0 +1,194 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.*;
+
+/**
+ * Loads a YAML document in lazy mode.
+ * The lines of the document are scanned to split it in its top-level entries:
+ * entries whose value is a block mapping are stored as {@link LazySection}s, that parse their lines when first accessed,
+ * while the other entries are parsed immediately, all together.
+ * <p>
+ * Only plain block mappings can be split: documents with anchors, aliases, merge keys, directives,
+ * multiple documents or complex top-level keys are parsed eagerly instead.
+ * The same happens to mappings that are not indented consistently, so that their errors are thrown while loading.
+ */
+final class YAMLLazyLoader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final Resolver RESOLVER = new Resolver();
+
+    private final @NotNull String text;
+    private final @NotNull Map<String, Object> entries = new LinkedHashMap<>();
+    private final @NotNull StringBuilder eager = new StringBuilder();
+
+    private YAMLLazyLoader(final @NotNull String text) {
+        this.text = text;
+    }
+
+    /**
+     * Loads the document of the given reader.
+     *
+     * @param reader the reader
+     * @return the map, or null if the document is empty
+     * @throws IOException an exception thrown while reading
+     */
+    static @Nullable Map<?, ?> load(final @NotNull Reader reader) throws IOException {
+        final String text = readFully(reader);
+        final Map<String, Object> data = new YAMLLazyLoader(text).split();
+        if (data == null) return YAMLConfiguration.PARSER.get().load(text);
+        return data;
+    }
+
+    /**
+     * Splits the document in its top-level entries.
+     *
+     * @return the entries, or null if the document cannot be split
+     */
+    private @Nullable Map<String, Object> split() {
+        final List<int[]> blocks = new ArrayList<>();
+        final List<String> keys = new ArrayList<>();
+        boolean content = false;
+        int blockStart = -1;
+        for (int start = 0; start < this.text.length(); ) {
+            int end = this.text.indexOf('\n', start);
+            if (end == -1) end = this.text.length();
+            final String line = this.text.substring(start, end);
+            final String trimmed = line.trim();
+            if (!isSimpleLine(trimmed)) return null;
+            if (!trimmed.isEmpty() && trimmed.charAt(0) != '#' && !Character.isWhitespace(line.charAt(0))) {
+                if (trimmed.equals("---") && !content) {
+                    start = end + 1;
+                    continue;
+                }
+                final String key = getKey(trimmed);
+                if (key == null || keys.contains(key)) return null;
+                if (blockStart != -1) blocks.add(new int[]{blockStart, start});
+                keys.add(key);
+                blockStart = start;
+            }
+            if (!trimmed.isEmpty() && trimmed.charAt(0) != '#') content = true;
+            start = end + 1;
+        }
+        if (blockStart == -1) return null;
+        blocks.add(new int[]{blockStart, this.text.length()});
+
+        for (int i = 0; i < blocks.size(); i++) {
+            final int[] block = blocks.get(i);
+            final String key = keys.get(i);
+            if (isMappingBlock(block[0], block[1])) {
+                if (!isIndentationValid(block[0], block[1])) return null;
+                this.entries.put(key, new LazySection(CharBuffer.wrap(this.text, block[0], block[1]),
+                        () -> parse(block[0], block[1])));
+            } else {
+                this.entries.put(key, null);
+                this.eager.append(this.text, block[0], block[1]);
+                if (block[1] == this.text.length()) this.eager.append('\n');
+            }
+        }
+        if (this.eager.length() > 0) {
+            final Map<?, ?> values = YAMLConfiguration.PARSER.get().load(this.eager.toString());
+            if (values != null)
+                for (Map.Entry<?, ?> entry : values.entrySet()) this.entries.put(entry.getKey().toString(), entry.getValue());
+        }
+        return this.entries;
+    }
+
+    /**
+     * Checks if the block of the given entry has an empty value on its first line,
+     * followed by an indented mapping.
+     */
+    private boolean isMappingBlock(final int start, final int end) {
+        int lineEnd = this.text.indexOf('\n', start);
+        if (lineEnd == -1 || lineEnd >= end) return false;
+        final String header = this.text.substring(start, lineEnd).trim();
+        final String value = header.substring(header.indexOf(':') + 1).trim();
+        if (!value.isEmpty() && value.charAt(0) != '#') return false;
+        for (int lineStart = lineEnd + 1; lineStart < end; lineStart = lineEnd + 1) {
+            lineEnd = this.text.indexOf('\n', lineStart);
+            if (lineEnd == -1 || lineEnd > end) lineEnd = end;
+            final String line = this.text.substring(lineStart, lineEnd).trim();
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            return line.charAt(0) != '-' && getKey(line) != null;
+        }
+        return false;
+    }
+
+    /**
+     * Checks that the lines of the mapping of the given entry are not indented with tabs,
+     * nor less than its first key, and that the ones as indented as that key are keys too.
+     */
+    private boolean isIndentationValid(final int start, final int end) {
+        int indentation = -1;
+        for (int lineStart = this.text.indexOf('\n', start) + 1; lineStart < end; ) {
+            int lineEnd = this.text.indexOf('\n', lineStart);
+            if (lineEnd == -1 || lineEnd > end) lineEnd = end;
+            final String line = this.text.substring(lineStart, lineEnd);
+            final String trimmed = line.trim();
+            lineStart = lineEnd + 1;
+            if (trimmed.isEmpty() || trimmed.charAt(0) == '#') continue;
+            int spaces = 0;
+            while (line.charAt(spaces) == ' ') spaces++;
+            if (line.charAt(spaces) == '\t') return false;
+            if (indentation == -1) indentation = spaces;
+            if (spaces < indentation || spaces == indentation && getKey(trimmed) == null) return false;
+        }
+        return true;
+    }
+
+    private @NotNull Map<?, ?> parse(final int start, final int end) {
+        final Yaml yaml = YAMLConfiguration.PARSER.get();
+        final Map<?, ?> block = yaml.load(this.text.substring(start, end));
+        final Object value = block == null || block.isEmpty() ? null : block.values().iterator().next();
+        if (!(value instanceof Map)) throw new IllegalStateException("Lazy section is not a mapping: " + block);
+        return (Map<?, ?>) value;
+    }
+
+    /**
+     * Gets the key of the given line, if it starts with a plain key resolved as a string.
+     *
+     * @param line the trimmed line
+     * @return the key, or null if it is not a simple key
+     */
+    private static @Nullable String getKey(final @NotNull String line) {
+        if ("-?[{'\"!&*|>%@`,".indexOf(line.charAt(0)) != -1) return null;
+        int colon = line.indexOf(':');
+        while (colon != -1 && colon + 1 < line.length() && !Character.isWhitespace(line.charAt(colon + 1)))
+            colon = line.indexOf(':', colon + 1);
+        if (colon <= 0) return null;
+        final String key = line.substring(0, colon).trim();
+        if (key.indexOf('#') != -1 || !Tag.STR.equals(RESOLVER.resolve(NodeId.scalar, key, true))) return null;
+        return key;
+    }
+
+    /**
+     * Checks that the given line does not use anchors, aliases, merge keys, directives or multiple documents.
+     *
+     * @param line the trimmed line
+     */
+    private static boolean isSimpleLine(final @NotNull String line) {
+        if (line.isEmpty() || line.charAt(0) == '#') return true;
+        if (line.charAt(0) == '%' || line.startsWith("...") || line.startsWith("<<")) return false;
+        String value = line.startsWith("- ") ? line.substring(2).trim() : line;
+        final int colon = value.indexOf(": ");
+        if (colon != -1) value = value.substring(colon + 1).trim();
+        return value.isEmpty() || value.charAt(0) != '&' && value.charAt(0) != '*' && !value.contains("<<:");
+    }
+
+    private static @NotNull String readFully(final @NotNull Reader reader) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) builder.append(buffer, 0, read);
+        if (builder.length() > 0 && builder.charAt(0) == '\uFEFF') builder.deleteCharAt(0);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package it.fulminazzo.yamlparser.configuration;
+
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+
+/**
+ * The options used by every YAML configuration.
+ * They should be set once, before loading any file: changing them discards the parsers of every thread.
+ * When no option is set, the parsers use the default options of SnakeYAML, dumping in block style.
+ */
+public final class YAMLOptions {
+    private static volatile @Nullable LoaderOptions loaderOptions;
+    private static volatile @Nullable DumperOptions dumperOptions;
+    private static volatile boolean lazyLoading = false;
+
+    private YAMLOptions() {}
+
+    /**
+     * Gets the options used when loading, like the maximum document size or the maximum number of aliases.
+     *
+     * @return the loader options
+     */
+    public static @Nullable LoaderOptions getLoaderOptions() {
+        return loaderOptions;
+    }
+
+    /**
+     * Sets the options used when loading.
+     * Set to null to restore the default ones.
+     *
+     * @param loaderOptions the loader options
+     */
+    public static void setLoaderOptions(final @Nullable LoaderOptions loaderOptions) {
+        YAMLOptions.loaderOptions = loaderOptions;
+        YAMLConfiguration.PARSER.reset();
+    }
+
+    /**
+     * Gets the options used when saving, like the indentation or the flow style.
+     *
+     * @return the dumper options
+     */
+    public static @Nullable DumperOptions getDumperOptions() {
+        return dumperOptions;
+    }
+
+    /**
+     * Sets the options used when saving.
+     * Set to null to restore the default ones.
+     *
+     * @param dumperOptions the dumper options
+     */
+    public static void setDumperOptions(final @Nullable DumperOptions dumperOptions) {
+        YAMLOptions.dumperOptions = dumperOptions;
+        YAMLConfiguration.PARSER.reset();
+    }
+
+    /**
+     * Checks if top-level mappings are parsed only when first accessed.
+     *
+     * @return true if they are
+     */
+    public static boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Sets whether top-level mappings should be parsed only when first accessed.
+     * This speeds up loading very large documents of which only a few sections are used.
+     * By default, the whole document is parsed when loaded.
+     * <p>
+     * While loading, only the indentation of the mappings is checked: their lines cannot be indented with tabs
+     * or less than their first key, and the lines as indented as it must be keys.
+     * Any other syntax error inside a mapping is only thrown when it is first accessed,
+     * or by {@link ManagedFileConfiguration#save()}, which parses every mapping before writing.
+     *
+     * @param lazyLoading true to parse them lazily
+     * @see LazySection
+     */
+    public static void setLazyLoading(final boolean lazyLoading) {
+        YAMLOptions.lazyLoading = lazyLoading;
+    }
+}
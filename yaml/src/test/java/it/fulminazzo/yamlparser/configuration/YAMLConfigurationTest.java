@@ -1,9 +1,106 @@
 package it.fulminazzo.yamlparser.configuration;
 
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class YAMLConfigurationTest extends AFileConfigurationTest {
 
     public YAMLConfigurationTest() {
         super("yml");
     }
 
-}
\ No newline at end of file
+    @Test
+    void testNumericLists() {
+        YAMLConfiguration config = new YAMLConfiguration(new ByteArrayInputStream(("ints: [1, -2, 3]\n" +
+                "longs: [1, 10000000000]\ndoubles:\n  - 0.5\n  - 1.5e3\nmixed: [1, 2.5]\noctal: [1, 012]\n")
+                .getBytes(StandardCharsets.UTF_8)));
+        assertInstanceOf(NumericList.OfInt.class, config.get("ints"));
+        assertEquals(Arrays.asList(1, -2, 3), config.get("ints"));
+        assertInstanceOf(NumericList.OfLong.class, config.get("longs"));
+        assertArrayEquals(new long[]{1, 10000000000L}, config.getLongArray("longs"));
+        assertInstanceOf(NumericList.OfDouble.class, config.get("doubles"));
+        assertArrayEquals(new double[]{0.5, 1500}, config.getDoubleArray("doubles"));
+        assertEquals(Arrays.asList(1, 2.5), config.get("mixed"));
+        assertEquals(Arrays.asList(1, 10), config.get("octal"));
+
+        StringWriter writer = new StringWriter();
+        config.dump(config.toMap(), writer);
+        assertTrue(writer.toString().contains("ints:\n- 1\n- -2\n- 3\n"));
+    }
+
+    @Test
+    void testDefaultParserKeepsFileConfigurationSettings() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("section", Collections.singletonMap("list", Arrays.asList(1, 2)));
+        data.put("text", "value");
+        assertEquals(FileConfiguration.newYaml().dump(data), YAMLConfiguration.newParser().dump(data));
+        assertInstanceOf(NumericList.OfInt.class, YAMLConfiguration.newParser().<Map<?, ?>>load("list: [1, 2]").get("list"));
+    }
+
+    @Test
+    void testLazyLoading() {
+        YAMLOptions.setLazyLoading(true);
+        try {
+            YAMLConfiguration config = new YAMLConfiguration(new ByteArrayInputStream(("# Header\nname: lazy\n" +
+                    "big:\n  # comment\n  value: 1\n  inner:\n    text: \"a: b\"\n" +
+                    "list:\n  - 1\n  - 2\nlast: true").getBytes(StandardCharsets.UTF_8)));
+            assertTrue(config.hasLazySections());
+            assertEquals("lazy", config.getString("name"));
+            assertEquals(Arrays.asList(1, 2), config.get("list"));
+            assertEquals(true, config.getBoolean("last"));
+            assertInstanceOf(LazySection.class, config.toMap().get("big"));
+            assertEquals("a: b", config.getString("big.inner.text"));
+            assertEquals(1, config.getInteger("big.value"));
+            assertFalse(config.hasLazySections());
+            assertFalse(config.isDirty());
+
+            YAMLConfiguration aliases = new YAMLConfiguration(new ByteArrayInputStream(
+                    "base: &base\n  value: 1\nother:\n  <<: *base\n".getBytes(StandardCharsets.UTF_8)));
+            assertFalse(aliases.hasLazySections());
+            assertEquals(1, aliases.getInteger("other.value"));
+
+            for (String yaml : Arrays.asList("big:\n\tvalue: 1\n", "big:\n  value: 1\n  - 2\n"))
+                assertThrows(RuntimeException.class, () -> new YAMLConfiguration(
+                        new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8))), yaml);
+        } finally {
+            YAMLOptions.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    void testEventStreamRead() throws IOException {
+        String yaml = "a: 1\nb:\n  c: [1, 2.5, x]\n  d: ~\n  e: {}\n'true': yes\nf:\n- [true]\n- g: 2001-12-14\n";
+        ConfigurationEvents.TreeBuilder builder = new ConfigurationEvents.TreeBuilder();
+        new YAMLEventStream().read(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), builder);
+        assertEquals(YAMLConfiguration.PARSER.get().load(yaml), builder.getRoot());
+
+        builder = new ConfigurationEvents.TreeBuilder();
+        new YAMLEventStream().read(new ByteArrayInputStream(new byte[0]), builder);
+        assertEquals(Collections.emptyMap(), builder.getRoot());
+
+        assertThrowsExactly(IOException.class, () -> new YAMLEventStream().read(new ByteArrayInputStream(
+                "a: &anchor 1\nb: *anchor\n".getBytes(StandardCharsets.UTF_8)), new ConfigurationEvents.TreeBuilder()));
+    }
+
+    @Test
+    void testEventStreamWrite() throws IOException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("a", 1);
+        data.put("b", Collections.singletonMap("c", Arrays.asList(1, 2.5d, "x", "true")));
+        data.put("empty", Collections.emptyList());
+        data.put("null", null);
+        StringWriter writer = new StringWriter();
+        ConfigurationEvents.emit(data, new YAMLEventStream().newWriter(writer));
+        assertEquals(data, YAMLConfiguration.PARSER.get().load(writer.toString()));
+    }
+}